@@ -0,0 +1,41 @@
+package simulator.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Entry point of the benchmark jar. Runs JMH with the given arguments, writing the results as JSON to
+ * {@code benchmark-results/<timestamp>.json} unless a result format ({@code -rf}) or file ({@code -rff}) is given, so every run leaves a machine-readable
+ * record which can be tracked over time.
+ */
+public final class BenchmarkMain {
+
+    private static final String RESULTS_DIRECTORY = "benchmark-results";
+
+    public static void main(final String[] args) throws Exception {
+        final boolean resultsConfigured = Arrays.asList(args).contains("-rf") || Arrays.asList(args).contains("-rff");
+        final boolean listingOnly = Arrays.asList(args).contains("-l") || Arrays.asList(args).contains("-h") || Arrays.asList(args).contains("-lp");
+        if (resultsConfigured || listingOnly) {
+            Main.main(args);
+            return;
+        }
+        final File resultsDirectory = new File(RESULTS_DIRECTORY);
+        if (!resultsDirectory.isDirectory() && !resultsDirectory.mkdirs()) {
+            throw new IllegalStateException("Cannot create the results directory " + resultsDirectory.getAbsolutePath());
+        }
+        final File results = new File(resultsDirectory, new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json");
+        final String[] jsonArgs = Arrays.copyOf(args, args.length + 4);
+        jsonArgs[args.length] = "-rf";
+        jsonArgs[args.length + 1] = "json";
+        jsonArgs[args.length + 2] = "-rff";
+        jsonArgs[args.length + 3] = results.getPath();
+        Main.main(jsonArgs);
+    }
+
+    private BenchmarkMain() {
+    }
+}
@@ -0,0 +1,123 @@
+package simulator.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import simulator.input.Order;
+import simulator.input.OrderEncoder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding a batch of orders with {@link OrderEncoder} against the previous StringBuilder and BufferedWriter path. Both write to a stream discarding its
+ * input, so only the encoding cost is measured; the {@code bytes} counter reports the encoded throughput in bytes per second.
+ * <p/>
+ * The previous path is reproduced as it was when orders held their prices as doubles: each price is formatted with {@link Double#toString(double)} from a double
+ * prepared up front, and the text is encoded by an OutputStreamWriter in the platform default charset.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderEncodingBenchmark {
+
+    @Param({"1000"})
+    public int batchSize;
+
+    private List<Order> orders;
+    private double[] prices;
+    private OrderEncoder encoder;
+    private BufferedWriter writer;
+    private final CountingOutputStream sink = new CountingOutputStream();
+
+    @Setup
+    public void setUp() {
+        final SplittableRandom random = new SplittableRandom(42);
+        orders = new ArrayList<>(batchSize);
+        prices = new double[batchSize];
+        for (int index = 0; index < batchSize; index++) {
+            prices[index] = (10_000 + random.nextInt(-500, 500)) / 100.0;
+            orders.add(Order.Builder.create()
+                    .withSymbol("SYM" + random.nextInt(100))
+                    .withAction(random.nextBoolean() ? "BUY" : "SELL")
+                    .withPrice(prices[index])
+                    .withQuantity(1 + random.nextInt(1000))
+                    .build());
+        }
+        encoder = new OrderEncoder(sink);
+        writer = new BufferedWriter(new OutputStreamWriter(sink));
+    }
+
+    @Benchmark
+    public void orderEncoder(final EncodedBytes counter) throws IOException {
+        final long before = sink.count;
+        encoder.encode(orders);
+        encoder.flush();
+        counter.bytes += sink.count - before;
+    }
+
+    @Benchmark
+    public void stringBuilder(final EncodedBytes counter) throws IOException {
+        final long before = sink.count;
+        final StringBuilder commandBuilder = new StringBuilder();
+        for (int index = 0; index < orders.size(); index++) {
+            final Order order = orders.get(index);
+            commandBuilder.append(order.getSymbol()).append('|').append(order.getAction()).append('|').append(Double.toString(prices[index])).append('|').append(order.getQuantity()).append('\n');
+        }
+        writer.write(commandBuilder.toString());
+        writer.flush();
+        counter.bytes += sink.count - before;
+    }
+
+    /**
+     * Per-iteration count of encoded bytes, reported by JMH as a rate.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class EncodedBytes {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    /**
+     * OutputStream discarding its input, counting the bytes written.
+     */
+    static final class CountingOutputStream extends OutputStream {
+
+        long count;
+
+        @Override
+        public void write(final int value) {
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) {
+            count += length;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package simulator.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import simulator.ExchangeSimulator;
+import simulator.SimulationResults;
+import simulator.SimulatorPool;
+import simulator.completion.ExpectedTradeCountCompletion;
+import simulator.input.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures full round trips through {@link ExchangeSimulator#processOrders(List, simulator.completion.CompletionStrategy)}: encoding a batch, writing it to the
+ * simulator's stdin, waiting for its trades and parsing them. Each batch consists of crossing BUY/SELL pairs, so every pair produces exactly one trade and the
+ * books are empty again after each batch; completion waits for the expected trade count rather than a quiet period.
+ * <p/>
+ * By default the simulator is the {@link ExchangeSimulator#REFERENCE_PROCESS_ENGINE reference stand-in process}, a separate JVM on this benchmark's classpath, so
+ * the benchmark runs without the exchange-sim binary; pass {@code -p engine=external} to measure the real program. The {@code orders} counter reports orders per
+ * second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RoundTripBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int batchSize;
+
+    @Param({ExchangeSimulator.REFERENCE_PROCESS_ENGINE})
+    public String engine;
+
+    private List<Order> orders;
+    private ExpectedTradeCountCompletion completion;
+    private SimulatorPool pool;
+    private ExchangeSimulator simulator;
+
+    @Setup
+    public void setUp() {
+        final SplittableRandom random = new SplittableRandom(42);
+        orders = new ArrayList<>(batchSize);
+        for (int pair = 0; pair < batchSize / 2; pair++) {
+            final String symbol = "SYM" + random.nextInt(100);
+            final double price = (10_000 + random.nextInt(-500, 500)) / 100.0;
+            final long quantity = 1 + random.nextInt(1000);
+            orders.add(Order.Builder.create().withSymbol(symbol).withAction("SELL").withPrice(price).withQuantity(quantity).build());
+            orders.add(Order.Builder.create().withSymbol(symbol).withAction("BUY").withPrice(price).withQuantity(quantity).build());
+        }
+        completion = new ExpectedTradeCountCompletion(batchSize / 2);
+        System.setProperty(ExchangeSimulator.ENGINE_PROPERTY, engine);
+        pool = SimulatorPool.Builder.create().withPoolSize(0).build();
+        simulator = pool.acquire();
+        awaitStartup();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.release(simulator);
+        pool.close();
+    }
+
+    @Benchmark
+    public SimulationResults roundTrip(final ProcessedOrders counter) {
+        final SimulationResults results = simulator.processOrders(orders, completion);
+        counter.orders += batchSize;
+        return results;
+    }
+
+    /**
+     * Sends a single crossing pair until its trade comes back, so the start-up of the simulator (a whole JVM for the stand-in) stays out of the first
+     * iteration.
+     */
+    private void awaitStartup() {
+        final List<Order> pair = orders.subList(0, 2);
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (simulator.processOrders(pair, new ExpectedTradeCountCompletion(1)).getTradeBatch().size() == 0) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("The " + engine + " simulator did not start within 30 seconds.");
+            }
+        }
+    }
+
+    /**
+     * Per-iteration count of orders processed, reported by JMH as a rate.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class ProcessedOrders {
+
+        public long orders;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            orders = 0;
+        }
+    }
+}
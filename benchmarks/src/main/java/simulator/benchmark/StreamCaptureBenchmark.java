@@ -0,0 +1,55 @@
+package simulator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import simulator.StreamCapture;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the capture throughput of the simulator's stream reader through {@link StreamCapture}: reading a stream of trade output in chunks, splitting it into
+ * lines, publishing them to its line buffer and draining them as bytes. The stream is read on the benchmark thread, so the figure excludes any pipe or process
+ * cost.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StreamCaptureBenchmark {
+
+    private static final int LINE_COUNT = 100_000;
+
+    private byte[] output;
+
+    @Setup
+    public void setUp() {
+        final SplittableRandom random = new SplittableRandom(42);
+        final StringBuilder builder = new StringBuilder();
+        for (int line = 0; line < LINE_COUNT; line++) {
+            builder.append("SYM").append(random.nextInt(100)).append('|').append((10_000 + random.nextInt(-500, 500)) / 100.0).append('|')
+                    .append(1 + random.nextInt(1000)).append('\n');
+        }
+        output = builder.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINE_COUNT)
+    public int captureLines(final Blackhole blackhole) {
+        return StreamCapture.capture(new ByteArrayInputStream(output), blackhole::consume);
+    }
+}
@@ -0,0 +1,82 @@
+package simulator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import simulator.output.TradeParser;
+import simulator.output.TradeSink;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing trade output with the byte-level {@link TradeParser} against decoding each line into a String and splitting it with a regex, as the simulator
+ * previously did. Scores are trades per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TradeParsingBenchmark {
+
+    private static final int TRADE_COUNT = 10_000;
+
+    private final TradeParser parser = new TradeParser();
+    private byte[] output;
+    private int[] lineEnds;
+
+    @Setup
+    public void setUp() {
+        final SplittableRandom random = new SplittableRandom(42);
+        final StringBuilder builder = new StringBuilder();
+        lineEnds = new int[TRADE_COUNT];
+        for (int trade = 0; trade < TRADE_COUNT; trade++) {
+            builder.append("SYM").append(random.nextInt(100)).append('|').append((10_000 + random.nextInt(-500, 500)) / 100.0).append('|')
+                    .append(1 + random.nextInt(1000));
+            lineEnds[trade] = builder.length();
+            builder.append('\n');
+        }
+        output = builder.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRADE_COUNT)
+    public void tradeParser(final Blackhole blackhole) {
+        final TradeSink sink = (symbolId, priceTicks, priceScale, quantity) -> {
+            blackhole.consume(symbolId);
+            blackhole.consume(priceTicks);
+            blackhole.consume(priceScale);
+            blackhole.consume(quantity);
+        };
+        int lineStart = 0;
+        for (final int lineEnd : lineEnds) {
+            parser.parse(output, lineStart, lineEnd - lineStart, sink);
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRADE_COUNT)
+    public void stringSplit(final Blackhole blackhole) {
+        int lineStart = 0;
+        for (final int lineEnd : lineEnds) {
+            final String[] tokens = new String(output, lineStart, lineEnd - lineStart, StandardCharsets.US_ASCII).split("\\|");
+            blackhole.consume(tokens[0]);
+            blackhole.consume(Double.valueOf(tokens[1]));
+            blackhole.consume(Long.valueOf(tokens[2]));
+            lineStart = lineEnd + 1;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package harness;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import org.hamcrest.Matcher;
+import simulator.ExchangeSimulator;
 import simulator.SimulationResults;
+import simulator.completion.CompletionStrategy;
 import simulator.input.Order;
 import simulator.output.Trade;
 
@@ -18,6 +20,11 @@ import static org.hamcrest.Matchers.empty;
  */
 public abstract class ExchangeSimulatorTestStep {
 
+    /**
+     * System property enabling {@link #isIncremental() incremental assertions} for every step by default, e.g. {@code -Dexchange-sim.assertions.incremental=true}.
+     */
+    public static final String INCREMENTAL_PROPERTY = "exchange-sim.assertions.incremental";
+
     private final ExchangeSimulatorTestHarness exchangeSimulatorTestHarness;
 
     /**
@@ -66,24 +73,47 @@ public abstract class ExchangeSimulatorTestStep {
         return false;
     }
 
+    /**
+     * Extending classes can implement this to change how the simulator determines that the output for the step is complete. By default, the output is complete once
+     * the simulator has acknowledged a sentinel written after the step's orders (see {@link ExchangeSimulator#newDefaultCompletion()}).
+     *
+     * @return Non-null {@link CompletionStrategy} for the orders sent by this step.
+     */
+    protected CompletionStrategy getCompletionStrategy() {
+        return ExchangeSimulator.newDefaultCompletion();
+    }
+
+    /**
+     * Extending classes can implement this to select incremental assertions, which match the trades and warnings one by one as the simulator outputs them: the
+     * step fails on the first mismatching or unexpected line, and passes as soon as every expected line has been read and the simulator has acknowledged the
+     * end of the step's orders, rather than waiting for the {@link #getCompletionStrategy() completion strategy}, which is not used. By default, steps assert
+     * incrementally if the {@value #INCREMENTAL_PROPERTY} system property is true.
+     *
+     * @return True to assert the output incrementally, false to assert it once the output is complete.
+     */
+    protected boolean isIncremental() {
+        return Boolean.getBoolean(INCREMENTAL_PROPERTY);
+    }
+
     /**
      * Performs the test step, first sending the orders populated via {@link #populateOrders(ImmutableList.Builder)} to the {@link simulator.ExchangeSimulator}, then asserting the
-     * {@link SimulationResults} according to the test step implementation.
+     * {@link SimulationResults} according to the test step implementation. {@link #isIncremental() Incremental} steps assert each line as it is read as well.
      */
     protected final void performStep() {
         final ImmutableList.Builder orderListBuilder = ImmutableList.builder();
         populateOrders(orderListBuilder);
 
-        final SimulationResults simulationResults = exchangeSimulatorTestHarness.simulatorRuntime.getSimulator().processOrders(orderListBuilder.build());
-
         final Matcher<Trade>[] tradeMatchers = getTradeMatchers();
+        final Matcher<String>[] warningMatchers = getWarningMatchers();
+        final CompletionStrategy completionStrategy = isIncremental() ? new IncrementalAssertion(tradeMatchers, warningMatchers) : getCompletionStrategy();
+        final SimulationResults simulationResults = exchangeSimulatorTestHarness.simulatorRuntime.getSimulator().processOrders(orderListBuilder.build(), completionStrategy);
+
         if (tradeMatchers.length == 0) {
             assertThat("No trades expected", simulationResults.getTrades(), empty());
         } else {
             assertThat("Expected trades not present or not ordered as expected", simulationResults.getTrades(), contains(tradeMatchers));
         }
 
-        final Matcher<String>[] warningMatchers = getWarningMatchers();
         if (warningMatchers.length == 0) {
             assertThat("No warnings expected", simulationResults.getWarnings(), empty());
         } else {
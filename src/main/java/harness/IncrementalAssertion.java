@@ -0,0 +1,92 @@
+package harness;
+
+import org.hamcrest.Matcher;
+import simulator.ExchangeSimulator;
+import simulator.completion.IncrementalCompletion;
+import simulator.completion.QuietPeriodCompletion;
+import simulator.completion.SentinelCompletion;
+import simulator.completion.SimulationProgress;
+import simulator.output.Trade;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * {@link IncrementalCompletion} asserting the output of a test step line by line as it is read: each trade and warning is matched against the next expected
+ * matcher straight away, so the first mismatching or unexpected line fails the step without waiting out the processing period.
+ * <p/>
+ * The output is complete once every matcher has been satisfied, the simulator has acknowledged a {@link SentinelCompletion sentinel} written after the orders
+ * and the output has then settled for {@link ExchangeSimulator#DEFAULT_SETTLE_PERIOD}, as with the {@link ExchangeSimulator#newDefaultCompletion() default
+ * completion}. As the acknowledgement on stderr may be read before trades on stdout, the settle period lets a trade beyond those expected still fail the step.
+ */
+final class IncrementalAssertion implements IncrementalCompletion {
+
+    private final SentinelCompletion sentinel = new SentinelCompletion();
+    private final QuietPeriodCompletion settle = new QuietPeriodCompletion(ExchangeSimulator.DEFAULT_SETTLE_PERIOD);
+    private final Matcher<Trade>[] tradeMatchers;
+    private final Matcher<String>[] warningMatchers;
+    private int tradeCount = 0;
+    private int warningCount = 0;
+
+    /**
+     * Constructs a new {@link IncrementalAssertion}.
+     *
+     * @param tradeMatchers   Matchers for the expected trades, in order (cannot be null).
+     * @param warningMatchers Matchers for the expected warnings, in order (cannot be null).
+     */
+    IncrementalAssertion(final Matcher<Trade>[] tradeMatchers, final Matcher<String>[] warningMatchers) {
+        assert tradeMatchers != null : "tradeMatchers: null";
+        assert warningMatchers != null : "warningMatchers: null";
+        this.tradeMatchers = tradeMatchers;
+        this.warningMatchers = warningMatchers;
+    }
+
+    /**
+     * @inheritDoc <p />
+     * Fails if the trade is not expected, or does not match the next trade matcher.
+     */
+    @Override
+    public void onTrade(final Trade trade) {
+        if (tradeCount == tradeMatchers.length) {
+            throw new AssertionError("Unexpected trade " + trade.getSymbol() + '|' + trade.getPrice() + '|' + trade.getQuantity() + " after the "
+                    + tradeMatchers.length + " expected");
+        }
+        assertThat("Trade " + (tradeCount + 1) + " not as expected", trade, tradeMatchers[tradeCount++]);
+    }
+
+    /**
+     * @inheritDoc <p />
+     * Fails if the warning is not expected, or does not match the next warning matcher.
+     */
+    @Override
+    public void onWarning(final String warning) {
+        if (warningCount == warningMatchers.length) {
+            throw new AssertionError("Unexpected warning \"" + warning + "\" after the " + warningMatchers.length + " expected");
+        }
+        assertThat("Warning " + (warningCount + 1) + " not as expected", warning, warningMatchers[warningCount++]);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public boolean isComplete(final SimulationProgress progress) {
+        return tradeCount == tradeMatchers.length && warningCount == warningMatchers.length && sentinel.isComplete(progress)
+                && settle.isComplete(progress);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public String getSentinelInput() {
+        return sentinel.getSentinelInput();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public boolean isSentinelOutput(final String warning) {
+        return sentinel.isSentinelOutput(warning);
+    }
+}
@@ -0,0 +1,176 @@
+package harness;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.junit.runner.Computer;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.Failure;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.Suite;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+import org.junit.runners.model.RunnerScheduler;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * JUnit {@link Computer} running test classes and their test methods concurrently. Every test method gets its own {@link ExchangeSimulatorTestHarness} instance
+ * and therefore its own {@link simulator.ExchangeSimulatorRuntime} and simulator process, so tests stay isolated while the suite scales with the number of
+ * cores. The degree of parallelism bounds the number of concurrently running test methods (and therefore simulators); it defaults to the
+ * {@value #PARALLELISM_PROPERTY} system property or the number of available processors.
+ * <p/>
+ * Only the test classes themselves run their methods on the method pool; a nested {@link Suite} runs its classes in turn on its class' thread, so no runner ever
+ * waits for children queued behind it on its own pool. The pools are created for each run of the computer's suite and shut down once it finishes.
+ * <p/>
+ * For best results, size the {@link simulator.SimulatorPool} to the degree of parallelism.
+ */
+public final class ParallelSimulatorComputer extends Computer {
+
+    public static final String PARALLELISM_PROPERTY = "exchange-sim.parallelism";
+
+    private final int parallelism;
+    // Method pool of the suite being built, handed to its test classes.
+    private ExecutorService methodExecutor = null;
+
+    /**
+     * Constructs a new {@link ParallelSimulatorComputer} with the default degree of parallelism.
+     */
+    public ParallelSimulatorComputer() {
+        this(Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Constructs a new {@link ParallelSimulatorComputer}.
+     *
+     * @param parallelism The maximum number of test methods to run concurrently (must be positive).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public ParallelSimulatorComputer(final int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "Parallelism must be positive.");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs the given test classes in parallel, printing failures and a summary to stdout.
+     *
+     * @param testClasses The test classes to run.
+     * @return Non-null {@link Result} of the run.
+     */
+    public static Result run(final Class<?>... testClasses) {
+        return new JUnitCore().run(new ParallelSimulatorComputer(), testClasses);
+    }
+
+    /**
+     * Runs the test classes with the given fully-qualified names in parallel, exiting with a non-zero status if any test fails.
+     *
+     * @param args Fully-qualified names of the test classes to run.
+     * @throws ClassNotFoundException if a test class cannot be found.
+     */
+    public static void main(final String[] args) throws ClassNotFoundException {
+        final List<Class<?>> testClasses = Lists.newArrayList();
+        for (final String className : args) {
+            testClasses.add(Class.forName(className));
+        }
+        final Result result = run(testClasses.toArray(new Class<?>[testClasses.size()]));
+        for (final Failure failure : result.getFailures()) {
+            System.out.println(failure.getTestHeader() + ": " + failure.getMessage());
+        }
+        System.out.println("Tests run: " + result.getRunCount() + ", Failures: " + result.getFailureCount() + ", Time: " + result.getRunTime() + "ms");
+        System.exit(result.wasSuccessful() ? 0 : 1);
+    }
+
+    /**
+     * @inheritDoc <p />
+     * Runs the test classes of the suite concurrently, shutting down the pools once they have all finished.
+     */
+    @Override
+    public synchronized Runner getSuite(final RunnerBuilder builder, final Class<?>[] classes) throws InitializationError {
+        // Class runners only wait on their methods, so they get a separate pool to guarantee the method pool can always make progress.
+        final ExecutorService classExecutor = newPool("exchange-sim-class-%d");
+        final ExecutorService suiteMethodExecutor = newPool("exchange-sim-test-%d");
+        methodExecutor = suiteMethodExecutor;
+        try {
+            final Runner suite = super.getSuite(builder, classes);
+            ((ParentRunner<?>) suite).setScheduler(new ExecutorScheduler(classExecutor, () -> {
+                classExecutor.shutdown();
+                suiteMethodExecutor.shutdown();
+            }));
+            return suite;
+        } catch (final InitializationError | RuntimeException exception) {
+            classExecutor.shutdown();
+            suiteMethodExecutor.shutdown();
+            throw exception;
+        } finally {
+            methodExecutor = null;
+        }
+    }
+
+    /**
+     * @inheritDoc <p />
+     * Runs the test methods of the class concurrently; runners of nested suites are left to run their children in turn.
+     */
+    @Override
+    protected Runner getRunner(final RunnerBuilder builder, final Class<?> testClass) throws Throwable {
+        final Runner runner = super.getRunner(builder, testClass);
+        if (runner instanceof ParentRunner && !(runner instanceof Suite) && methodExecutor != null) {
+            ((ParentRunner<?>) runner).setScheduler(new ExecutorScheduler(methodExecutor, () -> {
+            }));
+        }
+        return runner;
+    }
+
+    private ExecutorService newPool(final String nameFormat) {
+        return Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build());
+    }
+
+    /**
+     * {@link RunnerScheduler} submitting children to an executor and waiting for all of them to finish.
+     */
+    private static final class ExecutorScheduler implements RunnerScheduler {
+
+        private final ExecutorService executor;
+        private final Runnable onFinished;
+        private final List<Future<?>> children = Lists.newArrayList();
+
+        private ExecutorScheduler(final ExecutorService executor, final Runnable onFinished) {
+            this.executor = executor;
+            this.onFinished = onFinished;
+        }
+
+        @Override
+        public void schedule(final Runnable childStatement) {
+            children.add(executor.submit(childStatement));
+        }
+
+        @Override
+        public void finished() {
+            try {
+                awaitChildren();
+            } finally {
+                onFinished.run();
+            }
+        }
+
+        private void awaitChildren() {
+            for (final Future<?> child : children) {
+                try {
+                    child.get();
+                } catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (final ExecutionException exception) {
+                    // Failures are reported through the RunNotifier by the child itself.
+                    System.err.println("Exception occurred while running a test in parallel.");
+                    exception.printStackTrace();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import simulator.exception.SimulatorInputError;
+import simulator.input.Order;
+import simulator.input.OrderEncoder;
+import simulator.output.TradeBatch;
+import simulator.output.TradeParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pipelines batches of orders through an {@link ExchangeSimulator} for {@link ExchangeSimulator#submitOrders(List)}, ending each batch with marker orders for
+ * the reserved symbol {@value #BATCH_MARKER_SYMBOL} and attributing the output to the batches on a collector thread, which runs while batches are in flight.
+ * <p/>
+ * The batches in flight and the collector's state are guarded by the simulator's {@link ExchangeSimulator#outputLock output lock}, which also guards the
+ * simulator's output subscription, so that neither starts while the other consumes the output.
+ */
+final class BatchPipeline {
+
+    static final String BATCH_MARKER_SYMBOL = "SNTNL";
+    private static final byte[] BATCH_MARKER_PREFIX = (BATCH_MARKER_SYMBOL + '|').getBytes(StandardCharsets.US_ASCII);
+    private static final String BATCH_MARKER_WARNING = "invalid side: BATCH";
+
+    private final ExchangeSimulator simulator;
+    private final OrderEncoder orderEncoder;
+    private final RunnableStreamReader standardOut;
+    private final RunnableStreamReader standardErr;
+
+    // submitLock serializes the writing of batches; the simulator's output lock guards the rest.
+    private final Object submitLock = new Object();
+    private final ArrayDeque<PipelinedBatch> submittedBatches = new ArrayDeque<>();
+    private long batchSequence = 0;
+    private int pipelinedBatchCount = 0;
+    private boolean collectorRunning = false;
+
+    /**
+     * Constructs a new {@link BatchPipeline}.
+     *
+     * @param simulator    The simulator the batches are pipelined through (cannot be null).
+     * @param orderEncoder The encoder writing to the simulator's stdin (cannot be null).
+     * @param standardOut  The reader of the simulator's stdout (cannot be null).
+     * @param standardErr  The reader of the simulator's stderr (cannot be null).
+     */
+    BatchPipeline(final ExchangeSimulator simulator, final OrderEncoder orderEncoder, final RunnableStreamReader standardOut,
+                  final RunnableStreamReader standardErr) {
+        assert simulator != null : "simulator: null";
+        assert orderEncoder != null : "orderEncoder: null";
+        assert standardOut != null : "standardOut: null";
+        assert standardErr != null : "standardErr: null";
+        this.simulator = simulator;
+        this.orderEncoder = orderEncoder;
+        this.standardOut = standardOut;
+        this.standardErr = standardErr;
+    }
+
+    /**
+     * Writes a batch followed by its markers, starting the collector if it is not running.
+     *
+     * @param orders List of Orders to submit (cannot be null).
+     * @return Non-null CompletableFuture completed with the {@link SimulationResults} of the batch, or exceptionally with a {@link SimulatorInputError} if an error
+     * occurs writing it to the process.
+     * @throws IllegalStateException if the output is subscribed to.
+     */
+    CompletableFuture<SimulationResults> submit(final List<Order> orders) {
+        assert orders != null : "orders: null";
+        synchronized (submitLock) {
+            final PipelinedBatch batch = new PipelinedBatch(++batchSequence);
+            synchronized (simulator.outputLock) {
+                Preconditions.checkState(!simulator.isSubscribed(), "Cannot submit orders while the output is subscribed to.");
+                submittedBatches.addLast(batch);
+                pipelinedBatchCount++;
+                if (!collectorRunning) {
+                    collectorRunning = true;
+                    final Thread collector = new Thread(new PipelineCollector(), "exchange-sim-pipeline");
+                    collector.setDaemon(true);
+                    collector.start();
+                }
+            }
+            try {
+                orderEncoder.encode(orders);
+                orderEncoder.encodeLine(BATCH_MARKER_SYMBOL + "|SELL|1|" + batch.sequence);
+                orderEncoder.encodeLine(BATCH_MARKER_SYMBOL + "|BUY|1|" + batch.sequence);
+                orderEncoder.encodeLine(BATCH_MARKER_SYMBOL + "|BATCH" + batch.sequence + "|1|1");
+                orderEncoder.flush();
+            } catch (final IOException exception) {
+                batch.future.completeExceptionally(new SimulatorInputError(exception));
+            }
+            batch.writtenNanos = System.nanoTime();
+            return batch.future;
+        }
+    }
+
+    /**
+     * Must be called holding the simulator's {@link ExchangeSimulator#outputLock output lock}.
+     *
+     * @return True if no submitted batch is in flight, false otherwise.
+     */
+    boolean isIdle() {
+        return pipelinedBatchCount == 0;
+    }
+
+    /**
+     * @return True if the line is a marker trade, i.e. a trade for the {@value #BATCH_MARKER_SYMBOL} symbol.
+     */
+    private static boolean isMarker(final byte[] line, final int offset, final int length) {
+        if (length <= BATCH_MARKER_PREFIX.length) {
+            return false;
+        }
+        for (int index = 0; index < BATCH_MARKER_PREFIX.length; index++) {
+            if (line[offset + index] != BATCH_MARKER_PREFIX[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The quantity of a marker trade, i.e. the sequence number of the batch it ends.
+     */
+    private static long parseMarkerSequence(final byte[] line, final int offset, final int length) {
+        long sequence = 0;
+        long multiplier = 1;
+        for (int index = offset + length - 1; index >= offset && line[index] >= '0' && line[index] <= '9'; index--) {
+            sequence += (line[index] - '0') * multiplier;
+            multiplier *= 10;
+        }
+        return sequence;
+    }
+
+    /**
+     * @return The sequence number carried by a warning marker, {@code "invalid side: BATCH<sequence>"}, or -1 if the warning is not exactly of that form, e.g. the
+     * warning of an order whose action merely starts with BATCH.
+     */
+    private static long parseWarningMarkerSequence(final String warning) {
+        final int start = BATCH_MARKER_WARNING.length();
+        if (!warning.startsWith(BATCH_MARKER_WARNING) || warning.length() == start || warning.length() - start > 18) {
+            return -1;
+        }
+        long sequence = 0;
+        for (int index = start; index < warning.length(); index++) {
+            final char digit = warning.charAt(index);
+            if (digit < '0' || digit > '9') {
+                return -1;
+            }
+            sequence = sequence * 10 + (digit - '0');
+        }
+        return sequence;
+    }
+
+    /**
+     * A batch submitted through {@link #submit(List)} and the output attributed to it so far (collector thread only, apart from the write time).
+     */
+    private static final class PipelinedBatch {
+
+        private final long sequence;
+        private final CompletableFuture<SimulationResults> future = new CompletableFuture<>();
+        private final TradeBatch trades = new TradeBatch();
+        private final ImmutableList.Builder<String> warnings = ImmutableList.builder();
+        private volatile long writtenNanos = 0;
+        private long oldestSinceNanos = 0;
+        private LatencyHistogram fillLatencies = null;
+        private boolean tradesComplete = false;
+        private boolean warningsComplete = false;
+
+        private PipelinedBatch(final long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Attributes the output of the simulator to the batches in flight, in order, completing each once its markers have been read; runs until no batch is left in
+     * flight.
+     */
+    private final class PipelineCollector implements Runnable {
+
+        private final TradeParser parser = new TradeParser();
+        private final List<PipelinedBatch> inFlight = new ArrayList<>();
+        private final List<PipelinedBatch> completed = new ArrayList<>();
+        private int tradeIndex = 0;
+        private int warningIndex = 0;
+
+        @Override
+        public void run() {
+            try {
+                collectUntilIdle();
+            } catch (final RuntimeException | Error exception) {
+                abandon(exception);
+                throw exception;
+            }
+        }
+
+        private void collectUntilIdle() {
+            while (true) {
+                final boolean processEnded = simulator.isProcessEnded();
+                collect();
+                if (processEnded) {
+                    for (int index = 0; index < inFlight.size(); index++) {
+                        inFlight.get(index).tradesComplete = true;
+                        inFlight.get(index).warningsComplete = true;
+                    }
+                } else if (!inFlight.isEmpty() && expired(inFlight.get(0))) {
+                    inFlight.get(0).tradesComplete = true;
+                    inFlight.get(0).warningsComplete = true;
+                    tradeIndex = Math.max(tradeIndex, 1);
+                    warningIndex = Math.max(warningIndex, 1);
+                }
+                final boolean finished = retireCompleted(processEnded);
+                for (int index = 0; index < completed.size(); index++) {
+                    final PipelinedBatch batch = completed.get(index);
+                    final LatencyHistogram batchFillLatencies = batch.fillLatencies != null ? batch.fillLatencies : simulator.takeFillLatencies();
+                    batch.future.complete(new SimulationResults(batch.trades, batch.warnings.build(), processEnded || !simulator.isAlive(), batchFillLatencies));
+                }
+                completed.clear();
+                if (finished) {
+                    return;
+                }
+                LockSupport.parkNanos(ExchangeSimulator.POLL_PERIOD_NANOS);
+            }
+        }
+
+        private void collect() {
+            standardErr.drainReadLines(Long.MAX_VALUE, warning -> {
+                final long sequence = parseWarningMarkerSequence(warning);
+                if (sequence > 0 && isInFlight(sequence)) {
+                    for (PipelinedBatch batch; (batch = batch(warningIndex)) != null && batch.sequence <= sequence; warningIndex++) {
+                        batch.warningsComplete = true;
+                    }
+                } else {
+                    final PipelinedBatch batch = batch(warningIndex);
+                    if (batch != null) {
+                        batch.warnings.add(warning);
+                    }
+                }
+            });
+            standardOut.drainReadBytes(Long.MAX_VALUE, (line, offset, length) -> {
+                if (isMarker(line, offset, length)) {
+                    simulator.skipFill();
+                    final long sequence = parseMarkerSequence(line, offset, length);
+                    for (PipelinedBatch batch; (batch = batch(tradeIndex)) != null && batch.sequence <= sequence; tradeIndex++) {
+                        batch.tradesComplete = true;
+                        batch.fillLatencies = simulator.takeFillLatencies();
+                    }
+                    return;
+                }
+                simulator.onFill(standardOut.getDrainedLineNanos());
+                final PipelinedBatch batch = batch(tradeIndex);
+                if (batch != null && !parser.parse(line, offset, length, batch.trades)) {
+                    batch.trades.add(ExchangeSimulator.parseTrade(new String(line, offset, length, StandardCharsets.UTF_8)));
+                }
+            });
+        }
+
+        /**
+         * @return The batch at the given index of the batches in flight, taking in newly submitted batches as needed, or null if there is none.
+         */
+        private PipelinedBatch batch(final int index) {
+            if (index >= inFlight.size()) {
+                synchronized (simulator.outputLock) {
+                    inFlight.addAll(submittedBatches);
+                    submittedBatches.clear();
+                }
+            }
+            return index < inFlight.size() ? inFlight.get(index) : null;
+        }
+
+        /**
+         * @return True if the batch of the given sequence number is in flight and its warnings are not yet complete, so a warning marker carrying it is genuine.
+         */
+        private boolean isInFlight(final long sequence) {
+            for (int index = warningIndex; ; index++) {
+                final PipelinedBatch batch = batch(index);
+                if (batch == null || batch.sequence > sequence) {
+                    return false;
+                }
+                if (batch.sequence == sequence) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Completes every batch in flight or submitted exceptionally after the collector failed unexpectedly, and stops collecting, so that later batches start a
+         * new collector rather than waiting on this one.
+         */
+        private void abandon(final Throwable cause) {
+            synchronized (simulator.outputLock) {
+                inFlight.addAll(submittedBatches);
+                submittedBatches.clear();
+                pipelinedBatchCount = 0;
+                collectorRunning = false;
+            }
+            for (int index = 0; index < inFlight.size(); index++) {
+                inFlight.get(index).future.completeExceptionally(cause);
+            }
+            for (int index = 0; index < completed.size(); index++) {
+                completed.get(index).future.completeExceptionally(cause);
+            }
+            inFlight.clear();
+            completed.clear();
+        }
+
+        private boolean expired(final PipelinedBatch oldest) {
+            final long now = System.nanoTime();
+            if (oldest.writtenNanos == 0) {
+                return false;
+            }
+            if (oldest.oldestSinceNanos == 0) {
+                oldest.oldestSinceNanos = now;
+            }
+            final long sinceNanos = Math.max(oldest.writtenNanos, oldest.oldestSinceNanos);
+            return now - sinceNanos > TimeUnit.MILLISECONDS.toNanos(ExchangeSimulator.PROCESSING_PERIOD);
+        }
+
+        /**
+         * Moves the completed batches at the head of the batches in flight to {@link #completed}.
+         *
+         * @return True if the collector should stop, because no batch is left in flight.
+         */
+        private boolean retireCompleted(final boolean processEnded) {
+            int count = 0;
+            while (count < inFlight.size() && inFlight.get(count).tradesComplete && inFlight.get(count).warningsComplete) {
+                completed.add(inFlight.get(count));
+                count++;
+            }
+            inFlight.subList(0, count).clear();
+            tradeIndex = Math.max(0, tradeIndex - count);
+            warningIndex = Math.max(0, warningIndex - count);
+            synchronized (simulator.outputLock) {
+                if (processEnded) {
+                    completed.addAll(submittedBatches);
+                    submittedBatches.clear();
+                }
+                pipelinedBatchCount -= completed.size();
+                if (pipelinedBatchCount == 0) {
+                    collectorRunning = false;
+                    return true;
+                }
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import simulator.reference.BookDepth;
+import simulator.reference.MatchListener;
+import simulator.reference.ReferenceMatchingEngine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Model of the exchange-sim's order books, built from the orders written to a simulator, so tests can assert on the shape of the books and report them on
+ * failure without replaying the orders.
+ * <p/>
+ * Once {@link ExchangeSimulator#attachBookModel(BookModel) attached}, every line written to stdin is run through a {@link ReferenceMatchingEngine} as it is
+ * written, so the model is kept up to date incrementally: each order only touches the levels it trades against and the level it rests at, located by binary
+ * search. The engine aggregates each price level's quantity and order count as orders rest and fill, so a {@link #getDepth(String, int) snapshot} of the top N
+ * levels takes time proportional to N regardless of the size of the book; {@link BookDepth#diff(BookDepth)} compares two snapshots.
+ * <p/>
+ * The model reflects the reference matching rules, so it diverges from the exchange-sim wherever the exchange-sim diverges from them. The model must be
+ * attached before any order is written, and to one simulator only. Instances are thread-safe.
+ */
+public final class BookModel {
+
+    private static final Splitter FIELD_SPLITTER = Splitter.on('|');
+    private static final MatchListener IGNORE_OUTPUT = (symbolId, priceTicks, quantity) -> {
+    };
+
+    private final ReferenceMatchingEngine engine = new ReferenceMatchingEngine();
+    private final InputLineAssembler inputLines = new InputLineAssembler();
+    private final SpscLineBuffer.LineConsumer orderLineConsumer = this::onOrderLine;
+    private boolean attached = false;
+    private long orderCount = 0;
+
+    /**
+     * Takes a snapshot of the top levels of a symbol's book.
+     *
+     * @param symbol The symbol (cannot be null).
+     * @param levels The maximum number of levels to take from each side (cannot be negative).
+     * @return Non-null {@link BookDepth} of the symbol, empty if no order for it rests.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public synchronized BookDepth getDepth(final String symbol, final int levels) {
+        return engine.getDepth(symbol, levels);
+    }
+
+    /**
+     * Takes a snapshot of the top levels of the book of every symbol ordered so far.
+     *
+     * @param levels The maximum number of levels to take from each side (cannot be negative).
+     * @return Non-null, possibly empty ImmutableList of the {@link BookDepth} of each symbol.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public synchronized ImmutableList<BookDepth> getDepths(final int levels) {
+        return engine.getDepths(levels);
+    }
+
+    /**
+     * @return The number of lines of input run through the model.
+     */
+    public synchronized long getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * @return True if an invalid order aborted the model (as it aborts the exchange-sim), false otherwise.
+     */
+    public synchronized boolean isAborted() {
+        return engine.isAborted();
+    }
+
+    /**
+     * Marks the model as attached to a simulator.
+     *
+     * @throws IllegalStateException if the model has been attached before.
+     */
+    synchronized void attach() {
+        Preconditions.checkState(!attached, "Cannot attach a BookModel more than once.");
+        attached = true;
+    }
+
+    /**
+     * Runs a chunk of input about to be written to stdin, which may end part way through a line, through the model.
+     */
+    synchronized void onInput(final byte[] bytes, final int offset, final int length) {
+        inputLines.append(bytes, offset, length, orderLineConsumer);
+    }
+
+    /**
+     * Runs a line of input, {@code symbol|action|price|quantity}, through the engine; lines the exchange-sim could not parse are ignored.
+     */
+    private void onOrderLine(final byte[] line, final int offset, final int length) {
+        final Iterator<String> fields = FIELD_SPLITTER.split(new String(line, offset, length, StandardCharsets.UTF_8)).iterator();
+        try {
+            final String symbol = fields.next();
+            final String action = fields.next();
+            final Price price = Price.parse(fields.next());
+            final long quantity = Long.parseLong(fields.next());
+            if (!fields.hasNext()) {
+                engine.process(symbol, action, price, quantity, IGNORE_OUTPUT);
+                orderCount++;
+            }
+        } catch (final NoSuchElementException | NumberFormatException exception) {
+            // Not an order.
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package simulator;
+
+/**
+ * Represents the outcome of a {@link DifferentialSimulation}.
+ */
+public final class DifferentialResult {
+
+    private final long orderCount;
+    private final long tradeCount;
+    private final long warningCount;
+    private final Divergence divergence;
+
+    DifferentialResult(final long orderCount, final long tradeCount, final long warningCount, final Divergence divergence) {
+        this.orderCount = orderCount;
+        this.tradeCount = tradeCount;
+        this.warningCount = warningCount;
+        this.divergence = divergence;
+    }
+
+    /**
+     * @return The number of orders sent before the comparison ended.
+     */
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * @return The number of trades which matched between the exchange-sim and the reference engine.
+     */
+    public long getTradeCount() {
+        return tradeCount;
+    }
+
+    /**
+     * @return The number of warnings which matched between the exchange-sim and the reference engine.
+     */
+    public long getWarningCount() {
+        return warningCount;
+    }
+
+    /**
+     * @return True if no divergence was found, false otherwise.
+     */
+    public boolean isConsistent() {
+        return divergence == null;
+    }
+
+    /**
+     * @return The first {@link Divergence} found, or null if the outputs were consistent.
+     */
+    public Divergence getDivergence() {
+        return divergence;
+    }
+
+    @Override
+    public String toString() {
+        return "DifferentialResult{orders=" + orderCount + ", trades=" + tradeCount + ", warnings=" + warningCount + ", "
+                + (divergence == null ? "consistent" : divergence.toString()) + "}";
+    }
+}
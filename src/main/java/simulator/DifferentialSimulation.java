@@ -0,0 +1,316 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import simulator.exception.SimulatorInputError;
+import simulator.input.Order;
+import simulator.reference.MatchListener;
+import simulator.reference.ReferenceMatchingEngine;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Differential test feeding one stream of orders to both an {@link ExchangeSimulator} and a {@link ReferenceMatchingEngine}, comparing their trades and warnings
+ * incrementally as the simulator produces them and stopping at the first divergence.
+ * <p/>
+ * Orders are pulled lazily from an {@link Iterator} and written in batches; only the reference output the simulator has not yet caught up with is held in memory,
+ * and writing pauses whenever more than the configured maximum is pending. Memory therefore stays bounded regardless of the length of the order stream.
+ * <p/>
+ * The reference engine does not model the exchange-sim's known deviations from the matching rules (see {@link ReferenceMatchingEngine}), so orders crossing at
+ * a whole price but not at their fractional parts are reported as a divergence; order generators can avoid such prices to look for other divergences.
+ */
+public final class DifferentialSimulation {
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int DEFAULT_MAX_PENDING_OUTPUT = 100_000;
+    private static final long DEFAULT_OUTPUT_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+    private static final long POLL_PERIOD_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final int batchSize;
+    private final int maxPendingOutput;
+    private final long outputTimeoutNanos;
+    private final long quietPeriodNanos;
+    private final int priceScale;
+
+    /**
+     * Runs the differential comparison until the order stream is exhausted, both sides abort, or the first divergence is found.
+     *
+     * @param simulator The simulator to compare, which must not have received any input yet (cannot be null).
+     * @param orders    The stream of orders to send (cannot be null).
+     * @return Non-null {@link DifferentialResult}.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public DifferentialResult run(final ExchangeSimulator simulator, final Iterator<Order> orders) {
+        Preconditions.checkArgument(simulator != null, "Cannot run a differential simulation with a null simulator.");
+        Preconditions.checkArgument(orders != null, "Cannot run a differential simulation with a null order stream.");
+        return new Comparison(simulator).run(orders);
+    }
+
+    /**
+     * Output expected from the reference engine, along with the order that produced it.
+     */
+    private static final class ExpectedOutput {
+        private final long orderIndex;
+        private final Order order;
+        private final int symbolId;
+        private final long priceTicks;
+        private final long quantity;
+        private final String warning;
+
+        private ExpectedOutput(final long orderIndex, final Order order, final int symbolId, final long priceTicks, final long quantity, final String warning) {
+            this.orderIndex = orderIndex;
+            this.order = order;
+            this.symbolId = symbolId;
+            this.priceTicks = priceTicks;
+            this.quantity = quantity;
+            this.warning = warning;
+        }
+    }
+
+    /**
+     * State of a single comparison run; receives the reference engine's output as each order is processed.
+     */
+    private final class Comparison implements MatchListener {
+
+        private final ExchangeSimulator simulator;
+        private final ReferenceMatchingEngine engine = new ReferenceMatchingEngine(priceScale);
+        private final ArrayDeque<ExpectedOutput> expectedTrades = new ArrayDeque<>();
+        private final ArrayDeque<ExpectedOutput> expectedWarnings = new ArrayDeque<>();
+        private final List<Order> batch = Lists.newArrayListWithCapacity(batchSize);
+
+        private long orderCount = 0;
+        private Order currentOrder = null;
+        private long matchedTrades = 0;
+        private long matchedWarnings = 0;
+        private Divergence divergence = null;
+
+        private Comparison(final ExchangeSimulator simulator) {
+            this.simulator = simulator;
+        }
+
+        private DifferentialResult run(final Iterator<Order> orders) {
+            while (divergence == null && !engine.isAborted() && orders.hasNext()) {
+                batch.clear();
+                while (batch.size() < batchSize && !engine.isAborted() && orders.hasNext()) {
+                    currentOrder = orders.next();
+                    batch.add(currentOrder);
+                    engine.process(currentOrder, this);
+                    orderCount++;
+                }
+                try {
+                    simulator.writeOrders(batch);
+                } catch (final SimulatorInputError error) {
+                    // The simulator stopped reading its input; compare what it produced before exiting.
+                    awaitOutput(() -> false);
+                    break;
+                }
+                compareAvailableOutput();
+                awaitOutput(() -> expectedTrades.size() + expectedWarnings.size() <= maxPendingOutput);
+            }
+
+            if (divergence == null) {
+                if (engine.isAborted()) {
+                    awaitOutput(simulator::isProcessEnded);
+                } else {
+                    awaitOutput(() -> expectedTrades.isEmpty() && expectedWarnings.isEmpty() && simulator.getNanosSinceLastOutput() >= quietPeriodNanos);
+                }
+            }
+            return new DifferentialResult(orderCount, matchedTrades, matchedWarnings, divergence);
+        }
+
+        /**
+         * Compares the simulator's output as it arrives until the condition holds, recording a divergence if the simulator falls silent or exits first.
+         */
+        private void awaitOutput(final BooleanSupplier condition) {
+            long lastProgressNanos = System.nanoTime();
+            while (divergence == null && !condition.getAsBoolean()) {
+                final boolean ended = simulator.isProcessEnded();
+                if (compareAvailableOutput() > 0) {
+                    lastProgressNanos = System.nanoTime();
+                } else if (ended || System.nanoTime() - lastProgressNanos > outputTimeoutNanos) {
+                    reportMissingOutput(ended);
+                } else {
+                    LockSupport.parkNanos(POLL_PERIOD_NANOS);
+                }
+            }
+        }
+
+        private int compareAvailableOutput() {
+            final int warnings = simulator.drainWarnings(this::compareWarning);
+            return warnings + simulator.drainTrades(this::compareTrade, this::compareMalformedTrade);
+        }
+
+        private void compareTrade(final int symbolId, final long priceTicks, final int priceScale, final long quantity) {
+            if (divergence != null) {
+                return;
+            }
+            final ExpectedOutput expected = expectedTrades.pollFirst();
+            if (expected == null) {
+                divergence = new Divergence("Unexpected trade", orderCount - 1, currentOrder, null, describe(symbolId, priceTicks, priceScale, quantity));
+            } else if (expected.symbolId != symbolId || !hasPrice(priceTicks, priceScale, expected.priceTicks) || quantity != expected.quantity) {
+                divergence = new Divergence("Mismatching trade", expected.orderIndex, expected.order, describe(expected), describe(symbolId, priceTicks, priceScale, quantity));
+            } else {
+                matchedTrades++;
+            }
+        }
+
+        private void compareMalformedTrade(final String actual) {
+            if (divergence != null) {
+                return;
+            }
+            final ExpectedOutput expected = expectedTrades.pollFirst();
+            if (expected == null) {
+                divergence = new Divergence("Unexpected trade", orderCount - 1, currentOrder, null, actual);
+            } else {
+                divergence = new Divergence("Mismatching trade", expected.orderIndex, expected.order, describe(expected), actual);
+            }
+        }
+
+        private void compareWarning(final String actual) {
+            if (divergence != null) {
+                return;
+            }
+            final ExpectedOutput expected = expectedWarnings.pollFirst();
+            if (expected == null) {
+                divergence = new Divergence("Unexpected warning", orderCount - 1, currentOrder, null, actual);
+            } else if (!expected.warning.equals(actual)) {
+                divergence = new Divergence("Mismatching warning", expected.orderIndex, expected.order, expected.warning, actual);
+            } else {
+                matchedWarnings++;
+            }
+        }
+
+        private void reportMissingOutput(final boolean processEnded) {
+            final ExpectedOutput missingTrade = expectedTrades.peekFirst();
+            final ExpectedOutput missingWarning = expectedWarnings.peekFirst();
+            final ExpectedOutput missing = missingTrade == null ? missingWarning
+                    : missingWarning == null || missingTrade.orderIndex <= missingWarning.orderIndex ? missingTrade : missingWarning;
+            if (missing != null) {
+                divergence = new Divergence(processEnded ? "exchange-sim exited before producing output" : "Missing output", missing.orderIndex, missing.order,
+                        missing.warning == null ? describe(missing) : missing.warning, null);
+            } else if (processEnded && !engine.isAborted()) {
+                divergence = new Divergence("exchange-sim aborted unexpectedly", orderCount - 1, currentOrder, "running", "aborted");
+            } else if (!processEnded && engine.isAborted()) {
+                divergence = new Divergence("exchange-sim did not abort", orderCount - 1, currentOrder, "aborted", "running");
+            } else {
+                divergence = new Divergence("exchange-sim did not complete", orderCount - 1, currentOrder, "quiet output", "continued output");
+            }
+        }
+
+        private String describe(final ExpectedOutput expected) {
+            return SymbolDictionary.getDefault().getSymbol(expected.symbolId) + '|' + engine.formatPrice(expected.priceTicks) + '|' + expected.quantity;
+        }
+
+        private String describe(final int symbolId, final long priceTicks, final int priceScale, final long quantity) {
+            return SymbolDictionary.getDefault().getSymbol(symbolId) + '|' + Price.of(priceTicks, priceScale) + '|' + quantity;
+        }
+
+        /**
+         * Compares a price the simulator output with the engine's, rounded to the engine's ticks as the engine rounds the orders' prices.
+         */
+        private boolean hasPrice(final long priceTicks, final int priceScale, final long expectedTicks) {
+            try {
+                return Price.rescale(priceTicks, priceScale, engine.getPriceScale()) == expectedTicks;
+            } catch (final ArithmeticException exception) {
+                return false;
+            }
+        }
+
+        @Override
+        public void onTrade(final int symbolId, final long priceTicks, final long quantity) {
+            expectedTrades.addLast(new ExpectedOutput(orderCount, currentOrder, symbolId, priceTicks, quantity, null));
+        }
+
+        @Override
+        public void onWarning(final String warning) {
+            expectedWarnings.addLast(new ExpectedOutput(orderCount, currentOrder, SymbolDictionary.NO_SYMBOL, 0, 0, warning));
+        }
+    }
+
+    /**
+     * Fluent-builder class for constructing {@link DifferentialSimulation} objects.
+     */
+    public static class Builder {
+
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private int maxPendingOutput = DEFAULT_MAX_PENDING_OUTPUT;
+        private long outputTimeout = DEFAULT_OUTPUT_TIMEOUT;
+        private long quietPeriod = ExchangeSimulator.DEFAULT_QUIET_PERIOD;
+        private int priceScale = ReferenceMatchingEngine.DEFAULT_PRICE_SCALE;
+
+        public static Builder create() {
+            return new Builder();
+        }
+
+        /**
+         * @param batchSize Number of orders written to the simulator at a time.
+         */
+        public Builder withBatchSize(final int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param maxPendingOutput Maximum number of expected trades and warnings held while waiting for the simulator to catch up.
+         */
+        public Builder withMaxPendingOutput(final int maxPendingOutput) {
+            this.maxPendingOutput = maxPendingOutput;
+            return this;
+        }
+
+        /**
+         * @param outputTimeout Time, in milliseconds, the simulator may go without producing expected output before it is reported missing.
+         */
+        public Builder withOutputTimeout(final long outputTimeout) {
+            this.outputTimeout = outputTimeout;
+            return this;
+        }
+
+        /**
+         * @param quietPeriod Time, in milliseconds, to wait for unexpected additional output once all expected output has been produced.
+         */
+        public Builder withQuietPeriod(final long quietPeriod) {
+            this.quietPeriod = quietPeriod;
+            return this;
+        }
+
+        /**
+         * @param priceScale Number of decimal places the reference engine keeps prices to; simulator prices are compared after rounding to it.
+         */
+        public Builder withPriceScale(final int priceScale) {
+            this.priceScale = priceScale;
+            return this;
+        }
+
+        /**
+         * @return Non-null {@link DifferentialSimulation}.
+         * @throws IllegalArgumentException if any of the sizes or periods is not positive.
+         */
+        public DifferentialSimulation build() {
+            Preconditions.checkArgument(batchSize > 0, "Batch size must be positive.");
+            Preconditions.checkArgument(maxPendingOutput > 0, "Maximum pending output must be positive.");
+            Preconditions.checkArgument(outputTimeout > 0, "Output timeout must be positive.");
+            Preconditions.checkArgument(quietPeriod > 0, "Quiet period must be positive.");
+            return new DifferentialSimulation(this);
+        }
+
+        private Builder() {
+        }
+    }
+
+    /**
+     * Private constructor to prevent direct instantiation (use {@link Builder}).
+     */
+    private DifferentialSimulation(final Builder builder) {
+        this.batchSize = builder.batchSize;
+        this.maxPendingOutput = builder.maxPendingOutput;
+        this.outputTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(builder.outputTimeout);
+        this.quietPeriodNanos = TimeUnit.MILLISECONDS.toNanos(builder.quietPeriod);
+        this.priceScale = builder.priceScale;
+    }
+}
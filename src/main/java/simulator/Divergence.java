@@ -0,0 +1,66 @@
+package simulator;
+
+import simulator.input.Order;
+
+/**
+ * Describes the first point at which the output of the exchange-sim diverged from the {@link simulator.reference.ReferenceMatchingEngine} during a
+ * {@link DifferentialSimulation}.
+ */
+public final class Divergence {
+
+    private final String description;
+    private final long orderIndex;
+    private final Order order;
+    private final String expected;
+    private final String actual;
+
+    Divergence(final String description, final long orderIndex, final Order order, final String expected, final String actual) {
+        this.description = description;
+        this.orderIndex = orderIndex;
+        this.order = order;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    /**
+     * @return Non-null description of the divergence.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return Zero-based index, in the order stream, of the order that caused the divergence, or -1 if it cannot be attributed to an order.
+     */
+    public long getOrderIndex() {
+        return orderIndex;
+    }
+
+    /**
+     * @return Possibly null order that caused the divergence.
+     */
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * @return Possibly null output expected from the reference engine.
+     */
+    public String getExpected() {
+        return expected;
+    }
+
+    /**
+     * @return Possibly null output actually produced by the exchange-sim.
+     */
+    public String getActual() {
+        return actual;
+    }
+
+    @Override
+    public String toString() {
+        final String orderDescription = order == null ? "unknown order"
+                : "order #" + orderIndex + " (" + order.getSymbol() + '|' + order.getAction() + '|' + order.getPrice() + '|' + order.getQuantity() + ')';
+        return description + " at " + orderDescription + ": expected <" + expected + "> but was <" + actual + ">";
+    }
+}
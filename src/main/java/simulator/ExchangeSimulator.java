@@ -1,89 +1,635 @@
 package simulator;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.EvictingQueue;
 import com.google.common.collect.ImmutableList;
+import simulator.completion.AllOfCompletion;
+import simulator.completion.CompletionStrategy;
+import simulator.completion.IncrementalCompletion;
+import simulator.completion.QuietPeriodCompletion;
+import simulator.completion.SentinelCompletion;
+import simulator.completion.SimulationProgress;
 import simulator.exception.SimulationInitializationError;
 import simulator.exception.SimulationTerminationError;
 import simulator.exception.SimulatorInputError;
 import simulator.input.Order;
+import simulator.journal.JournalEntry;
+import simulator.journal.JournalWriter;
+import simulator.input.OrderEncoder;
+import simulator.output.OutputSubscriber;
+import simulator.output.OutputSubscription;
 import simulator.output.Trade;
+import simulator.output.TradeBatch;
+import simulator.output.TradeParser;
+import simulator.output.TradeSink;
+import simulator.reference.ReferenceSimulatorProcess;
 
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 /**
  * Wrapper for interacting with the command-line interface of the exchange-sim program.
  */
 public final class ExchangeSimulator {
 
-    // Amount of time to allow for the simulator to process the input and produce output.
-    private static final long PROCESSING_PERIOD = 1000;
+    // Maximum amount of time to allow for the simulator to process the input and produce output.
+    static final long PROCESSING_PERIOD = 1000;
+    /**
+     * Period of inactivity on stdout/stderr, in milliseconds, after which a {@link QuietPeriodCompletion} typically considers the output of a batch complete.
+     */
+    public static final long DEFAULT_QUIET_PERIOD = 100;
+    /**
+     * Period of inactivity on stdout/stderr, in milliseconds, the {@link #newDefaultCompletion() default completion} allows after the sentinel is acknowledged, for
+     * the stdout reader to catch up with trades output before the acknowledgement on stderr.
+     */
+    public static final long DEFAULT_SETTLE_PERIOD = 10;
+    static final long POLL_PERIOD_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    // Number of most recent input/output lines retained for attributing output to the test that produced it.
+    private static final int TRANSCRIPT_SIZE = 200;
+    private static final int INPUT_BUFFER_SIZE = 64 * 1024;
     private static final String SIMULATOR_EXE = "exchange-sim";
+    // Number of simulators created, naming their stream readers.
+    private static final AtomicLong SIMULATOR_COUNT = new AtomicLong();
+    // Reserved symbol of the marker orders delimiting the output of pipelined batches.
+    /**
+     * Number of lines of each of stdout and stderr a {@link #subscribe(OutputSubscriber) subscription} buffers by default before the output stops being read.
+     */
+    public static final int DEFAULT_SUBSCRIPTION_BUFFER = 8 * 1024;
+
+    /**
+     * System property selecting the simulator implementation: {@value #EXTERNAL_ENGINE} (the default) runs the {@link #SIMULATOR_EXE} program,
+     * {@value #REFERENCE_ENGINE} runs the in-process {@link ReferenceSimulatorProcess} stand-in, and {@value #REFERENCE_PROCESS_ENGINE} runs the same stand-in as a
+     * separate JVM process on this JVM's classpath, paying the same process and pipe costs as the real program.
+     */
+    public static final String ENGINE_PROPERTY = "exchange-sim.engine";
+    public static final String EXTERNAL_ENGINE = "external";
+    public static final String REFERENCE_ENGINE = "reference";
+    public static final String REFERENCE_PROCESS_ENGINE = "reference-process";
+    /**
+     * System property enabling {@link #trackFillLatencies() fill latency tracking} for every simulator created, e.g. {@code -Dexchange-sim.fillLatencies=true}.
+     */
+    public static final String FILL_LATENCIES_PROPERTY = "exchange-sim.fillLatencies";
 
     private final Process simulator;
-    private final BufferedWriter processInputWriter;
+    private final JournalingOutputStream journaledInput;
+    private final OutputStream processInput;
+    private final OrderEncoder orderEncoder;
+    private final TradeParser tradeParser = new TradeParser();
+    private volatile FillLatencyTracker fillLatencies = null;
     private final RunnableStreamReader standardOut;
     private final RunnableStreamReader standardErr;
+    private final Queue<String> transcript = EvictingQueue.create(TRANSCRIPT_SIZE);
+
+    // Guards the consumers of the output other than processOrders, i.e. the pipelined batches in flight and the output subscription, so that only one of them
+    // consumes the output at a time.
+    final Object outputLock = new Object();
+    private final BatchPipeline pipeline;
+    private StreamingSubscription subscription = null;
 
     /**
-     * Sends a List of {@link Order} objects through the simulator, returning the results of the simulation.
+     * Sends a List of {@link Order} objects through the simulator, returning the results of the simulation once the simulator has acknowledged the end of the
+     * orders, as with {@link #newDefaultCompletion()}.
      *
      * @param orders List of Orders to process.
      * @return Non-null {@link SimulationResults} containing the results of the simulation.
-     * @throw IllegalArgumentException if parameter conditions are not met.
+     * @throws IllegalArgumentException if parameter conditions are not met.
      */
     public SimulationResults processOrders(final List<Order> orders) {
+        return processOrders(orders, newDefaultCompletion());
+    }
+
+    /**
+     * Creates the default {@link CompletionStrategy} for a single batch: a {@link SentinelCompletion} round-trip, followed by {@link #DEFAULT_SETTLE_PERIOD} of
+     * quiet. Unlike a quiet period counted from the time the batch is written, it does not end the wait before a slow simulator (e.g. a cold process, or a loaded
+     * machine) has output its first line, so no output of the batch is left for the next. The wait remains bounded by the processing period, and ends early if
+     * the process ends, e.g. on an invalid order.
+     *
+     * @return Non-null {@link CompletionStrategy} for one batch.
+     */
+    public static CompletionStrategy newDefaultCompletion() {
+        return new AllOfCompletion(new SentinelCompletion(), new QuietPeriodCompletion(DEFAULT_SETTLE_PERIOD));
+    }
+
+    /**
+     * Sends a List of {@link Order} objects through the simulator, returning the results of the simulation as soon as the given {@link CompletionStrategy} is
+     * satisfied or the process ends. The {@link #PROCESSING_PERIOD} serves as a hard upper bound on the time spent waiting for output.
+     *
+     * @param orders             List of Orders to process.
+     * @param completionStrategy The {@link CompletionStrategy} determining when the output for the orders is complete (cannot be null).
+     * @return Non-null {@link SimulationResults} containing the results of the simulation.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public SimulationResults processOrders(final List<Order> orders, final CompletionStrategy completionStrategy) {
         Preconditions.checkArgument(orders != null, "Cannot pass a null List of Orders to processOrders");
+        Preconditions.checkArgument(completionStrategy != null, "Cannot pass a null CompletionStrategy to processOrders");
+        synchronized (outputLock) {
+            Preconditions.checkState(pipeline.isIdle(), "Cannot process orders while submitted batches are in flight.");
+            Preconditions.checkState(subscription == null, "Cannot process orders while the output is subscribed to.");
+        }
 
+        final BatchProgress progress = new BatchProgress();
+        recordTranscript(orders);
+        final String sentinelInput = completionStrategy.getSentinelInput();
         try {
-            processInputWriter.write(translateOrdersToCommandLineInput(orders));
-            processInputWriter.flush();
+            orderEncoder.encode(orders);
+            if (sentinelInput != null) {
+                orderEncoder.encodeLine(sentinelInput);
+            }
+            orderEncoder.flush();
         } catch (final IOException exception) {
             throw new SimulatorInputError(exception);
         }
 
-        // Allow time for the background stdout/stderr threads to read process output.
+        // Allow time for the background stdout/stderr threads to read process output, returning early once the output is complete. Incremental strategies see the
+        // output as it is read, so it is drained on every poll rather than once at the end.
+        final IncrementalCompletion incrementalCompletion = completionStrategy instanceof IncrementalCompletion ? (IncrementalCompletion) completionStrategy : null;
+        final ImmutableList.Builder<String> warnings = ImmutableList.builder();
+        final TradeBatch trades = new TradeBatch();
+        final long deadline = progress.startNanos + TimeUnit.MILLISECONDS.toNanos(PROCESSING_PERIOD);
+        while (true) {
+            if (incrementalCompletion != null) {
+                drainBatchOutput(completionStrategy, incrementalCompletion, trades, warnings);
+            }
+            if (completionStrategy.isComplete(progress) || isProcessEnded() || System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            LockSupport.parkNanos(POLL_PERIOD_NANOS);
+            if (Thread.interrupted()) {
+                System.err.println("Thread interrupted during background processing period.");
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        // Draining the stream readers ensures subsequent calls to processOrders only return newly generated output.
+        drainBatchOutput(completionStrategy, incrementalCompletion, trades, warnings);
+        final boolean processAborted = !simulator.isAlive();
+        if (processAborted) {
+            transcript.add("x process aborted");
+        }
+        return new SimulationResults(trades, warnings.build(), processAborted, takeFillLatencies());
+    }
+
+    /**
+     * Drains the output read so far into the results of the batch being processed, handing each new trade and warning to the incremental strategy, if any.
+     */
+    private void drainBatchOutput(final CompletionStrategy completionStrategy, final IncrementalCompletion incrementalCompletion, final TradeBatch trades,
+                                  final ImmutableList.Builder<String> warnings) {
+        standardErr.drainReadLines(Long.MAX_VALUE, warning -> {
+            if (!completionStrategy.isSentinelOutput(warning)) {
+                warnings.add(warning);
+                transcript.add("! " + warning);
+                if (incrementalCompletion != null) {
+                    incrementalCompletion.onWarning(warning);
+                }
+            }
+        });
+        final int firstTrade = trades.size();
+        final long tradeLimit = standardOut.getLineCount();
+        final long transcriptStart = tradeLimit - TRANSCRIPT_SIZE;
+        standardOut.drainReadBytes(tradeLimit, (line, offset, length) -> {
+            onFill(standardOut.getDrainedLineNanos());
+            // Only the tail of the output fits in the transcript, so only decode the lines it retains.
+            if (standardOut.getDrainedLineCount() > transcriptStart) {
+                transcript.add("< " + new String(line, offset, length, StandardCharsets.UTF_8));
+            }
+            if (!tradeParser.parse(line, offset, length, trades)) {
+                trades.add(parseTrade(new String(line, offset, length, StandardCharsets.UTF_8)));
+            }
+        });
+        if (incrementalCompletion != null) {
+            for (int index = firstTrade; index < trades.size(); index++) {
+                incrementalCompletion.onTrade(trades.getTrade(index));
+            }
+        }
+    }
+
+    /**
+     * Submits a List of {@link Order} objects to the simulator without waiting for the output of earlier batches, so many batches can be pipelined through the
+     * simulator back-to-back.
+     * <p/>
+     * Each batch is followed by two marker orders for the reserved symbol {@code SNTNL}: a crossing pair whose trade carries the batch's sequence
+     * number as its quantity, and an order with an unrecognized action, whose warning carries it too. As the simulator processes its input in order, the trades
+     * before a batch's trade marker and the warnings before its warning marker are the batch's own; a collector thread started with the first batch in flight
+     * attributes the output accordingly and completes each batch's future once both of its markers have been read. A batch whose markers do not arrive within a
+     * second of it becoming the oldest batch in flight is completed with the output read so far, as {@link #processOrders(List)} would; if the process ends, the
+     * batches in flight are completed as aborted. The markers are excluded from the results.
+     * <p/>
+     * Batches may be submitted from any thread; {@link #processOrders(List)} cannot be used while batches are in flight. Dependent stages of the futures that do
+     * not specify an executor may run on the collector thread, so they should not block. Pipelined batches are not recorded in the transcript. Fill latencies
+     * are {@link #trackFillLatencies() tracked} for pipelined batches as for any other, excluding the markers. Only a warning of exactly the marker's form,
+     * naming a batch in flight, ends a batch, so the action {@code BATCH} followed by the sequence number of a batch in flight is reserved. Should the collector
+     * fail unexpectedly, the batches in flight are completed exceptionally.
+     *
+     * @param orders List of Orders to submit (cannot be null).
+     * @return Non-null CompletableFuture completed with the {@link SimulationResults} of the batch, or exceptionally with a {@link SimulatorInputError} if an error
+     * occurs writing it to the process.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public CompletableFuture<SimulationResults> submitOrders(final List<Order> orders) {
+        Preconditions.checkArgument(orders != null, "Cannot pass a null List of Orders to submitOrders");
+        return pipeline.submit(orders);
+    }
+
+    /**
+     * Writes a List of {@link Order} objects to the simulator without waiting for any output, for callers consuming the output incrementally through
+     * {@link #drainTrades(TradeSink, Consumer)} and {@link #drainWarnings(Consumer)}, or through a {@link #subscribe(OutputSubscriber) subscription}.
+     *
+     * @param orders List of Orders to write (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws SimulatorInputError if an error occurs writing to the process.
+     */
+    public void writeOrders(final List<Order> orders) {
+        Preconditions.checkArgument(orders != null, "Cannot pass a null List of Orders to writeOrders");
         try {
-            Thread.sleep(PROCESSING_PERIOD);
-        } catch (final InterruptedException exception) {
-            System.err.println("Thread interrupted during background processing period.");
-            exception.printStackTrace();
+            orderEncoder.encode(orders);
+            orderEncoder.flush();
+        } catch (final IOException exception) {
+            throw new SimulatorInputError(exception);
+        }
+    }
+
+    /**
+     * Subscribes to the output of the simulator with the {@link #DEFAULT_SUBSCRIPTION_BUFFER default buffer}.
+     *
+     * @see #subscribe(OutputSubscriber, int)
+     */
+    public OutputSubscription subscribe(final OutputSubscriber subscriber) {
+        return subscribe(subscriber, DEFAULT_SUBSCRIPTION_BUFFER);
+    }
+
+    /**
+     * Subscribes to the output of the simulator, delivering each trade and warning to the subscriber as soon as it is read and requested, starting with any
+     * output read but not yet drained. The stream readers wake the subscription's delivery thread as they read lines, and stop reading once the given number of
+     * lines of stdout or stderr are buffered undelivered; the simulator's pipes then fill and the simulator blocks until the subscriber
+     * {@link OutputSubscription#request(long) requests} more, so a slow subscriber holds back the simulator rather than the buffers growing.
+     * <p/>
+     * The subscriber is the sole consumer of the output until the subscription is cancelled or completes: {@link #processOrders(List)} and
+     * {@link #submitOrders(List)} cannot be used meanwhile, and neither can the drain methods. Orders are written with {@link #writeOrders(List)} or
+     * {@link #writeInput(byte[], int, int)}.
+     *
+     * @param subscriber    Subscriber to deliver the output to (cannot be null).
+     * @param bufferedLines The most lines of each of stdout and stderr to buffer until they are requested (must be positive).
+     * @return Non-null {@link OutputSubscription}, with no lines requested yet.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws IllegalStateException if another subscription is active, or pipelined batches are in flight.
+     */
+    public OutputSubscription subscribe(final OutputSubscriber subscriber, final int bufferedLines) {
+        Preconditions.checkArgument(subscriber != null, "Cannot subscribe a null OutputSubscriber.");
+        Preconditions.checkArgument(bufferedLines > 0, "Subscriptions must buffer at least one line.");
+        final StreamingSubscription streamingSubscription = new StreamingSubscription(this, standardOut, standardErr, subscriber);
+        synchronized (outputLock) {
+            Preconditions.checkState(subscription == null, "The output is already subscribed to.");
+            Preconditions.checkState(pipeline.isIdle(), "Cannot subscribe to the output while submitted batches are in flight.");
+            subscription = streamingSubscription;
         }
+        streamingSubscription.start(bufferedLines);
+        return streamingSubscription;
+    }
 
-        final SimulationResults results = new SimulationResults(parseTrades(standardOut.getReadLines()), standardErr.getReadLines(), !simulator.isAlive());
+    /**
+     * Must be called holding the {@link #outputLock}.
+     *
+     * @return True if the output is subscribed to, false otherwise.
+     */
+    boolean isSubscribed() {
+        return subscription != null;
+    }
 
-        // Flushing the stream readers ensures subsequent calls to processOrders only returns newly generated output.
-        standardOut.flush();
-        standardErr.flush();
+    /**
+     * Ends the output subscription once its delivery has stopped, so the output can be consumed otherwise again.
+     */
+    void endSubscription() {
+        synchronized (outputLock) {
+            subscription = null;
+        }
+    }
 
-        return results;
+    /**
+     * Hands the trades read since the previous drain to a sink, in the order the simulator output them, parsing them straight from the bytes read from stdout.
+     *
+     * @param sink            Sink accepting the well-formed trades (cannot be null).
+     * @param malformedTrades Consumer accepting the lines of output which are not well-formed trades (cannot be null).
+     * @return The number of trade lines drained.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public int drainTrades(final TradeSink sink, final Consumer<String> malformedTrades) {
+        Preconditions.checkArgument(sink != null, "Cannot drain trades to a null TradeSink.");
+        Preconditions.checkArgument(malformedTrades != null, "Cannot drain malformed trades to a null consumer.");
+        return standardOut.drainReadBytes(Long.MAX_VALUE, (line, offset, length) -> {
+            onFill(standardOut.getDrainedLineNanos());
+            if (!tradeParser.parse(line, offset, length, sink)) {
+                malformedTrades.accept(new String(line, offset, length, StandardCharsets.UTF_8));
+            }
+        });
+    }
+
+    /**
+     * Hands the warnings read since the previous drain to a consumer, in the order the simulator output them.
+     *
+     * @param consumer Consumer accepting the warnings (cannot be null).
+     * @return The number of warnings drained.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public int drainWarnings(final Consumer<String> consumer) {
+        Preconditions.checkArgument(consumer != null, "Cannot drain warnings to a null consumer.");
+        return standardErr.drainReadLines(Long.MAX_VALUE, consumer);
+    }
+
+    /**
+     * @return Nanoseconds elapsed since the last line was read from either stdout or stderr.
+     */
+    public long getNanosSinceLastOutput() {
+        return System.nanoTime() - Math.max(standardOut.getLastReadNanos(), standardErr.getLastReadNanos());
+    }
+
+    /**
+     * Writes pre-encoded input, e.g. from a {@link simulator.load.OrderLoadGenerator}, directly to the simulator's stdin. The bytes must consist of complete
+     * {@code symbol|action|price|quantity\n} lines in ASCII.
+     *
+     * @param input  The buffer holding the encoded input (cannot be null).
+     * @param offset The offset of the input within the buffer.
+     * @param length The number of bytes to write.
+     * @throws SimulatorInputError if an error occurs writing to the process.
+     */
+    public void writeInput(final byte[] input, final int offset, final int length) {
+        Preconditions.checkArgument(input != null, "Cannot write null input to the simulator.");
+        try {
+            processInput.write(input, offset, length);
+            processInput.flush();
+        } catch (final IOException exception) {
+            throw new SimulatorInputError(exception);
+        }
+    }
+
+    /**
+     * Discards all output read since the previous drain without parsing it, for callers only interested in driving load through the simulator.
+     *
+     * @return The number of trade lines discarded.
+     */
+    public int discardOutput() {
+        standardErr.drainReadLines(Long.MAX_VALUE, warning -> {
+        });
+        return standardOut.drainReadBytes(Long.MAX_VALUE, (line, offset, length) -> onFill(standardOut.getDrainedLineNanos()));
+    }
+
+    /**
+     * Discards all output read since the previous drain like {@link #discardOutput()}, but reports the time each trade line starting with the given prefix was read,
+     * e.g. to time marker trades through the simulator.
+     *
+     * @param prefix        The ASCII prefix of the trade lines to report (cannot be null).
+     * @param prefixedLines Consumer accepting the {@link System#nanoTime()} at which each prefixed line was read (cannot be null).
+     * @return The number of trade lines discarded, including the prefixed lines.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public int discardOutput(final byte[] prefix, final LongConsumer prefixedLines) {
+        Preconditions.checkArgument(prefix != null, "Cannot match a null prefix.");
+        Preconditions.checkArgument(prefixedLines != null, "Cannot report prefixed lines to a null consumer.");
+        standardErr.drainReadLines(Long.MAX_VALUE, warning -> {
+        });
+        return standardOut.drainReadBytes(Long.MAX_VALUE, (line, offset, length) -> {
+            final long readNanos = standardOut.getDrainedLineNanos();
+            onFill(readNanos);
+            if (startsWith(line, offset, length, prefix)) {
+                prefixedLines.accept(readNanos);
+            }
+        });
+    }
+
+    private static boolean startsWith(final byte[] line, final int offset, final int length, final byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int index = 0; index < prefix.length; index++) {
+            if (line[offset + index] != prefix[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hands the lines read since the previous drain to consumers as Strings, without parsing them, e.g. to compare the output against a recorded session.
+     *
+     * @param tradeLines   Consumer accepting the lines read from stdout, in order (cannot be null).
+     * @param warningLines Consumer accepting the lines read from stderr, in order (cannot be null).
+     * @return The number of lines drained from stdout and stderr.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public int drainOutputLines(final Consumer<String> tradeLines, final Consumer<String> warningLines) {
+        Preconditions.checkArgument(tradeLines != null && warningLines != null, "Cannot drain output lines to a null consumer.");
+        final int warningCount = standardErr.drainReadLines(Long.MAX_VALUE, warningLines);
+        return warningCount + standardOut.drainReadBytes(Long.MAX_VALUE, (line, offset, length) -> {
+            onFill(standardOut.getDrainedLineNanos());
+            tradeLines.accept(new String(line, offset, length, StandardCharsets.UTF_8));
+        });
+    }
+
+    /**
+     * Starts recording every line written to the simulator's stdin and read from its stdout and stderr, with the time it was written or read, replacing any
+     * journal recording so far. The caller remains responsible for closing the journal after {@link #stopRecording() stopping} the recording.
+     *
+     * @param journal The journal to record to (cannot be null).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public void startRecording(final JournalWriter journal) {
+        Preconditions.checkArgument(journal != null, "Cannot record to a null journal.");
+        standardOut.setJournal(journal, JournalEntry.Channel.STDOUT);
+        standardErr.setJournal(journal, JournalEntry.Channel.STDERR);
+        journaledInput.setJournal(journal);
+    }
+
+    /**
+     * Stops recording the session, flushing any input still buffered into the journal first.
+     */
+    public void stopRecording() {
+        try {
+            processInput.flush();
+        } catch (final IOException exception) {
+            // The process has exited, so the buffered input never reached it.
+        } finally {
+            journaledInput.setJournal(null);
+            standardOut.setJournal(null, null);
+            standardErr.setJournal(null, null);
+        }
+    }
+
+    /**
+     * Attaches a checker of the invariants of every trade read from now on against the orders written from now on, replacing any checker attached so far. The
+     * checker should be attached before any order is written.
+     *
+     * @param checker The checker to attach, which cannot have been attached before (cannot be null).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws IllegalStateException    if the checker has been attached before.
+     */
+    public void attachChecker(final OnlineInvariantChecker checker) {
+        Preconditions.checkArgument(checker != null, "Cannot attach a null OnlineInvariantChecker.");
+        checker.attach();
+        journaledInput.setChecker(checker);
+        standardOut.setLineTap(checker::onOutputLine);
+    }
+
+    /**
+     * Detaches the {@link #attachChecker(OnlineInvariantChecker) attached checker}, if any, flushing any input still buffered through it first.
+     */
+    public void detachChecker() {
+        try {
+            processInput.flush();
+        } catch (final IOException exception) {
+            // The process has exited, so the buffered input never reached it.
+        } finally {
+            standardOut.setLineTap(null);
+            journaledInput.setChecker(null);
+        }
+    }
+
+    /**
+     * Attaches a model of the books, run on every order written from now on, replacing any model attached so far. The model should be attached before any order
+     * is written.
+     *
+     * @param bookModel The model to attach, which cannot have been attached before (cannot be null).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws IllegalStateException    if the model has been attached before.
+     */
+    public void attachBookModel(final BookModel bookModel) {
+        Preconditions.checkArgument(bookModel != null, "Cannot attach a null BookModel.");
+        bookModel.attach();
+        journaledInput.setBookModel(bookModel);
+    }
+
+    /**
+     * Detaches the {@link #attachBookModel(BookModel) attached book model}, if any, flushing any input still buffered through it first.
+     */
+    public void detachBookModel() {
+        try {
+            processInput.flush();
+        } catch (final IOException exception) {
+            // The process has exited, so the buffered input never reached it.
+        } finally {
+            journaledInput.setBookModel(null);
+        }
+    }
+
+    /**
+     * Starts tracking the latency of each fill, from the write of the order causing it to the read of the fill, for the {@link SimulationResults#getFillLatencies()
+     * results} of later batches. Every line written to stdin is run through a {@link simulator.reference.ReferenceMatchingEngine} model of the books to attribute
+     * the fills to their orders, so tracking is opt-in; it is enabled for every simulator when the {@value #FILL_LATENCIES_PROPERTY} system property is true. It
+     * must be started before any order is written, and the output must then be consumed through this simulator's methods, so that every fill read is accounted
+     * for.
+     *
+     * @throws IllegalStateException if fill latencies are already tracked.
+     */
+    public void trackFillLatencies() {
+        final FillLatencyTracker tracker = new FillLatencyTracker();
+        tracker.attach();
+        synchronized (outputLock) {
+            Preconditions.checkState(fillLatencies == null, "Fill latencies are already tracked.");
+            fillLatencies = tracker;
+        }
+        journaledInput.setFillLatencies(tracker);
+    }
+
+    void onFill(final long readNanos) {
+        final FillLatencyTracker tracker = fillLatencies;
+        if (tracker != null) {
+            tracker.onFill(readNanos);
+        }
+    }
+
+    void skipFill() {
+        final FillLatencyTracker tracker = fillLatencies;
+        if (tracker != null) {
+            tracker.skipFill();
+        }
+    }
+
+    /**
+     * @return Non-null histogram of the fill latencies recorded since the previous call, empty if fill latencies are not tracked.
+     */
+    LatencyHistogram takeFillLatencies() {
+        final FillLatencyTracker tracker = fillLatencies;
+        return tracker == null ? new LatencyHistogram() : tracker.takeLatencies();
+    }
+
+    /**
+     * Accesses the most recent lines exchanged with the simulator by {@link #processOrders(List, CompletionStrategy)}, oldest first. Input lines are prefixed with
+     * {@code "> "}, trades with {@code "< "} and warnings with {@code "! "}.
+     *
+     * @return Non-null, possibly empty ImmutableList of at most {@link #TRANSCRIPT_SIZE} lines.
+     */
+    ImmutableList<String> getTranscript() {
+        return ImmutableList.copyOf(transcript);
+    }
+
+    private void recordTranscript(final List<Order> orders) {
+        for (final Order order : orders.subList(Math.max(0, orders.size() - TRANSCRIPT_SIZE), orders.size())) {
+            transcript.add("> " + order.getSymbol() + '|' + order.getAction() + '|' + order.getPrice() + '|' + order.getQuantity());
+        }
+    }
+
+    /**
+     * @return True if the simulator process is running, false if it has exited.
+     */
+    boolean isAlive() {
+        return simulator.isAlive();
+    }
+
+    /**
+     * @return True if the simulator process has exited and both stream readers have consumed all of its output, false otherwise.
+     */
+    boolean isProcessEnded() {
+        return !simulator.isAlive() && standardOut.isFinished() && standardErr.isFinished();
     }
 
     /**
      * Creates a new {@link ExchangeSimulator}.
      *
      * @return Non-null {@link ExchangeSimulator}.
-     * @throws SimulationInitializationError if an error occurs trying to launch the {@link #SIMULATOR_EXE}.
+     * @throws SimulationInitializationError if an error occurs trying to launch the {@link #SIMULATOR_EXE}, or if the {@link StreamReaderExecutor} cannot start
+     *                                       its stream readers.
      */
     static ExchangeSimulator createSimulation() {
 
+        final String engine = System.getProperty(ENGINE_PROPERTY, EXTERNAL_ENGINE);
         final Process simulatorProcess;
-        try {
-            simulatorProcess = Runtime.getRuntime().exec(SIMULATOR_EXE);
-        } catch (final IOException exception) {
-            throw new SimulationInitializationError(exception);
+        if (REFERENCE_ENGINE.equals(engine)) {
+            simulatorProcess = ReferenceSimulatorProcess.start();
+        } else {
+            try {
+                simulatorProcess = REFERENCE_PROCESS_ENGINE.equals(engine)
+                        ? new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(), "-cp", System.getProperty("java.class.path"),
+                        ReferenceSimulatorProcess.class.getName()).start()
+                        : Runtime.getRuntime().exec(SIMULATOR_EXE);
+            } catch (final IOException exception) {
+                throw new SimulationInitializationError(exception);
+            }
         }
 
-        final ExchangeSimulator simulator = new ExchangeSimulator(simulatorProcess, new BufferedWriter(new OutputStreamWriter(simulatorProcess.getOutputStream())),
-                new RunnableStreamReader(simulatorProcess.getInputStream()), new RunnableStreamReader(simulatorProcess.getErrorStream()));
+        final ExchangeSimulator simulator = new ExchangeSimulator(simulatorProcess, new JournalingOutputStream(simulatorProcess.getOutputStream()),
+                new RunnableStreamReader(simulatorProcess.getInputStream(), false), new RunnableStreamReader(simulatorProcess.getErrorStream(), true));
 
         // Thread cleanup occurs in the #endSimulation; after simulator.destroy() is called, the input streams are emptied, and the run() method in the readers return.
-        new Thread(simulator.standardOut).start();
-        new Thread(simulator.standardErr).start();
+        final String name = "exchange-sim-" + SIMULATOR_COUNT.incrementAndGet();
+        try {
+            StreamReaderExecutor.getDefault().execute(simulator.standardOut, name + "-stdout");
+            StreamReaderExecutor.getDefault().execute(simulator.standardErr, name + "-stderr");
+        } catch (final SimulationInitializationError error) {
+            simulator.endSimulation();
+            throw error;
+        }
 
         return simulator;
     }
@@ -91,71 +637,94 @@ public final class ExchangeSimulator {
     /**
      * Ends the current simulation, cleaning up related processes and threads.
      *
-     * @throws SimulationTerminationError if an error occurs trying to close the {@link #processInputWriter}.
+     * @throws SimulationTerminationError if an error occurs trying to close the {@link #processInput}.
      */
     void endSimulation() {
+        // Readers held back by a subscription would never see the end of their streams.
+        standardOut.setPendingLineLimit(0);
+        standardErr.setPendingLineLimit(0);
         simulator.destroy();
         try {
-            processInputWriter.close();
+            processInput.close();
         } catch (final IOException exception) {
             throw new SimulationTerminationError(exception);
         }
     }
 
     /**
-     * Parses a List of {@link Order} objects into command-line input.
+     * Parses a single, possibly malformed line of trade output from the simulator into an object representation; missing fields are left null.
      *
-     * @param orders List of Orders to parse (cannot be null).
-     * @return Non-null, possibly empty String from the parsed orders.
+     * @param trade String containing a trade output by the simulation (cannot be null).
+     * @return Non-null {@link Trade}.
      */
-    private static String translateOrdersToCommandLineInput(final List<Order> orders) {
-        assert orders != null : "orders: null";
-        final StringBuilder commandBuilder = new StringBuilder();
-        for (final Order order : orders) {
-            commandBuilder.append(order.getSymbol()).append('|').append(order.getAction()).append('|').append(order.getPrice()).append('|').append(order.getQuantity()).append('\n');
-        }
-        return commandBuilder.toString();
+    static Trade parseTrade(final String trade) {
+        assert trade != null : "trade: null";
+        final List<String> tokens = Arrays.asList(trade.split("\\|"));
+        final Iterator<String> iterator = tokens.iterator();
+
+        final String symbol = iterator.hasNext() ? iterator.next() : null;
+        final Price price = iterator.hasNext() ? Price.parse(iterator.next()) : null;
+        final Long quantity = iterator.hasNext() ? Long.valueOf(iterator.next()) : null;
+
+        return new Trade(symbol, price, quantity);
     }
 
     /**
-     * Parses trade output from the simulator into an object representation.
-     *
-     * @param trades List of Strings containing the trades output by the simulation (cannot be null).
-     * @return Non-null, possibly empty ImmutableList of {@link Trade}s.
+     * {@link SimulationProgress} of a single batch, measured against the stream readers' totals at the time the batch is written.
      */
-    private static ImmutableList<Trade> parseTrades(final List<String> trades) {
-        assert trades != null : "trades: null";
-        final ImmutableList.Builder translatedTrades = ImmutableList.builder();
-        for (final String trade : trades) {
-            final List<String> tokens = Arrays.asList(trade.split("\\|"));
-            final Iterator<String> iterator = tokens.iterator();
+    private final class BatchProgress implements SimulationProgress {
+
+        private final long startNanos = System.nanoTime();
+        private final long startTradeCount = standardOut.getLineCount();
+        private final long startWarningCount = standardErr.getLineCount();
 
-            final String symbol = iterator.hasNext() ? iterator.next() : null;
-            final Double price = iterator.hasNext() ? Double.valueOf(iterator.next()) : null;
-            final Long quantity = iterator.hasNext() ? Long.valueOf(iterator.next()) : null;
+        @Override
+        public int getTradeCount() {
+            return (int) (standardOut.getLineCount() - startTradeCount);
+        }
 
-            translatedTrades.add(new Trade(symbol, price, quantity));
+        @Override
+        public int getWarningCount() {
+            return (int) (standardErr.getLineCount() - startWarningCount);
+        }
+
+        @Override
+        public String getLastWarning() {
+            return getWarningCount() > 0 ? standardErr.getLastLine() : null;
+        }
+
+        @Override
+        public long getNanosSinceLastOutput() {
+            final long now = System.nanoTime();
+            final long lastOutput = Math.max(startNanos, Math.max(standardOut.getLastReadNanos(), standardErr.getLastReadNanos()));
+            return now - lastOutput;
         }
-        return translatedTrades.build();
     }
 
     /**
      * Private constructor to prevent direct instantiation (use {@link #createSimulation()}.
      *
      * @param simulator          The Process running the simulator (cannot be null).
-     * @param processInputWriter A BufferedWriter for writing to the process' stdin (cannot be null).
+     * @param journaledInput     A {@link JournalingOutputStream} for writing to the process' stdin (cannot be null).
      * @param standardOut        A {@link RunnableStreamReader} for reading from the process' stdout (cannot be null).
      * @param standardErr        A {@link RunnableStreamReader} for reading from the process' stderr (cannot be null).
      */
-    private ExchangeSimulator(final Process simulator, final BufferedWriter processInputWriter, final RunnableStreamReader standardOut, final RunnableStreamReader standardErr) {
+    private ExchangeSimulator(final Process simulator, final JournalingOutputStream journaledInput, final RunnableStreamReader standardOut,
+                              final RunnableStreamReader standardErr) {
         assert simulator != null : "simulator: null";
-        assert processInputWriter != null : "processInputWriter: null";
+        assert journaledInput != null : "journaledInput: null";
         assert standardOut != null : "standardOut: null";
         assert standardErr != null : "standardErr: null";
 
         this.simulator = simulator;
-        this.processInputWriter = processInputWriter;
+        this.journaledInput = journaledInput;
+        this.processInput = new BufferedOutputStream(journaledInput, INPUT_BUFFER_SIZE);
+        this.orderEncoder = new OrderEncoder(processInput, INPUT_BUFFER_SIZE);
         this.standardOut = standardOut;
         this.standardErr = standardErr;
+        this.pipeline = new BatchPipeline(this, orderEncoder, standardOut, standardErr);
+        if (Boolean.getBoolean(FILL_LATENCIES_PROPERTY)) {
+            trackFillLatencies();
+        }
     }
 }
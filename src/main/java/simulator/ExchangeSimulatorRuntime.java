@@ -1,19 +1,86 @@
 package simulator;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import org.junit.rules.ExternalResource;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import simulator.exception.JournalError;
+import simulator.journal.JournalWriter;
+import simulator.reference.BookDepth;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
- * ExternalResource for tests running the {@link ExchangeSimulator}. Guarantees proper initialization and cleanup of the simulation.
+ * ExternalResource for tests running the {@link ExchangeSimulator}. Guarantees proper initialization and cleanup of the simulation. Simulators are taken from a
+ * {@link SimulatorPool} of pre-spawned processes and handed back for background destruction afterwards.
+ * <p/>
+ * Each runtime owns its simulator exclusively, so tests may run in parallel (see {@link harness.ParallelSimulatorComputer}). When a test fails, the transcript of
+ * its simulator is written to stderr as a single block headed by the test's name, keeping the output of concurrently running tests attributable.
+ * <p/>
+ * A {@link BookModel} runs a second matching engine on the stdin write path and holds every resting order, so it is opt-in: it is attached on the first call to
+ * {@link #getBookModel()}, before any order is written, or to every simulator when the {@value #BOOK_DEPTH_PROPERTY} system property is positive. The report of
+ * a failed test with a model attached ends with the top levels of every book, {@value #DEFAULT_BOOK_DEPTH} unless the property gives another depth.
+ * <p/>
+ * When the {@value #JOURNAL_DIRECTORY_PROPERTY} system property names a directory, each test's session is recorded to a journal named after the test in that
+ * directory, for replay through a {@link simulator.journal.JournalReplayer}.
  */
 public final class ExchangeSimulatorRuntime extends ExternalResource {
 
+    public static final String JOURNAL_DIRECTORY_PROPERTY = "exchange-sim.journal.dir";
+    public static final String BOOK_DEPTH_PROPERTY = "exchange-sim.report.bookDepth";
+    public static final int DEFAULT_BOOK_DEPTH = 5;
+
+    private final SimulatorPool pool;
+
     /**
-     * Constructs a new {@link ExchangeSimulatorRuntime}.
+     * Constructs a new {@link ExchangeSimulatorRuntime} using the {@link SimulatorPool#getDefault() default pool}.
      */
     public ExchangeSimulatorRuntime() {
+        this(SimulatorPool.getDefault());
+    }
+
+    /**
+     * Constructs a new {@link ExchangeSimulatorRuntime}.
+     *
+     * @param pool The {@link SimulatorPool} to acquire simulators from (cannot be null).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public ExchangeSimulatorRuntime(final SimulatorPool pool) {
+        Preconditions.checkArgument(pool != null, "Cannot construct a runtime with a null pool.");
+        this.pool = pool;
     }
 
     private ExchangeSimulator simulator;
+    private JournalWriter journal;
+    private BookModel bookModel;
+    private Description description;
+    private ImmutableList<String> lastTranscript = ImmutableList.of();
+    private ImmutableList<BookDepth> lastBookDepths = ImmutableList.of();
+
+    /**
+     * @inheritDoc <p />
+     * Additionally reports the simulator transcript and book depth if the test fails.
+     */
+    @Override
+    public Statement apply(final Statement base, final Description description) {
+        this.description = description;
+        final Statement statement = super.apply(base, description);
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                try {
+                    statement.evaluate();
+                } catch (final Throwable throwable) {
+                    reportTranscript(description);
+                    throw throwable;
+                }
+            }
+        };
+    }
 
     /**
      * @inheritDoc
@@ -21,7 +88,15 @@ public final class ExchangeSimulatorRuntime extends ExternalResource {
     @Override
     protected void before() throws Throwable {
         super.before();
-        simulator = ExchangeSimulator.createSimulation();
+        simulator = pool.acquire();
+        if (System.getProperty(BOOK_DEPTH_PROPERTY) != null && getBookDepth() > 0) {
+            attachBookModel();
+        }
+        final String journalDirectory = System.getProperty(JOURNAL_DIRECTORY_PROPERTY);
+        if (journalDirectory != null) {
+            journal = createJournal(Paths.get(journalDirectory));
+            simulator.startRecording(journal);
+        }
     }
 
     /**
@@ -32,7 +107,21 @@ public final class ExchangeSimulatorRuntime extends ExternalResource {
         try {
             super.after();
         } finally {
-            simulator.endSimulation();
+            if (simulator != null) {
+                if (journal != null) {
+                    simulator.stopRecording();
+                    journal.close();
+                    journal = null;
+                }
+                lastTranscript = simulator.getTranscript();
+                if (bookModel != null) {
+                    simulator.detachBookModel();
+                    lastBookDepths = bookModel.getDepths(Math.max(0, getBookDepth()));
+                    bookModel = null;
+                }
+                pool.release(simulator);
+                simulator = null;
+            }
         }
     }
 
@@ -44,4 +133,60 @@ public final class ExchangeSimulatorRuntime extends ExternalResource {
     public ExchangeSimulator getSimulator() {
         return simulator;
     }
+
+    /**
+     * Accesses the model of the running simulator's books, attaching one on first use; the first call must precede the first order written to the simulator.
+     *
+     * @return Non-null {@link BookModel} of the orders written to the simulator.
+     * @throws IllegalStateException if called outside of a test.
+     */
+    public BookModel getBookModel() {
+        Preconditions.checkState(simulator != null, "Cannot model the books outside of a test.");
+        if (bookModel == null) {
+            attachBookModel();
+        }
+        return bookModel;
+    }
+
+    private void attachBookModel() {
+        bookModel = new BookModel();
+        simulator.attachBookModel(bookModel);
+    }
+
+    private static int getBookDepth() {
+        return Integer.getInteger(BOOK_DEPTH_PROPERTY, DEFAULT_BOOK_DEPTH);
+    }
+
+    /**
+     * Creates the journal for the current test, named after its class and method.
+     */
+    private JournalWriter createJournal(final Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (final IOException exception) {
+            throw new JournalError(exception);
+        }
+        final String testName = description == null ? "session-" + System.nanoTime() : description.getClassName() + "." + description.getMethodName();
+        return JournalWriter.create(directory.resolve(testName.replaceAll("[^A-Za-z0-9._-]", "_") + ".journal"));
+    }
+
+    /**
+     * Writes the transcript of the simulator used by the given test, followed by the depth of its books, to stderr in a single write.
+     */
+    private void reportTranscript(final Description description) {
+        final StringBuilder report = new StringBuilder("=== exchange-sim transcript for ").append(description.getDisplayName()).append(" ===").append(System.lineSeparator());
+        lastTranscript.forEach(line -> report.append(line).append(System.lineSeparator()));
+        boolean bookHeaderWritten = false;
+        for (final BookDepth depth : lastBookDepths) {
+            if (depth.getBids().isEmpty() && depth.getAsks().isEmpty()) {
+                continue;
+            }
+            if (!bookHeaderWritten) {
+                report.append("--- book depth ---").append(System.lineSeparator());
+                bookHeaderWritten = true;
+            }
+            report.append(depth).append(System.lineSeparator());
+        }
+        System.err.print(report);
+    }
 }
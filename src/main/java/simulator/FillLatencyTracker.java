@@ -0,0 +1,162 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import simulator.reference.MatchListener;
+import simulator.reference.ReferenceMatchingEngine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Correlates the simulator's fills to the orders that caused them, recording the latency from each order being written to stdin to each of its fills being read
+ * from stdout.
+ * <p/>
+ * The exchange-sim processes its input one order at a time, so the fills of an order are output after those of every earlier order; what the output does not say
+ * is how many fills each order caused. Every line written to stdin is therefore also run through a {@link ReferenceMatchingEngine} modelling the simulator's
+ * books, and the n-th fill read is attributed to the order the model expects the n-th fill from. Fills beyond those the model expects (i.e. where the simulator
+ * disagrees with the model) are not recorded.
+ * <p/>
+ * The tracker sees the input through the {@link JournalingOutputStream} tap, like the {@link OnlineInvariantChecker}, so orders written by any means (batches,
+ * pipelined batches and their markers, sentinels, raw input) keep the model in step with the simulator; it must be attached before any input is written. Each
+ * line is stamped with the time its chunk is handed to the pipe. Instances are thread-safe.
+ */
+final class FillLatencyTracker implements MatchListener {
+
+    private static final Splitter FIELD_SPLITTER = Splitter.on('|');
+
+    private final ReferenceMatchingEngine model = new ReferenceMatchingEngine();
+    private final InputLineAssembler inputLines = new InputLineAssembler();
+    private final SpscLineBuffer.LineConsumer orderLineConsumer = this::onOrderLine;
+    private boolean attached = false;
+
+    // Time the chunk being run through the model is written, and the fills the model expects of the order being run through it.
+    private long inputWriteNanos = 0;
+    private int orderFills = 0;
+
+    // Ring of written orders with fills still outstanding: the time each was written and its number of outstanding fills.
+    private long[] pendingWriteNanos = new long[1024];
+    private int[] pendingFills = new int[1024];
+    private int pendingHead = 0;
+    private int pendingSize = 0;
+
+    private LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * Marks the tracker as attached to a simulator.
+     *
+     * @throws IllegalStateException if the tracker has been attached before.
+     */
+    synchronized void attach() {
+        Preconditions.checkState(!attached, "Cannot attach a FillLatencyTracker more than once.");
+        attached = true;
+    }
+
+    /**
+     * Runs a chunk of input about to be written to stdin, which may end part way through a line, through the model, queueing each order expecting fills.
+     *
+     * @param bytes      The buffer holding the chunk.
+     * @param offset     The offset of the chunk within the buffer.
+     * @param length     The length of the chunk.
+     * @param writeNanos The {@link System#nanoTime()} at which the chunk is written.
+     */
+    synchronized void onInput(final byte[] bytes, final int offset, final int length, final long writeNanos) {
+        inputWriteNanos = writeNanos;
+        inputLines.append(bytes, offset, length, orderLineConsumer);
+    }
+
+    /**
+     * Records the latency of a fill read from stdout.
+     *
+     * @param readNanos The {@link System#nanoTime()} at which the fill was read.
+     */
+    synchronized void onFill(final long readNanos) {
+        if (pendingSize > 0) {
+            latencies.record(readNanos - pendingWriteNanos[pendingHead]);
+            consumeFill();
+        }
+    }
+
+    /**
+     * Accounts for a fill read from stdout without recording its latency, e.g. the trade of a batch marker.
+     */
+    synchronized void skipFill() {
+        if (pendingSize > 0) {
+            consumeFill();
+        }
+    }
+
+    /**
+     * @return Non-null histogram of the latencies recorded since the previous call.
+     */
+    synchronized LatencyHistogram takeLatencies() {
+        final LatencyHistogram taken = latencies;
+        latencies = new LatencyHistogram();
+        return taken;
+    }
+
+    /**
+     * @inheritDoc <p />
+     * Counts a fill the model expects of the order being run through it.
+     */
+    @Override
+    public void onTrade(final int symbolId, final long priceTicks, final long quantity) {
+        orderFills++;
+    }
+
+    /**
+     * @inheritDoc <p />
+     * Warnings are written to stderr and are not correlated.
+     */
+    @Override
+    public void onWarning(final String warning) {
+    }
+
+    /**
+     * Runs a line of input, {@code symbol|action|price|quantity}, through the model; lines the exchange-sim could not parse are ignored.
+     */
+    private void onOrderLine(final byte[] line, final int offset, final int length) {
+        final Iterator<String> fields = FIELD_SPLITTER.split(new String(line, offset, length, StandardCharsets.UTF_8)).iterator();
+        try {
+            final String symbol = fields.next();
+            final String action = fields.next();
+            final Price price = Price.parse(fields.next());
+            final long quantity = Long.parseLong(fields.next());
+            if (!fields.hasNext()) {
+                orderFills = 0;
+                model.process(symbol, action, price, quantity, this);
+                if (orderFills > 0) {
+                    enqueue(inputWriteNanos, orderFills);
+                }
+            }
+        } catch (final NoSuchElementException | NumberFormatException exception) {
+            // Not an order.
+        }
+    }
+
+    private void consumeFill() {
+        if (--pendingFills[pendingHead] == 0) {
+            pendingHead = (pendingHead + 1) & (pendingFills.length - 1);
+            pendingSize--;
+        }
+    }
+
+    private void enqueue(final long writeNanos, final int fills) {
+        if (pendingSize == pendingFills.length) {
+            final long[] writeNanosRing = new long[pendingSize * 2];
+            final int[] fillsRing = new int[pendingSize * 2];
+            for (int index = 0; index < pendingSize; index++) {
+                writeNanosRing[index] = pendingWriteNanos[(pendingHead + index) & (pendingSize - 1)];
+                fillsRing[index] = pendingFills[(pendingHead + index) & (pendingSize - 1)];
+            }
+            pendingWriteNanos = writeNanosRing;
+            pendingFills = fillsRing;
+            pendingHead = 0;
+        }
+        final int tail = (pendingHead + pendingSize) & (pendingFills.length - 1);
+        pendingWriteNanos[tail] = writeNanos;
+        pendingFills[tail] = fills;
+        pendingSize++;
+    }
+}
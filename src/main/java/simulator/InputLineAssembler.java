@@ -0,0 +1,56 @@
+package simulator;
+
+import java.util.Arrays;
+
+/**
+ * Reassembles the lines written to the simulator's stdin for the observers of a {@link JournalingOutputStream}, whose chunks may end part way through a line.
+ * Lines longer than {@value #MAX_LINE_BYTES} bytes cannot be valid orders and are dropped. Instances are not thread-safe.
+ */
+final class InputLineAssembler {
+
+    static final int MAX_LINE_BYTES = 4096;
+
+    private byte[] line = new byte[256];
+    private int length = 0;
+    private boolean overflowed = false;
+
+    /**
+     * Appends a chunk of input, handing each line it completes to the consumer, without its terminator or a trailing carriage return.
+     *
+     * @param bytes    The buffer holding the chunk.
+     * @param offset   The offset of the chunk within the buffer.
+     * @param length   The length of the chunk.
+     * @param consumer Consumer accepting each complete line; the line is only valid for the duration of the call.
+     */
+    void append(final byte[] bytes, final int offset, final int length, final SpscLineBuffer.LineConsumer consumer) {
+        final int end = offset + length;
+        int start = offset;
+        for (int index = offset; index < end; index++) {
+            if (bytes[index] == '\n') {
+                appendPartial(bytes, start, index - start);
+                if (!overflowed) {
+                    consumer.accept(line, 0, this.length > 0 && line[this.length - 1] == '\r' ? this.length - 1 : this.length);
+                }
+                this.length = 0;
+                overflowed = false;
+                start = index + 1;
+            }
+        }
+        appendPartial(bytes, start, end - start);
+    }
+
+    private void appendPartial(final byte[] bytes, final int offset, final int length) {
+        if (overflowed || length == 0) {
+            return;
+        }
+        if (this.length + length > MAX_LINE_BYTES) {
+            overflowed = true;
+            return;
+        }
+        if (this.length + length > line.length) {
+            line = Arrays.copyOf(line, Math.min(MAX_LINE_BYTES, Math.max(line.length * 2, this.length + length)));
+        }
+        System.arraycopy(bytes, offset, line, this.length, length);
+        this.length += length;
+    }
+}
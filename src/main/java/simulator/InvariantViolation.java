@@ -0,0 +1,109 @@
+package simulator;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Describes a trade read from the exchange-sim that broke an invariant checked by an {@link OnlineInvariantChecker}, with the checker's state for the symbol at
+ * the time and the input written just before.
+ */
+public final class InvariantViolation {
+
+    private final String description;
+    private final String tradeLine;
+    private final long lineSequence;
+    private final String symbol;
+    private final long outstandingBuyQuantity;
+    private final long outstandingSellQuantity;
+    private final Price highestBuyPrice;
+    private final Price lowestSellPrice;
+    private final ImmutableList<String> recentInput;
+
+    InvariantViolation(final String description, final String tradeLine, final long lineSequence, final String symbol, final long outstandingBuyQuantity,
+                       final long outstandingSellQuantity, final Price highestBuyPrice, final Price lowestSellPrice, final ImmutableList<String> recentInput) {
+        this.description = description;
+        this.tradeLine = tradeLine;
+        this.lineSequence = lineSequence;
+        this.symbol = symbol;
+        this.outstandingBuyQuantity = outstandingBuyQuantity;
+        this.outstandingSellQuantity = outstandingSellQuantity;
+        this.highestBuyPrice = highestBuyPrice;
+        this.lowestSellPrice = lowestSellPrice;
+        this.recentInput = recentInput;
+    }
+
+    /**
+     * @return Non-null description of the invariant broken.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return Non-null line of stdout breaking the invariant.
+     */
+    public String getTradeLine() {
+        return tradeLine;
+    }
+
+    /**
+     * @return Zero-based sequence number of the line among all lines read from stdout.
+     */
+    public long getLineSequence() {
+        return lineSequence;
+    }
+
+    /**
+     * @return Possibly null symbol of the trade (null if the line could not be parsed).
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @return Quantity of the symbol ordered to buy and not yet traded, before the trade.
+     */
+    public long getOutstandingBuyQuantity() {
+        return outstandingBuyQuantity;
+    }
+
+    /**
+     * @return Quantity of the symbol ordered to sell and not yet traded, before the trade.
+     */
+    public long getOutstandingSellQuantity() {
+        return outstandingSellQuantity;
+    }
+
+    /**
+     * @return Possibly null highest price of the symbol ordered to buy (null if none has been).
+     */
+    public Price getHighestBuyPrice() {
+        return highestBuyPrice;
+    }
+
+    /**
+     * @return Possibly null lowest price of the symbol ordered to sell (null if none has been).
+     */
+    public Price getLowestSellPrice() {
+        return lowestSellPrice;
+    }
+
+    /**
+     * @return Non-null, possibly empty ImmutableList of the last lines written to stdin before the trade was read, oldest first.
+     */
+    public ImmutableList<String> getRecentInput() {
+        return recentInput;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(description).append(" at stdout line #").append(lineSequence).append(" <").append(tradeLine).append('>');
+        if (symbol != null) {
+            builder.append(String.format("%n  %s: outstanding buy=%d sell=%d, highest buy=%s, lowest sell=%s", symbol, outstandingBuyQuantity, outstandingSellQuantity,
+                    highestBuyPrice, lowestSellPrice));
+        }
+        for (final String line : recentInput) {
+            builder.append(String.format("%n  > %s", line));
+        }
+        return builder.toString();
+    }
+}
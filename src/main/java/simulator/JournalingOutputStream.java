@@ -0,0 +1,83 @@
+package simulator;
+
+import simulator.journal.JournalEntry;
+import simulator.journal.JournalWriter;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * OutputStream writing through to the simulator's stdin, recording what is written to a {@link JournalWriter} while one is attached. Each chunk is stamped with
+ * the time the write was issued, before any time spent blocked on the pipe. An {@link OnlineInvariantChecker}, {@link BookModel} or {@link FillLatencyTracker}
+ * attached to the stream sees each chunk before it is written, so no output caused by the input can be read before they know of the input.
+ */
+final class JournalingOutputStream extends FilterOutputStream {
+
+    private volatile JournalWriter journal = null;
+    private volatile OnlineInvariantChecker checker = null;
+    private volatile BookModel bookModel = null;
+    private volatile FillLatencyTracker fillLatencies = null;
+
+    /**
+     * @param output The stream of the simulator's stdin (cannot be null).
+     */
+    JournalingOutputStream(final OutputStream output) {
+        super(output);
+    }
+
+    /**
+     * @param journal The journal to record to, or null to stop recording.
+     */
+    void setJournal(final JournalWriter journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * @param checker The checker to hand the input to, or null to detach it.
+     */
+    void setChecker(final OnlineInvariantChecker checker) {
+        this.checker = checker;
+    }
+
+    /**
+     * @param bookModel The book model to run the input through, or null to detach it.
+     */
+    void setBookModel(final BookModel bookModel) {
+        this.bookModel = bookModel;
+    }
+
+    /**
+     * @param fillLatencies The tracker to hand the input to, stamped with its write time, or null to detach it.
+     */
+    void setFillLatencies(final FillLatencyTracker fillLatencies) {
+        this.fillLatencies = fillLatencies;
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        write(new byte[]{(byte) value}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        final long writeNanos = System.nanoTime();
+        final JournalWriter journal = this.journal;
+        if (journal != null) {
+            journal.record(JournalEntry.Channel.INPUT, bytes, offset, length, writeNanos);
+        }
+        final OnlineInvariantChecker checker = this.checker;
+        if (checker != null) {
+            checker.onInput(bytes, offset, length);
+        }
+        final BookModel bookModel = this.bookModel;
+        if (bookModel != null) {
+            bookModel.onInput(bytes, offset, length);
+        }
+        final FillLatencyTracker fillLatencies = this.fillLatencies;
+        if (fillLatencies != null) {
+            fillLatencies.onInput(bytes, offset, length, writeNanos);
+        }
+        out.write(bytes, offset, length);
+    }
+}
@@ -0,0 +1,150 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Histogram of latencies in nanoseconds with log-linear buckets: values are grouped by their highest set bit into buckets of {@value #SUB_BUCKET_COUNT}
+ * linear sub-buckets, so every recorded value is resolved to within 1/{@value #HALF_SUB_BUCKET_COUNT} (about 1.6%) of itself across the whole range of a long,
+ * from single nanoseconds to hours. Recording is a couple of shifts and an array increment; percentiles (e.g. p99.99) are read off the cumulative counts.
+ * <p/>
+ * Histograms are mergeable: {@link #add(LatencyHistogram)} folds another histogram's counts into this one, e.g. to aggregate the
+ * {@link SimulationResults#getFillLatencies() fill latencies} of many runs.
+ * <p/>
+ * Instances are not thread-safe.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = Long.SIZE - SUB_BUCKET_BITS + 1;
+
+    private final long[] counts = new long[BUCKET_COUNT * HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT];
+    private long totalCount = 0;
+    private long totalNanos = 0;
+    private long minNanos = Long.MAX_VALUE;
+    private long maxNanos = 0;
+
+    /**
+     * Records a latency; negative latencies (e.g. from clock granularity) are recorded as zero.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(nanos, 0);
+        counts[indexOf(value)]++;
+        totalCount++;
+        totalNanos += value;
+        minNanos = Math.min(minNanos, value);
+        maxNanos = Math.max(maxNanos, value);
+    }
+
+    /**
+     * Adds all latencies recorded by another histogram to this one.
+     *
+     * @param other The histogram to merge into this one (cannot be null).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public void add(final LatencyHistogram other) {
+        Preconditions.checkArgument(other != null, "Cannot add a null LatencyHistogram.");
+        for (int index = 0; index < counts.length; index++) {
+            counts[index] += other.counts[index];
+        }
+        totalCount += other.totalCount;
+        totalNanos += other.totalNanos;
+        minNanos = Math.min(minNanos, other.minNanos);
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+    }
+
+    /**
+     * @return Non-null copy of this histogram.
+     */
+    public LatencyHistogram copy() {
+        final LatencyHistogram copy = new LatencyHistogram();
+        copy.add(this);
+        return copy;
+    }
+
+    /**
+     * @return The number of latencies recorded.
+     */
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return The smallest latency recorded in nanoseconds, or zero if none has been recorded.
+     */
+    public long getMinNanos() {
+        return totalCount == 0 ? 0 : minNanos;
+    }
+
+    /**
+     * @return The largest latency recorded in nanoseconds, or zero if none has been recorded.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return The mean latency in nanoseconds, or zero if none has been recorded.
+     */
+    public double getMeanNanos() {
+        return totalCount == 0 ? 0 : (double) totalNanos / totalCount;
+    }
+
+    /**
+     * Looks up the latency at a percentile, e.g. 99.99 for the p99.99.
+     *
+     * @param percentile The percentile (between 0 and 100).
+     * @return The latency in nanoseconds at or below which the given percentage of latencies fall (to within the histogram's resolution, and never more than
+     * {@link #getMaxNanos()}), or zero if none has been recorded.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        Preconditions.checkArgument(percentile >= 0 && percentile <= 100, "Percentile must be between 0 and 100.");
+        if (totalCount == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long cumulativeCount = 0;
+        for (int index = 0; index < counts.length; index++) {
+            cumulativeCount += counts[index];
+            if (cumulativeCount >= rank) {
+                return Math.max(Math.min(highestEquivalentValue(index), maxNanos), getMinNanos());
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * @return Non-null summary of the count, mean and percentiles up to p99.99, in microseconds.
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus p99.99=%.1fus max=%.1fus", totalCount, getMeanNanos() / 1000,
+                micros(getValueAtPercentile(50)), micros(getValueAtPercentile(90)), micros(getValueAtPercentile(99)), micros(getValueAtPercentile(99.9)),
+                micros(getValueAtPercentile(99.99)), micros(maxNanos));
+    }
+
+    private static double micros(final long nanos) {
+        return (double) nanos / TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    /**
+     * Values below {@link #SUB_BUCKET_COUNT} map to themselves; larger values are shifted down to their top {@link #SUB_BUCKET_BITS} bits, which fall in the
+     * upper half of a bucket's sub-buckets.
+     */
+    private static int indexOf(final long value) {
+        final int bucket = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (bucket << (SUB_BUCKET_BITS - 1)) + (int) (value >>> bucket);
+    }
+
+    private static long highestEquivalentValue(final int index) {
+        final int bucket = Math.max(0, (index >> (SUB_BUCKET_BITS - 1)) - 1);
+        final long subBucket = index - ((long) bucket << (SUB_BUCKET_BITS - 1));
+        return ((subBucket + 1) << bucket) - 1;
+    }
+}
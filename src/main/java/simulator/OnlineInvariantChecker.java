@@ -0,0 +1,289 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import simulator.output.TradeParser;
+import simulator.output.TradeSink;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Checks invariants of the exchange-sim's output as each trade is read, against the orders written to it, without retaining either. Once
+ * {@link ExchangeSimulator#attachChecker(OnlineInvariantChecker) attached}, the checker sees every chunk written to stdin before the simulator does and every
+ * line of stdout as the reading thread completes it, and keeps only a few counters per symbol:
+ * <ul>
+ * <li>each trade is of a symbol ordered before, with a positive quantity;</li>
+ * <li>the quantity traded never exceeds the quantity ordered but not yet traded, on either side of the symbol;</li>
+ * <li>the trade price lies between the lowest price ordered to sell and the highest price ordered to buy;</li>
+ * <li>stdout lines arrive in sequence, with non-decreasing read times.</li>
+ * </ul>
+ * Every violation is handed to the listener as soon as it is read, with the symbol's state and the last {@value #CONTEXT_LINES} lines of input as context, so
+ * correctness can be monitored throughout long load runs (e.g. a {@link simulator.load.SoakRunner}) at a constant memory cost. Input lines other than well-formed
+ * BUY and SELL orders (e.g. sentinels) are ignored.
+ * <p/>
+ * The checker must be attached before any order is written, as trades against earlier orders would otherwise be reported, and to one simulator only. Instances
+ * are thread-safe; the listener is invoked on the thread reading stdout while the checker is locked, so must not block.
+ */
+public final class OnlineInvariantChecker {
+
+    /**
+     * The number of most recent input lines retained as context for violations.
+     */
+    public static final int CONTEXT_LINES = 8;
+
+    private static final int CONTEXT_LINE_BYTES = 64;
+    private static final int PRICE_SCALE = 8;
+    private static final byte[] BUY = "BUY".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SELL = "SELL".getBytes(StandardCharsets.US_ASCII);
+
+    private final Consumer<InvariantViolation> listener;
+    private final SymbolDictionary symbols = SymbolDictionary.getDefault();
+    private final TradeParser parser = new TradeParser();
+    private final ParsedLine parsed = new ParsedLine();
+    private boolean attached = false;
+
+    // Per symbol id: quantities ordered and not yet traded, and the price bounds ordered so far (in ticks of PRICE_SCALE).
+    private long[] outstandingBuy = new long[0];
+    private long[] outstandingSell = new long[0];
+    private long[] highestBuy = new long[0];
+    private long[] lowestSell = new long[0];
+
+    // Input lines assembled across chunks, and the line rewritten as symbol|price|quantity for the parser.
+    private final InputLineAssembler inputLines = new InputLineAssembler();
+    private final SpscLineBuffer.LineConsumer orderLineConsumer = this::onOrderLine;
+    private byte[] orderLine = new byte[256];
+
+    // Ring of the most recent input lines, truncated to CONTEXT_LINE_BYTES.
+    private final byte[][] recentInput = new byte[CONTEXT_LINES][CONTEXT_LINE_BYTES];
+    private final int[] recentLengths = new int[CONTEXT_LINES];
+    private long recentCount = 0;
+
+    private long lastSequence = -1;
+    private long lastReadNanos = Long.MIN_VALUE;
+    private long orderCount = 0;
+    private long tradeCount = 0;
+    private long violationCount = 0;
+    private InvariantViolation firstViolation = null;
+
+    /**
+     * Creates a checker printing violations to stderr.
+     */
+    public OnlineInvariantChecker() {
+        this(violation -> System.err.println("Invariant violated: " + violation));
+    }
+
+    /**
+     * @param listener Receiver of each violation as it is read (cannot be null).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public OnlineInvariantChecker(final Consumer<InvariantViolation> listener) {
+        Preconditions.checkArgument(listener != null, "Cannot report violations to a null listener.");
+        this.listener = listener;
+    }
+
+    /**
+     * @return The number of BUY and SELL orders seen.
+     */
+    public synchronized long getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * @return The number of trades checked.
+     */
+    public synchronized long getTradeCount() {
+        return tradeCount;
+    }
+
+    /**
+     * @return The number of violations reported.
+     */
+    public synchronized long getViolationCount() {
+        return violationCount;
+    }
+
+    /**
+     * @return Possibly null first violation reported (null if none has been).
+     */
+    public synchronized InvariantViolation getFirstViolation() {
+        return firstViolation;
+    }
+
+    /**
+     * Marks the checker as attached to a simulator.
+     *
+     * @throws IllegalStateException if the checker has been attached before.
+     */
+    synchronized void attach() {
+        Preconditions.checkState(!attached, "Cannot attach an OnlineInvariantChecker more than once.");
+        attached = true;
+    }
+
+    /**
+     * Notes a chunk of input about to be written to stdin, which may end part way through a line.
+     */
+    synchronized void onInput(final byte[] bytes, final int offset, final int length) {
+        inputLines.append(bytes, offset, length, orderLineConsumer);
+    }
+
+    /**
+     * Checks a line read from stdout.
+     */
+    synchronized void onOutputLine(final byte[] bytes, final int offset, final int length, final long sequence, final long readNanos) {
+        if ((lastSequence >= 0 && sequence != lastSequence + 1) || readNanos < lastReadNanos) {
+            report("Line read out of sequence after line #" + lastSequence, bytes, offset, length, sequence, SymbolDictionary.NO_SYMBOL);
+        }
+        lastSequence = sequence;
+        lastReadNanos = Math.max(lastReadNanos, readNanos);
+        if (!parser.parse(bytes, offset, length, parsed)) {
+            report("Malformed trade", bytes, offset, length, sequence, SymbolDictionary.NO_SYMBOL);
+            return;
+        }
+        tradeCount++;
+        final int symbolId = parsed.symbolId;
+        if (symbolId >= outstandingBuy.length || (highestBuy[symbolId] == Long.MIN_VALUE && lowestSell[symbolId] == Long.MAX_VALUE)) {
+            report("Trade of a symbol never ordered", bytes, offset, length, sequence, SymbolDictionary.NO_SYMBOL);
+            return;
+        }
+        final long quantity = parsed.quantity;
+        if (quantity <= 0) {
+            report("Trade of a non-positive quantity", bytes, offset, length, sequence, symbolId);
+        } else if (quantity > outstandingBuy[symbolId] || quantity > outstandingSell[symbolId]) {
+            report("Trade exceeds the quantity outstanding", bytes, offset, length, sequence, symbolId);
+        }
+        if (Price.isRepresentable(parsed.priceTicks, parsed.priceScale, PRICE_SCALE)) {
+            final long price = Price.rescale(parsed.priceTicks, parsed.priceScale, PRICE_SCALE);
+            if (price > highestBuy[symbolId] || price < lowestSell[symbolId]) {
+                report("Trade price outside of the prices ordered", bytes, offset, length, sequence, symbolId);
+            }
+        } else {
+            report("Trade price not representable to " + PRICE_SCALE + " decimal places", bytes, offset, length, sequence, symbolId);
+        }
+        outstandingBuy[symbolId] = Math.max(0, outstandingBuy[symbolId] - Math.max(quantity, 0));
+        outstandingSell[symbolId] = Math.max(0, outstandingSell[symbolId] - Math.max(quantity, 0));
+    }
+
+    /**
+     * Notes a line of input, {@code symbol|action|price|quantity}, by rewriting it as {@code symbol|price|quantity} for the trade parser.
+     */
+    private void onOrderLine(final byte[] line, final int offset, final int length) {
+        final int slot = (int) (recentCount++ % CONTEXT_LINES);
+        recentLengths[slot] = Math.min(length, CONTEXT_LINE_BYTES);
+        System.arraycopy(line, offset, recentInput[slot], 0, recentLengths[slot]);
+
+        final int end = offset + length;
+        final int actionStart = indexOf(line, offset, end) + 1;
+        final int actionEnd = actionStart == 0 ? -1 : indexOf(line, actionStart, end);
+        if (actionEnd < 0) {
+            return;
+        }
+        final boolean buy = regionEquals(line, actionStart, actionEnd, BUY);
+        if (!buy && !regionEquals(line, actionStart, actionEnd, SELL)) {
+            return;
+        }
+        if (orderLine.length < length) {
+            orderLine = new byte[Math.max(orderLine.length * 2, length)];
+        }
+        final int symbolLength = actionStart - 1 - offset;
+        System.arraycopy(line, offset, orderLine, 0, symbolLength);
+        System.arraycopy(line, actionEnd, orderLine, symbolLength, end - actionEnd);
+        if (!parser.parse(orderLine, 0, symbolLength + end - actionEnd, parsed) || parsed.quantity <= 0
+                || !Price.isRepresentable(parsed.priceTicks, parsed.priceScale, PRICE_SCALE)) {
+            return;
+        }
+        final int symbolId = parsed.symbolId;
+        ensureCapacity(symbolId);
+        final long price = Price.rescale(parsed.priceTicks, parsed.priceScale, PRICE_SCALE);
+        if (buy) {
+            outstandingBuy[symbolId] = saturatedAdd(outstandingBuy[symbolId], parsed.quantity);
+            highestBuy[symbolId] = Math.max(highestBuy[symbolId], price);
+        } else {
+            outstandingSell[symbolId] = saturatedAdd(outstandingSell[symbolId], parsed.quantity);
+            lowestSell[symbolId] = Math.min(lowestSell[symbolId], price);
+        }
+        orderCount++;
+    }
+
+    private void ensureCapacity(final int symbolId) {
+        if (symbolId < outstandingBuy.length) {
+            return;
+        }
+        final int oldLength = outstandingBuy.length;
+        final int newLength = Math.max(symbolId + 1, Math.max(16, oldLength * 2));
+        outstandingBuy = Arrays.copyOf(outstandingBuy, newLength);
+        outstandingSell = Arrays.copyOf(outstandingSell, newLength);
+        highestBuy = Arrays.copyOf(highestBuy, newLength);
+        lowestSell = Arrays.copyOf(lowestSell, newLength);
+        Arrays.fill(highestBuy, oldLength, newLength, Long.MIN_VALUE);
+        Arrays.fill(lowestSell, oldLength, newLength, Long.MAX_VALUE);
+    }
+
+    private void report(final String description, final byte[] bytes, final int offset, final int length, final long sequence, final int symbolId) {
+        final ImmutableList.Builder<String> input = ImmutableList.builder();
+        for (long line = Math.max(0, recentCount - CONTEXT_LINES); line < recentCount; line++) {
+            final int slot = (int) (line % CONTEXT_LINES);
+            input.add(new String(recentInput[slot], 0, recentLengths[slot], StandardCharsets.UTF_8));
+        }
+        final boolean known = symbolId != SymbolDictionary.NO_SYMBOL;
+        final InvariantViolation violation = new InvariantViolation(description, new String(bytes, offset, length, StandardCharsets.UTF_8), sequence,
+                known ? symbols.getSymbol(symbolId) : null, known ? outstandingBuy[symbolId] : 0, known ? outstandingSell[symbolId] : 0,
+                known && highestBuy[symbolId] != Long.MIN_VALUE ? Price.of(highestBuy[symbolId], PRICE_SCALE) : null,
+                known && lowestSell[symbolId] != Long.MAX_VALUE ? Price.of(lowestSell[symbolId], PRICE_SCALE) : null, input.build());
+        violationCount++;
+        if (firstViolation == null) {
+            firstViolation = violation;
+        }
+        try {
+            listener.accept(violation);
+        } catch (final RuntimeException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    private static long saturatedAdd(final long value, final long addend) {
+        final long sum = value + addend;
+        return sum < value ? Long.MAX_VALUE : sum;
+    }
+
+    private static boolean regionEquals(final byte[] bytes, final int start, final int end, final byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int index = 0; index < expected.length; index++) {
+            if (bytes[start + index] != expected[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(final byte[] bytes, final int start, final int end) {
+        for (int index = start; index < end; index++) {
+            if (bytes[index] == '|') {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Holds the fields of the line last parsed.
+     */
+    private static final class ParsedLine implements TradeSink {
+
+        int symbolId;
+        long priceTicks;
+        int priceScale;
+        long quantity;
+
+        @Override
+        public void onTrade(final int symbolId, final long priceTicks, final int priceScale, final long quantity) {
+            this.symbolId = symbolId;
+            this.priceTicks = priceTicks;
+            this.priceScale = priceScale;
+            this.quantity = quantity;
+        }
+    }
+}
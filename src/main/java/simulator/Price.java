@@ -0,0 +1,316 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Exact decimal price, held as a long number of ticks of {@code 10^-scale}. Prices travel through the pipe protocol in plain decimal notation, so holding them as
+ * ticks lets orders be encoded and trades parsed and compared digit for digit, without the rounding of a binary double in between.
+ * <p/>
+ * Instances are normalized to the fewest ticks (e.g. {@code 145.10} is held as 1451 ticks of scale 1), so two prices are {@link #equals(Object) equal} exactly when
+ * they denote the same number. The scale may be negative for large whole prices. Prices of up to 18 significant digits are exact; longer decimals are rounded to
+ * 18 significant digits when parsed.
+ * <p/>
+ * The static {@link #rescale(long, int, int)} and {@link #isRepresentable(long, int, int)} work on ticks and scales as primitives, for hot paths holding prices as
+ * columns of ticks at a fixed, configurable scale. Instances are immutable.
+ */
+public final class Price implements Comparable<Price> {
+
+    public static final Price ZERO = new Price(0, 0);
+
+    private static final int MAX_DIGITS = 18;
+    private static final int MAX_EXPONENT = 9999;
+    private static final long MAX_MANTISSA = (Long.MAX_VALUE - 9) / 10;
+    private static final long[] LONG_POWERS_OF_TEN = new long[MAX_DIGITS + 1];
+    private static final double[] DOUBLE_POWERS_OF_TEN = new double[23];
+
+    static {
+        LONG_POWERS_OF_TEN[0] = 1;
+        for (int power = 1; power < LONG_POWERS_OF_TEN.length; power++) {
+            LONG_POWERS_OF_TEN[power] = LONG_POWERS_OF_TEN[power - 1] * 10;
+        }
+        DOUBLE_POWERS_OF_TEN[0] = 1;
+        for (int power = 1; power < DOUBLE_POWERS_OF_TEN.length; power++) {
+            DOUBLE_POWERS_OF_TEN[power] = DOUBLE_POWERS_OF_TEN[power - 1] * 10;
+        }
+    }
+
+    private final long ticks;
+    private final int scale;
+
+    private Price(final long ticks, final int scale) {
+        this.ticks = ticks;
+        this.scale = scale;
+    }
+
+    /**
+     * @param ticks The price in ticks of {@code 10^-scale}.
+     * @param scale The number of decimal places of the ticks.
+     * @return Non-null {@link Price} of the given number of ticks.
+     */
+    public static Price of(final long ticks, final int scale) {
+        if (ticks == 0) {
+            return ZERO;
+        }
+        long normalizedTicks = ticks;
+        int normalizedScale = scale;
+        while (normalizedTicks % 10 == 0) {
+            normalizedTicks /= 10;
+            normalizedScale--;
+        }
+        return new Price(normalizedTicks, normalizedScale);
+    }
+
+    /**
+     * Converts a double to the price its {@link Double#toString(double) shortest decimal representation} denotes, e.g. {@code 145.09} to 14509 ticks of scale 2
+     * rather than to the binary fraction nearest to it.
+     *
+     * @param price The price (must be finite).
+     * @return Non-null {@link Price} of the double's decimal representation.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public static Price valueOf(final double price) {
+        Preconditions.checkArgument(!Double.isNaN(price) && !Double.isInfinite(price), "Price must be finite: %s", price);
+        return parse(Double.toString(price));
+    }
+
+    /**
+     * Parses a decimal price, in plain or exponent notation.
+     *
+     * @param text The price (cannot be null).
+     * @return Non-null {@link Price} denoted by the text, rounded to 18 significant digits.
+     * @throws NumberFormatException if the text is not a decimal number.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public static Price parse(final CharSequence text) {
+        Preconditions.checkArgument(text != null, "Cannot parse a null price.");
+        final int length = text.length();
+        int index = 0;
+        final boolean negative = length > 0 && text.charAt(0) == '-';
+        if (negative || (length > 0 && text.charAt(0) == '+')) {
+            index++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean point = false;
+        for (; index < length; index++) {
+            final char character = text.charAt(index);
+            if (character >= '0' && character <= '9') {
+                if (mantissa > MAX_MANTISSA) {
+                    return parseLong(text);
+                }
+                mantissa = mantissa * 10 + (character - '0');
+                digits++;
+                if (point) {
+                    scale++;
+                }
+            } else if (character == '.' && !point) {
+                point = true;
+            } else if ((character == 'e' || character == 'E') && digits > 0) {
+                scale -= parseExponent(text, index + 1);
+                break;
+            } else {
+                throw new NumberFormatException("Invalid price: " + text);
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Invalid price: " + text);
+        }
+        return of(negative ? -mantissa : mantissa, scale);
+    }
+
+    /**
+     * Converts a price in ticks to another scale, rounding half away from zero when the target scale has fewer decimal places.
+     *
+     * @param ticks       The price in ticks of {@code 10^-scale}.
+     * @param scale       The number of decimal places of the ticks.
+     * @param targetScale The number of decimal places to convert to.
+     * @return The price in ticks of {@code 10^-targetScale}.
+     * @throws ArithmeticException if the converted ticks do not fit in a long.
+     */
+    public static long rescale(final long ticks, final int scale, final int targetScale) {
+        if (scale == targetScale || ticks == 0) {
+            return ticks;
+        }
+        final long difference = (long) targetScale - scale;
+        if (difference > MAX_DIGITS || difference < -MAX_DIGITS) {
+            return BigDecimal.valueOf(ticks, scale).setScale(targetScale, RoundingMode.HALF_UP).longValueExact();
+        }
+        if (difference > 0) {
+            final long factor = LONG_POWERS_OF_TEN[(int) difference];
+            if (ticks > Long.MAX_VALUE / factor || ticks < -Long.MAX_VALUE / factor) {
+                throw new ArithmeticException("Price overflows at scale " + targetScale + ": " + ticks + "E" + -scale);
+            }
+            return ticks * factor;
+        }
+        final long factor = LONG_POWERS_OF_TEN[(int) -difference];
+        final long quotient = ticks / factor;
+        final long remainder = Math.abs(ticks % factor);
+        return remainder * 2 >= factor ? quotient + Long.signum(ticks) : quotient;
+    }
+
+    /**
+     * @param ticks       The price in ticks of {@code 10^-scale}.
+     * @param scale       The number of decimal places of the ticks.
+     * @param targetScale The number of decimal places to convert to.
+     * @return True if {@link #rescale(long, int, int)} converts the price exactly, without rounding or overflow.
+     */
+    public static boolean isRepresentable(final long ticks, final int scale, final int targetScale) {
+        if (scale == targetScale || ticks == 0) {
+            return true;
+        }
+        final long difference = (long) targetScale - scale;
+        if (difference > MAX_DIGITS || difference < -MAX_DIGITS) {
+            return false;
+        }
+        if (difference > 0) {
+            final long factor = LONG_POWERS_OF_TEN[(int) difference];
+            return ticks <= Long.MAX_VALUE / factor && ticks >= -Long.MAX_VALUE / factor;
+        }
+        return ticks % LONG_POWERS_OF_TEN[(int) -difference] == 0;
+    }
+
+    /**
+     * @return The price in ticks of {@code 10^-}{@link #getScale()}.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return The number of decimal places of the ticks; negative for whole prices ending in zeros.
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * @param targetScale The number of decimal places to convert to.
+     * @return The price in ticks of {@code 10^-targetScale}, rounded half away from zero.
+     * @throws ArithmeticException if the converted ticks do not fit in a long.
+     * @see #rescale(long, int, int)
+     */
+    public long toTicks(final int targetScale) {
+        return rescale(ticks, scale, targetScale);
+    }
+
+    /**
+     * @return -1, 0 or 1 as this price is negative, zero or positive.
+     */
+    public int signum() {
+        return Long.signum(ticks);
+    }
+
+    /**
+     * @return The double closest to this price.
+     */
+    public double toDouble() {
+        // With both operands exact, a single multiplication or division is correctly rounded.
+        if (Math.abs(ticks) <= 1L << 53) {
+            if (scale >= 0 && scale < DOUBLE_POWERS_OF_TEN.length) {
+                return ticks / DOUBLE_POWERS_OF_TEN[scale];
+            }
+            if (scale < 0 && -scale < DOUBLE_POWERS_OF_TEN.length) {
+                return ticks * DOUBLE_POWERS_OF_TEN[-scale];
+            }
+        }
+        return Double.parseDouble(ticks + "E" + -scale);
+    }
+
+    /**
+     * @return Non-null {@link BigDecimal} of this price.
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(ticks, scale);
+    }
+
+    /**
+     * Compares prices by their numeric value.
+     */
+    @Override
+    public int compareTo(final Price other) {
+        return scale == other.scale ? Long.compare(ticks, other.ticks) : toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Price)) {
+            return false;
+        }
+        final Price price = (Price) other;
+        return ticks == price.ticks && scale == price.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(ticks) + scale;
+    }
+
+    /**
+     * @return Non-null plain decimal representation of this price without trailing zeros, as the exchange-sim protocol expects.
+     */
+    @Override
+    public String toString() {
+        final String digits = Long.toString(ticks);
+        if (scale <= 0) {
+            final StringBuilder builder = new StringBuilder(digits);
+            for (int zeros = 0; zeros < -scale && ticks != 0; zeros++) {
+                builder.append('0');
+            }
+            return builder.toString();
+        }
+        final int signLength = ticks < 0 ? 1 : 0;
+        final int integerDigits = digits.length() - signLength - scale;
+        final StringBuilder builder = new StringBuilder(digits.length() + Math.max(2 - integerDigits, 1));
+        builder.append(digits, 0, signLength);
+        if (integerDigits <= 0) {
+            builder.append("0.");
+            for (int zeros = 0; zeros < -integerDigits; zeros++) {
+                builder.append('0');
+            }
+            builder.append(digits, signLength, digits.length());
+        } else {
+            builder.append(digits, signLength, signLength + integerDigits).append('.').append(digits, signLength + integerDigits, digits.length());
+        }
+        return builder.toString();
+    }
+
+    private static int parseExponent(final CharSequence text, final int start) {
+        final int length = text.length();
+        int index = start;
+        final boolean negative = index < length && text.charAt(index) == '-';
+        if (negative || (index < length && text.charAt(index) == '+')) {
+            index++;
+        }
+        if (index == length) {
+            throw new NumberFormatException("Invalid price: " + text);
+        }
+        int exponent = 0;
+        for (; index < length; index++) {
+            final char character = text.charAt(index);
+            if (character < '0' || character > '9') {
+                throw new NumberFormatException("Invalid price: " + text);
+            }
+            exponent = exponent * 10 + (character - '0');
+            if (exponent > MAX_EXPONENT) {
+                throw new NumberFormatException("Price exponent out of range: " + text);
+            }
+        }
+        return negative ? -exponent : exponent;
+    }
+
+    /**
+     * Parses a price with more significant digits than a long holds, rounding it to {@value #MAX_DIGITS} of them.
+     */
+    private static Price parseLong(final CharSequence text) {
+        final BigDecimal price = new BigDecimal(text.toString()).round(new MathContext(MAX_DIGITS, RoundingMode.HALF_EVEN));
+        return of(price.unscaledValue().longValueExact(), price.scale());
+    }
+}
@@ -1,33 +1,60 @@
 package simulator;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
+import simulator.journal.JournalEntry;
+import simulator.journal.JournalWriter;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 /**
- * Runnable for continuously reading from an {@link InputStream}. Read lines can be accessed via {@link #getReadLines()}. In order to get only the
- * latest output, it is necessary to {@link #flush()} the stream reader after retrieving read lines.
+ * Runnable for continuously reading from an {@link InputStream}. The raw bytes read are split into lines and published to a lock-free {@link SpscLineBuffer}
+ * without decoding them; a single consumer drains the lines read since its last drain via {@link #drainReadLines(long, Consumer)} or
+ * {@link #drainReadBytes(long, SpscLineBuffer.LineConsumer)}, so no line is lost or returned twice regardless of when it arrives.
+ * <p/>
+ * The buffer is unbounded by default. A consumer which cannot keep up may {@link #setPendingLineLimit(int) bound} it, in which case the reading thread stops
+ * reading while the limit is reached, so the process writing to the stream blocks once the pipe fills rather than the buffer growing; a consumer may also register
+ * a thread to be unparked as soon as lines are read.
  */
 final class RunnableStreamReader implements Runnable {
 
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private static final long PENDING_LINE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
     private final InputStream inputStream;
-    private final List<String> readLines = Lists.newArrayList();
+    private final boolean retainLastLine;
+    private final SpscLineBuffer readLines = new SpscLineBuffer();
+
+    // Progress indicators published by the reading thread for completion detection.
+    private volatile String lastLine = null;
+    private volatile long lastReadNanos = System.nanoTime();
+    private volatile boolean finished = false;
+
+    // Journal recording the raw bytes read, if any.
+    private volatile JournalWriter journal = null;
+    private volatile JournalEntry.Channel journalChannel = null;
+
+    // Observer of each line read, before it is published, if any.
+    private volatile LineTap lineTap = null;
+
+    // Backpressure: the most lines read but not yet drained before reading stops (0 for unbounded), and the consumer thread to unpark when lines are read.
+    private volatile int pendingLineLimit = 0;
+    private volatile Thread lineWaiter = null;
 
     /**
      * Constructs a new {@link RunnableStreamReader}.
      *
-     * @param inputStream @link InputStream to read from (cannot be null).
+     * @param inputStream    @link InputStream to read from (cannot be null).
+     * @param retainLastLine True to decode each line as it is read so it is available from {@link #getLastLine()}, false to leave lines undecoded.
      * @throws IllegalArgumentException if parameter conditions are not met.
      */
-    RunnableStreamReader(final InputStream inputStream) {
+    RunnableStreamReader(final InputStream inputStream, final boolean retainLastLine) {
         Preconditions.checkArgument(inputStream != null, "RunnableStreamReader requires a non-null inputStream.");
         this.inputStream = inputStream;
+        this.retainLastLine = retainLastLine;
     }
 
     /**
@@ -35,29 +62,205 @@ final class RunnableStreamReader implements Runnable {
      * Reads from the stream repeatedly until the underlying stream closes.
      */
     public void run() {
-        String output = null;
-        try (final BufferedReader streamReader = new BufferedReader(new InputStreamReader(inputStream))) {
-            while ((output = streamReader.readLine()) != null) {
-                readLines.add(output);
+        final byte[] buffer = new byte[READ_BUFFER_SIZE];
+        try (final InputStream stream = inputStream) {
+            int read;
+            long readNanos = lastReadNanos;
+            while ((read = stream.read(buffer)) != -1) {
+                // One timestamp per read stamps every line completed by it, keeping the cost off the per-line path.
+                readNanos = System.nanoTime();
+                lastReadNanos = readNanos;
+                final JournalWriter journal = this.journal;
+                if (journal != null) {
+                    journal.record(journalChannel, buffer, 0, read, readNanos);
+                }
+                int lineStart = 0;
+                for (int index = 0; index < read; index++) {
+                    if (buffer[index] == '\n') {
+                        readLines.append(buffer, lineStart, index - lineStart);
+                        publishLine(readNanos);
+                        lineStart = index + 1;
+                    }
+                }
+                readLines.append(buffer, lineStart, read - lineStart);
+                wakeLineWaiter();
             }
+            if (readLines.hasPartialLine()) {
+                publishLine(readNanos);
+            }
+            wakeLineWaiter();
         } catch (final IOException exception) {
             System.err.println("Exception occurred while reading input stream.");
-            System.err.println(exception.getStackTrace());
+            exception.printStackTrace();
+        } finally {
+            finished = true;
         }
         return;
     }
 
+    private void publishLine(final long readNanos) {
+        if (retainLastLine) {
+            lastLine = readLines.decodePartialLine();
+        }
+        final LineTap tap = lineTap;
+        if (tap != null) {
+            final long sequence = readLines.getPublishedSequence();
+            readLines.peekPartialLine((bytes, offset, length) -> tap.onLine(bytes, offset, length, sequence, readNanos));
+        }
+        readLines.endLine(readNanos);
+        final int limit = pendingLineLimit;
+        if (limit > 0 && readLines.getPublishedSequence() - readLines.getReleasedSequence() >= limit) {
+            awaitPendingLines();
+        }
+    }
+
+    /**
+     * Stops reading until the consumer has drained below the pending line limit, or the limit is lifted.
+     */
+    private void awaitPendingLines() {
+        wakeLineWaiter();
+        int limit;
+        while ((limit = pendingLineLimit) > 0 && readLines.getPublishedSequence() - readLines.getReleasedSequence() >= limit) {
+            LockSupport.parkNanos(PENDING_LINE_PARK_NANOS);
+        }
+    }
+
+    private void wakeLineWaiter() {
+        final Thread waiter = lineWaiter;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    /**
+     * Attaches an observer of the lines read from now on, invoked on the reading thread as each line is completed, before it is published to the consumer.
+     *
+     * @param tap The observer, or null to detach it.
+     */
+    void setLineTap(final LineTap tap) {
+        lineTap = tap;
+    }
+
+    /**
+     * Bounds the number of lines read but not yet drained: once it is reached, the reading thread stops reading until the consumer drains.
+     *
+     * @param limit The most lines to hold pending (at least 1), or 0 to lift the bound.
+     */
+    void setPendingLineLimit(final int limit) {
+        assert limit >= 0 : "limit: " + limit;
+        pendingLineLimit = limit;
+    }
+
+    /**
+     * Registers a thread to unpark whenever lines have been read, e.g. a consumer parked waiting for output.
+     *
+     * @param waiter The thread to unpark, or null to unpark none.
+     */
+    void setLineWaiter(final Thread waiter) {
+        lineWaiter = waiter;
+    }
+
+    /**
+     * @return The number of lines read from the stream but not yet drained; readable from any thread.
+     */
+    long getPendingLineCount() {
+        return readLines.getPublishedSequence() - readLines.getReleasedSequence();
+    }
+
+    /**
+     * Attaches a journal recording the bytes read from now on.
+     *
+     * @param journal The journal to record to, or null to stop recording.
+     * @param channel The channel the bytes are recorded as (cannot be null if the journal is not).
+     */
+    void setJournal(final JournalWriter journal, final JournalEntry.Channel channel) {
+        // The channel is published before the journal and left in place on stopping, so the reading thread never sees a journal without its channel.
+        if (journal != null) {
+            this.journalChannel = channel;
+        }
+        this.journal = journal;
+    }
+
+    /**
+     * Hands the lines read from the stream since the previous drain, up to (excluding) the given line sequence number, to a consumer without copying them (single
+     * consumer thread only).
+     *
+     * @param limitSequence Exclusive upper bound of the line sequence numbers to drain.
+     * @param consumer      Consumer accepting the drained lines in order (cannot be null).
+     * @return The number of lines drained.
+     */
+    int drainReadLines(final long limitSequence, final Consumer<String> consumer) {
+        return readLines.drain(limitSequence, consumer);
+    }
+
+    /**
+     * Hands the lines read from the stream since the previous drain, up to (excluding) the given line sequence number, to a consumer as undecoded bytes (single
+     * consumer thread only).
+     *
+     * @param limitSequence Exclusive upper bound of the line sequence numbers to drain.
+     * @param consumer      Consumer accepting the drained lines in order (cannot be null).
+     * @return The number of lines drained.
+     */
+    int drainReadBytes(final long limitSequence, final SpscLineBuffer.LineConsumer consumer) {
+        return readLines.drainBytes(limitSequence, consumer);
+    }
+
+    /**
+     * Observer of the lines read, receiving each as a range of a byte array which is only valid for the duration of the call.
+     */
+    @FunctionalInterface
+    interface LineTap {
+
+        /**
+         * @param bytes     The buffer holding the line, excluding its terminator.
+         * @param offset    The offset of the line within the buffer.
+         * @param length    The length of the line.
+         * @param sequence  The sequence number of the line, counting from zero.
+         * @param readNanos The {@link System#nanoTime()} at which the line was read.
+         */
+        void onLine(final byte[] bytes, final int offset, final int length, final long sequence, final long readNanos);
+    }
+
+    /**
+     * @return Total number of lines read from the stream since construction of this instance, i.e. the sequence number the next line read will receive.
+     */
+    long getLineCount() {
+        return readLines.getPublishedSequence();
+    }
+
+    /**
+     * @return Total number of lines drained from this reader, i.e. the sequence number of the next line to be drained (consumer thread only).
+     */
+    long getDrainedLineCount() {
+        return readLines.getConsumedSequence();
+    }
+
+    /**
+     * @return The {@link System#nanoTime()} at which the line most recently drained from this reader was read, e.g. from within a drain's consumer (consumer
+     * thread only).
+     */
+    long getDrainedLineNanos() {
+        return readLines.getDrainedLineNanos();
+    }
+
+    /**
+     * @return Possibly null line most recently read from the stream, or null if this reader does not retain it.
+     */
+    String getLastLine() {
+        return lastLine;
+    }
+
     /**
-     * @return Non-null, possibly empty ImmutableList of lines read from the stream since construction of this instance or the last time {@link #flush()} was invoked.
+     * @return The {@link System#nanoTime()} at which the last line was read, or at which this instance was constructed if no line has been read.
      */
-    ImmutableList<String> getReadLines() {
-        return ImmutableList.copyOf(readLines);
+    long getLastReadNanos() {
+        return lastReadNanos;
     }
 
     /**
-     * Flushes all previously read lines from this instance.
+     * @return True once the underlying stream has closed and no further lines will be read, false otherwise.
      */
-    void flush() {
-        readLines.clear();
+    boolean isFinished() {
+        return finished;
     }
 }
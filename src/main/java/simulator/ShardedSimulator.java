@@ -0,0 +1,189 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import simulator.input.Order;
+import simulator.output.TradeBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Facade spreading orders over several {@link ExchangeSimulator} processes, so a single stream of orders can keep all cores busy although each exchange-sim
+ * process works through its stdin one order at a time.
+ * <p/>
+ * Each order is routed to a fixed shard by the hash of its symbol ({@link String#hashCode()}, so the routing is the same on every run), and orders of different
+ * symbols never match, so every shard's books behave exactly as in a single simulator. Batches are split by shard and {@link ExchangeSimulator#submitOrders(List)
+ * submitted} to every shard concurrently; the results are merged shard by shard. The trades (and warnings) of each symbol are therefore in the order the
+ * simulator output them, while trades of symbols on different shards are not in the order of the orders causing them.
+ * <p/>
+ * An invalid order aborts only its own shard's process. Unlike a single simulator, which ignores every order after the aborting one, the other shards go on to
+ * process the orders of their symbols that follow it, so merged results which are {@link SimulationResults#isProcessAborted() aborted} may still hold trades
+ * and warnings of those later orders. The aborted shard's process cannot be used again.
+ * <p/>
+ * Simulators are acquired from a {@link SimulatorPool} when the facade is built and released on {@link #close()}. Instances are thread-safe.
+ */
+public final class ShardedSimulator implements AutoCloseable {
+
+    private final SimulatorPool pool;
+    private final ImmutableList<ExchangeSimulator> shards;
+
+    /**
+     * Processes a batch of orders on all shards, waiting for every shard's results.
+     *
+     * @param orders List of Orders to process (cannot be null).
+     * @return Non-null {@link SimulationResults} merged from the shards; aborted if any shard's process aborted, in which case the results include those of orders
+     * the other shards processed after the aborting order.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws simulator.exception.SimulatorInputError if an error occurs writing to a shard's process.
+     * @see #submitOrders(List)
+     */
+    public SimulationResults processOrders(final List<Order> orders) {
+        try {
+            return submitOrders(orders).join();
+        } catch (final CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Submits a batch of orders to the shards without waiting for their output, so batches are pipelined through every shard as by
+     * {@link ExchangeSimulator#submitOrders(List)}. Shards receiving no orders of the batch are not involved.
+     *
+     * @param orders List of Orders to submit (cannot be null).
+     * @return Non-null CompletableFuture completed with the {@link SimulationResults} merged from the shards once every shard involved has completed the batch, or
+     * exceptionally if any shard failed to.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public CompletableFuture<SimulationResults> submitOrders(final List<Order> orders) {
+        Preconditions.checkArgument(orders != null, "Cannot pass a null List of Orders to submitOrders");
+        final List<List<Order>> shardOrders = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            shardOrders.add(new ArrayList<>());
+        }
+        for (final Order order : orders) {
+            shardOrders.get(getShardIndex(order.getSymbol())).add(order);
+        }
+        final List<CompletableFuture<SimulationResults>> futures = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            if (!shardOrders.get(shard).isEmpty()) {
+                futures.add(shards.get(shard).submitOrders(shardOrders.get(shard)));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).thenApply(ignored -> merge(futures));
+    }
+
+    /**
+     * @param symbol The symbol (may be null).
+     * @return The index of the shard orders for the symbol are routed to.
+     */
+    public int getShardIndex(final String symbol) {
+        return symbol == null ? 0 : Math.floorMod(symbol.hashCode(), shards.size());
+    }
+
+    /**
+     * @return The number of shards.
+     */
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Releases every shard's simulator to the pool.
+     */
+    @Override
+    public void close() {
+        for (final ExchangeSimulator shard : shards) {
+            pool.release(shard);
+        }
+    }
+
+    private static SimulationResults merge(final List<CompletableFuture<SimulationResults>> futures) {
+        final TradeBatch trades = new TradeBatch();
+        final ImmutableList.Builder<String> warnings = ImmutableList.builder();
+        final LatencyHistogram fillLatencies = new LatencyHistogram();
+        boolean processAborted = false;
+        for (final CompletableFuture<SimulationResults> future : futures) {
+            final SimulationResults results = future.join();
+            final TradeBatch shardTrades = results.getTradeBatch();
+            for (int index = 0; index < shardTrades.size(); index++) {
+                if (shardTrades.isExact(index)) {
+                    trades.onTrade(shardTrades.getSymbolId(index), shardTrades.getPriceTicks(index), shardTrades.getPriceScale(), shardTrades.getQuantity(index));
+                } else {
+                    trades.add(shardTrades.getTrade(index));
+                }
+            }
+            warnings.addAll(results.getWarnings());
+            fillLatencies.add(results.getFillLatencies());
+            processAborted |= results.isProcessAborted();
+        }
+        return new SimulationResults(trades, warnings.build(), processAborted, fillLatencies);
+    }
+
+    /**
+     * Private constructor to prevent direct instantiation (use {@link Builder}).
+     */
+    private ShardedSimulator(final Builder builder) {
+        this.pool = builder.pool;
+        final ImmutableList.Builder<ExchangeSimulator> acquired = ImmutableList.builder();
+        try {
+            for (int shard = 0; shard < builder.shardCount; shard++) {
+                acquired.add(pool.acquire());
+            }
+        } catch (final RuntimeException exception) {
+            for (final ExchangeSimulator simulator : acquired.build()) {
+                pool.release(simulator);
+            }
+            throw exception;
+        }
+        this.shards = acquired.build();
+    }
+
+    /**
+     * Fluent-builder class for constructing {@link ShardedSimulator} objects.
+     */
+    public static class Builder {
+
+        private int shardCount = Runtime.getRuntime().availableProcessors();
+        private SimulatorPool pool = SimulatorPool.getDefault();
+
+        public static Builder create() {
+            return new Builder();
+        }
+
+        /**
+         * @param shardCount Number of simulator processes (defaults to the number of processors).
+         */
+        public Builder withShardCount(final int shardCount) {
+            this.shardCount = shardCount;
+            return this;
+        }
+
+        /**
+         * @param pool Pool to acquire the simulators from (defaults to the {@link SimulatorPool#getDefault() default pool}).
+         */
+        public Builder withPool(final SimulatorPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * @return Non-null {@link ShardedSimulator}, holding a fresh simulator per shard.
+         * @throws IllegalArgumentException if the shard count is not positive or the pool is null.
+         * @throws simulator.exception.SimulationInitializationError if an error occurs spawning a simulator.
+         */
+        public ShardedSimulator build() {
+            Preconditions.checkArgument(shardCount > 0, "Shard count must be positive.");
+            Preconditions.checkArgument(pool != null, "Cannot acquire simulators from a null pool.");
+            return new ShardedSimulator(this);
+        }
+
+        private Builder() {
+        }
+    }
+}
@@ -2,24 +2,61 @@ package simulator;
 
 import com.google.common.collect.ImmutableList;
 import simulator.output.Trade;
+import simulator.output.TradeBatch;
 
 /**
  * Represents the results of a call to the {@link ExchangeSimulator}.
+ * <p/>
+ * Trades are held in whichever form they were produced in; the other form is built on first access. Large result sets should be read through
+ * {@link #getTradeBatch()}, which does not materialize a {@link Trade} per fill.
+ * <p/>
+ * {@link #getFillLatencies()} holds the write-to-fill latency of each fill the {@link ExchangeSimulator} read for the batch, from the moment the order causing it
+ * was written to stdin to the moment the fill was read from stdout. It is empty unless the simulator {@link ExchangeSimulator#trackFillLatencies() tracks} fill
+ * latencies.
  */
 public final class SimulationResults {
 
-    private final ImmutableList<Trade> orders;
+    private volatile ImmutableList<Trade> orders;
+    private volatile TradeBatch tradeBatch;
     private final ImmutableList<String> warnings;
     private final boolean processAborted;
+    private final LatencyHistogram fillLatencies;
 
     public SimulationResults(final ImmutableList<Trade> orders, final ImmutableList<String> warnings, final boolean processAborted) {
         this.orders = orders;
         this.warnings = warnings;
         this.processAborted = processAborted;
+        this.fillLatencies = new LatencyHistogram();
+    }
+
+    public SimulationResults(final TradeBatch tradeBatch, final ImmutableList<String> warnings, final boolean processAborted) {
+        this(tradeBatch, warnings, processAborted, new LatencyHistogram());
+    }
+
+    public SimulationResults(final TradeBatch tradeBatch, final ImmutableList<String> warnings, final boolean processAborted,
+                             final LatencyHistogram fillLatencies) {
+        this.tradeBatch = tradeBatch;
+        this.warnings = warnings;
+        this.processAborted = processAborted;
+        this.fillLatencies = fillLatencies;
     }
 
     public ImmutableList<Trade> getTrades() {
-        return orders;
+        ImmutableList<Trade> trades = orders;
+        if (trades == null) {
+            trades = ImmutableList.copyOf(tradeBatch.asList());
+            orders = trades;
+        }
+        return trades;
+    }
+
+    public TradeBatch getTradeBatch() {
+        TradeBatch trades = tradeBatch;
+        if (trades == null) {
+            trades = TradeBatch.copyOf(orders, TradeBatch.DEFAULT_PRICE_SCALE);
+            tradeBatch = trades;
+        }
+        return trades;
     }
 
     public ImmutableList<String> getWarnings() {
@@ -29,4 +66,13 @@ public final class SimulationResults {
     public boolean isProcessAborted() {
         return processAborted;
     }
+
+    /**
+     * Accesses the write-to-fill latencies of the batch; merge the histograms of several batches or runs with {@link LatencyHistogram#add(LatencyHistogram)}.
+     *
+     * @return Non-null, possibly empty {@link LatencyHistogram} of the batch's fill latencies, in nanoseconds.
+     */
+    public LatencyHistogram getFillLatencies() {
+        return fillLatencies;
+    }
 }
@@ -0,0 +1,295 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import simulator.exception.SimulationInitializationError;
+import simulator.exception.SimulationTerminationError;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of pre-spawned, idle {@link ExchangeSimulator} processes. Each {@link #acquire()} hands out a fresh simulator that has never received input, and each
+ * {@link #release(ExchangeSimulator) released} simulator is destroyed and replaced in the background, so process spawn time stays out of the test's critical path.
+ * Idle simulators exceeding the maximum idle time are evicted and replaced.
+ * <p/>
+ * The {@link #getDefault() default pool} is configured through the {@value #POOL_SIZE_PROPERTY}, {@value #MAX_IDLE_TIME_PROPERTY} and
+ * {@value #REPORT_METRICS_PROPERTY} system properties.
+ */
+public final class SimulatorPool {
+
+    public static final String POOL_SIZE_PROPERTY = "exchange-sim.pool.size";
+    public static final String MAX_IDLE_TIME_PROPERTY = "exchange-sim.pool.maxIdleMillis";
+    public static final String REPORT_METRICS_PROPERTY = "exchange-sim.pool.reportMetrics";
+
+    private static final int DEFAULT_POOL_SIZE = 1;
+    private static final long DEFAULT_MAX_IDLE_TIME = TimeUnit.MINUTES.toMillis(1);
+
+    private final int poolSize;
+    private final long maxIdleNanos;
+    private final BlockingDeque<IdleSimulator> idleSimulators = new LinkedBlockingDeque<>();
+    private final AtomicInteger pendingSpawns = new AtomicInteger();
+    private final ExecutorService backgroundExecutor;
+    private final ScheduledExecutorService evictionExecutor;
+    private final AtomicBoolean spawnFailureReported = new AtomicBoolean();
+    private volatile boolean closed = false;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong coldSpawns = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong spawnCount = new AtomicLong();
+    private final AtomicLong totalSpawnNanos = new AtomicLong();
+    private final AtomicLong maxSpawnNanos = new AtomicLong();
+
+    /**
+     * @return Non-null pool shared by all {@link ExchangeSimulatorRuntime}s that are not given an explicit pool, configured from system properties.
+     */
+    public static SimulatorPool getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Acquires a fresh simulator, taking an idle one from the pool where available and spawning one otherwise. Either way, a replacement is spawned in the
+     * background to keep the pool full.
+     *
+     * @return Non-null {@link ExchangeSimulator} which has not yet received any input.
+     * @throws SimulationInitializationError if no idle simulator is available and an error occurs spawning one.
+     * @throws IllegalStateException if the pool has been closed.
+     */
+    public ExchangeSimulator acquire() {
+        Preconditions.checkState(!closed, "Cannot acquire a simulator from a closed pool.");
+        try {
+            IdleSimulator idleSimulator;
+            while ((idleSimulator = idleSimulators.pollFirst()) != null) {
+                if (idleSimulator.isUsable()) {
+                    hits.incrementAndGet();
+                    return idleSimulator.simulator;
+                }
+                evictions.incrementAndGet();
+                destroyInBackground(idleSimulator.simulator);
+            }
+            coldSpawns.incrementAndGet();
+            return spawn();
+        } finally {
+            replenish();
+        }
+    }
+
+    /**
+     * Releases a simulator previously {@link #acquire() acquired} from this pool. The simulator is destroyed in the background; errors during termination are
+     * written to stderr.
+     *
+     * @param simulator The simulator to release (cannot be null).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public void release(final ExchangeSimulator simulator) {
+        Preconditions.checkArgument(simulator != null, "Cannot release a null simulator.");
+        destroyInBackground(simulator);
+    }
+
+    /**
+     * @return Non-null snapshot of the pool's {@link SimulatorPoolMetrics}.
+     */
+    public SimulatorPoolMetrics getMetrics() {
+        return new SimulatorPoolMetrics(poolSize, idleSimulators.size(), hits.get(), coldSpawns.get(), evictions.get(), spawnCount.get(), totalSpawnNanos.get(),
+                maxSpawnNanos.get(), StreamReaderExecutor.getDefault().getLiveReaderCount(), StreamReaderExecutor.getDefault().getPeakReaderCount());
+    }
+
+    /**
+     * Closes the pool, destroying all idle simulators. Simulators still acquired by tests must be released as usual.
+     */
+    public void close() {
+        closed = true;
+        evictionExecutor.shutdownNow();
+        backgroundExecutor.shutdown();
+        IdleSimulator idleSimulator;
+        while ((idleSimulator = idleSimulators.pollFirst()) != null) {
+            destroyInBackground(idleSimulator.simulator);
+        }
+    }
+
+    /**
+     * Spawns idle simulators in the background until the idle and pending simulators fill the pool.
+     */
+    private void replenish() {
+        while (!closed) {
+            final int pending = pendingSpawns.get();
+            if (idleSimulators.size() + pending >= poolSize) {
+                return;
+            }
+            if (pendingSpawns.compareAndSet(pending, pending + 1)) {
+                try {
+                    backgroundExecutor.execute(this::spawnIdle);
+                } catch (final RejectedExecutionException exception) {
+                    // The pool has been closed; there is nothing left to replenish.
+                    pendingSpawns.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void spawnIdle() {
+        try {
+            final ExchangeSimulator simulator = spawn();
+            if (closed) {
+                simulator.endSimulation();
+            } else {
+                idleSimulators.offerLast(new IdleSimulator(simulator, System.nanoTime()));
+            }
+        } catch (final SimulationInitializationError error) {
+            // Reported once; acquire() surfaces the error to the test through its own cold spawn.
+            if (spawnFailureReported.compareAndSet(false, true)) {
+                System.err.println("Failed to pre-spawn an exchange simulator; simulators will be spawned on demand.");
+                error.printStackTrace();
+            }
+        } finally {
+            pendingSpawns.decrementAndGet();
+        }
+    }
+
+    private ExchangeSimulator spawn() {
+        final long startNanos = System.nanoTime();
+        final ExchangeSimulator simulator = ExchangeSimulator.createSimulation();
+        final long spawnNanos = System.nanoTime() - startNanos;
+        spawnCount.incrementAndGet();
+        totalSpawnNanos.addAndGet(spawnNanos);
+        maxSpawnNanos.accumulateAndGet(spawnNanos, Math::max);
+        return simulator;
+    }
+
+    private void destroyInBackground(final ExchangeSimulator simulator) {
+        final Runnable destroy = () -> {
+            try {
+                simulator.endSimulation();
+            } catch (final SimulationTerminationError error) {
+                System.err.println("Exception occurred while terminating a pooled exchange simulator.");
+                error.printStackTrace();
+            }
+        };
+        try {
+            backgroundExecutor.execute(destroy);
+        } catch (final RejectedExecutionException exception) {
+            // The pool has been closed; destroy on the caller's thread instead.
+            destroy.run();
+        }
+    }
+
+    /**
+     * Evicts idle simulators which exceeded the maximum idle time (or died while idle), replacing them.
+     */
+    private void evictExpired() {
+        for (final IdleSimulator idleSimulator : idleSimulators) {
+            if (!idleSimulator.isUsable() && idleSimulators.remove(idleSimulator)) {
+                evictions.incrementAndGet();
+                destroyInBackground(idleSimulator.simulator);
+            }
+        }
+        replenish();
+    }
+
+    /**
+     * Idle simulator along with the time it entered the pool.
+     */
+    private final class IdleSimulator {
+        private final ExchangeSimulator simulator;
+        private final long idleSinceNanos;
+
+        private IdleSimulator(final ExchangeSimulator simulator, final long idleSinceNanos) {
+            this.simulator = simulator;
+            this.idleSinceNanos = idleSinceNanos;
+        }
+
+        private boolean isUsable() {
+            return simulator.isAlive() && System.nanoTime() - idleSinceNanos < maxIdleNanos;
+        }
+    }
+
+    /**
+     * Fluent-builder class for constructing {@link SimulatorPool} objects.
+     */
+    public static class Builder {
+
+        private int poolSize = DEFAULT_POOL_SIZE;
+        private long maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+
+        public static Builder create() {
+            return new Builder();
+        }
+
+        /**
+         * @return Builder populated from the {@value #POOL_SIZE_PROPERTY} and {@value #MAX_IDLE_TIME_PROPERTY} system properties, falling back to the defaults.
+         */
+        public static Builder fromSystemProperties() {
+            return create()
+                    .withPoolSize(Integer.getInteger(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE))
+                    .withMaxIdleTime(Long.getLong(MAX_IDLE_TIME_PROPERTY, DEFAULT_MAX_IDLE_TIME));
+        }
+
+        /**
+         * @param poolSize Number of idle simulators to keep warm; zero disables pre-spawning.
+         */
+        public Builder withPoolSize(final int poolSize) {
+            this.poolSize = poolSize;
+            return this;
+        }
+
+        /**
+         * @param maxIdleTime Maximum time, in milliseconds, an idle simulator is kept before being replaced.
+         */
+        public Builder withMaxIdleTime(final long maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+            return this;
+        }
+
+        /**
+         * @return Non-null {@link SimulatorPool}; idle simulators are spawned in the background starting immediately.
+         * @throws IllegalArgumentException if the pool size is negative or the maximum idle time is not positive.
+         */
+        public SimulatorPool build() {
+            Preconditions.checkArgument(poolSize >= 0, "Pool size cannot be negative.");
+            Preconditions.checkArgument(maxIdleTime > 0, "Maximum idle time must be positive.");
+            return new SimulatorPool(poolSize, maxIdleTime);
+        }
+
+        private Builder() {
+        }
+    }
+
+    /**
+     * Lazily initialized holder of the default pool, which is closed (and optionally reports its metrics) on JVM shutdown.
+     */
+    private static final class DefaultHolder {
+        private static final SimulatorPool INSTANCE = Builder.fromSystemProperties().build();
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (Boolean.getBoolean(REPORT_METRICS_PROPERTY)) {
+                    System.err.println(INSTANCE.getMetrics());
+                }
+                INSTANCE.close();
+            }, "exchange-sim-pool-shutdown"));
+        }
+    }
+
+    /**
+     * Private constructor to prevent direct instantiation (use {@link Builder}).
+     */
+    private SimulatorPool(final int poolSize, final long maxIdleTime) {
+        this.poolSize = poolSize;
+        this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleTime);
+        this.backgroundExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("exchange-sim-pool-%d").setDaemon(true).build());
+        this.evictionExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("exchange-sim-pool-eviction").setDaemon(true).build());
+        final long evictionPeriod = Math.max(1, maxIdleTime / 2);
+        evictionExecutor.scheduleWithFixedDelay(this::evictExpired, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+        replenish();
+    }
+}
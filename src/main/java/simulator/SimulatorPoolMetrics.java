@@ -0,0 +1,111 @@
+package simulator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable snapshot of the usage metrics of a {@link SimulatorPool}.
+ */
+public final class SimulatorPoolMetrics {
+
+    private final int poolSize;
+    private final int idleCount;
+    private final long hits;
+    private final long coldSpawns;
+    private final long evictions;
+    private final long spawnCount;
+    private final long totalSpawnNanos;
+    private final long maxSpawnNanos;
+    private final int liveReaderCount;
+    private final int peakReaderCount;
+
+    SimulatorPoolMetrics(final int poolSize, final int idleCount, final long hits, final long coldSpawns, final long evictions, final long spawnCount,
+                         final long totalSpawnNanos, final long maxSpawnNanos, final int liveReaderCount, final int peakReaderCount) {
+        this.poolSize = poolSize;
+        this.idleCount = idleCount;
+        this.hits = hits;
+        this.coldSpawns = coldSpawns;
+        this.evictions = evictions;
+        this.spawnCount = spawnCount;
+        this.totalSpawnNanos = totalSpawnNanos;
+        this.maxSpawnNanos = maxSpawnNanos;
+        this.liveReaderCount = liveReaderCount;
+        this.peakReaderCount = peakReaderCount;
+    }
+
+    /**
+     * @return The configured number of idle simulators kept warm.
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * @return The number of idle simulators at the time of the snapshot.
+     */
+    public int getIdleCount() {
+        return idleCount;
+    }
+
+    /**
+     * @return The number of acquisitions served by an idle, pre-spawned simulator.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return The number of acquisitions which had to spawn a simulator on the caller's thread.
+     */
+    public long getColdSpawns() {
+        return coldSpawns;
+    }
+
+    /**
+     * @return The number of idle simulators destroyed for exceeding the maximum idle time or dying while idle.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return The total number of simulators spawned, in the background or on demand.
+     */
+    public long getSpawnCount() {
+        return spawnCount;
+    }
+
+    /**
+     * @return The mean time taken to spawn a simulator, in microseconds, or zero if none has been spawned.
+     */
+    public long getMeanSpawnLatencyMicros() {
+        return spawnCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalSpawnNanos / spawnCount);
+    }
+
+    /**
+     * @return The longest time taken to spawn a simulator, in microseconds.
+     */
+    public long getMaxSpawnLatencyMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxSpawnNanos);
+    }
+
+    /**
+     * @return The number of stream readers running on the {@link StreamReaderExecutor#getDefault() default StreamReaderExecutor}, two per live simulator.
+     */
+    public int getLiveReaderCount() {
+        return liveReaderCount;
+    }
+
+    /**
+     * @return The highest number of stream readers running at once on the {@link StreamReaderExecutor#getDefault() default StreamReaderExecutor}.
+     */
+    public int getPeakReaderCount() {
+        return peakReaderCount;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulatorPoolMetrics{poolSize=" + poolSize + ", idle=" + idleCount + ", hits=" + hits + ", coldSpawns=" + coldSpawns + ", evictions=" + evictions
+                + ", spawns=" + spawnCount + ", meanSpawnLatencyMicros=" + getMeanSpawnLatencyMicros() + ", maxSpawnLatencyMicros=" + getMaxSpawnLatencyMicros()
+                + ", liveReaders=" + liveReaderCount + ", peakReaders=" + peakReaderCount + "}";
+    }
+}
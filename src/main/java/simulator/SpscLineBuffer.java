@@ -0,0 +1,229 @@
+package simulator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Unbounded, lock-free single-producer/single-consumer buffer of lines. Lines are stored as raw bytes in linked segments and identified by a sequence number,
+ * starting from zero. The producer appends the bytes of a line in as many pieces as it likes and publishes the completed line with an ordered write of the
+ * published sequence; the consumer tracks its own cursor and drains only the lines published since, so neither side ever copies or clears the lines seen by the
+ * other. Segments are released as soon as the consumer has moved past them.
+ * <p/>
+ * Lines are only decoded into Strings when drained through {@link #drain(long, Consumer)}; {@link #drainBytes(long, LineConsumer)} hands out the bytes in place.
+ * {@link #append(byte[], int, int)}, {@link #endLine()} and {@link #offer(String)} must only be called from a single producer thread, and the drain methods from a
+ * single consumer thread at a time.
+ */
+final class SpscLineBuffer {
+
+    private static final int SEGMENT_LINES = 1024;
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    private final AtomicLong publishedSequence = new AtomicLong();
+    private final AtomicLong releasedSequence = new AtomicLong();
+
+    // Producer state.
+    private Segment tail = new Segment(SEGMENT_BYTES);
+    private int tailPosition = 0;
+    private int lineStart = 0;
+    private long producerSequence = 0;
+
+    // Consumer state.
+    private Segment head = tail;
+    private int headIndex = 0;
+    private int headPosition = 0;
+    private long consumerSequence = 0;
+    private long drainedLineNanos = 0;
+
+    /**
+     * Receives a drained line as a range of a byte array, which is only valid for the duration of the call.
+     */
+    @FunctionalInterface
+    interface LineConsumer {
+        void accept(byte[] bytes, int offset, int length);
+    }
+
+    /**
+     * Appends bytes to the line currently being written (producer thread only). The line is not visible to the consumer until {@link #endLine()} is invoked.
+     *
+     * @param bytes  The buffer holding the bytes (cannot be null).
+     * @param offset The offset of the bytes within the buffer.
+     * @param length The number of bytes to append.
+     */
+    void append(final byte[] bytes, final int offset, final int length) {
+        assert bytes != null : "bytes: null";
+        if (tailPosition + length > tail.bytes.length) {
+            startSegment(length);
+        }
+        System.arraycopy(bytes, offset, tail.bytes, tailPosition, length);
+        tailPosition += length;
+    }
+
+    /**
+     * Publishes the line currently being written, stamped with the current {@link System#nanoTime()} (producer thread only).
+     *
+     * @see #endLine(long)
+     */
+    void endLine() {
+        endLine(System.nanoTime());
+    }
+
+    /**
+     * Publishes the line currently being written, dropping a trailing carriage return (producer thread only).
+     *
+     * @param nanos The {@link System#nanoTime()} at which the line was received, available to the consumer from {@link #getDrainedLineNanos()}.
+     */
+    void endLine(final long nanos) {
+        if (tail.lineCount == SEGMENT_LINES) {
+            startSegment(0);
+        }
+        if (tailPosition > lineStart && tail.bytes[tailPosition - 1] == '\r') {
+            tailPosition--;
+        }
+        tail.lineNanos[tail.lineCount] = nanos;
+        tail.lineEnds[tail.lineCount++] = tailPosition;
+        lineStart = tailPosition;
+        publishedSequence.lazySet(++producerSequence);
+    }
+
+    /**
+     * @return True if bytes have been appended since the last line was published (producer thread only).
+     */
+    boolean hasPartialLine() {
+        return tailPosition > lineStart;
+    }
+
+    /**
+     * Decodes the line currently being written (producer thread only).
+     *
+     * @return Non-null, possibly empty line.
+     */
+    String decodePartialLine() {
+        return new String(tail.bytes, lineStart, tailPosition - lineStart, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Hands the line currently being written to a consumer in place, without a trailing carriage return (producer thread only), e.g. to inspect a line before
+     * publishing it.
+     *
+     * @param consumer Consumer accepting the line (cannot be null).
+     */
+    void peekPartialLine(final LineConsumer consumer) {
+        assert consumer != null : "consumer: null";
+        final int end = tailPosition > lineStart && tail.bytes[tailPosition - 1] == '\r' ? tailPosition - 1 : tailPosition;
+        consumer.accept(tail.bytes, lineStart, end - lineStart);
+    }
+
+    /**
+     * Appends a complete line to the buffer (producer thread only).
+     *
+     * @param line The line to append, excluding the terminator (cannot be null).
+     */
+    void offer(final String line) {
+        assert line != null : "line: null";
+        final byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        append(bytes, 0, bytes.length);
+        endLine();
+    }
+
+    /**
+     * @return The number of lines published to this buffer, i.e. the sequence number the next line will receive.
+     */
+    long getPublishedSequence() {
+        return publishedSequence.get();
+    }
+
+    /**
+     * @return The consumer's cursor as last published by a drain, readable from any thread, e.g. for the producer to bound the lines it buffers.
+     */
+    long getReleasedSequence() {
+        return releasedSequence.get();
+    }
+
+    /**
+     * @return The consumer's cursor, i.e. the sequence number of the next line to be drained.
+     */
+    long getConsumedSequence() {
+        return consumerSequence;
+    }
+
+    /**
+     * @return The {@link System#nanoTime()} the line most recently handed to a consumer was received at, e.g. from within the consumer (consumer thread only).
+     */
+    long getDrainedLineNanos() {
+        return drainedLineNanos;
+    }
+
+    /**
+     * Hands every published line from the consumer's cursor up to (excluding) the given sequence number to the consumer as bytes, and advances the cursor past them
+     * (consumer thread only).
+     *
+     * @param limitSequence Exclusive upper bound of the sequence numbers to drain; lines not yet published are not waited for.
+     * @param consumer      Consumer accepting the drained lines in order (cannot be null).
+     * @return The number of lines drained.
+     */
+    int drainBytes(final long limitSequence, final LineConsumer consumer) {
+        assert consumer != null : "consumer: null";
+        final long endSequence = Math.min(limitSequence, publishedSequence.get());
+        final long startSequence = consumerSequence;
+        while (consumerSequence < endSequence) {
+            // The producer links the next segment before publishing any line in it, so a full head always has a successor here. Segments a long line outgrew
+            // before it was complete hold no lines at all.
+            while (headIndex == head.lineCount) {
+                head = head.next;
+                headIndex = 0;
+                headPosition = 0;
+            }
+            final Segment segment = head;
+            final int lineOffset = headPosition;
+            drainedLineNanos = segment.lineNanos[headIndex];
+            headPosition = segment.lineEnds[headIndex++];
+            consumerSequence++;
+            consumer.accept(segment.bytes, lineOffset, headPosition - lineOffset);
+        }
+        releasedSequence.lazySet(consumerSequence);
+        return (int) (endSequence > startSequence ? endSequence - startSequence : 0);
+    }
+
+    /**
+     * Hands every published line from the consumer's cursor up to (excluding) the given sequence number to the consumer as a String, and advances the cursor past
+     * them (consumer thread only).
+     *
+     * @see #drainBytes(long, LineConsumer)
+     */
+    int drain(final long limitSequence, final Consumer<String> consumer) {
+        assert consumer != null : "consumer: null";
+        return drainBytes(limitSequence, (bytes, offset, length) -> consumer.accept(new String(bytes, offset, length, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Links a new tail segment with room for the line currently being written plus the given number of bytes, moving the partial line into it. Segments for lines
+     * longer than {@link #SEGMENT_BYTES} double in size, so a long line appended in small pieces is only copied a logarithmic number of times.
+     */
+    private void startSegment(final int additionalBytes) {
+        final int partialLength = tailPosition - lineStart;
+        final int requiredBytes = partialLength + additionalBytes;
+        final Segment segment = new Segment(requiredBytes <= SEGMENT_BYTES ? SEGMENT_BYTES : 2 * requiredBytes);
+        System.arraycopy(tail.bytes, lineStart, segment.bytes, 0, partialLength);
+        tail.next = segment;
+        tail = segment;
+        tailPosition = partialLength;
+        lineStart = 0;
+    }
+
+    /**
+     * Block of line bytes, the offsets at which its lines end and the times they were received, linked to the next block once the producer fills it. The line count is only written by the
+     * producer before it publishes a line, so the consumer reads it safely after reading the published sequence.
+     */
+    private static final class Segment {
+        private final byte[] bytes;
+        private final int[] lineEnds = new int[SEGMENT_LINES];
+        private final long[] lineNanos = new long[SEGMENT_LINES];
+        private int lineCount = 0;
+        private volatile Segment next;
+
+        private Segment(final int capacity) {
+            this.bytes = new byte[capacity];
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+
+import java.io.InputStream;
+import java.util.function.IntConsumer;
+
+/**
+ * Captures a stream the way the simulator's stream readers capture its stdout, e.g. for measuring the capture throughput outside of this package: the stream is
+ * read in chunks by a {@link RunnableStreamReader}, split into lines, published to its line buffer and drained as bytes.
+ */
+public final class StreamCapture {
+
+    /**
+     * Captures a stream to its end on the calling thread, then drains the lines captured.
+     *
+     * @param inputStream The stream to capture (cannot be null).
+     * @param lineLengths Consumer accepting the length of each line drained, excluding its terminator (cannot be null).
+     * @return The number of lines drained.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public static int capture(final InputStream inputStream, final IntConsumer lineLengths) {
+        Preconditions.checkArgument(lineLengths != null, "Cannot drain line lengths to a null consumer.");
+        final RunnableStreamReader reader = new RunnableStreamReader(inputStream, false);
+        reader.run();
+        return reader.drainReadBytes(Long.MAX_VALUE, (bytes, offset, length) -> lineLengths.accept(length));
+    }
+
+    private StreamCapture() {
+    }
+}
@@ -0,0 +1,172 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import simulator.exception.SimulationInitializationError;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared executor running the stream readers of all {@link ExchangeSimulator}s, which spend nearly all of their time blocked reading a pipe.
+ * <p/>
+ * By default readers run on a cached pool of daemon platform threads, reused across simulators. Virtual threads (Java 21 and later) can be selected through the
+ * {@value #VIRTUAL_THREADS_PROPERTY} system property, but are off until verified: a reader blocked in a {@code FileInputStream} read of a pipe pins its carrier
+ * on Java 21, and the scheduler only compensates up to {@code jdk.virtualThreadScheduler.maxPoolSize} (256 by default) carriers, so more live readers than that
+ * would stall. Either way, the number of live readers is bounded: a reader beyond the bound is rejected rather than queued, as a queued reader would leave its
+ * simulator's pipe unread. While running, a reader's thread is named after its simulator and stream (e.g. {@code exchange-sim-3-stdout}).
+ * <p/>
+ * The {@link #getDefault() default executor} is configured through the {@value #MAX_READERS_PROPERTY} and {@value #VIRTUAL_THREADS_PROPERTY} system properties.
+ * Instances are thread-safe.
+ */
+public final class StreamReaderExecutor {
+
+    public static final String MAX_READERS_PROPERTY = "exchange-sim.readers.max";
+    public static final String VIRTUAL_THREADS_PROPERTY = "exchange-sim.readers.virtual";
+
+    private static final int DEFAULT_MAX_READERS = 4096;
+
+    private final int maxReaders;
+    private final boolean virtual;
+    private final ExecutorService executor;
+    private final Semaphore readerPermits;
+    private final AtomicInteger liveReaders = new AtomicInteger();
+    private final AtomicInteger peakReaders = new AtomicInteger();
+    private final AtomicLong startedReaders = new AtomicLong();
+
+    /**
+     * @return Non-null executor shared by all simulators, configured from system properties.
+     */
+    public static StreamReaderExecutor getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * @param maxReaders    The maximum number of live readers (must be positive).
+     * @param preferVirtual True to run readers on virtual threads where supported, false to always use platform threads.
+     */
+    StreamReaderExecutor(final int maxReaders, final boolean preferVirtual) {
+        Preconditions.checkArgument(maxReaders > 0, "Maximum reader count must be positive.");
+        this.maxReaders = maxReaders;
+        this.readerPermits = new Semaphore(maxReaders);
+        final ExecutorService virtualExecutor = preferVirtual ? newVirtualThreadExecutor() : null;
+        this.virtual = virtualExecutor != null;
+        this.executor = virtual ? virtualExecutor
+                : Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("exchange-sim-reader-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Starts a reader.
+     *
+     * @param reader The reader, running until its stream ends (cannot be null).
+     * @param name   The name of the reader's thread while it runs (cannot be null).
+     * @throws SimulationInitializationError if the maximum number of readers are live.
+     */
+    void execute(final Runnable reader, final String name) {
+        assert reader != null : "reader: null";
+        assert name != null : "name: null";
+        if (!readerPermits.tryAcquire()) {
+            throw new SimulationInitializationError(new RejectedExecutionException("Cannot start more than " + maxReaders + " stream readers; see " + MAX_READERS_PROPERTY + '.'));
+        }
+        final int live = liveReaders.incrementAndGet();
+        peakReaders.accumulateAndGet(live, Math::max);
+        startedReaders.incrementAndGet();
+        try {
+            executor.execute(() -> run(reader, name));
+        } catch (final RejectedExecutionException exception) {
+            release();
+            throw new SimulationInitializationError(exception);
+        }
+    }
+
+    /**
+     * @return The number of readers running.
+     */
+    public int getLiveReaderCount() {
+        return liveReaders.get();
+    }
+
+    /**
+     * @return The highest number of readers running at once.
+     */
+    public int getPeakReaderCount() {
+        return peakReaders.get();
+    }
+
+    /**
+     * @return The total number of readers started.
+     */
+    public long getStartedReaderCount() {
+        return startedReaders.get();
+    }
+
+    /**
+     * @return The maximum number of live readers.
+     */
+    public int getMaxReaders() {
+        return maxReaders;
+    }
+
+    /**
+     * @return True if readers run on virtual threads, false if on platform threads.
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamReaderExecutor{" + (virtual ? "virtual" : "platform") + ", liveReaders=" + getLiveReaderCount() + ", peakReaders=" + getPeakReaderCount()
+                + ", startedReaders=" + getStartedReaderCount() + ", maxReaders=" + maxReaders + "}";
+    }
+
+    private void run(final Runnable reader, final String name) {
+        final Thread thread = Thread.currentThread();
+        final String poolName = thread.getName();
+        thread.setName(name);
+        try {
+            reader.run();
+        } catch (final RuntimeException exception) {
+            exception.printStackTrace();
+        } finally {
+            thread.setName(poolName);
+            release();
+        }
+    }
+
+    private void release() {
+        liveReaders.decrementAndGet();
+        readerPermits.release();
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task through reflection, as the project targets Java 8.
+     *
+     * @return Possibly null executor (null if the JVM does not support virtual threads).
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "exchange-sim-reader-", 0L);
+            final ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (final ReflectiveOperationException | RuntimeException exception) {
+            // Before Java 21, or with virtual threads still in preview.
+            return null;
+        }
+    }
+
+    /**
+     * Lazily initialized holder of the default executor.
+     */
+    private static final class DefaultHolder {
+        private static final StreamReaderExecutor INSTANCE = new StreamReaderExecutor(Integer.getInteger(MAX_READERS_PROPERTY, DEFAULT_MAX_READERS),
+                Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY));
+    }
+}
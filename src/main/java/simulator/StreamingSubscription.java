@@ -0,0 +1,150 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+import simulator.output.OutputSubscriber;
+import simulator.output.OutputSubscription;
+import simulator.output.TradeParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * {@link OutputSubscription} for {@link ExchangeSimulator#subscribe(OutputSubscriber, int)}, delivering the output of the simulator on its own thread and
+ * draining no more lines than requested. While it is active, the stream readers wake the delivery thread as they read lines, and hold back once the given number
+ * of lines is buffered undelivered.
+ */
+final class StreamingSubscription implements OutputSubscription, Runnable {
+
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final ExchangeSimulator simulator;
+    private final RunnableStreamReader standardOut;
+    private final RunnableStreamReader standardErr;
+    private final OutputSubscriber subscriber;
+    private final Thread thread;
+    private final AtomicLong requested = new AtomicLong();
+    private final SpscLineBuffer.LineConsumer tradeConsumer;
+    private final Consumer<String> warningConsumer;
+    private final TradeParser parser = new TradeParser();
+    private volatile long delivered = 0;
+    private volatile boolean cancelled = false;
+    private volatile boolean done = false;
+
+    /**
+     * Constructs a new {@link StreamingSubscription}, which delivers nothing until {@link #start(int) started}.
+     *
+     * @param simulator   The simulator whose output is subscribed to (cannot be null).
+     * @param standardOut The reader of the simulator's stdout (cannot be null).
+     * @param standardErr The reader of the simulator's stderr (cannot be null).
+     * @param subscriber  Subscriber to deliver the output to (cannot be null).
+     */
+    StreamingSubscription(final ExchangeSimulator simulator, final RunnableStreamReader standardOut, final RunnableStreamReader standardErr,
+                          final OutputSubscriber subscriber) {
+        assert simulator != null : "simulator: null";
+        assert standardOut != null : "standardOut: null";
+        assert standardErr != null : "standardErr: null";
+        assert subscriber != null : "subscriber: null";
+        this.simulator = simulator;
+        this.standardOut = standardOut;
+        this.standardErr = standardErr;
+        this.subscriber = subscriber;
+        this.thread = new Thread(this, "exchange-sim-subscription");
+        this.thread.setDaemon(true);
+        this.tradeConsumer = (line, offset, length) -> {
+            simulator.onFill(standardOut.getDrainedLineNanos());
+            if (!parser.parse(line, offset, length, subscriber)) {
+                subscriber.onMalformedTrade(new String(line, offset, length, StandardCharsets.UTF_8));
+            }
+        };
+        this.warningConsumer = subscriber::onWarning;
+    }
+
+    /**
+     * Hands the stream readers over to the subscription and starts delivering.
+     *
+     * @param bufferedLines The most lines of each of stdout and stderr to buffer until they are requested (positive).
+     */
+    void start(final int bufferedLines) {
+        assert bufferedLines > 0 : "bufferedLines: " + bufferedLines;
+        standardOut.setLineWaiter(thread);
+        standardErr.setLineWaiter(thread);
+        standardOut.setPendingLineLimit(bufferedLines);
+        standardErr.setPendingLineLimit(bufferedLines);
+        thread.start();
+    }
+
+    @Override
+    public void request(final long lines) {
+        Preconditions.checkArgument(lines > 0, "Must request a positive number of lines.");
+        requested.accumulateAndGet(lines, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        LockSupport.unpark(thread);
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public long getDeliveredCount() {
+        return delivered;
+    }
+
+    @Override
+    public long getPendingCount() {
+        return standardOut.getPendingLineCount() + standardErr.getPendingLineCount();
+    }
+
+    @Override
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * @inheritDoc <p />
+     * Delivers the requested lines as they are read, parking while there is nothing to deliver, until cancelled or the output ends.
+     */
+    @Override
+    public void run() {
+        try {
+            while (!cancelled) {
+                final boolean processEnded = simulator.isProcessEnded();
+                final long demand = requested.get() - delivered;
+                int count = 0;
+                if (demand > 0) {
+                    count = standardErr.drainReadLines(standardErr.getDrainedLineCount() + demand, warningConsumer);
+                    count += standardOut.drainReadBytes(standardOut.getDrainedLineCount() + demand - count, tradeConsumer);
+                    delivered += count;
+                }
+                if (processEnded && getPendingCount() == 0) {
+                    subscriber.onComplete();
+                    return;
+                }
+                if (count == 0) {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+            }
+        } catch (final RuntimeException exception) {
+            System.err.println("Exception occurred delivering output to a subscriber; cancelling the subscription.");
+            exception.printStackTrace();
+        } finally {
+            standardOut.setPendingLineLimit(0);
+            standardErr.setPendingLineLimit(0);
+            standardOut.setLineWaiter(null);
+            standardErr.setLineWaiter(null);
+            done = true;
+            simulator.endSubscription();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Dictionary interning symbols to dense int ids, starting from zero, along with their pre-encoded ASCII bytes. Symbols are interned once, after which orders and
+ * trades carry the id: encoding writes the pre-encoded bytes, parsing looks the id up straight from the bytes read, and comparisons and per-symbol state use the id
+ * instead of the String.
+ * <p/>
+ * Lookups of known symbols are lock-free and allocate nothing; interning a new symbol takes a lock. Symbols are never removed, so a dictionary grows with the
+ * number of distinct symbols ever interned, up to its maximum size; the {@link #getDefault() default} dictionary holds at most {@value #DEFAULT_MAX_SIZE}.
+ * Characters outside of ASCII are encoded as {@code '?'}, as the {@link simulator.input.OrderEncoder} writes them.
+ * <p/>
+ * Instances are thread-safe.
+ */
+public final class SymbolDictionary {
+
+    /**
+     * Id standing for the absence of a symbol, e.g. for orders and trades with a null symbol.
+     */
+    public static final int NO_SYMBOL = -1;
+    /**
+     * Maximum number of symbols of a dictionary constructed without an explicit maximum, including the default dictionary.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1 << 20;
+
+    private static final SymbolDictionary DEFAULT = new SymbolDictionary();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int maxSize;
+    private final Object lock = new Object();
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    // Guarded by lock.
+    private int size = 0;
+
+    /**
+     * Constructs a new, empty {@link SymbolDictionary} of the {@link #DEFAULT_MAX_SIZE}. Ids are only meaningful within the dictionary that assigned them; orders,
+     * trades and the simulator all use the {@link #getDefault() default} dictionary.
+     */
+    public SymbolDictionary() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a new, empty {@link SymbolDictionary}.
+     *
+     * @param maxSize The maximum number of symbols the dictionary holds (must be positive).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public SymbolDictionary(final int maxSize) {
+        Preconditions.checkArgument(maxSize > 0, "Maximum size must be positive.");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return The dictionary shared by {@link simulator.input.Order}s, {@link simulator.output.Trade}s and the simulator's encoders and parsers.
+     */
+    public static SymbolDictionary getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Interns a symbol, assigning it the next id if it is new.
+     *
+     * @param symbol The symbol (cannot be null).
+     * @return The id of the symbol.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws IllegalStateException if the symbol is new and the dictionary is full.
+     */
+    public int intern(final CharSequence symbol) {
+        Preconditions.checkArgument(symbol != null, "Cannot intern a null symbol.");
+        final int symbolId = getId(symbol);
+        return symbolId != NO_SYMBOL ? symbolId : checkAdded(add(symbol.toString()));
+    }
+
+    /**
+     * Interns a symbol given as ASCII bytes, assigning it the next id if it is new. Known symbols are looked up without decoding the bytes.
+     *
+     * @param bytes  The buffer holding the symbol (cannot be null).
+     * @param offset The offset of the symbol within the buffer.
+     * @param length The length of the symbol.
+     * @return The id of the symbol.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws IllegalStateException if the symbol is new and the dictionary is full.
+     */
+    public int intern(final byte[] bytes, final int offset, final int length) {
+        return checkAdded(tryIntern(bytes, offset, length));
+    }
+
+    /**
+     * Interns a symbol given as ASCII bytes like {@link #intern(byte[], int, int)}, unless it is new and the dictionary is full, e.g. for symbols read from the
+     * simulator's output, which need not have been interned before.
+     *
+     * @param bytes  The buffer holding the symbol (cannot be null).
+     * @param offset The offset of the symbol within the buffer.
+     * @param length The length of the symbol.
+     * @return The id of the symbol, or {@link #NO_SYMBOL} if it is new and the dictionary is full.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public int tryIntern(final byte[] bytes, final int offset, final int length) {
+        Preconditions.checkArgument(bytes != null, "Cannot intern a null symbol.");
+        final Table current = table;
+        final int mask = current.slots.length() - 1;
+        for (int slot = hash(bytes, offset, length) & mask; ; slot = (slot + 1) & mask) {
+            final int symbolId = current.slots.get(slot) - 1;
+            if (symbolId == NO_SYMBOL) {
+                final char[] characters = new char[length];
+                for (int index = 0; index < length; index++) {
+                    characters[index] = (char) (bytes[offset + index] & 0xff);
+                }
+                return add(new String(characters));
+            }
+            if (equals(current.bytes[symbolId], bytes, offset, length)) {
+                return symbolId;
+            }
+        }
+    }
+
+    /**
+     * Looks up the id of a symbol without interning it.
+     *
+     * @param symbol The symbol (cannot be null).
+     * @return The id of the symbol, or {@link #NO_SYMBOL} if it has not been interned.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public int getId(final CharSequence symbol) {
+        Preconditions.checkArgument(symbol != null, "Cannot look up a null symbol.");
+        final Table current = table;
+        final int mask = current.slots.length() - 1;
+        for (int slot = hash(symbol) & mask; ; slot = (slot + 1) & mask) {
+            final int symbolId = current.slots.get(slot) - 1;
+            if (symbolId == NO_SYMBOL || current.symbols[symbolId].contentEquals(symbol)) {
+                return symbolId;
+            }
+        }
+    }
+
+    /**
+     * @param symbolId The id of an interned symbol.
+     * @return Non-null symbol with the id.
+     * @throws IndexOutOfBoundsException if no symbol has the id.
+     */
+    public String getSymbol(final int symbolId) {
+        final String[] symbols = table.symbols;
+        if (symbolId < 0 || symbolId >= symbols.length || symbols[symbolId] == null) {
+            throw new IndexOutOfBoundsException("Unknown symbol id: " + symbolId);
+        }
+        return symbols[symbolId];
+    }
+
+    /**
+     * @param symbolId The id of an interned symbol.
+     * @return Non-null ASCII bytes of the symbol with the id, which must not be modified.
+     * @throws IndexOutOfBoundsException if no symbol has the id.
+     */
+    public byte[] getBytes(final int symbolId) {
+        final byte[][] bytes = table.bytes;
+        if (symbolId < 0 || symbolId >= bytes.length || bytes[symbolId] == null) {
+            throw new IndexOutOfBoundsException("Unknown symbol id: " + symbolId);
+        }
+        return bytes[symbolId];
+    }
+
+    /**
+     * @return The number of symbols interned, i.e. the id the next new symbol will receive.
+     */
+    public int size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    /**
+     * Adds a symbol, unless the dictionary is full.
+     *
+     * @return The id of the symbol, or {@link #NO_SYMBOL} if it is new and the dictionary is full.
+     */
+    private int add(final String symbol) {
+        synchronized (lock) {
+            // Another thread may have added the symbol since the lock-free lookup.
+            final int existingId = getId(symbol);
+            if (existingId != NO_SYMBOL || size == maxSize) {
+                return existingId;
+            }
+            Table current = table;
+            if ((size + 1) * 2 > current.slots.length()) {
+                current = current.resize(current.slots.length() * 2, size);
+            }
+            final int symbolId = size++;
+            current.symbols[symbolId] = symbol;
+            current.bytes[symbolId] = encode(symbol);
+            // The slot is written last, so lock-free readers finding the id always see the symbol and its bytes.
+            final int mask = current.slots.length() - 1;
+            int slot = hash(symbol) & mask;
+            while (current.slots.get(slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            current.slots.set(slot, symbolId + 1);
+            table = current;
+            return symbolId;
+        }
+    }
+
+    private int checkAdded(final int symbolId) {
+        Preconditions.checkState(symbolId != NO_SYMBOL, "Cannot intern more than %s symbols.", maxSize);
+        return symbolId;
+    }
+
+    private static byte[] encode(final String symbol) {
+        final byte[] bytes = new byte[symbol.length()];
+        for (int index = 0; index < bytes.length; index++) {
+            final char character = symbol.charAt(index);
+            bytes[index] = (byte) (character < 0x80 ? character : '?');
+        }
+        return bytes;
+    }
+
+    private static boolean equals(final byte[] symbol, final byte[] bytes, final int offset, final int length) {
+        if (symbol.length != length) {
+            return false;
+        }
+        for (int index = 0; index < length; index++) {
+            if (symbol[index] != bytes[offset + index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes the characters of a symbol the way {@link String#hashCode()} does, then spreads the bits for the power-of-two table.
+     */
+    private static int hash(final CharSequence symbol) {
+        int hash = 0;
+        for (int index = 0; index < symbol.length(); index++) {
+            hash = 31 * hash + symbol.charAt(index);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Hashes ASCII bytes consistently with {@link #hash(CharSequence)}.
+     */
+    private static int hash(final byte[] bytes, final int offset, final int length) {
+        int hash = 0;
+        for (int index = offset; index < offset + length; index++) {
+            hash = 31 * hash + (bytes[index] & 0xff);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Open-addressing table of symbol ids (stored plus one, so zero marks an empty slot), along with the symbols and their bytes indexed by id. A table is only
+     * modified under the lock and replaced by a larger copy when it fills up.
+     */
+    private static final class Table {
+        private final AtomicIntegerArray slots;
+        private final String[] symbols;
+        private final byte[][] bytes;
+
+        private Table(final int slotCount) {
+            this.slots = new AtomicIntegerArray(slotCount);
+            this.symbols = new String[slotCount / 2];
+            this.bytes = new byte[slotCount / 2][];
+        }
+
+        private Table resize(final int slotCount, final int size) {
+            final Table resized = new Table(slotCount);
+            System.arraycopy(symbols, 0, resized.symbols, 0, size);
+            System.arraycopy(bytes, 0, resized.bytes, 0, size);
+            final int mask = slotCount - 1;
+            for (int symbolId = 0; symbolId < size; symbolId++) {
+                int slot = hash(symbols[symbolId]) & mask;
+                while (resized.slots.get(slot) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                resized.slots.set(slot, symbolId + 1);
+            }
+            return resized;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package simulator.completion;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@link CompletionStrategy} which is satisfied once all of its component strategies are satisfied.
+ */
+public final class AllOfCompletion implements CompletionStrategy {
+
+    private final ImmutableList<CompletionStrategy> strategies;
+
+    /**
+     * Constructs a new {@link AllOfCompletion}.
+     *
+     * @param strategies The component strategies (cannot be null or empty, or contain null elements).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public AllOfCompletion(final CompletionStrategy... strategies) {
+        Preconditions.checkArgument(strategies != null && strategies.length > 0, "AllOfCompletion requires at least one strategy.");
+        Preconditions.checkArgument(Arrays.stream(strategies).noneMatch(Objects::isNull), "Cannot compose null strategies.");
+        this.strategies = ImmutableList.copyOf(strategies);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public boolean isComplete(final SimulationProgress progress) {
+        return strategies.stream().allMatch(strategy -> strategy.isComplete(progress));
+    }
+
+    /**
+     * @inheritDoc <p />
+     * Writes the sentinel input of the first component strategy providing one.
+     */
+    @Override
+    public String getSentinelInput() {
+        return strategies.stream().map(CompletionStrategy::getSentinelInput).filter(Objects::nonNull).findFirst().orElse(null);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public boolean isSentinelOutput(final String warning) {
+        return strategies.stream().anyMatch(strategy -> strategy.isSentinelOutput(warning));
+    }
+}
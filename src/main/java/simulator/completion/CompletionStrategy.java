@@ -0,0 +1,37 @@
+package simulator.completion;
+
+/**
+ * Strategy deciding when the output produced for a batch of orders sent to the {@link simulator.ExchangeSimulator} is complete. The simulator polls the strategy
+ * after writing the batch and returns as soon as it is satisfied, the process ends, or the hard upper bound on the processing period elapses.
+ */
+public interface CompletionStrategy {
+
+    /**
+     * Determines whether the output for the current batch is complete.
+     *
+     * @param progress Non-null {@link SimulationProgress} describing the output observed since the batch was written.
+     * @return True if the simulator may stop waiting for output, false otherwise.
+     */
+    boolean isComplete(final SimulationProgress progress);
+
+    /**
+     * Strategies which rely on a round-trip through the simulator can implement this to provide an additional line of input written directly after the batch.
+     * By default, no additional input is written.
+     *
+     * @return Possibly null line of input (excluding the line terminator) to write after the batch.
+     */
+    default String getSentinelInput() {
+        return null;
+    }
+
+    /**
+     * Strategies providing {@link #getSentinelInput() sentinel input} should implement this to identify the warning the simulator emits in response, so that it
+     * can be excluded from the {@link simulator.SimulationResults}. By default, no warnings are excluded.
+     *
+     * @param warning Non-null warning line read from the simulator.
+     * @return True if the warning acknowledges the sentinel input, false otherwise.
+     */
+    default boolean isSentinelOutput(final String warning) {
+        return false;
+    }
+}
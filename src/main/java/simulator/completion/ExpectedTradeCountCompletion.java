@@ -0,0 +1,33 @@
+package simulator.completion;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * {@link CompletionStrategy} which is satisfied once a given number of trades has been read from the simulator.
+ * <p/>
+ * Note that any trades produced beyond the expected count are not waited for; combine with {@link QuietPeriodCompletion} through {@link AllOfCompletion} where
+ * unexpected additional output must be detected.
+ */
+public final class ExpectedTradeCountCompletion implements CompletionStrategy {
+
+    private final int expectedTradeCount;
+
+    /**
+     * Constructs a new {@link ExpectedTradeCountCompletion}.
+     *
+     * @param expectedTradeCount The number of trades to wait for (cannot be negative).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public ExpectedTradeCountCompletion(final int expectedTradeCount) {
+        Preconditions.checkArgument(expectedTradeCount >= 0, "Cannot wait for a negative number of trades.");
+        this.expectedTradeCount = expectedTradeCount;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public boolean isComplete(final SimulationProgress progress) {
+        return progress.getTradeCount() >= expectedTradeCount;
+    }
+}
@@ -0,0 +1,29 @@
+package simulator.completion;
+
+import simulator.output.Trade;
+
+/**
+ * {@link CompletionStrategy} which observes the output of a batch line by line while the {@link simulator.ExchangeSimulator} waits for it, rather than only
+ * through the {@link SimulationProgress} counts. The simulator drains the output on every poll and hands each trade and warning to the strategy as it is read, in
+ * the order the simulator output them (sentinel output excluded), before polling {@link #isComplete(SimulationProgress)}.
+ * <p/>
+ * Any exception thrown by {@link #onTrade(Trade)} or {@link #onWarning(String)} propagates out of
+ * {@link simulator.ExchangeSimulator#processOrders(java.util.List, CompletionStrategy)}, ending the wait immediately, e.g. for an assertion failing on the first
+ * unexpected line.
+ */
+public interface IncrementalCompletion extends CompletionStrategy {
+
+    /**
+     * Invoked for each trade of the batch as it is read.
+     *
+     * @param trade Non-null trade, which may have missing fields if the simulator output a malformed line.
+     */
+    void onTrade(final Trade trade);
+
+    /**
+     * Invoked for each warning of the batch as it is read.
+     *
+     * @param warning Non-null warning line.
+     */
+    void onWarning(final String warning);
+}
@@ -0,0 +1,32 @@
+package simulator.completion;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CompletionStrategy} which is satisfied once neither stdout nor stderr of the simulator has produced output for a given period.
+ */
+public final class QuietPeriodCompletion implements CompletionStrategy {
+
+    private final long quietPeriodNanos;
+
+    /**
+     * Constructs a new {@link QuietPeriodCompletion}.
+     *
+     * @param quietPeriod The period of inactivity after which output is considered complete, in milliseconds (must be positive).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public QuietPeriodCompletion(final long quietPeriod) {
+        Preconditions.checkArgument(quietPeriod > 0, "Quiet period must be positive.");
+        this.quietPeriodNanos = TimeUnit.MILLISECONDS.toNanos(quietPeriod);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public boolean isComplete(final SimulationProgress progress) {
+        return progress.getNanosSinceLastOutput() >= quietPeriodNanos;
+    }
+}
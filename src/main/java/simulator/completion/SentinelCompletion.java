@@ -0,0 +1,68 @@
+package simulator.completion;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link CompletionStrategy} which writes a sentinel order after the batch and is satisfied once the simulator acknowledges it.
+ * <p/>
+ * The sentinel is an order with a valid symbol, price and quantity but an unrecognized action, which the exchange-sim rejects with an
+ * {@code "invalid side: <action>"} warning without touching its books. Since the simulator processes stdin sequentially, the acknowledgement implies every order
+ * of the batch has been processed. The acknowledgement is excluded from the {@link simulator.SimulationResults}.
+ */
+public final class SentinelCompletion implements CompletionStrategy {
+
+    private static final String DEFAULT_SYMBOL = "SNTNL";
+    private static final String ACTION_PREFIX = "SENTINEL";
+    private static final String WARNING_PREFIX = "invalid side: ";
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final String action;
+    private final String sentinelInput;
+    private final String acknowledgement;
+
+    /**
+     * Constructs a new {@link SentinelCompletion} using a symbol that is not expected to be traded by tests.
+     */
+    public SentinelCompletion() {
+        this(DEFAULT_SYMBOL);
+    }
+
+    /**
+     * Constructs a new {@link SentinelCompletion}.
+     *
+     * @param symbol The valid symbol to send the sentinel order for (cannot be null or empty).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public SentinelCompletion(final String symbol) {
+        Preconditions.checkArgument(symbol != null && !symbol.isEmpty(), "Sentinel requires a non-empty symbol.");
+        this.action = ACTION_PREFIX + SEQUENCE.incrementAndGet();
+        this.sentinelInput = symbol + '|' + action + "|1|1";
+        this.acknowledgement = WARNING_PREFIX + action;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public boolean isComplete(final SimulationProgress progress) {
+        return acknowledgement.equals(progress.getLastWarning());
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public String getSentinelInput() {
+        return sentinelInput;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public boolean isSentinelOutput(final String warning) {
+        return acknowledgement.equals(warning);
+    }
+}
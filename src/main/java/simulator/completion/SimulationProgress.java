@@ -0,0 +1,27 @@
+package simulator.completion;
+
+/**
+ * View of the output observed from the {@link simulator.ExchangeSimulator} since a batch of orders was written, provided to {@link CompletionStrategy}s.
+ */
+public interface SimulationProgress {
+
+    /**
+     * @return Number of trade lines read from the simulator's stdout since the batch was written.
+     */
+    int getTradeCount();
+
+    /**
+     * @return Number of warning lines read from the simulator's stderr since the batch was written.
+     */
+    int getWarningCount();
+
+    /**
+     * @return Possibly null warning line most recently read from the simulator's stderr since the batch was written.
+     */
+    String getLastWarning();
+
+    /**
+     * @return Nanoseconds elapsed since the later of the batch being written and the last line read from either stdout or stderr.
+     */
+    long getNanosSinceLastOutput();
+}
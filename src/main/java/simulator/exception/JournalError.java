@@ -0,0 +1,14 @@
+package simulator.exception;
+
+/**
+ * RuntimeException indicating that an exception occurred while writing or reading a simulator session journal.
+ */
+public class JournalError extends RuntimeException {
+    public JournalError(final String message) {
+        super(message);
+    }
+
+    public JournalError(final Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,14 @@
+package simulator.exception;
+
+/**
+ * RuntimeException indicating that an exception occurred while writing or reading an order scenario file.
+ */
+public class ScenarioError extends RuntimeException {
+    public ScenarioError(final String message) {
+        super(message);
+    }
+
+    public ScenarioError(final Throwable cause) {
+        super(cause);
+    }
+}
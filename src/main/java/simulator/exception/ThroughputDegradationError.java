@@ -0,0 +1,23 @@
+package simulator.exception;
+
+import simulator.load.SoakReport;
+
+/**
+ * RuntimeException indicating that the throughput sustained by the simulator during a soak run degraded beyond the allowed threshold.
+ */
+public class ThroughputDegradationError extends RuntimeException {
+
+    private final SoakReport report;
+
+    public ThroughputDegradationError(final SoakReport report) {
+        super("Sustained throughput degraded: " + report);
+        this.report = report;
+    }
+
+    /**
+     * @return Non-null {@link SoakReport} of the degraded run.
+     */
+    public SoakReport getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,84 @@
+package simulator.fuzz;
+
+import com.google.common.collect.ImmutableList;
+import simulator.input.Order;
+
+/**
+ * An order sequence found by an {@link OrderFuzzer} to violate an invariant, along with the minimal reproducer it was shrunk to.
+ */
+public final class FuzzFailure {
+
+    private final long seed;
+    private final int trial;
+    private final ImmutableList<Order> originalOrders;
+    private final ImmutableList<Order> shrunkOrders;
+    private final String violation;
+    private final int shrinkRuns;
+
+    FuzzFailure(final long seed, final int trial, final ImmutableList<Order> originalOrders, final ImmutableList<Order> shrunkOrders, final String violation,
+                final int shrinkRuns) {
+        this.seed = seed;
+        this.trial = trial;
+        this.originalOrders = originalOrders;
+        this.shrunkOrders = shrunkOrders;
+        this.violation = violation;
+        this.shrinkRuns = shrinkRuns;
+    }
+
+    /**
+     * @return The seed of the fuzzer run; together with the {@link #getTrial() trial} it regenerates the original sequence.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return The index of the failing trial.
+     */
+    public int getTrial() {
+        return trial;
+    }
+
+    /**
+     * @return Non-null orders of the failing trial as generated.
+     */
+    public ImmutableList<Order> getOriginalOrders() {
+        return originalOrders;
+    }
+
+    /**
+     * @return Non-null, non-empty orders the failing trial was shrunk to, which still violate an invariant on a fresh simulator.
+     */
+    public ImmutableList<Order> getShrunkOrders() {
+        return shrunkOrders;
+    }
+
+    /**
+     * @return Non-null description of the violation caused by the {@link #getShrunkOrders() shrunk orders}.
+     */
+    public String getViolation() {
+        return violation;
+    }
+
+    /**
+     * @return The number of candidate sequences run while shrinking.
+     */
+    public int getShrinkRuns() {
+        return shrinkRuns;
+    }
+
+    /**
+     * @return Non-null description of the violation, followed by the shrunk orders as simulator input lines.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("FuzzFailure{seed=").append(seed).append(", trial=").append(trial).append(", orders=")
+                .append(originalOrders.size()).append(", shrunk to ").append(shrunkOrders.size()).append(" in ").append(shrinkRuns).append(" runs: ")
+                .append(violation).append('}');
+        for (final Order order : shrunkOrders) {
+            builder.append(System.lineSeparator()).append(order.getSymbol()).append('|').append(order.getAction()).append('|').append(order.getPrice()).append('|')
+                    .append(order.getQuantity());
+        }
+        return builder.toString();
+    }
+}
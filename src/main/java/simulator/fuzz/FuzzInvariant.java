@@ -0,0 +1,25 @@
+package simulator.fuzz;
+
+import simulator.SimulationResults;
+import simulator.input.Order;
+
+import java.util.List;
+
+/**
+ * Property an {@link OrderFuzzer} checks of the output of every generated order sequence. Invariants are evaluated concurrently for different sequences, so
+ * implementations must be stateless or thread-safe.
+ *
+ * @see TradeInvariants
+ */
+@FunctionalInterface
+public interface FuzzInvariant {
+
+    /**
+     * Checks the invariant.
+     *
+     * @param orders  Non-null orders sent to a fresh simulator, in order.
+     * @param results Non-null results of the orders.
+     * @return Description of the violation, or null if the invariant holds.
+     */
+    String findViolation(final List<Order> orders, final SimulationResults results);
+}
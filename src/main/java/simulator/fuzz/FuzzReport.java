@@ -0,0 +1,69 @@
+package simulator.fuzz;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents the outcome of an {@link OrderFuzzer} run.
+ */
+public final class FuzzReport {
+
+    private final int trialCount;
+    private final long orderCount;
+    private final long elapsedNanos;
+    private final FuzzFailure failure;
+
+    FuzzReport(final int trialCount, final long orderCount, final long elapsedNanos, final FuzzFailure failure) {
+        this.trialCount = trialCount;
+        this.orderCount = orderCount;
+        this.elapsedNanos = elapsedNanos;
+        this.failure = failure;
+    }
+
+    /**
+     * @return The number of trials (generated order sequences) run, including the failing one, if any.
+     */
+    public int getTrialCount() {
+        return trialCount;
+    }
+
+    /**
+     * @return The number of orders sent across all trials, excluding those sent while shrinking.
+     */
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * @return The wall-clock time of the run in nanoseconds, including shrinking.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return The number of trials run per minute of wall-clock time.
+     */
+    public double getTrialsPerMinute() {
+        return elapsedNanos == 0 ? 0 : trialCount * (double) TimeUnit.MINUTES.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @return True if every trial satisfied every invariant, false otherwise.
+     */
+    public boolean isPassed() {
+        return failure == null;
+    }
+
+    /**
+     * @return The first failure found, or null if the run passed.
+     */
+    public FuzzFailure getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FuzzReport{trials=%d, orders=%d, %.0f trials/min, %s}", trialCount, orderCount, getTrialsPerMinute(),
+                failure == null ? "passed" : failure.toString());
+    }
+}
@@ -0,0 +1,401 @@
+package simulator.fuzz;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import simulator.ExchangeSimulator;
+import simulator.Price;
+import simulator.SimulationResults;
+import simulator.SimulatorPool;
+import simulator.input.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Property-based test of the simulator: generates random sequences of valid orders, runs each through a fresh {@link ExchangeSimulator} and checks every
+ * {@link FuzzInvariant} of the output. Trials are spread across a {@link SimulatorPool} by a number of worker threads, so the processes of the next trials are
+ * spawned while the current ones run.
+ * <p/>
+ * Each trial's sequence is derived from the fuzzer's seed and the trial index alone, so a run is reproducible regardless of the parallelism. The first sequence
+ * violating an invariant stops the run and is shrunk to a minimal reproducer: chunks of orders are removed, halving the chunk size down to single orders, and
+ * quantities are then reduced, keeping every change after which the sequence still violates an invariant on a fresh simulator.
+ */
+public final class OrderFuzzer {
+
+    private static final String[] ACTIONS = {"BUY", "SELL"};
+
+    private final int trials;
+    private final int maxOrders;
+    private final ImmutableList<String> symbols;
+    private final int priceScale;
+    private final long basePriceTicks;
+    private final long tickSizeTicks;
+    private final int priceLevels;
+    private final long maxQuantity;
+    private final long seed;
+    private final int parallelism;
+    private final int maxShrinkRuns;
+    private final ImmutableList<FuzzInvariant> invariants;
+    private final SimulatorPool pool;
+
+    /**
+     * Runs the trials until all have passed or the first failure, which is then shrunk.
+     *
+     * @return Non-null {@link FuzzReport}.
+     * @throws simulator.exception.SimulationInitializationError if an error occurs spawning a simulator.
+     */
+    public FuzzReport run() {
+        final long startNanos = System.nanoTime();
+        final SimulatorPool trialPool = pool != null ? pool : SimulatorPool.Builder.create().withPoolSize(parallelism).build();
+        final ExecutorService workers = Executors.newFixedThreadPool(parallelism,
+                new ThreadFactoryBuilder().setNameFormat("exchange-sim-fuzz-%d").setDaemon(true).build());
+        try {
+            final AtomicInteger nextTrial = new AtomicInteger();
+            final AtomicInteger trialCount = new AtomicInteger();
+            final AtomicLong orderCount = new AtomicLong();
+            final AtomicReference<FailedTrial> firstFailure = new AtomicReference<>();
+            final List<Future<?>> running = new ArrayList<>(parallelism);
+            for (int worker = 0; worker < parallelism; worker++) {
+                running.add(workers.submit(() -> {
+                    int trial;
+                    while (firstFailure.get() == null && (trial = nextTrial.getAndIncrement()) < trials) {
+                        final ImmutableList<Order> orders = generate(trial);
+                        final String violation = check(trialPool, orders);
+                        trialCount.incrementAndGet();
+                        orderCount.addAndGet(orders.size());
+                        if (violation != null) {
+                            firstFailure.accumulateAndGet(new FailedTrial(trial, orders, violation), (current, failed) ->
+                                    current == null || failed.trial < current.trial ? failed : current);
+                        }
+                    }
+                }));
+            }
+            awaitAll(running);
+
+            final FailedTrial failed = firstFailure.get();
+            return new FuzzReport(trialCount.get(), orderCount.get(), System.nanoTime() - startNanos, failed == null ? null : shrink(trialPool, failed));
+        } finally {
+            workers.shutdownNow();
+            if (pool == null) {
+                trialPool.close();
+            }
+        }
+    }
+
+    /**
+     * Generates the order sequence of a trial.
+     *
+     * @param trial The index of the trial.
+     * @return Non-null, non-empty sequence of valid orders, always the same for the same seed and trial.
+     */
+    ImmutableList<Order> generate(final int trial) {
+        final SplittableRandom random = new SplittableRandom(seed + trial * 0x9E3779B97F4A7C15L);
+        final int length = 1 + random.nextInt(maxOrders);
+        final ImmutableList.Builder<Order> orders = ImmutableList.builder();
+        for (int index = 0; index < length; index++) {
+            orders.add(Order.Builder.create()
+                    .withSymbol(symbols.get(random.nextInt(symbols.size())))
+                    .withAction(ACTIONS[random.nextInt(ACTIONS.length)])
+                    .withPrice(Price.of(basePriceTicks + random.nextInt(priceLevels) * tickSizeTicks, priceScale))
+                    .withQuantity(1 + random.nextLong(maxQuantity))
+                    .build());
+        }
+        return orders.build();
+    }
+
+    /**
+     * Runs a sequence through a fresh simulator from the pool.
+     *
+     * @return The first invariant violation, or null if every invariant holds.
+     */
+    private String check(final SimulatorPool trialPool, final List<Order> orders) {
+        final ExchangeSimulator simulator = trialPool.acquire();
+        try {
+            // Pipelining the sequence delimits its output with markers on both stdout and stderr, so no trade of it is missed.
+            final SimulationResults results = simulator.submitOrders(orders).join();
+            for (final FuzzInvariant invariant : invariants) {
+                final String violation = invariant.findViolation(orders, results);
+                if (violation != null) {
+                    return violation;
+                }
+            }
+            return null;
+        } finally {
+            trialPool.release(simulator);
+        }
+    }
+
+    private FuzzFailure shrink(final SimulatorPool trialPool, final FailedTrial failed) {
+        final Shrinker shrinker = new Shrinker(trialPool, failed);
+        boolean shrunk = true;
+        while (shrunk && shrinker.runs < maxShrinkRuns) {
+            shrunk = shrinker.removeOrders() | shrinker.reduceQuantities();
+        }
+        return new FuzzFailure(seed, failed.trial, failed.orders, ImmutableList.copyOf(shrinker.current), shrinker.violation, shrinker.runs);
+    }
+
+    private static Order withQuantity(final Order order, final long quantity) {
+        return Order.Builder.create().withSymbol(order.getSymbol()).withAction(order.getAction()).withPrice(order.getPrice()).withQuantity(quantity).build();
+    }
+
+    private static void awaitAll(final List<Future<?>> running) {
+        try {
+            for (final Future<?> future : running) {
+                future.get();
+            }
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+    /**
+     * A trial violating an invariant, before shrinking.
+     */
+    private static final class FailedTrial {
+        private final int trial;
+        private final ImmutableList<Order> orders;
+        private final String violation;
+
+        private FailedTrial(final int trial, final ImmutableList<Order> orders, final String violation) {
+            this.trial = trial;
+            this.orders = orders;
+            this.violation = violation;
+        }
+    }
+
+    /**
+     * State of shrinking a failed trial: the smallest sequence found so far which still violates an invariant, and the candidates run to find it.
+     */
+    private final class Shrinker {
+        private final SimulatorPool trialPool;
+        private List<Order> current;
+        private String violation;
+        private int runs = 0;
+
+        private Shrinker(final SimulatorPool trialPool, final FailedTrial failed) {
+            this.trialPool = trialPool;
+            this.current = failed.orders;
+            this.violation = failed.violation;
+        }
+
+        /**
+         * Removes chunks of orders, halving the chunk size down to single orders; a removal keeping the failure is followed by another at the same position.
+         *
+         * @return True if any order was removed.
+         */
+        private boolean removeOrders() {
+            boolean removed = false;
+            for (int chunk = Math.max(1, current.size() / 2); chunk >= 1; chunk /= 2) {
+                int start = 0;
+                while (start < current.size() && current.size() > 1 && runs < maxShrinkRuns) {
+                    final List<Order> candidate = new ArrayList<>(current.subList(0, start));
+                    candidate.addAll(current.subList(Math.min(current.size(), start + chunk), current.size()));
+                    if (!candidate.isEmpty() && fails(candidate)) {
+                        removed = true;
+                    } else {
+                        start += chunk;
+                    }
+                }
+            }
+            return removed;
+        }
+
+        /**
+         * Binary searches each order for the smallest quantity keeping the failure.
+         *
+         * @return True if any quantity was reduced.
+         */
+        private boolean reduceQuantities() {
+            boolean reduced = false;
+            for (int index = 0; index < current.size(); index++) {
+                long lowest = 1;
+                long failing = current.get(index).getQuantity();
+                while (lowest < failing && runs < maxShrinkRuns) {
+                    final long candidateQuantity = lowest + (failing - lowest) / 2;
+                    final List<Order> candidate = new ArrayList<>(current);
+                    candidate.set(index, withQuantity(current.get(index), candidateQuantity));
+                    if (fails(candidate)) {
+                        failing = candidateQuantity;
+                        reduced = true;
+                    } else {
+                        lowest = candidateQuantity + 1;
+                    }
+                }
+            }
+            return reduced;
+        }
+
+        /**
+         * Runs a candidate sequence, adopting it as the current sequence if it violates an invariant.
+         */
+        private boolean fails(final List<Order> candidate) {
+            runs++;
+            final String candidateViolation = check(trialPool, candidate);
+            if (candidateViolation == null) {
+                return false;
+            }
+            current = candidate;
+            violation = candidateViolation;
+            return true;
+        }
+    }
+
+    /**
+     * Fluent-builder class for constructing {@link OrderFuzzer} objects.
+     */
+    public static class Builder {
+
+        private int trials = 1000;
+        private int maxOrders = 20;
+        private ImmutableList<String> symbols = ImmutableList.of("IBM", "OMC", "MSFT");
+        private Price basePrice = Price.valueOf(145.0);
+        private Price tickSize = Price.valueOf(0.01);
+        private int priceLevels = 20;
+        private long maxQuantity = 200;
+        private long seed = 0;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int maxShrinkRuns = 500;
+        private ImmutableList<FuzzInvariant> invariants = TradeInvariants.ALL;
+        private SimulatorPool pool = null;
+
+        public static Builder create() {
+            return new Builder();
+        }
+
+        /**
+         * @param trials Number of order sequences to generate and check.
+         */
+        public Builder withTrials(final int trials) {
+            this.trials = trials;
+            return this;
+        }
+
+        /**
+         * @param maxOrders Maximum length of a generated sequence; lengths are uniform from 1 to the maximum.
+         */
+        public Builder withMaxOrders(final int maxOrders) {
+            this.maxOrders = maxOrders;
+            return this;
+        }
+
+        /**
+         * @param symbols The symbols orders are generated for; few symbols make crossing orders likely.
+         */
+        public Builder withSymbols(final List<String> symbols) {
+            this.symbols = symbols == null ? null : ImmutableList.copyOf(symbols);
+            return this;
+        }
+
+        /**
+         * @param basePrice   The lowest price generated.
+         * @param tickSize    The difference between adjacent price levels.
+         * @param priceLevels Number of price levels generated (e.g. a base price of 145, a tick size of 0.01 and 20 levels give prices from 145.00 to 145.19).
+         */
+        public Builder withPrices(final Price basePrice, final Price tickSize, final int priceLevels) {
+            this.basePrice = basePrice;
+            this.tickSize = tickSize;
+            this.priceLevels = priceLevels;
+            return this;
+        }
+
+        /**
+         * @param maxQuantity Maximum quantity of a generated order; quantities are uniform from 1 to the maximum.
+         */
+        public Builder withMaxQuantity(final long maxQuantity) {
+            this.maxQuantity = maxQuantity;
+            return this;
+        }
+
+        /**
+         * @param seed Seed from which every trial's sequence is derived.
+         */
+        public Builder withSeed(final long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @param parallelism Number of trials run concurrently, each on its own simulator.
+         */
+        public Builder withParallelism(final int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @param maxShrinkRuns Maximum number of candidate sequences run while shrinking a failure.
+         */
+        public Builder withMaxShrinkRuns(final int maxShrinkRuns) {
+            this.maxShrinkRuns = maxShrinkRuns;
+            return this;
+        }
+
+        /**
+         * @param invariants The invariants checked of every trial, replacing the {@link TradeInvariants#ALL standard invariants}.
+         */
+        public Builder withInvariants(final List<FuzzInvariant> invariants) {
+            this.invariants = invariants == null ? null : ImmutableList.copyOf(invariants);
+            return this;
+        }
+
+        /**
+         * @param pool Pool to take the trials' simulators from (null for a pool of the parallelism's size, created and closed by each run).
+         */
+        public Builder withPool(final SimulatorPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * @return Non-null {@link OrderFuzzer}.
+         * @throws IllegalArgumentException if the configuration is invalid.
+         */
+        public OrderFuzzer build() {
+            Preconditions.checkArgument(trials > 0 && maxOrders > 0, "Trials and maximum orders must be positive.");
+            Preconditions.checkArgument(symbols != null && !symbols.isEmpty(), "Cannot fuzz without symbols.");
+            Preconditions.checkArgument(basePrice != null && basePrice.signum() > 0, "Base price must be positive.");
+            Preconditions.checkArgument(tickSize != null && tickSize.signum() > 0, "Tick size must be positive.");
+            Preconditions.checkArgument(priceLevels > 0 && maxQuantity > 0, "Price levels and maximum quantity must be positive.");
+            Preconditions.checkArgument(parallelism > 0, "Parallelism must be positive.");
+            Preconditions.checkArgument(maxShrinkRuns >= 0, "Maximum shrink runs cannot be negative.");
+            Preconditions.checkArgument(invariants != null && !invariants.isEmpty(), "Cannot fuzz without invariants.");
+            return new OrderFuzzer(this);
+        }
+
+        private Builder() {
+        }
+    }
+
+    /**
+     * Private constructor to prevent direct instantiation (use {@link Builder}).
+     */
+    private OrderFuzzer(final Builder builder) {
+        this.trials = builder.trials;
+        this.maxOrders = builder.maxOrders;
+        this.symbols = builder.symbols;
+        this.priceScale = Math.max(builder.basePrice.getScale(), builder.tickSize.getScale());
+        this.basePriceTicks = builder.basePrice.toTicks(priceScale);
+        this.tickSizeTicks = builder.tickSize.toTicks(priceScale);
+        this.priceLevels = builder.priceLevels;
+        this.maxQuantity = builder.maxQuantity;
+        this.seed = builder.seed;
+        this.parallelism = builder.parallelism;
+        this.maxShrinkRuns = builder.maxShrinkRuns;
+        this.invariants = builder.invariants;
+        this.pool = builder.pool;
+    }
+}
@@ -0,0 +1,134 @@
+package simulator.fuzz;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import simulator.Price;
+import simulator.SimulationResults;
+import simulator.input.Order;
+import simulator.output.Trade;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Standard {@link FuzzInvariant}s of an exchange matching valid orders, which hold whatever the order sequence. They bound the trades by the orders of their own
+ * symbol rather than predicting them, so they hold for any correct matching engine.
+ */
+public final class TradeInvariants {
+
+    /**
+     * No trade is at a price worse than either side could accept: every trade is at or below the highest BUY price and at or above the lowest SELL price sent for
+     * its symbol.
+     */
+    public static final FuzzInvariant PRICE_WITHIN_LIMITS = (orders, results) -> {
+        final Map<Integer, SymbolBounds> bounds = boundsBySymbol(orders);
+        for (final Trade trade : results.getTrades()) {
+            final SymbolBounds symbol = bounds.get(trade.getSymbolId());
+            if (symbol == null || symbol.highestBuy == null || symbol.lowestSell == null || trade.getPrice() == null) {
+                continue;
+            }
+            if (trade.getPrice().compareTo(symbol.highestBuy) > 0 || trade.getPrice().compareTo(symbol.lowestSell) < 0) {
+                return "Trade " + describe(trade) + " outside the limits of its orders (lowest SELL " + symbol.lowestSell + ", highest BUY " + symbol.highestBuy + ")";
+            }
+        }
+        return null;
+    };
+
+    /**
+     * The quantity filled for a symbol never exceeds the quantity offered on either side of it, and every trade is for a positive quantity.
+     */
+    public static final FuzzInvariant QUANTITY_WITHIN_OFFERED = (orders, results) -> {
+        final Map<Integer, SymbolBounds> bounds = boundsBySymbol(orders);
+        final Map<Integer, Long> filled = Maps.newHashMap();
+        for (final Trade trade : results.getTrades()) {
+            final SymbolBounds symbol = bounds.get(trade.getSymbolId());
+            if (symbol == null || trade.getQuantity() == null) {
+                continue;
+            }
+            if (trade.getQuantity() <= 0) {
+                return "Trade " + describe(trade) + " is for a non-positive quantity";
+            }
+            final long total = filled.merge(trade.getSymbolId(), trade.getQuantity(), Long::sum);
+            if (total > Math.min(symbol.buyQuantity, symbol.sellQuantity)) {
+                return "Trade " + describe(trade) + " fills " + total + " of " + trade.getSymbol() + ", more than offered (" + symbol.buyQuantity + " bought, "
+                        + symbol.sellQuantity + " sold)";
+            }
+        }
+        return null;
+    };
+
+    /**
+     * Symbols never cross each other: every trade is well-formed, for a symbol both bought and sold in the sequence, at the price of one of that symbol's own
+     * orders.
+     */
+    public static final FuzzInvariant SYMBOLS_ISOLATED = (orders, results) -> {
+        final Map<Integer, SymbolBounds> bounds = boundsBySymbol(orders);
+        for (final Trade trade : results.getTrades()) {
+            if (trade.getSymbol() == null || trade.getPrice() == null || trade.getQuantity() == null) {
+                return "Malformed trade " + describe(trade);
+            }
+            final SymbolBounds symbol = bounds.get(trade.getSymbolId());
+            if (symbol == null || symbol.highestBuy == null || symbol.lowestSell == null) {
+                return "Trade " + describe(trade) + " for a symbol not both bought and sold";
+            }
+            if (!symbol.prices.contains(trade.getPrice())) {
+                return "Trade " + describe(trade) + " at a price none of the orders for " + trade.getSymbol() + " has";
+            }
+        }
+        return null;
+    };
+
+    /**
+     * Valid orders neither cause warnings nor abort the simulator.
+     */
+    public static final FuzzInvariant NO_WARNINGS_OR_ABORT = (orders, results) -> {
+        if (results.isProcessAborted()) {
+            return "Simulator aborted";
+        }
+        return results.getWarnings().isEmpty() ? null : "Unexpected warning: " + results.getWarnings().get(0);
+    };
+
+    /**
+     * All of the standard invariants.
+     */
+    public static final ImmutableList<FuzzInvariant> ALL = ImmutableList.of(PRICE_WITHIN_LIMITS, QUANTITY_WITHIN_OFFERED, SYMBOLS_ISOLATED, NO_WARNINGS_OR_ABORT);
+
+    private static Map<Integer, SymbolBounds> boundsBySymbol(final List<Order> orders) {
+        final Map<Integer, SymbolBounds> bounds = Maps.newHashMap();
+        for (final Order order : orders) {
+            bounds.computeIfAbsent(order.getSymbolId(), symbolId -> new SymbolBounds()).add(order);
+        }
+        return bounds;
+    }
+
+    private static String describe(final Trade trade) {
+        return trade.getSymbol() + '|' + trade.getPrice() + '|' + trade.getQuantity();
+    }
+
+    /**
+     * Limits of the orders sent for a symbol.
+     */
+    private static final class SymbolBounds {
+        private final Set<Price> prices = Sets.newHashSet();
+        private Price highestBuy = null;
+        private Price lowestSell = null;
+        private long buyQuantity = 0;
+        private long sellQuantity = 0;
+
+        private void add(final Order order) {
+            prices.add(order.getPrice());
+            if ("BUY".equals(order.getAction())) {
+                highestBuy = highestBuy == null || order.getPrice().compareTo(highestBuy) > 0 ? order.getPrice() : highestBuy;
+                buyQuantity += order.getQuantity();
+            } else if ("SELL".equals(order.getAction())) {
+                lowestSell = lowestSell == null || order.getPrice().compareTo(lowestSell) < 0 ? order.getPrice() : lowestSell;
+                sellQuantity += order.getQuantity();
+            }
+        }
+    }
+
+    private TradeInvariants() {
+    }
+}
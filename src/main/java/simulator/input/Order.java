@@ -1,24 +1,40 @@
 package simulator.input;
 
+import com.google.common.base.Preconditions;
+import simulator.Price;
+import simulator.SymbolDictionary;
+
 /**
  * Represents an order sent to the exchange simulator.
  */
 public class Order {
 
     private final String symbol;
+    private final int symbolId;
     private final String action;
-    private final double price;
+    private final Price price;
     private final long quantity;
 
     public String getSymbol() {
         return symbol;
     }
 
+    /**
+     * @return The id of the symbol in the {@link SymbolDictionary#getDefault() default SymbolDictionary}, or {@link SymbolDictionary#NO_SYMBOL} if the symbol is
+     * null.
+     */
+    public int getSymbolId() {
+        return symbolId;
+    }
+
     public String getAction() {
         return action;
     }
 
-    public double getPrice() {
+    /**
+     * @return Non-null exact price of the order.
+     */
+    public Price getPrice() {
         return price;
     }
 
@@ -33,7 +49,7 @@ public class Order {
 
         private String symbol = "";
         private String transaction = "";
-        private double price = 0.0;
+        private Price price = Price.ZERO;
         private long quantity = 0;
 
         public static Builder create() {
@@ -50,7 +66,21 @@ public class Order {
             return this;
         }
 
+        /**
+         * Sets the price to the decimal the double is written as, e.g. {@code 145.09}; see {@link Price#valueOf(double)}.
+         *
+         * @throws IllegalArgumentException if the price is not finite.
+         */
         public Builder withPrice(final double price) {
+            this.price = Price.valueOf(price);
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the price is null.
+         */
+        public Builder withPrice(final Price price) {
+            Preconditions.checkArgument(price != null, "Cannot set a null price.");
             this.price = price;
             return this;
         }
@@ -71,8 +101,9 @@ public class Order {
     /**
      * Private constructor to prevent direct instantiation (use #Builder).
      */
-    private Order(final String symbol, final String action, final double price, final long quantity) {
+    private Order(final String symbol, final String action, final Price price, final long quantity) {
         this.symbol = symbol;
+        this.symbolId = symbol == null ? SymbolDictionary.NO_SYMBOL : SymbolDictionary.getDefault().intern(symbol);
         this.action = action;
         this.price = price;
         this.quantity = quantity;
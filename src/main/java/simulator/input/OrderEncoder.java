@@ -0,0 +1,217 @@
+package simulator.input;
+
+import com.google.common.base.Preconditions;
+import simulator.Price;
+import simulator.SymbolDictionary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Streaming encoder writing {@link Order}s to an OutputStream in the exchange-sim input format, {@code symbol|action|price|quantity\n}.
+ * <p/>
+ * Records are encoded as ASCII bytes directly into a reusable buffer which is written to the stream in chunks whenever it fills up, so encoding a batch never
+ * materializes the batch as a String and allocates nothing. Symbols are copied from their pre-encoded bytes in the {@link SymbolDictionary}. Prices are written
+ * straight from their {@link Price} ticks in plain decimal notation without trailing zeros, so every price is sent exactly, with no floating-point formatting.
+ * <p/>
+ * Instances are not thread-safe.
+ */
+public final class OrderEncoder {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream output;
+    private final byte[] buffer;
+    private final byte[] digits = new byte[20];
+    private int position = 0;
+    private long encodedBytes = 0;
+    private long encodedOrders = 0;
+
+    /**
+     * Constructs a new {@link OrderEncoder} with the {@link #DEFAULT_BUFFER_SIZE}.
+     *
+     * @param output The stream to write encoded orders to (cannot be null).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public OrderEncoder(final OutputStream output) {
+        this(output, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a new {@link OrderEncoder}.
+     *
+     * @param output     The stream to write encoded orders to (cannot be null).
+     * @param bufferSize The size of the encoding buffer, in bytes (at least 64).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public OrderEncoder(final OutputStream output, final int bufferSize) {
+        Preconditions.checkArgument(output != null, "OrderEncoder requires a non-null output.");
+        Preconditions.checkArgument(bufferSize >= 64, "OrderEncoder requires a buffer of at least 64 bytes.");
+        this.output = output;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Encodes a List of orders; they are not guaranteed to reach the stream until {@link #flush()} is invoked.
+     *
+     * @param orders The orders to encode (cannot be null).
+     * @throws IOException if an error occurs writing a full buffer to the stream.
+     */
+    public void encode(final List<Order> orders) throws IOException {
+        Preconditions.checkArgument(orders != null, "Cannot encode a null List of Orders.");
+        for (int index = 0; index < orders.size(); index++) {
+            encode(orders.get(index));
+        }
+    }
+
+    /**
+     * Encodes a single order; it is not guaranteed to reach the stream until {@link #flush()} is invoked.
+     *
+     * @param order The order to encode (cannot be null).
+     * @throws IOException if an error occurs writing a full buffer to the stream.
+     */
+    public void encode(final Order order) throws IOException {
+        if (order.getSymbolId() != SymbolDictionary.NO_SYMBOL) {
+            putBytes(SymbolDictionary.getDefault().getBytes(order.getSymbolId()));
+        }
+        putByte('|');
+        putAscii(order.getAction());
+        putByte('|');
+        putPrice(order.getPrice());
+        putByte('|');
+        putLong(order.getQuantity());
+        putByte('\n');
+        encodedOrders++;
+    }
+
+    /**
+     * Encodes a raw line of input followed by a line terminator, e.g. for sentinel input.
+     *
+     * @param line The line to encode, excluding the terminator (cannot be null).
+     * @throws IOException if an error occurs writing a full buffer to the stream.
+     */
+    public void encodeLine(final CharSequence line) throws IOException {
+        putAscii(line);
+        putByte('\n');
+    }
+
+    /**
+     * Writes all buffered bytes to the stream and flushes it.
+     *
+     * @throws IOException if an error occurs writing to the stream.
+     */
+    public void flush() throws IOException {
+        drainBuffer();
+        output.flush();
+    }
+
+    /**
+     * @return The total number of orders encoded by this instance, i.e. the index the next order will receive.
+     */
+    public long getEncodedOrders() {
+        return encodedOrders;
+    }
+
+    /**
+     * @return The total number of bytes encoded by this instance.
+     */
+    public long getEncodedBytes() {
+        return encodedBytes + position;
+    }
+
+    private void drainBuffer() throws IOException {
+        if (position > 0) {
+            output.write(buffer, 0, position);
+            encodedBytes += position;
+            position = 0;
+        }
+    }
+
+    private void putByte(final char character) throws IOException {
+        if (position == buffer.length) {
+            drainBuffer();
+        }
+        buffer[position++] = (byte) character;
+    }
+
+    private void putBytes(final byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            drainBuffer();
+            if (bytes.length > buffer.length) {
+                output.write(bytes);
+                encodedBytes += bytes.length;
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void putAscii(final CharSequence characters) throws IOException {
+        if (characters == null) {
+            return;
+        }
+        for (int index = 0; index < characters.length(); index++) {
+            final char character = characters.charAt(index);
+            putByte(character < 0x80 ? character : '?');
+        }
+    }
+
+    private void putLong(final long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            putAscii(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            putByte('-');
+        }
+        putDigits(Math.abs(value), 0);
+    }
+
+    private void putPrice(final Price price) throws IOException {
+        final long ticks = price.getTicks();
+        if (ticks == Long.MIN_VALUE) {
+            putAscii(price.toString());
+            return;
+        }
+        if (ticks < 0) {
+            putByte('-');
+        }
+        final int scale = price.getScale();
+        putDigits(Math.abs(ticks), Math.max(scale, 0));
+        for (int zeros = scale; zeros < 0; zeros++) {
+            putByte('0');
+        }
+    }
+
+    /**
+     * Writes a non-negative fixed-point value with the given number of decimal places.
+     */
+    private void putDigits(final long value, final int scale) throws IOException {
+        int count = 0;
+        long remaining = value;
+        do {
+            digits[count++] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        if (count <= scale) {
+            // A fraction: leading zeros, then all the digits.
+            putByte('0');
+            putByte('.');
+            for (int zeros = count; zeros < scale; zeros++) {
+                putByte('0');
+            }
+            while (count > 0) {
+                putByte((char) digits[--count]);
+            }
+            return;
+        }
+        while (count > 0) {
+            if (count == scale) {
+                putByte('.');
+            }
+            putByte((char) digits[--count]);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package simulator.journal;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single line of a simulator session journal: a line written to the simulator's stdin or read from its stdout or stderr, with the time it was written or read.
+ */
+public final class JournalEntry {
+
+    /**
+     * The stream of the simulator a line was exchanged on.
+     */
+    public enum Channel {
+        INPUT, STDOUT, STDERR
+    }
+
+    private final Channel channel;
+    private final long nanos;
+    final byte[] bytes;
+
+    JournalEntry(final Channel channel, final long nanos, final byte[] bytes) {
+        this.channel = channel;
+        this.nanos = nanos;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return Non-null {@link Channel} the line was exchanged on.
+     */
+    public Channel getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return The time the line was written or read, in nanoseconds since the journal was started.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return Non-null line, without its line feed.
+     */
+    public String getLine() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return channel + "@" + nanos + ": " + getLine();
+    }
+}
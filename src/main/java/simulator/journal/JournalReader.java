@@ -0,0 +1,125 @@
+package simulator.journal;
+
+import com.google.common.base.Preconditions;
+import simulator.exception.JournalError;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Sequential reader of a simulator session journal written by a {@link JournalWriter}. A journal cut short (e.g. by the recording JVM dying) reads up to its last
+ * complete line.
+ */
+public final class JournalReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataInputStream input;
+    private final long startEpochMillis;
+    private long previousNanos = 0;
+
+    /**
+     * Opens a journal file.
+     *
+     * @param path The path of the journal (cannot be null).
+     * @return Non-null {@link JournalReader} positioned at the first line.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws JournalError if an error occurs opening the file or it is not a journal.
+     */
+    public static JournalReader open(final Path path) {
+        Preconditions.checkArgument(path != null, "Cannot open a journal at a null path.");
+        DataInputStream input = null;
+        try {
+            input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+            final byte[] magic = new byte[JournalWriter.MAGIC.length];
+            input.readFully(magic);
+            final int version = input.readInt();
+            if (!Arrays.equals(magic, JournalWriter.MAGIC) || version != JournalWriter.VERSION) {
+                throw new JournalError("Not a version " + JournalWriter.VERSION + " exchange-sim journal: " + path);
+            }
+            return new JournalReader(input, input.readLong());
+        } catch (final IOException | JournalError exception) {
+            closeQuietly(input);
+            throw exception instanceof JournalError ? (JournalError) exception : new JournalError(exception);
+        }
+    }
+
+    private JournalReader(final DataInputStream input, final long startEpochMillis) {
+        this.input = input;
+        this.startEpochMillis = startEpochMillis;
+    }
+
+    /**
+     * @return The wall-clock time at which the journal was started, in milliseconds since the epoch.
+     */
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * Reads the next line of the journal.
+     *
+     * @return The next {@link JournalEntry}, or null at the end of the journal.
+     * @throws JournalError if an error occurs reading the file or it is corrupt.
+     */
+    public JournalEntry next() {
+        try {
+            final int channel = input.read();
+            if (channel == -1) {
+                return null;
+            }
+            if (channel >= JournalEntry.Channel.values().length) {
+                throw new JournalError("Corrupt journal entry for channel " + channel);
+            }
+            final long zigzagDelta = readVarLong();
+            final long length = readVarLong();
+            if (length > Integer.MAX_VALUE) {
+                throw new JournalError("Corrupt journal entry of length " + length);
+            }
+            final byte[] bytes = new byte[(int) length];
+            input.readFully(bytes);
+            previousNanos += (zigzagDelta >>> 1) ^ -(zigzagDelta & 1);
+            return new JournalEntry(JournalEntry.Channel.values()[channel], previousNanos, bytes);
+        } catch (final EOFException exception) {
+            return null;
+        } catch (final IOException exception) {
+            throw new JournalError(exception);
+        }
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void close() {
+        closeQuietly(input);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            final byte next = input.readByte();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new JournalError("Corrupt journal varint");
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (final IOException exception) {
+            System.err.println("Exception occurred while closing a journal.");
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package simulator.journal;
+
+import com.google.common.base.Preconditions;
+import simulator.ExchangeSimulator;
+import simulator.SimulatorPool;
+import simulator.exception.JournalError;
+import simulator.exception.SimulatorInputError;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays the input of a session journal recorded by a {@link JournalWriter} into a fresh simulator, as fast as possible, at the original pacing or at a multiple
+ * of it, and compares the simulator's output line by line with the recorded output.
+ * <p/>
+ * Input lines are written in chunks of up to 64KB; when paced, each line is held back until it falls due relative to the first input line, and the lines due by
+ * then are written together. The output is drained while waiting, and after the last line until the output has been quiet for the quiet period. The replayer
+ * can also be run from the command line: {@code java -cp <classpath> simulator.journal.JournalReplayer <journal> [speed]}, exiting with status 1 if the replayed
+ * output diverged.
+ */
+public final class JournalReplayer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final double speed;
+    private final long quietPeriodNanos;
+
+    /**
+     * Replays a journal into a simulator which has not yet received any input.
+     *
+     * @param journal   The path of the journal (cannot be null).
+     * @param simulator The simulator to replay into (cannot be null).
+     * @return Non-null {@link ReplayReport} of the replay.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws JournalError if an error occurs reading the journal.
+     */
+    public ReplayReport replay(final Path journal, final ExchangeSimulator simulator) {
+        Preconditions.checkArgument(journal != null, "Cannot replay a null journal.");
+        Preconditions.checkArgument(simulator != null, "Cannot replay into a null simulator.");
+
+        final long startNanos = System.nanoTime();
+        try (final JournalReader input = JournalReader.open(journal);
+             final OutputComparison comparison = new OutputComparison(journal)) {
+            final Chunk chunk = new Chunk();
+            long firstInputNanos = -1;
+            JournalEntry entry;
+            while (!chunk.aborted && (entry = input.next()) != null) {
+                if (entry.getChannel() != JournalEntry.Channel.INPUT) {
+                    continue;
+                }
+                if (firstInputNanos < 0) {
+                    firstInputNanos = entry.getNanos();
+                }
+                if (speed > 0) {
+                    final long dueNanos = startNanos + (long) ((entry.getNanos() - firstInputNanos) / speed);
+                    if (System.nanoTime() - dueNanos < 0) {
+                        chunk.write(simulator);
+                        long now;
+                        while ((now = System.nanoTime()) - dueNanos < 0) {
+                            LockSupport.parkNanos(Math.min(dueNanos - now, POLL_NANOS));
+                            comparison.drain(simulator);
+                        }
+                    }
+                }
+                if (!chunk.add(entry.bytes)) {
+                    chunk.write(simulator);
+                    comparison.drain(simulator);
+                    chunk.add(entry.bytes);
+                }
+            }
+            chunk.write(simulator);
+
+            while (Math.min(simulator.getNanosSinceLastOutput(), System.nanoTime() - chunk.lastWriteNanos) < quietPeriodNanos) {
+                LockSupport.parkNanos(POLL_NANOS);
+                comparison.drain(simulator);
+            }
+            comparison.drain(simulator);
+            comparison.finish();
+            return new ReplayReport(chunk.writtenLines, comparison.tradeCursor.recordedCount, comparison.tradeCursor.replayedCount,
+                    comparison.warningCursor.recordedCount, comparison.warningCursor.replayedCount, chunk.aborted, comparison.divergence,
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Input lines due to be written together.
+     */
+    private static final class Chunk {
+
+        private byte[] bytes = new byte[BUFFER_SIZE];
+        private int length = 0;
+        private int lineCount = 0;
+        private long writtenLines = 0;
+        private long lastWriteNanos = System.nanoTime();
+        private boolean aborted = false;
+
+        /**
+         * @return True if the line was added, false if the chunk must be written first.
+         */
+        private boolean add(final byte[] line) {
+            if (length + line.length + 1 > bytes.length) {
+                if (length > 0) {
+                    return false;
+                }
+                bytes = Arrays.copyOf(bytes, line.length + 1);
+            }
+            System.arraycopy(line, 0, bytes, length, line.length);
+            length += line.length;
+            bytes[length++] = '\n';
+            lineCount++;
+            return true;
+        }
+
+        private void write(final ExchangeSimulator simulator) {
+            if (length == 0 || aborted) {
+                return;
+            }
+            try {
+                simulator.writeInput(bytes, 0, length);
+                writtenLines += lineCount;
+            } catch (final SimulatorInputError exception) {
+                // The simulator stopped reading its input, e.g. because it exited as it did in the recorded session.
+                aborted = true;
+            }
+            lastWriteNanos = System.nanoTime();
+            length = 0;
+            lineCount = 0;
+        }
+    }
+
+    /**
+     * Compares the lines drained from the simulator with the lines recorded on the same channel, through a reader of the journal per channel.
+     */
+    private static final class OutputComparison implements AutoCloseable {
+
+        private final RecordedCursor tradeCursor;
+        private final RecordedCursor warningCursor;
+        private String divergence = null;
+
+        private OutputComparison(final Path journal) {
+            this.tradeCursor = new RecordedCursor(journal, JournalEntry.Channel.STDOUT);
+            RecordedCursor warningCursor = null;
+            try {
+                warningCursor = new RecordedCursor(journal, JournalEntry.Channel.STDERR);
+            } finally {
+                if (warningCursor == null) {
+                    tradeCursor.reader.close();
+                }
+            }
+            this.warningCursor = warningCursor;
+        }
+
+        private void drain(final ExchangeSimulator simulator) {
+            simulator.drainOutputLines(line -> compare(tradeCursor, line), line -> compare(warningCursor, line));
+        }
+
+        private void compare(final RecordedCursor cursor, final String line) {
+            final String recorded = cursor.next();
+            cursor.replayedCount++;
+            if (divergence == null && !line.equals(recorded)) {
+                divergence = cursor.channel + " line " + cursor.replayedCount + ": " + (recorded == null ? "unexpected '" + line + "'"
+                        : "expected '" + recorded + "' but was '" + line + "'");
+            }
+        }
+
+        private void finish() {
+            finish(tradeCursor);
+            finish(warningCursor);
+        }
+
+        private void finish(final RecordedCursor cursor) {
+            String recorded;
+            while ((recorded = cursor.next()) != null) {
+                if (divergence == null) {
+                    divergence = cursor.channel + " line " + cursor.recordedCount + ": expected '" + recorded + "' but the simulator output nothing more";
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            tradeCursor.reader.close();
+            warningCursor.reader.close();
+        }
+    }
+
+    /**
+     * Iterates over the recorded lines of a single channel.
+     */
+    private static final class RecordedCursor {
+
+        private final JournalReader reader;
+        private final JournalEntry.Channel channel;
+        private long recordedCount = 0;
+        private long replayedCount = 0;
+        private boolean exhausted = false;
+
+        private RecordedCursor(final Path journal, final JournalEntry.Channel channel) {
+            this.reader = JournalReader.open(journal);
+            this.channel = channel;
+        }
+
+        /**
+         * @return The next recorded line of the channel, or null if there is none.
+         */
+        private String next() {
+            JournalEntry entry = null;
+            while (!exhausted && (entry = reader.next()) != null && entry.getChannel() != channel) {
+                entry = null;
+            }
+            if (entry == null) {
+                exhausted = true;
+                return null;
+            }
+            recordedCount++;
+            return entry.getLine();
+        }
+    }
+
+    /**
+     * Replays a journal into a simulator spawned for the purpose, as configured through the usual system properties (e.g. the engine), and prints the
+     * {@link ReplayReport}.
+     *
+     * @param args The path of the journal, optionally followed by the speed (0 for as fast as possible, 1 for the original pacing, the default).
+     */
+    public static void main(final String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: JournalReplayer <journal> [speed]");
+            System.exit(2);
+        }
+        final JournalReplayer replayer = Builder.create().withSpeed(args.length > 1 ? Double.parseDouble(args[1]) : 1).build();
+        final SimulatorPool pool = SimulatorPool.Builder.create().withPoolSize(0).build();
+        final ExchangeSimulator simulator = pool.acquire();
+        final ReplayReport report;
+        try {
+            report = replayer.replay(Paths.get(args[0]), simulator);
+        } finally {
+            pool.release(simulator);
+            pool.close();
+        }
+        System.out.println(report);
+        System.exit(report.isConsistent() ? 0 : 1);
+    }
+
+    /**
+     * Fluent-builder class for constructing {@link JournalReplayer} objects.
+     */
+    public static class Builder {
+
+        private double speed = 1;
+        private long quietPeriod = ExchangeSimulator.DEFAULT_QUIET_PERIOD;
+
+        public static Builder create() {
+            return new Builder();
+        }
+
+        /**
+         * @param speed Multiple of the original pacing to replay at, e.g. 10 for ten times as fast; zero replays as fast as possible.
+         */
+        public Builder withSpeed(final double speed) {
+            this.speed = speed;
+            return this;
+        }
+
+        /**
+         * @param quietPeriod Time without output, in milliseconds, after which the output of the replayed input is considered complete.
+         */
+        public Builder withQuietPeriod(final long quietPeriod) {
+            this.quietPeriod = quietPeriod;
+            return this;
+        }
+
+        /**
+         * @return Non-null {@link JournalReplayer}.
+         * @throws IllegalArgumentException if the configuration is invalid.
+         */
+        public JournalReplayer build() {
+            Preconditions.checkArgument(speed >= 0 && !Double.isInfinite(speed), "Speed must be zero or a positive multiple.");
+            Preconditions.checkArgument(quietPeriod > 0, "Quiet period must be positive.");
+            return new JournalReplayer(this);
+        }
+
+        private Builder() {
+        }
+    }
+
+    /**
+     * Private constructor to prevent direct instantiation (use {@link Builder}).
+     */
+    private JournalReplayer(final Builder builder) {
+        this.speed = builder.speed;
+        this.quietPeriodNanos = TimeUnit.MILLISECONDS.toNanos(builder.quietPeriod);
+    }
+}
@@ -0,0 +1,150 @@
+package simulator.journal;
+
+import com.google.common.base.Preconditions;
+import simulator.exception.JournalError;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Append-only writer of a binary simulator session journal, recording every line exchanged with a simulator with its nanosecond timestamp (see
+ * {@link simulator.ExchangeSimulator#startRecording(JournalWriter)}).
+ * <p/>
+ * The journal starts with an 8 byte magic, a version and the wall-clock start time; each line follows as a channel byte, the zigzag varint difference between its
+ * timestamp and the previous line's, a varint length and the bytes of the line without its line feed. Lines are recorded from the raw bytes written or read, in
+ * chunks of any size; a line split across chunks is recorded once it is complete, with the timestamp of the chunk completing it.
+ * <p/>
+ * Instances are thread-safe, so the threads writing to and reading from a simulator may record to the same journal. An error writing the journal is reported on
+ * stderr and ends the recording rather than failing the simulation.
+ */
+public final class JournalWriter implements Closeable {
+
+    static final byte[] MAGIC = {'X', 'S', 'I', 'M', 'J', 'R', 'N', 'L'};
+    static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataOutputStream output;
+    private final long startNanos = System.nanoTime();
+    private final byte[][] partialLines = new byte[JournalEntry.Channel.values().length][64];
+    private final int[] partialLengths = new int[JournalEntry.Channel.values().length];
+    private long previousNanos = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a journal file, replacing any existing file.
+     *
+     * @param path The path of the journal (cannot be null).
+     * @return Non-null {@link JournalWriter} appending to the file.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws JournalError if an error occurs creating the file.
+     */
+    public static JournalWriter create(final Path path) {
+        Preconditions.checkArgument(path != null, "Cannot create a journal at a null path.");
+        try {
+            return new JournalWriter(new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE)));
+        } catch (final IOException exception) {
+            throw new JournalError(exception);
+        }
+    }
+
+    private JournalWriter(final DataOutputStream output) throws IOException {
+        this.output = output;
+        output.write(MAGIC);
+        output.writeInt(VERSION);
+        output.writeLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Records the complete lines among bytes exchanged with the simulator, keeping a trailing partial line until a later chunk completes it.
+     *
+     * @param channel The stream the bytes were exchanged on (cannot be null).
+     * @param bytes   The buffer holding the bytes (cannot be null).
+     * @param offset  The offset of the bytes within the buffer.
+     * @param length  The number of bytes.
+     * @param nanos   The {@link System#nanoTime()} at which the bytes were written or read.
+     */
+    public synchronized void record(final JournalEntry.Channel channel, final byte[] bytes, final int offset, final int length, final long nanos) {
+        assert channel != null : "channel: null";
+        assert bytes != null : "bytes: null";
+        if (closed) {
+            return;
+        }
+        final int index = channel.ordinal();
+        int lineStart = offset;
+        try {
+            for (int position = offset; position < offset + length; position++) {
+                if (bytes[position] == '\n') {
+                    if (partialLengths[index] > 0) {
+                        appendPartial(index, bytes, lineStart, position - lineStart);
+                        writeEntry(channel, partialLines[index], 0, partialLengths[index], nanos);
+                        partialLengths[index] = 0;
+                    } else {
+                        writeEntry(channel, bytes, lineStart, position - lineStart, nanos);
+                    }
+                    lineStart = position + 1;
+                }
+            }
+            appendPartial(index, bytes, lineStart, offset + length - lineStart);
+        } catch (final IOException exception) {
+            System.err.println("Exception occurred while writing the session journal; recording stopped.");
+            System.err.println(exception);
+            closed = true;
+        }
+    }
+
+    /**
+     * Writes out any lines still partial as they are and closes the journal; lines recorded afterwards are ignored.
+     *
+     * @throws JournalError if an error occurs closing the file.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            if (!closed) {
+                final long nanos = System.nanoTime();
+                for (final JournalEntry.Channel channel : JournalEntry.Channel.values()) {
+                    if (partialLengths[channel.ordinal()] > 0) {
+                        writeEntry(channel, partialLines[channel.ordinal()], 0, partialLengths[channel.ordinal()], nanos);
+                    }
+                }
+            }
+            closed = true;
+            output.close();
+        } catch (final IOException exception) {
+            throw new JournalError(exception);
+        }
+    }
+
+    private void appendPartial(final int index, final byte[] bytes, final int offset, final int length) {
+        if (partialLengths[index] + length > partialLines[index].length) {
+            partialLines[index] = Arrays.copyOf(partialLines[index], Math.max(partialLines[index].length * 2, partialLengths[index] + length));
+        }
+        System.arraycopy(bytes, offset, partialLines[index], partialLengths[index], length);
+        partialLengths[index] += length;
+    }
+
+    private void writeEntry(final JournalEntry.Channel channel, final byte[] bytes, final int offset, final int length, final long nanos) throws IOException {
+        final long relativeNanos = nanos - startNanos;
+        final long delta = relativeNanos - previousNanos;
+        previousNanos = relativeNanos;
+        output.writeByte(channel.ordinal());
+        writeVarLong((delta << 1) ^ (delta >> 63));
+        writeVarLong(length);
+        output.write(bytes, offset, length);
+    }
+
+    private void writeVarLong(final long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            output.writeByte((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        output.writeByte((int) remaining);
+    }
+}
@@ -0,0 +1,100 @@
+package simulator.journal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents the outcome of a {@link JournalReplayer} run: how much of the journal was replayed and whether the simulator's output matched the recorded output.
+ */
+public final class ReplayReport {
+
+    private final long inputLineCount;
+    private final long recordedTradeCount;
+    private final long replayedTradeCount;
+    private final long recordedWarningCount;
+    private final long replayedWarningCount;
+    private final boolean inputAborted;
+    private final String divergence;
+    private final long elapsedNanos;
+
+    ReplayReport(final long inputLineCount, final long recordedTradeCount, final long replayedTradeCount, final long recordedWarningCount,
+                 final long replayedWarningCount, final boolean inputAborted, final String divergence, final long elapsedNanos) {
+        this.inputLineCount = inputLineCount;
+        this.recordedTradeCount = recordedTradeCount;
+        this.replayedTradeCount = replayedTradeCount;
+        this.recordedWarningCount = recordedWarningCount;
+        this.replayedWarningCount = replayedWarningCount;
+        this.inputAborted = inputAborted;
+        this.divergence = divergence;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return The number of recorded input lines written to the simulator.
+     */
+    public long getInputLineCount() {
+        return inputLineCount;
+    }
+
+    /**
+     * @return The number of stdout lines in the journal.
+     */
+    public long getRecordedTradeCount() {
+        return recordedTradeCount;
+    }
+
+    /**
+     * @return The number of stdout lines read from the simulator during the replay.
+     */
+    public long getReplayedTradeCount() {
+        return replayedTradeCount;
+    }
+
+    /**
+     * @return The number of stderr lines in the journal.
+     */
+    public long getRecordedWarningCount() {
+        return recordedWarningCount;
+    }
+
+    /**
+     * @return The number of stderr lines read from the simulator during the replay.
+     */
+    public long getReplayedWarningCount() {
+        return replayedWarningCount;
+    }
+
+    /**
+     * @return True if the simulator stopped accepting input (e.g. because it exited) before the whole journal was replayed, false otherwise.
+     */
+    public boolean isInputAborted() {
+        return inputAborted;
+    }
+
+    /**
+     * @return Possibly null description of the first line in which the replayed output differed from the recorded output, or null if it did not.
+     */
+    public String getDivergence() {
+        return divergence;
+    }
+
+    /**
+     * @return True if the simulator output the same lines on stdout and stderr, in the same order, as in the recorded session.
+     */
+    public boolean isConsistent() {
+        return divergence == null;
+    }
+
+    /**
+     * @return The wall-clock duration of the replay, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayReport{inputLines=" + inputLineCount + ", trades=" + replayedTradeCount + "/" + recordedTradeCount + ", warnings=" + replayedWarningCount
+                + "/" + recordedWarningCount + ", inputAborted=" + inputAborted + ", elapsedMillis=" + getElapsedMillis()
+                + (divergence == null ? ", consistent" : ", divergence=" + divergence) + "}";
+    }
+}
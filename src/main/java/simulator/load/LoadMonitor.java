@@ -0,0 +1,48 @@
+package simulator.load;
+
+import simulator.ExchangeSimulator;
+
+/**
+ * Observes an {@link OrderLoadGenerator} run from the thread writing the load, which hands it every write and polls it between writes, including while waiting for
+ * the next write to fall due, to drain the simulator's output.
+ */
+interface LoadMonitor {
+
+    /**
+     * Monitor which only discards the simulator's output.
+     */
+    LoadMonitor DISCARDING = new LoadMonitor() {
+        @Override
+        public long getPollNanos() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public void onOrdersWritten(final int orderCount, final long writeBlockedNanos) {
+        }
+
+        @Override
+        public int poll(final ExchangeSimulator simulator) {
+            return simulator.discardOutput();
+        }
+    };
+
+    /**
+     * @return The longest time, in nanoseconds, the writing thread may wait without polling.
+     */
+    long getPollNanos();
+
+    /**
+     * @param orderCount        The number of orders written.
+     * @param writeBlockedNanos The time spent blocked writing them to the simulator's stdin.
+     */
+    void onOrdersWritten(int orderCount, long writeBlockedNanos);
+
+    /**
+     * Drains the simulator's output.
+     *
+     * @param simulator The simulator under load.
+     * @return The number of trades drained.
+     */
+    int poll(ExchangeSimulator simulator);
+}
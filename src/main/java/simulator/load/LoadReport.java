@@ -0,0 +1,71 @@
+package simulator.load;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents the outcome of an {@link OrderLoadGenerator} run.
+ */
+public final class LoadReport {
+
+    private final long orderCount;
+    private final long byteCount;
+    private final long tradeCount;
+    private final long elapsedNanos;
+    private final long writeBlockedNanos;
+
+    LoadReport(final long orderCount, final long byteCount, final long tradeCount, final long elapsedNanos, final long writeBlockedNanos) {
+        this.orderCount = orderCount;
+        this.byteCount = byteCount;
+        this.tradeCount = tradeCount;
+        this.elapsedNanos = elapsedNanos;
+        this.writeBlockedNanos = writeBlockedNanos;
+    }
+
+    /**
+     * @return The number of orders written to the simulator.
+     */
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * @return The number of bytes written to the simulator's stdin.
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * @return The number of trades read from the simulator while the load was applied.
+     */
+    public long getTradeCount() {
+        return tradeCount;
+    }
+
+    /**
+     * @return The wall-clock duration of the run, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * @return The time spent blocked writing to the simulator's stdin, in milliseconds.
+     */
+    public long getWriteBlockedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(writeBlockedNanos);
+    }
+
+    /**
+     * @return The achieved rate, in orders per second.
+     */
+    public double getOrdersPerSecond() {
+        return elapsedNanos == 0 ? 0 : orderCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadReport{orders=" + orderCount + ", bytes=" + byteCount + ", trades=" + tradeCount + ", elapsedMillis=" + getElapsedMillis()
+                + ", writeBlockedMillis=" + getWriteBlockedMillis() + ", ordersPerSecond=" + Math.round(getOrdersPerSecond()) + "}";
+    }
+}
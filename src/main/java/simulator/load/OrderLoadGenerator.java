@@ -0,0 +1,414 @@
+package simulator.load;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import simulator.ExchangeSimulator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generates synthetic order load for the {@link ExchangeSimulator} at a target or maximum rate.
+ * <p/>
+ * Orders are generated in parallel by worker threads, each owning a disjoint subset of the symbol universe (so per-symbol price random walks need no
+ * coordination) and encoding its orders straight into recycled ASCII byte chunks. The calling thread only writes finished chunks to the simulator's stdin,
+ * pacing them to the target rate, and discards the simulator's output as it goes; the harness therefore stays out of the way of saturating the simulator.
+ * <p/>
+ * Symbols are named {@code A, B, ..., Z, BA, BB, ...}; each symbol's mid price follows a random walk of up to the price step per order, starting at the mid
+ * price, and each order is priced uniformly within the spread around its symbol's mid.
+ */
+public final class OrderLoadGenerator {
+
+    private static final int MAX_LINE_LENGTH = 64;
+    private static final int MAX_CHUNK_ORDERS = 4096;
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final long CHUNK_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final byte[] BUY = "BUY".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SELL = "SELL".getBytes(StandardCharsets.US_ASCII);
+
+    private final int symbolCount;
+    private final double buyRatio;
+    private final long midPriceTicks;
+    private final int priceScale;
+    private final long priceStepTicks;
+    private final long spreadTicks;
+    private final long minimumQuantity;
+    private final long maximumQuantity;
+    private final QuantityDistribution quantityDistribution;
+    private final long targetRate;
+    private final long orderCount;
+    private final long durationNanos;
+    private final int parallelism;
+    private final long seed;
+
+    /**
+     * Applies the load to the simulator until the configured order count or duration is reached, whichever comes first.
+     *
+     * @param simulator The simulator to load (cannot be null).
+     * @return Non-null {@link LoadReport} of the run.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws simulator.exception.SimulatorInputError if an error occurs writing to the simulator.
+     */
+    public LoadReport run(final ExchangeSimulator simulator) {
+        Preconditions.checkArgument(simulator != null, "Cannot apply load to a null simulator.");
+        return run(simulator, LoadMonitor.DISCARDING);
+    }
+
+    /**
+     * Applies the load to the simulator, handing every write to the monitor and leaving it to drain the simulator's output.
+     */
+    LoadReport run(final ExchangeSimulator simulator, final LoadMonitor monitor) {
+        assert simulator != null : "simulator: null";
+        assert monitor != null : "monitor: null";
+
+        final int workerCount = Math.min(parallelism, symbolCount);
+        final int chunkOrders = (int) Math.max(1, Math.min(MAX_CHUNK_ORDERS, targetRate == 0 ? MAX_CHUNK_ORDERS : targetRate / 1000));
+        final BlockingQueue<Chunk> filledChunks = new ArrayBlockingQueue<>(workerCount * CHUNKS_PER_WORKER);
+        final ExecutorService workers = Executors.newFixedThreadPool(workerCount,
+                new ThreadFactoryBuilder().setNameFormat("exchange-sim-load-%d").setDaemon(true).build());
+        for (int worker = 0; worker < workerCount; worker++) {
+            workers.execute(new Worker(worker, workerCount, chunkOrders, filledChunks));
+        }
+
+        final long startNanos = System.nanoTime();
+        long written = 0;
+        long bytes = 0;
+        long trades = 0;
+        long writeBlockedNanos = 0;
+        try {
+            while (written < orderCount && System.nanoTime() - startNanos < durationNanos) {
+                final Chunk chunk = filledChunks.poll(Math.min(CHUNK_POLL_NANOS, monitor.getPollNanos()), TimeUnit.NANOSECONDS);
+                if (chunk == null) {
+                    trades += monitor.poll(simulator);
+                    continue;
+                }
+                final int orders = (int) Math.min(chunk.orderCount, orderCount - written);
+                final int length = chunk.lineEnds[orders - 1];
+                if (targetRate > 0) {
+                    final long dueNanos = startNanos + (long) (written * (double) TimeUnit.SECONDS.toNanos(1) / targetRate);
+                    long now;
+                    while ((now = System.nanoTime()) - dueNanos < 0) {
+                        LockSupport.parkNanos(Math.min(dueNanos - now, monitor.getPollNanos()));
+                        trades += monitor.poll(simulator);
+                    }
+                }
+                final long writeStartNanos = System.nanoTime();
+                simulator.writeInput(chunk.bytes, 0, length);
+                final long blockedNanos = System.nanoTime() - writeStartNanos;
+                writeBlockedNanos += blockedNanos;
+                written += orders;
+                bytes += length;
+                monitor.onOrdersWritten(orders, blockedNanos);
+                trades += monitor.poll(simulator);
+                chunk.owner.offer(chunk);
+            }
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+        }
+        return new LoadReport(written, bytes, trades + monitor.poll(simulator), System.nanoTime() - startNanos, writeBlockedNanos);
+    }
+
+    /**
+     * @return The target rate in orders per second, or zero if orders are written as fast as the simulator accepts them.
+     */
+    long getTargetRate() {
+        return targetRate;
+    }
+
+    /**
+     * Generates orders as a single worker would, without a simulator, for inspecting the generated load.
+     *
+     * @param orders The number of orders to generate (positive).
+     * @return Non-null ASCII lines of the orders.
+     */
+    byte[] generate(final int orders) {
+        assert orders > 0 : "orders: " + orders;
+        final Chunk chunk = new Chunk(orders, null);
+        new Worker(0, 1, orders, null).fill(chunk);
+        return Arrays.copyOf(chunk.bytes, chunk.lineEnds[orders - 1]);
+    }
+
+    /**
+     * Recycled buffer of encoded order lines, returned to the queue of the worker owning it once written.
+     */
+    private static final class Chunk {
+        private final byte[] bytes;
+        private final int[] lineEnds;
+        private final BlockingQueue<Chunk> owner;
+        private int orderCount = 0;
+
+        private Chunk(final int orders, final BlockingQueue<Chunk> owner) {
+            this.bytes = new byte[orders * MAX_LINE_LENGTH];
+            this.lineEnds = new int[orders];
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * Generates and encodes the orders for every {@code workerCount}-th symbol, starting at its worker index.
+     */
+    private final class Worker implements Runnable {
+
+        private final int chunkOrders;
+        private final BlockingQueue<Chunk> freeChunks;
+        private final BlockingQueue<Chunk> filledChunks;
+        private final SplittableRandom random;
+        private final byte[][] symbols;
+        private final long[] midTicks;
+
+        private Worker(final int worker, final int workerCount, final int chunkOrders, final BlockingQueue<Chunk> filledChunks) {
+            this.chunkOrders = chunkOrders;
+            this.filledChunks = filledChunks;
+            this.freeChunks = new ArrayBlockingQueue<>(CHUNKS_PER_WORKER);
+            for (int chunk = 0; chunk < CHUNKS_PER_WORKER; chunk++) {
+                freeChunks.add(new Chunk(chunkOrders, freeChunks));
+            }
+            this.random = new SplittableRandom(seed + worker);
+            final int ownedSymbols = (symbolCount - worker + workerCount - 1) / workerCount;
+            this.symbols = new byte[ownedSymbols][];
+            this.midTicks = new long[ownedSymbols];
+            for (int symbol = 0; symbol < ownedSymbols; symbol++) {
+                symbols[symbol] = symbolName(worker + symbol * workerCount);
+                midTicks[symbol] = midPriceTicks;
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    final Chunk chunk = freeChunks.take();
+                    fill(chunk);
+                    filledChunks.put(chunk);
+                }
+            } catch (final InterruptedException exception) {
+                // Load generation finished.
+            }
+        }
+
+        private void fill(final Chunk chunk) {
+            int position = 0;
+            for (int order = 0; order < chunkOrders; order++) {
+                final int symbol = random.nextInt(symbols.length);
+                final long mid = Math.max(spreadTicks + 1, midTicks[symbol] + random.nextLong(-priceStepTicks, priceStepTicks + 1));
+                midTicks[symbol] = mid;
+                final long price = mid + random.nextLong(-spreadTicks, spreadTicks + 1);
+                final long quantity = quantityDistribution.next(random, minimumQuantity, maximumQuantity);
+
+                position = put(chunk.bytes, position, symbols[symbol]);
+                chunk.bytes[position++] = '|';
+                position = put(chunk.bytes, position, random.nextDouble() < buyRatio ? BUY : SELL);
+                chunk.bytes[position++] = '|';
+                position = putDecimal(chunk.bytes, position, price, priceScale);
+                chunk.bytes[position++] = '|';
+                position = putDecimal(chunk.bytes, position, quantity, 0);
+                chunk.bytes[position++] = '\n';
+                chunk.lineEnds[order] = position;
+            }
+            chunk.orderCount = chunkOrders;
+        }
+    }
+
+    private static int put(final byte[] buffer, final int position, final byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    /**
+     * Writes a non-negative fixed-point value as ASCII digits, with the given number of decimal places.
+     */
+    static int putDecimal(final byte[] buffer, final int position, final long value, final int scale) {
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        digits = Math.max(digits, scale + 1);
+        final int length = scale > 0 ? digits + 1 : digits;
+        long remaining = value;
+        int index = position + length - 1;
+        for (int digit = 0; digit < digits; digit++) {
+            if (scale > 0 && digit == scale) {
+                buffer[index--] = '.';
+            }
+            buffer[index--] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return position + length;
+    }
+
+    /**
+     * @return ASCII bytes of the base-26 name (A being zero) of the symbol with the given index.
+     */
+    static byte[] symbolName(final int index) {
+        final StringBuilder name = new StringBuilder();
+        int remaining = index;
+        do {
+            name.append((char) ('A' + remaining % 26));
+            remaining /= 26;
+        } while (remaining > 0);
+        return name.reverse().toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Fluent-builder class for constructing {@link OrderLoadGenerator} objects.
+     */
+    public static class Builder {
+
+        private int symbolCount = 100;
+        private double buyRatio = 0.5;
+        private double midPrice = 100.0;
+        private int priceScale = 2;
+        private long priceStepTicks = 1;
+        private long spreadTicks = 10;
+        private long minimumQuantity = 1;
+        private long maximumQuantity = 1000;
+        private QuantityDistribution quantityDistribution = QuantityDistribution.UNIFORM;
+        private long targetRate = 0;
+        private long orderCount = Long.MAX_VALUE;
+        private long duration = Long.MAX_VALUE;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private long seed = 0;
+
+        public static Builder create() {
+            return new Builder();
+        }
+
+        /**
+         * @param symbolCount Number of distinct symbols to generate orders for (at most 26^6).
+         */
+        public Builder withSymbolCount(final int symbolCount) {
+            this.symbolCount = symbolCount;
+            return this;
+        }
+
+        /**
+         * @param buyRatio Probability of an order being a BUY, between 0 and 1.
+         */
+        public Builder withBuyRatio(final double buyRatio) {
+            this.buyRatio = buyRatio;
+            return this;
+        }
+
+        /**
+         * @param midPrice   The initial mid price of every symbol.
+         * @param priceScale Number of decimal places of generated prices; the tick size is {@code 10^-priceScale}.
+         */
+        public Builder withMidPrice(final double midPrice, final int priceScale) {
+            this.midPrice = midPrice;
+            this.priceScale = priceScale;
+            return this;
+        }
+
+        /**
+         * @param priceStepTicks Maximum move of a symbol's mid price per order, in ticks.
+         * @param spreadTicks    Maximum distance of an order's price from its symbol's mid price, in ticks.
+         */
+        public Builder withPriceWalk(final long priceStepTicks, final long spreadTicks) {
+            this.priceStepTicks = priceStepTicks;
+            this.spreadTicks = spreadTicks;
+            return this;
+        }
+
+        /**
+         * @param minimumQuantity Minimum order quantity (positive).
+         * @param maximumQuantity Maximum order quantity.
+         * @param distribution    Distribution of quantities within the range.
+         */
+        public Builder withQuantities(final long minimumQuantity, final long maximumQuantity, final QuantityDistribution distribution) {
+            this.minimumQuantity = minimumQuantity;
+            this.maximumQuantity = maximumQuantity;
+            this.quantityDistribution = distribution;
+            return this;
+        }
+
+        /**
+         * @param targetRate Target rate in orders per second; zero writes orders as fast as the simulator accepts them.
+         */
+        public Builder withTargetRate(final long targetRate) {
+            this.targetRate = targetRate;
+            return this;
+        }
+
+        /**
+         * @param orderCount Number of orders after which the run ends.
+         */
+        public Builder withOrderCount(final long orderCount) {
+            this.orderCount = orderCount;
+            return this;
+        }
+
+        /**
+         * @param duration Duration, in milliseconds, after which the run ends.
+         */
+        public Builder withDuration(final long duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        /**
+         * @param parallelism Number of generator threads (at most one per symbol is used).
+         */
+        public Builder withParallelism(final int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @param seed Seed of the random generators, making the generated orders of each worker reproducible.
+         */
+        public Builder withSeed(final long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @return Non-null {@link OrderLoadGenerator}.
+         * @throws IllegalArgumentException if the configuration is invalid.
+         */
+        public OrderLoadGenerator build() {
+            Preconditions.checkArgument(symbolCount > 0 && symbolCount <= 308_915_776, "Symbol count must be between 1 and 26^6.");
+            Preconditions.checkArgument(buyRatio >= 0 && buyRatio <= 1, "Buy ratio must be between 0 and 1.");
+            Preconditions.checkArgument(priceScale >= 0 && priceScale <= 9, "Price scale must be between 0 and 9.");
+            Preconditions.checkArgument(midPrice > 0 && midPrice * Math.pow(10, priceScale) < 1e15, "Mid price must be positive and representable in ticks.");
+            Preconditions.checkArgument(priceStepTicks >= 0 && spreadTicks >= 0, "Price step and spread cannot be negative.");
+            Preconditions.checkArgument(minimumQuantity > 0 && maximumQuantity >= minimumQuantity, "Quantity range must be positive and non-empty.");
+            Preconditions.checkArgument(quantityDistribution != null, "Quantity distribution cannot be null.");
+            Preconditions.checkArgument(targetRate >= 0, "Target rate cannot be negative.");
+            Preconditions.checkArgument(orderCount > 0 && duration > 0, "Order count and duration must be positive.");
+            Preconditions.checkArgument(parallelism > 0, "Parallelism must be positive.");
+            return new OrderLoadGenerator(this);
+        }
+
+        private Builder() {
+        }
+    }
+
+    /**
+     * Private constructor to prevent direct instantiation (use {@link Builder}).
+     */
+    private OrderLoadGenerator(final Builder builder) {
+        this.symbolCount = builder.symbolCount;
+        this.buyRatio = builder.buyRatio;
+        this.priceScale = builder.priceScale;
+        this.midPriceTicks = Math.round(builder.midPrice * Math.pow(10, builder.priceScale));
+        this.priceStepTicks = builder.priceStepTicks;
+        this.spreadTicks = builder.spreadTicks;
+        this.minimumQuantity = builder.minimumQuantity;
+        this.maximumQuantity = builder.maximumQuantity;
+        this.quantityDistribution = builder.quantityDistribution;
+        this.targetRate = builder.targetRate;
+        this.orderCount = builder.orderCount;
+        this.durationNanos = TimeUnit.MILLISECONDS.toNanos(builder.duration);
+        this.parallelism = builder.parallelism;
+        this.seed = builder.seed;
+    }
+}
@@ -0,0 +1,41 @@
+package simulator.load;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distributions of order quantities generated by the {@link OrderLoadGenerator}, between a minimum and maximum quantity (inclusive).
+ */
+public enum QuantityDistribution {
+
+    /**
+     * Every quantity in the range is equally likely.
+     */
+    UNIFORM {
+        @Override
+        long next(final SplittableRandom random, final long minimum, final long maximum) {
+            return minimum + random.nextLong(maximum - minimum + 1);
+        }
+    },
+
+    /**
+     * Small quantities dominate, with a long tail towards the maximum; the mean excess over the minimum is a tenth of the range.
+     */
+    EXPONENTIAL {
+        @Override
+        long next(final SplittableRandom random, final long minimum, final long maximum) {
+            final double mean = Math.max(1.0, (maximum - minimum) / 10.0);
+            final long excess = (long) (-mean * Math.log(1.0 - random.nextDouble()));
+            return Math.min(maximum, minimum + excess);
+        }
+    };
+
+    /**
+     * Draws the next quantity.
+     *
+     * @param random  The source of randomness.
+     * @param minimum The minimum quantity (positive).
+     * @param maximum The maximum quantity (at least the minimum).
+     * @return A quantity between the minimum and the maximum.
+     */
+    abstract long next(final SplittableRandom random, final long minimum, final long maximum);
+}
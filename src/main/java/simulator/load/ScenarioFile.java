@@ -0,0 +1,234 @@
+package simulator.load;
+
+import com.google.common.base.Preconditions;
+import simulator.ExchangeSimulator;
+import simulator.exception.ScenarioError;
+import simulator.output.TradeSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Order scenario file, played into a simulator straight from a memory mapping of the file, without materializing any {@link simulator.input.Order}s. Scenarios of
+ * any size therefore play with a flat heap.
+ * <p/>
+ * A scenario file is the {@value #HEADER_LINE} header line followed by the orders as {@code symbol|action|price|quantity} lines, i.e. in the simulator's pipe
+ * protocol, as written by a {@link ScenarioWriter}. As the records already have the layout of the protocol, playing the file decodes nothing: the file is mapped
+ * in windows of 64MB and its pages are copied in bulk into a single reused chunk of up to 64KB, cut at the last complete line, which is written to the
+ * simulator's stdin as is. The simulator's output is drained between chunks, and after the last until it has been quiet for the
+ * {@link ExchangeSimulator#DEFAULT_QUIET_PERIOD}.
+ * <p/>
+ * The copy into the chunk cannot be avoided: a {@link Process} only exposes its stdin as an {@link java.io.OutputStream}, not as a channel, so the mapped bytes
+ * cannot be written to it without passing through a heap array. What the mapping saves is the rest: each chunk is a single copy out of the page cache, with no
+ * read call per chunk and none of the extra copy through a temporary direct buffer which reading the file into a heap buffer takes.
+ */
+public final class ScenarioFile implements Closeable {
+
+    static final String HEADER_LINE = "# exchange-sim scenario v1";
+
+    private static final byte[] HEADER = (HEADER_LINE + '\n').getBytes(StandardCharsets.US_ASCII);
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Path path;
+    private final FileChannel channel;
+
+    /**
+     * Opens a scenario file.
+     *
+     * @param path The path of the scenario (cannot be null).
+     * @return Non-null {@link ScenarioFile}, which must be closed after use.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws ScenarioError if an error occurs opening the file or it is not a scenario.
+     */
+    public static ScenarioFile open(final Path path) {
+        Preconditions.checkArgument(path != null, "Cannot open a scenario at a null path.");
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            final ByteBuffer header = ByteBuffer.allocate(HEADER.length);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Read the whole header.
+            }
+            if (header.hasRemaining() || !Arrays.equals(header.array(), HEADER)) {
+                channel.close();
+                throw new ScenarioError("Not an exchange-sim scenario: " + path);
+            }
+            return new ScenarioFile(path, channel);
+        } catch (final IOException exception) {
+            closeQuietly(channel);
+            throw new ScenarioError(exception);
+        }
+    }
+
+    private ScenarioFile(final Path path, final FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * @return The number of bytes of order lines in the scenario.
+     * @throws ScenarioError if an error occurs accessing the file.
+     */
+    public long getByteCount() {
+        try {
+            return channel.size() - HEADER.length;
+        } catch (final IOException exception) {
+            throw new ScenarioError(exception);
+        }
+    }
+
+    /**
+     * Plays the scenario into the simulator, discarding its output.
+     *
+     * @param simulator The simulator to play the scenario into (cannot be null).
+     * @return Non-null {@link LoadReport} of the run.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws ScenarioError if an error occurs reading the file.
+     * @throws simulator.exception.SimulatorInputError if an error occurs writing to the simulator.
+     */
+    public LoadReport play(final ExchangeSimulator simulator) {
+        Preconditions.checkArgument(simulator != null, "Cannot play a scenario into a null simulator.");
+        return play(simulator, LoadMonitor.DISCARDING);
+    }
+
+    /**
+     * Plays the scenario into the simulator, handing its trades to a sink as they are output (e.g. a {@link simulator.output.TradeBatch}, or a sink merely
+     * aggregating them to keep the heap flat) and discarding its warnings and malformed output.
+     *
+     * @param simulator The simulator to play the scenario into (cannot be null).
+     * @param trades    Sink accepting the well-formed trades, in the order the simulator output them (cannot be null).
+     * @return Non-null {@link LoadReport} of the run.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws ScenarioError if an error occurs reading the file.
+     * @throws simulator.exception.SimulatorInputError if an error occurs writing to the simulator.
+     */
+    public LoadReport play(final ExchangeSimulator simulator, final TradeSink trades) {
+        Preconditions.checkArgument(simulator != null, "Cannot play a scenario into a null simulator.");
+        Preconditions.checkArgument(trades != null, "Cannot play a scenario into a null TradeSink.");
+        return play(simulator, new LoadMonitor() {
+            @Override
+            public long getPollNanos() {
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public void onOrdersWritten(final int orderCount, final long writeBlockedNanos) {
+            }
+
+            @Override
+            public int poll(final ExchangeSimulator simulator) {
+                simulator.drainWarnings(warning -> {
+                });
+                return simulator.drainTrades(trades, malformed -> {
+                });
+            }
+        });
+    }
+
+    private LoadReport play(final ExchangeSimulator simulator, final LoadMonitor monitor) {
+        final long startNanos = System.nanoTime();
+        final byte[] chunk = new byte[CHUNK_SIZE];
+        int carried = 0;
+        long orders = 0;
+        long bytes = 0;
+        long tradeCount = 0;
+        long writeBlockedNanos = 0;
+        long lastWriteNanos = startNanos;
+        try {
+            final long size = channel.size();
+            for (long windowStart = HEADER.length; windowStart < size; windowStart += MAP_WINDOW) {
+                final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(MAP_WINDOW, size - windowStart));
+                while (window.hasRemaining()) {
+                    final int read = Math.min(window.remaining(), CHUNK_SIZE - carried);
+                    window.get(chunk, carried, read);
+                    final int filled = carried + read;
+                    int end = filled;
+                    while (end > 0 && chunk[end - 1] != '\n') {
+                        end--;
+                    }
+                    if (end == 0 && filled < CHUNK_SIZE) {
+                        carried = filled;
+                        continue;
+                    }
+                    // A line longer than the chunk is written in pieces.
+                    end = end == 0 ? filled : end;
+                    final int lines = countLines(chunk, end);
+
+                    final long writeStartNanos = System.nanoTime();
+                    simulator.writeInput(chunk, 0, end);
+                    lastWriteNanos = System.nanoTime();
+                    final long blockedNanos = lastWriteNanos - writeStartNanos;
+                    writeBlockedNanos += blockedNanos;
+                    orders += lines;
+                    bytes += end;
+                    monitor.onOrdersWritten(lines, blockedNanos);
+                    tradeCount += monitor.poll(simulator);
+
+                    carried = filled - end;
+                    System.arraycopy(chunk, end, chunk, 0, carried);
+                }
+            }
+        } catch (final IOException exception) {
+            throw new ScenarioError(exception);
+        }
+        if (carried > 0) {
+            chunk[carried++] = '\n';
+            simulator.writeInput(chunk, 0, carried);
+            lastWriteNanos = System.nanoTime();
+            orders++;
+            bytes += carried - 1;
+        }
+
+        final long quietNanos = TimeUnit.MILLISECONDS.toNanos(ExchangeSimulator.DEFAULT_QUIET_PERIOD);
+        while (Math.min(simulator.getNanosSinceLastOutput(), System.nanoTime() - lastWriteNanos) < quietNanos) {
+            LockSupport.parkNanos(POLL_NANOS);
+            tradeCount += monitor.poll(simulator);
+        }
+        tradeCount += monitor.poll(simulator);
+        return new LoadReport(orders, bytes, tradeCount, System.nanoTime() - startNanos, writeBlockedNanos);
+    }
+
+    private static int countLines(final byte[] bytes, final int length) {
+        int lines = 0;
+        for (int index = 0; index < length; index++) {
+            if (bytes[index] == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void close() {
+        closeQuietly(channel);
+    }
+
+    @Override
+    public String toString() {
+        return "ScenarioFile{" + path + "}";
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (final IOException exception) {
+            System.err.println("Exception occurred while closing a scenario file.");
+        }
+    }
+}
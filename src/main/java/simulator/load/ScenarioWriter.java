@@ -0,0 +1,85 @@
+package simulator.load;
+
+import com.google.common.base.Preconditions;
+import simulator.exception.ScenarioError;
+import simulator.input.Order;
+import simulator.input.OrderEncoder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes orders to a {@link ScenarioFile}, encoding each in the simulator's pipe protocol as it is written so a scenario of any size can be generated without
+ * holding its orders.
+ */
+public final class ScenarioWriter implements Closeable {
+
+    private final OutputStream output;
+    private final OrderEncoder encoder;
+
+    /**
+     * Creates a scenario file, replacing any existing file.
+     *
+     * @param path The path of the scenario (cannot be null).
+     * @return Non-null {@link ScenarioWriter}, which must be closed to complete the file.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws ScenarioError if an error occurs creating the file.
+     */
+    public static ScenarioWriter create(final Path path) {
+        Preconditions.checkArgument(path != null, "Cannot create a scenario at a null path.");
+        try {
+            final OutputStream output = Files.newOutputStream(path);
+            output.write((ScenarioFile.HEADER_LINE + '\n').getBytes(StandardCharsets.US_ASCII));
+            return new ScenarioWriter(output);
+        } catch (final IOException exception) {
+            throw new ScenarioError(exception);
+        }
+    }
+
+    private ScenarioWriter(final OutputStream output) {
+        this.output = output;
+        this.encoder = new OrderEncoder(output);
+    }
+
+    /**
+     * Appends an order to the scenario.
+     *
+     * @param order The order to append (cannot be null).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws ScenarioError if an error occurs writing the file.
+     */
+    public void write(final Order order) {
+        Preconditions.checkArgument(order != null, "Cannot write a null Order.");
+        try {
+            encoder.encode(order);
+        } catch (final IOException exception) {
+            throw new ScenarioError(exception);
+        }
+    }
+
+    /**
+     * @return The number of orders written.
+     */
+    public long getOrderCount() {
+        return encoder.getEncodedOrders();
+    }
+
+    /**
+     * Writes out any buffered orders and closes the file.
+     *
+     * @throws ScenarioError if an error occurs writing the file.
+     */
+    @Override
+    public void close() {
+        try {
+            encoder.flush();
+            output.close();
+        } catch (final IOException exception) {
+            throw new ScenarioError(exception);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package simulator.load;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents the load applied and the output observed during one reporting interval of a {@link SoakRunner} run.
+ */
+public final class SoakInterval {
+
+    private final long startNanos;
+    private final long durationNanos;
+    private final long orderCount;
+    private final long tradeCount;
+    private final long writeBlockedNanos;
+    private final long maxOutputLagNanos;
+
+    SoakInterval(final long startNanos, final long durationNanos, final long orderCount, final long tradeCount, final long writeBlockedNanos,
+                 final long maxOutputLagNanos) {
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+        this.orderCount = orderCount;
+        this.tradeCount = tradeCount;
+        this.writeBlockedNanos = writeBlockedNanos;
+        this.maxOutputLagNanos = maxOutputLagNanos;
+    }
+
+    /**
+     * @return The start of the interval, in milliseconds since the start of the run.
+     */
+    public long getStartMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(startNanos);
+    }
+
+    /**
+     * @return The duration of the interval, in milliseconds.
+     */
+    public long getDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    /**
+     * @return The number of orders written to the simulator during the interval.
+     */
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * @return The number of trades read from the simulator during the interval.
+     */
+    public long getTradeCount() {
+        return tradeCount;
+    }
+
+    /**
+     * @return The time spent blocked writing to the simulator's stdin during the interval, in milliseconds.
+     */
+    public long getWriteBlockedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(writeBlockedNanos);
+    }
+
+    /**
+     * @return The longest output lag seen during the interval, in milliseconds: the time from a probe being written to its trade being read, or for a probe still
+     * unanswered at the end of the interval, the time since it was written.
+     */
+    public double getMaxOutputLagMillis() {
+        return (double) maxOutputLagNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return The rate achieved during the interval, in orders per second.
+     */
+    public double getOrdersPerSecond() {
+        return durationNanos == 0 ? 0 : orderCount * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos;
+    }
+
+    long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SoakInterval{startMillis=%d, orders=%d, trades=%d, writeBlockedMillis=%d, maxOutputLagMillis=%.1f, ordersPerSecond=%d}",
+                getStartMillis(), orderCount, tradeCount, getWriteBlockedMillis(), getMaxOutputLagMillis(), Math.round(getOrdersPerSecond()));
+    }
+}
@@ -0,0 +1,164 @@
+package simulator.load;
+
+import com.google.common.collect.ImmutableList;
+import simulator.LatencyHistogram;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents the outcome of a {@link SoakRunner} run: the overall {@link LoadReport}, the throughput, backpressure and output lag of every interval, and the
+ * episodes during which the simulator stalled.
+ * <p/>
+ * The sustained throughput is the lowest rate averaged over any window of consecutive full intervals after the warm-up. It is compared against the baseline,
+ * which is the target rate if one is set, and the rate of the first window otherwise; the run is degraded if the sustained throughput falls short of the baseline
+ * by more than the maximum degradation. Runs too short to fill an interval after the warm-up are never degraded.
+ */
+public final class SoakReport {
+
+    private final LoadReport loadReport;
+    private final ImmutableList<SoakInterval> intervals;
+    private final LatencyHistogram outputLags;
+    private final ImmutableList<Stall> stalls;
+    private final double baselineOrdersPerSecond;
+    private final double sustainedOrdersPerSecond;
+    private final double maximumDegradation;
+
+    SoakReport(final LoadReport loadReport, final List<SoakInterval> intervals, final LatencyHistogram outputLags, final List<Stall> stalls,
+               final long intervalNanos, final long targetRate, final int warmupIntervals, final int degradationWindow, final double maximumDegradation) {
+        this.loadReport = loadReport;
+        this.intervals = ImmutableList.copyOf(intervals);
+        this.outputLags = outputLags;
+        this.stalls = ImmutableList.copyOf(stalls);
+        this.maximumDegradation = maximumDegradation;
+
+        final List<SoakInterval> evaluated = intervals.subList(Math.min(warmupIntervals, intervals.size()), intervals.size());
+        int fullIntervals = evaluated.size();
+        if (fullIntervals > 0 && evaluated.get(fullIntervals - 1).getDurationNanos() < intervalNanos) {
+            fullIntervals--;
+        }
+        if (fullIntervals == 0) {
+            this.baselineOrdersPerSecond = targetRate > 0 ? targetRate : loadReport.getOrdersPerSecond();
+            this.sustainedOrdersPerSecond = baselineOrdersPerSecond;
+            return;
+        }
+        final int window = Math.min(degradationWindow, fullIntervals);
+        double lowestRate = Double.MAX_VALUE;
+        double firstRate = 0;
+        for (int start = 0; start + window <= fullIntervals; start++) {
+            final double rate = windowRate(evaluated.subList(start, start + window));
+            if (start == 0) {
+                firstRate = rate;
+            }
+            lowestRate = Math.min(lowestRate, rate);
+        }
+        this.baselineOrdersPerSecond = targetRate > 0 ? targetRate : firstRate;
+        this.sustainedOrdersPerSecond = lowestRate;
+    }
+
+    private static double windowRate(final List<SoakInterval> window) {
+        long orders = 0;
+        long nanos = 0;
+        for (final SoakInterval interval : window) {
+            orders += interval.getOrderCount();
+            nanos += interval.getDurationNanos();
+        }
+        return orders * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    /**
+     * @return Non-null {@link LoadReport} of the whole run.
+     */
+    public LoadReport getLoadReport() {
+        return loadReport;
+    }
+
+    /**
+     * @return Non-null ImmutableList of the intervals of the run, oldest first; the last interval may be cut short by the end of the run.
+     */
+    public ImmutableList<SoakInterval> getIntervals() {
+        return intervals;
+    }
+
+    /**
+     * @return Non-null histogram of the output lags, from each probe being written to the simulator to its trade being read.
+     */
+    public LatencyHistogram getOutputLags() {
+        return outputLags;
+    }
+
+    /**
+     * @return Non-null ImmutableList of the episodes during which the simulator stalled, oldest first.
+     */
+    public ImmutableList<Stall> getStalls() {
+        return stalls;
+    }
+
+    /**
+     * @return The rate the sustained throughput is measured against, in orders per second.
+     */
+    public double getBaselineOrdersPerSecond() {
+        return baselineOrdersPerSecond;
+    }
+
+    /**
+     * @return The lowest rate averaged over a window of intervals after the warm-up, in orders per second.
+     */
+    public double getSustainedOrdersPerSecond() {
+        return sustainedOrdersPerSecond;
+    }
+
+    /**
+     * @return True if the sustained throughput fell short of the baseline by more than the maximum degradation, false otherwise.
+     */
+    public boolean isDegraded() {
+        return sustainedOrdersPerSecond < baselineOrdersPerSecond * (1 - maximumDegradation);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(String.format("SoakReport{%s, baselineOrdersPerSecond=%d, sustainedOrdersPerSecond=%d, degraded=%s, "
+                + "stalls=%d, outputLag=[%s]}", loadReport, Math.round(baselineOrdersPerSecond), Math.round(sustainedOrdersPerSecond), isDegraded(), stalls.size(),
+                outputLags));
+        for (final SoakInterval interval : intervals) {
+            builder.append(System.lineSeparator()).append("  ").append(interval);
+        }
+        for (final Stall stall : stalls) {
+            builder.append(System.lineSeparator()).append("  ").append(stall);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * An episode during which a probe was outstanding but the simulator produced no output for longer than the stall threshold.
+     */
+    public static final class Stall {
+
+        private final long startNanos;
+        private final long durationNanos;
+
+        Stall(final long startNanos, final long durationNanos) {
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        /**
+         * @return The start of the stall (the later of the last output and the outstanding probe being written), in milliseconds since the start of the run.
+         */
+        public long getStartMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(startNanos);
+        }
+
+        /**
+         * @return The time without output, in milliseconds.
+         */
+        public long getDurationMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        }
+
+        @Override
+        public String toString() {
+            return "Stall{startMillis=" + getStartMillis() + ", durationMillis=" + getDurationMillis() + "}";
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package simulator.load;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import simulator.ExchangeSimulator;
+import simulator.LatencyHistogram;
+import simulator.exception.ThroughputDegradationError;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Soaks an {@link ExchangeSimulator} with the load of an {@link OrderLoadGenerator} (typically at a fixed target rate for a long duration), tracking how the
+ * simulator holds up over time rather than over a single batch.
+ * <p/>
+ * While the load is written, the simulator's output is drained continuously and the run is cut into intervals, each recording the orders written, the trades
+ * read, the time spent blocked writing to the simulator's stdin (i.e. pipe backpressure) and the output lag. The output lag is measured with probes: every
+ * quarter of the interval or stall threshold (whichever is shorter), a crossing pair of orders for the symbol {@value #PROBE_SYMBOL}, which the generator never
+ * names, is written along with the load, and the time until its trade is read is recorded. As the simulator processes its input in order, this is the time the
+ * simulator takes to work through everything written before the probe. A stall is an episode during which a probe is outstanding and the simulator produces no
+ * output at all for longer than the stall threshold.
+ * <p/>
+ * The run fails with a {@link ThroughputDegradationError} if the throughput sustained after the warm-up degrades beyond the maximum degradation (see
+ * {@link SoakReport}).
+ */
+public final class SoakRunner {
+
+    static final String PROBE_SYMBOL = "AZPROB";
+
+    private static final byte[] PROBE_PREFIX = (PROBE_SYMBOL + '|').getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PROBE_ORDERS = (PROBE_SYMBOL + "|SELL|1|1\n" + PROBE_SYMBOL + "|BUY|1|1\n").getBytes(StandardCharsets.US_ASCII);
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final OrderLoadGenerator load;
+    private final long intervalNanos;
+    private final long stallThresholdNanos;
+    private final int warmupIntervals;
+    private final int degradationWindow;
+    private final double maximumDegradation;
+    private final Consumer<SoakInterval> intervalListener;
+
+    /**
+     * Soaks the simulator until the load generator's order count or duration is reached.
+     *
+     * @param simulator The simulator to soak (cannot be null).
+     * @return Non-null {@link SoakReport} of the run, which sustained the throughput.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     * @throws ThroughputDegradationError if the sustained throughput degraded beyond the maximum degradation.
+     * @throws simulator.exception.SimulatorInputError if an error occurs writing to the simulator.
+     */
+    public SoakReport run(final ExchangeSimulator simulator) {
+        Preconditions.checkArgument(simulator != null, "Cannot soak a null simulator.");
+        final Monitor monitor = new Monitor();
+        final LoadReport loadReport = load.run(simulator, monitor);
+        final SoakReport report = monitor.finish(simulator, loadReport);
+        if (report.isDegraded()) {
+            throw new ThroughputDegradationError(report);
+        }
+        return report;
+    }
+
+    /**
+     * {@link LoadMonitor} cutting the run into intervals, writing the probes and tracking stalls.
+     */
+    private final class Monitor implements LoadMonitor {
+
+        private final long startNanos = System.nanoTime();
+        private final long probePeriodNanos = Math.min(intervalNanos, stallThresholdNanos) / 4;
+        private final List<SoakInterval> intervals = Lists.newArrayList();
+        private final List<SoakReport.Stall> stalls = Lists.newArrayList();
+        private final LatencyHistogram outputLags = new LatencyHistogram();
+        private final ArrayDeque<Long> probeWriteNanos = new ArrayDeque<>();
+        private long nextProbeNanos = startNanos;
+
+        // Current interval.
+        private long intervalStartNanos = startNanos;
+        private long orderCount = 0;
+        private long tradeCount = 0;
+        private long writeBlockedNanos = 0;
+        private long maxOutputLagNanos = 0;
+
+        // Start of the stall in progress, relative to the start of the run, or -1 if the simulator is not stalled.
+        private long stallStartNanos = -1;
+
+        @Override
+        public long getPollNanos() {
+            return POLL_NANOS;
+        }
+
+        @Override
+        public void onOrdersWritten(final int orderCount, final long writeBlockedNanos) {
+            this.orderCount += orderCount;
+            this.writeBlockedNanos += writeBlockedNanos;
+        }
+
+        @Override
+        public int poll(final ExchangeSimulator simulator) {
+            final int probeTrades = probeWriteNanos.size();
+            final int trades = simulator.discardOutput(PROBE_PREFIX, this::onProbeRead) - (probeTrades - probeWriteNanos.size());
+            tradeCount += trades;
+
+            final long now = System.nanoTime();
+            trackStall(simulator, now);
+            if (now - nextProbeNanos >= 0) {
+                final long writeStartNanos = System.nanoTime();
+                simulator.writeInput(PROBE_ORDERS, 0, PROBE_ORDERS.length);
+                final long writeEndNanos = System.nanoTime();
+                writeBlockedNanos += writeEndNanos - writeStartNanos;
+                probeWriteNanos.addLast(writeEndNanos);
+                nextProbeNanos = writeEndNanos + probePeriodNanos;
+            }
+            while (now - (intervalStartNanos + intervalNanos) >= 0) {
+                endInterval(intervalStartNanos + intervalNanos);
+            }
+            return trades;
+        }
+
+        private void onProbeRead(final long readNanos) {
+            final Long writeNanos = probeWriteNanos.pollFirst();
+            if (writeNanos != null) {
+                final long lag = readNanos - writeNanos;
+                outputLags.record(lag);
+                maxOutputLagNanos = Math.max(maxOutputLagNanos, lag);
+            }
+        }
+
+        private void trackStall(final ExchangeSimulator simulator, final long now) {
+            final long outputAgeNanos = simulator.getNanosSinceLastOutput();
+            final long lastOutputNanos = now - outputAgeNanos - startNanos;
+            if (stallStartNanos < 0) {
+                // Output owed for longer than the threshold; output missing since before the probe was written is only owed from then on.
+                if (!probeWriteNanos.isEmpty() && outputAgeNanos > stallThresholdNanos && now - probeWriteNanos.peekFirst() > stallThresholdNanos) {
+                    stallStartNanos = Math.max(lastOutputNanos, probeWriteNanos.peekFirst() - startNanos);
+                }
+            } else if (probeWriteNanos.isEmpty() || outputAgeNanos <= stallThresholdNanos) {
+                stalls.add(new SoakReport.Stall(stallStartNanos, lastOutputNanos - stallStartNanos));
+                stallStartNanos = -1;
+            }
+        }
+
+        private void endInterval(final long endNanos) {
+            if (!probeWriteNanos.isEmpty()) {
+                maxOutputLagNanos = Math.max(maxOutputLagNanos, endNanos - probeWriteNanos.peekFirst());
+            }
+            final SoakInterval interval = new SoakInterval(intervalStartNanos - startNanos, endNanos - intervalStartNanos, orderCount, tradeCount, writeBlockedNanos,
+                    maxOutputLagNanos);
+            intervals.add(interval);
+            if (intervalListener != null) {
+                intervalListener.accept(interval);
+            }
+            intervalStartNanos = endNanos;
+            orderCount = 0;
+            tradeCount = 0;
+            writeBlockedNanos = 0;
+            maxOutputLagNanos = 0;
+        }
+
+        private SoakReport finish(final ExchangeSimulator simulator, final LoadReport loadReport) {
+            final long now = System.nanoTime();
+            if (stallStartNanos >= 0) {
+                stalls.add(new SoakReport.Stall(stallStartNanos, now - startNanos - stallStartNanos));
+            }
+            if (now - intervalStartNanos > 0) {
+                endInterval(now);
+            }
+            return new SoakReport(loadReport, intervals, outputLags, stalls, intervalNanos, load.getTargetRate(), warmupIntervals, degradationWindow,
+                    maximumDegradation);
+        }
+    }
+
+    /**
+     * Fluent-builder class for constructing {@link SoakRunner} objects.
+     */
+    public static class Builder {
+
+        private OrderLoadGenerator load;
+        private long interval = TimeUnit.SECONDS.toMillis(10);
+        private long stallThreshold = TimeUnit.SECONDS.toMillis(1);
+        private int warmupIntervals = 1;
+        private int degradationWindow = 3;
+        private double maximumDegradation = 0.2;
+        private Consumer<SoakInterval> intervalListener = null;
+
+        public static Builder create() {
+            return new Builder();
+        }
+
+        /**
+         * @param load The load to soak the simulator with; its target rate and duration control the run.
+         */
+        public Builder withLoad(final OrderLoadGenerator load) {
+            this.load = load;
+            return this;
+        }
+
+        /**
+         * @param interval Length of the reporting intervals, in milliseconds.
+         */
+        public Builder withInterval(final long interval) {
+            this.interval = interval;
+            return this;
+        }
+
+        /**
+         * @param stallThreshold Time without output, in milliseconds, while a probe is outstanding after which the simulator is considered stalled.
+         */
+        public Builder withStallThreshold(final long stallThreshold) {
+            this.stallThreshold = stallThreshold;
+            return this;
+        }
+
+        /**
+         * @param warmupIntervals    Number of intervals at the start of the run excluded from the sustained throughput.
+         * @param degradationWindow  Number of consecutive intervals the sustained throughput is averaged over.
+         * @param maximumDegradation Fraction, between 0 and 1, by which the sustained throughput may fall short of the baseline before the run fails.
+         */
+        public Builder withDegradationThreshold(final int warmupIntervals, final int degradationWindow, final double maximumDegradation) {
+            this.warmupIntervals = warmupIntervals;
+            this.degradationWindow = degradationWindow;
+            this.maximumDegradation = maximumDegradation;
+            return this;
+        }
+
+        /**
+         * @param intervalListener Consumer accepting each interval as it ends, on the thread running the soak, e.g. to report progress (null for none).
+         */
+        public Builder withIntervalListener(final Consumer<SoakInterval> intervalListener) {
+            this.intervalListener = intervalListener;
+            return this;
+        }
+
+        /**
+         * @return Non-null {@link SoakRunner}.
+         * @throws IllegalArgumentException if the configuration is invalid.
+         */
+        public SoakRunner build() {
+            Preconditions.checkArgument(load != null, "Cannot soak with a null load.");
+            Preconditions.checkArgument(interval > 0 && stallThreshold > 0, "Interval and stall threshold must be positive.");
+            Preconditions.checkArgument(warmupIntervals >= 0, "Warm-up intervals cannot be negative.");
+            Preconditions.checkArgument(degradationWindow > 0, "Degradation window must be positive.");
+            Preconditions.checkArgument(maximumDegradation >= 0 && maximumDegradation <= 1, "Maximum degradation must be between 0 and 1.");
+            return new SoakRunner(this);
+        }
+
+        private Builder() {
+        }
+    }
+
+    /**
+     * Private constructor to prevent direct instantiation (use {@link Builder}).
+     */
+    private SoakRunner(final Builder builder) {
+        this.load = builder.load;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(builder.interval);
+        this.stallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(builder.stallThreshold);
+        this.warmupIntervals = builder.warmupIntervals;
+        this.degradationWindow = builder.degradationWindow;
+        this.maximumDegradation = builder.maximumDegradation;
+        this.intervalListener = builder.intervalListener;
+    }
+}
@@ -3,6 +3,8 @@ package simulator.matcher;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeDiagnosingMatcher;
+import simulator.Price;
+import simulator.SymbolDictionary;
 import simulator.output.Trade;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -12,11 +14,25 @@ import static org.hamcrest.CoreMatchers.equalTo;
  */
 public final class TradeMatcher extends TypeSafeDiagnosingMatcher<Trade> {
 
+    private final int expectedSymbolId;
     private final Matcher<String> symbolMatcher;
-    private final Matcher<Double> priceMatcher;
+    private final Matcher<Price> priceMatcher;
     private final Matcher<Long> quantityMatcher;
 
+    /**
+     * Constructs a new {@link TradeMatcher} expecting the decimal the price is written as, e.g. {@code 145.09}; see {@link Price#valueOf(double)}.
+     *
+     * @throws IllegalArgumentException if the price is not finite.
+     */
     public TradeMatcher(final String expectedSymbol, final double expectedPrice, final long expectedQuantity) {
+        this(expectedSymbol, Price.valueOf(expectedPrice), expectedQuantity);
+    }
+
+    /**
+     * Constructs a new {@link TradeMatcher}; prices match exactly when they denote the same decimal, whatever trailing zeros the simulator prints.
+     */
+    public TradeMatcher(final String expectedSymbol, final Price expectedPrice, final long expectedQuantity) {
+        expectedSymbolId = expectedSymbol == null ? SymbolDictionary.NO_SYMBOL : SymbolDictionary.getDefault().intern(expectedSymbol);
         symbolMatcher = equalTo(expectedSymbol);
         priceMatcher = equalTo(expectedPrice);
         quantityMatcher = equalTo(Long.valueOf(expectedQuantity));
@@ -28,7 +44,9 @@ public final class TradeMatcher extends TypeSafeDiagnosingMatcher<Trade> {
     protected boolean matchesSafely(final Trade actualTrade, final Description description) {
         boolean matches = true;
 
-        if (!symbolMatcher.matches(actualTrade.getSymbol())) {
+        // Symbols are compared by their interned ids; the String matcher only compares trades whose symbol has not been interned.
+        final int actualSymbolId = actualTrade.getSymbolId();
+        if (actualSymbolId == SymbolDictionary.NO_SYMBOL ? !symbolMatcher.matches(actualTrade.getSymbol()) : actualSymbolId != expectedSymbolId) {
             matches &= false;
             symbolMatcher.describeTo(description);
         }
@@ -0,0 +1,31 @@
+package simulator.output;
+
+/**
+ * Receiver of the output of a simulator as it is read, through an {@link OutputSubscription}. Trades arrive as primitives, parsed straight from the bytes read,
+ * as they do for any {@link TradeSink}; warnings arrive as Strings.
+ * <p/>
+ * All methods are invoked from the subscription's delivery thread, one at a time, and only for lines the subscriber has {@link OutputSubscription#request(long)
+ * requested}. A method throwing an exception cancels the subscription.
+ */
+public interface OutputSubscriber extends TradeSink {
+
+    /**
+     * Invoked for each line of stdout which is not a well-formed trade.
+     *
+     * @param line Non-null line as the simulator output it.
+     */
+    void onMalformedTrade(final String line);
+
+    /**
+     * Invoked for each warning, in the order the simulator output them.
+     *
+     * @param warning Non-null line the simulator output to stderr.
+     */
+    void onWarning(final String warning);
+
+    /**
+     * Invoked once the simulator process has ended and all of its output has been delivered; no method is invoked afterwards.
+     */
+    default void onComplete() {
+    }
+}
@@ -0,0 +1,40 @@
+package simulator.output;
+
+/**
+ * Subscription of an {@link OutputSubscriber} to the output of a simulator, through which the subscriber signals its demand. Lines are only delivered once
+ * requested: each trade, malformed trade and warning counts as one line. Lines not yet requested stay buffered up to the subscription's bound, beyond which the
+ * simulator's output is no longer read, so the simulator itself is held back until the subscriber catches up.
+ * <p/>
+ * Instances are thread-safe; demand may be signalled from any thread, including from within the subscriber's methods.
+ */
+public interface OutputSubscription {
+
+    /**
+     * Adds to the number of lines the subscriber is ready to receive.
+     *
+     * @param lines The number of additional lines to deliver (must be positive); demand saturates at {@link Long#MAX_VALUE}, i.e. unbounded.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    void request(final long lines);
+
+    /**
+     * Cancels the subscription, after which no further lines are delivered and the lines still buffered can be drained by other means. Unless invoked from within
+     * the subscriber's methods, returns once no method of the subscriber is running.
+     */
+    void cancel();
+
+    /**
+     * @return The number of lines delivered to the subscriber so far.
+     */
+    long getDeliveredCount();
+
+    /**
+     * @return The number of lines read from the simulator but not yet delivered, e.g. to monitor how far the subscriber is behind.
+     */
+    long getPendingCount();
+
+    /**
+     * @return True once the subscription has been cancelled or completed, false otherwise.
+     */
+    boolean isDone();
+}
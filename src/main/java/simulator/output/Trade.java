@@ -1,19 +1,34 @@
 package simulator.output;
 
+import simulator.Price;
+import simulator.SymbolDictionary;
+
 /**
  * Created by adam on 1/21/17.
  */
 public class Trade {
 
     private final String symbol;
-    private final Double price;
+    private final int symbolId;
+    private final Price price;
     private final Long quantity;
 
     public String getSymbol() {
         return symbol;
     }
 
-    public Double getPrice() {
+    /**
+     * @return The id of the symbol in the {@link SymbolDictionary#getDefault() default SymbolDictionary}, or {@link SymbolDictionary#NO_SYMBOL} if the symbol is
+     * missing or has not been interned, e.g. a symbol only seen in a malformed line of output.
+     */
+    public int getSymbolId() {
+        return symbolId;
+    }
+
+    /**
+     * @return The exact trade price, or null if the simulator did not output one.
+     */
+    public Price getPrice() {
         return price;
     }
 
@@ -21,9 +36,34 @@ public class Trade {
         return quantity;
     }
 
-    public Trade(final String symbol, final Double price, final Long quantity) {
+    /**
+     * Constructs a new {@link Trade}, e.g. of a line of output which is not a well-formed trade. The symbol is looked up in the
+     * {@link SymbolDictionary#getDefault() default SymbolDictionary}, but not interned, so such lines do not grow the dictionary.
+     *
+     * @param symbol   The symbol traded, or null if missing.
+     * @param price    The trade price, or null if missing.
+     * @param quantity The quantity traded, or null if missing.
+     */
+    public Trade(final String symbol, final Price price, final Long quantity) {
 
         this.symbol = symbol;
+        this.symbolId = symbol == null ? SymbolDictionary.NO_SYMBOL : SymbolDictionary.getDefault().getId(symbol);
+        this.price = price;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Constructs a new {@link Trade} of an interned symbol, sharing the dictionary's String rather than allocating one.
+     *
+     * @param symbolId The id of the symbol in the {@link SymbolDictionary#getDefault() default SymbolDictionary}.
+     * @param price    The trade price.
+     * @param quantity The quantity traded.
+     * @throws IndexOutOfBoundsException if no symbol has the id.
+     */
+    public Trade(final int symbolId, final Price price, final Long quantity) {
+
+        this.symbol = SymbolDictionary.getDefault().getSymbol(symbolId);
+        this.symbolId = symbolId;
         this.price = price;
         this.quantity = quantity;
     }
@@ -0,0 +1,156 @@
+package simulator.output;
+
+import com.google.common.base.Preconditions;
+import simulator.Price;
+import simulator.SymbolDictionary;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser for lines of simulator trade output, {@code symbol|price|quantity}, working directly on the bytes read from stdout.
+ * <p/>
+ * Fields are located by scanning for {@code '|'}, symbols are looked up in the {@link SymbolDictionary} straight from their bytes and numbers are accumulated digit by
+ * digit into primitives, so parsing a well-formed line of a known symbol allocates nothing. Prices are handed on exactly as a number of ticks and the scale they
+ * were written with, never as a double: plain decimals of up to 18 digits are parsed in place, while any other notation falls back to {@link Price#parse(CharSequence)}
+ * and quantities to {@link Long#parseLong(String)}.
+ * <p/>
+ * Instances are not thread-safe.
+ */
+public final class TradeParser {
+
+    private static final long MAX_PLAIN_MANTISSA = (Long.MAX_VALUE - 9) / 10;
+    private static final long MAX_PLAIN_QUANTITY = (Long.MAX_VALUE - 9) / 10;
+
+    private final SymbolDictionary symbols = SymbolDictionary.getDefault();
+    private int symbolId;
+    private long priceTicks;
+    private int priceScale;
+    private long quantity;
+
+    /**
+     * Parses a line of trade output, handing the trade to the sink.
+     *
+     * @param line   The buffer holding the line, excluding its terminator (cannot be null).
+     * @param offset The offset of the line within the buffer.
+     * @param length The length of the line.
+     * @param sink   The sink receiving the trade (cannot be null).
+     * @return True if the line is a well-formed trade and was handed to the sink, false otherwise.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public boolean parse(final byte[] line, final int offset, final int length, final TradeSink sink) {
+        Preconditions.checkArgument(sink != null, "Cannot parse a trade into a null sink.");
+        if (!parse(line, offset, length)) {
+            return false;
+        }
+        sink.onTrade(symbolId, priceTicks, priceScale, quantity);
+        return true;
+    }
+
+    /**
+     * Parses a line of trade output into a {@link Trade}.
+     *
+     * @param line   The buffer holding the line, excluding its terminator (cannot be null).
+     * @param offset The offset of the line within the buffer.
+     * @param length The length of the line.
+     * @return The parsed {@link Trade}, or null if the line is not a well-formed trade.
+     */
+    public Trade toTrade(final byte[] line, final int offset, final int length) {
+        return parse(line, offset, length) ? new Trade(symbolId, Price.of(priceTicks, priceScale), quantity) : null;
+    }
+
+    private boolean parse(final byte[] line, final int offset, final int length) {
+        Preconditions.checkArgument(line != null, "Cannot parse a null line.");
+        final int end = offset + length;
+        final int priceStart = indexOf(line, offset, end) + 1;
+        final int quantityStart = priceStart == 0 ? 0 : indexOf(line, priceStart, end) + 1;
+        if (quantityStart == 0 || indexOf(line, quantityStart, end) >= 0) {
+            return false;
+        }
+        if (!parsePrice(line, priceStart, quantityStart - 1) || !parseQuantity(line, quantityStart, end)) {
+            return false;
+        }
+        symbolId = symbols.tryIntern(line, offset, priceStart - 1 - offset);
+        return symbolId != SymbolDictionary.NO_SYMBOL;
+    }
+
+    private boolean parsePrice(final byte[] line, final int start, final int end) {
+        int index = start;
+        final boolean negative = index < end && line[index] == '-';
+        if (negative) {
+            index++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; index < end; index++) {
+            final byte character = line[index];
+            if (character >= '0' && character <= '9' && mantissa <= MAX_PLAIN_MANTISSA) {
+                mantissa = mantissa * 10 + (character - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (character == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return parsePriceString(line, start, end);
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        priceTicks = negative ? -mantissa : mantissa;
+        priceScale = Math.max(scale, 0);
+        return true;
+    }
+
+    private boolean parsePriceString(final byte[] line, final int start, final int end) {
+        try {
+            final Price price = Price.parse(new String(line, start, end - start, StandardCharsets.ISO_8859_1));
+            priceTicks = price.getTicks();
+            priceScale = price.getScale();
+            return true;
+        } catch (final NumberFormatException exception) {
+            return false;
+        }
+    }
+
+    private boolean parseQuantity(final byte[] line, final int start, final int end) {
+        int index = start;
+        final boolean negative = index < end && line[index] == '-';
+        if (negative) {
+            index++;
+        }
+        long value = 0;
+        for (; index < end; index++) {
+            final byte character = line[index];
+            if (character < '0' || character > '9' || value > MAX_PLAIN_QUANTITY) {
+                return parseQuantityString(line, start, end);
+            }
+            value = value * 10 + (character - '0');
+        }
+        if (index == start || (negative && index == start + 1)) {
+            return false;
+        }
+        quantity = negative ? -value : value;
+        return true;
+    }
+
+    private boolean parseQuantityString(final byte[] line, final int start, final int end) {
+        try {
+            quantity = Long.parseLong(new String(line, start, end - start, StandardCharsets.ISO_8859_1));
+            return true;
+        } catch (final NumberFormatException exception) {
+            return false;
+        }
+    }
+
+    private static int indexOf(final byte[] line, final int start, final int end) {
+        for (int index = start; index < end; index++) {
+            if (line[index] == '|') {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
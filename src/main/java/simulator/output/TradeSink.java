@@ -0,0 +1,19 @@
+package simulator.output;
+
+/**
+ * Receiver of trades parsed by a {@link TradeParser}, as primitives rather than {@link Trade} objects.
+ */
+@FunctionalInterface
+public interface TradeSink {
+
+    /**
+     * Invoked for each trade, in the order the simulator output them.
+     *
+     * @param symbolId   The id of the symbol traded in the {@link simulator.SymbolDictionary#getDefault() default SymbolDictionary}.
+     * @param priceTicks The trade price, in ticks of {@code 10^-priceScale}.
+     * @param priceScale The number of decimal places of the price ticks, as written by the simulator (trailing zeros included).
+     * @param quantity   The quantity traded.
+     * @see simulator.Price
+     */
+    void onTrade(final int symbolId, final long priceTicks, final int priceScale, final long quantity);
+}
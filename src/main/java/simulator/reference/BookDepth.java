@@ -0,0 +1,207 @@
+package simulator.reference;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import simulator.Price;
+
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of the top price levels of a symbol's {@link OrderBook} in a {@link ReferenceMatchingEngine}: the aggregated quantity and number of resting
+ * orders at each price, best price first on each side.
+ */
+public final class BookDepth {
+
+    private final String symbol;
+    private final ImmutableList<Level> bids;
+    private final ImmutableList<Level> asks;
+
+    BookDepth(final String symbol, final ImmutableList<Level> bids, final ImmutableList<Level> asks) {
+        this.symbol = symbol;
+        this.bids = bids;
+        this.asks = asks;
+    }
+
+    /**
+     * @return Non-null symbol of the book.
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @return Non-null, possibly empty ImmutableList of the BUY levels, highest price first.
+     */
+    public ImmutableList<Level> getBids() {
+        return bids;
+    }
+
+    /**
+     * @return Non-null, possibly empty ImmutableList of the SELL levels, lowest price first.
+     */
+    public ImmutableList<Level> getAsks() {
+        return asks;
+    }
+
+    /**
+     * Describes how the book changed since an earlier snapshot of the same symbol, level by level, as the quantity and number of orders resting at each price
+     * changed, e.g. {@code "BUY 145.1: 10 (2) -> 4 (1)"}. Levels beyond the depth of either snapshot are compared as if absent.
+     *
+     * @param earlier The earlier snapshot (cannot be null).
+     * @return Non-null, possibly empty ImmutableList of the changed levels, BUY levels first, each side best price first.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public ImmutableList<String> diff(final BookDepth earlier) {
+        Preconditions.checkArgument(earlier != null, "Cannot diff against a null BookDepth.");
+        Preconditions.checkArgument(symbol.equals(earlier.symbol), "Cannot diff the books of %s and %s.", symbol, earlier.symbol);
+        final ImmutableList.Builder<String> changes = ImmutableList.builder();
+        diffSide("BUY", earlier.bids, bids, true, changes);
+        diffSide("SELL", earlier.asks, asks, false, changes);
+        return changes.build();
+    }
+
+    /**
+     * Merges the levels of two sides, both sorted best first, reporting each price whose level differs.
+     */
+    private static void diffSide(final String side, final ImmutableList<Level> before, final ImmutableList<Level> after, final boolean bid,
+                                 final ImmutableList.Builder<String> changes) {
+        int beforeIndex = 0;
+        int afterIndex = 0;
+        while (beforeIndex < before.size() || afterIndex < after.size()) {
+            final Level previous = beforeIndex < before.size() ? before.get(beforeIndex) : null;
+            final Level current = afterIndex < after.size() ? after.get(afterIndex) : null;
+            final int order = previous == null ? 1 : current == null ? -1 : (bid ? -1 : 1) * previous.price.compareTo(current.price);
+            if (order < 0) {
+                changes.add(side + ' ' + previous.price + ": " + previous.describe() + " -> 0");
+                beforeIndex++;
+            } else if (order > 0) {
+                changes.add(side + ' ' + current.price + ": 0 -> " + current.describe());
+                afterIndex++;
+            } else {
+                if (!previous.equals(current)) {
+                    changes.add(side + ' ' + current.price + ": " + previous.describe() + " -> " + current.describe());
+                }
+                beforeIndex++;
+                afterIndex++;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof BookDepth)) {
+            return false;
+        }
+        final BookDepth depth = (BookDepth) other;
+        return symbol.equals(depth.symbol) && bids.equals(depth.bids) && asks.equals(depth.asks);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(symbol, bids, asks);
+    }
+
+    /**
+     * @return Non-null ladder of the book, SELL levels above BUY levels, with prices descending, e.g. {@code "IBM SELL 145.2 x 20 (2)"}.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (int index = asks.size() - 1; index >= 0; index--) {
+            appendLevel(builder, "SELL", asks.get(index));
+        }
+        for (final Level level : bids) {
+            appendLevel(builder, "BUY ", level);
+        }
+        return builder.length() == 0 ? symbol + " empty" : builder.toString();
+    }
+
+    private void appendLevel(final StringBuilder builder, final String side, final Level level) {
+        if (builder.length() > 0) {
+            builder.append(System.lineSeparator());
+        }
+        builder.append(symbol).append(' ').append(side).append(' ').append(level);
+    }
+
+    /**
+     * Aggregated resting orders at a single price.
+     */
+    public static final class Level {
+
+        private final Price price;
+        private final long quantity;
+        private final int orderCount;
+
+        private Level(final Price price, final long quantity, final int orderCount) {
+            this.price = price;
+            this.quantity = quantity;
+            this.orderCount = orderCount;
+        }
+
+        /**
+         * Creates a level, e.g. as the expected shape of a book.
+         *
+         * @param price      The price of the level (cannot be null).
+         * @param quantity   The total quantity resting at the price (must be positive).
+         * @param orderCount The number of orders resting at the price (must be positive).
+         * @return Non-null {@link Level}.
+         * @throws IllegalArgumentException if the parameter conditions are not met.
+         */
+        public static Level of(final Price price, final long quantity, final int orderCount) {
+            Preconditions.checkArgument(price != null, "Cannot create a Level with a null price.");
+            Preconditions.checkArgument(quantity > 0, "Level quantity must be positive.");
+            Preconditions.checkArgument(orderCount > 0, "Level order count must be positive.");
+            return new Level(price, quantity, orderCount);
+        }
+
+        /**
+         * @return Non-null price of the level.
+         */
+        public Price getPrice() {
+            return price;
+        }
+
+        /**
+         * @return The total quantity resting at the price.
+         */
+        public long getQuantity() {
+            return quantity;
+        }
+
+        /**
+         * @return The number of orders resting at the price.
+         */
+        public int getOrderCount() {
+            return orderCount;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Level)) {
+                return false;
+            }
+            final Level level = (Level) other;
+            return price.equals(level.price) && quantity == level.quantity && orderCount == level.orderCount;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(price, quantity, orderCount);
+        }
+
+        @Override
+        public String toString() {
+            return price + " x " + describe();
+        }
+
+        private String describe() {
+            return quantity + " (" + orderCount + ')';
+        }
+    }
+}
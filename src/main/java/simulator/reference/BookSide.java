@@ -0,0 +1,118 @@
+package simulator.reference;
+
+/**
+ * One side of an {@link OrderBook}: the non-empty {@link PriceLevel}s, sorted from worst to best price so that the best level sits at the end of the array and
+ * is removed in constant time. Levels are located by binary search on price.
+ */
+final class BookSide {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final boolean bid;
+    private PriceLevel[] levels = new PriceLevel[INITIAL_CAPACITY];
+    private int levelCount = 0;
+    private PriceLevel[] recycledLevels = new PriceLevel[INITIAL_CAPACITY];
+    private int recycledCount = 0;
+
+    /**
+     * @param bid True for the BUY side (best is the highest price), false for the SELL side (best is the lowest price).
+     */
+    BookSide(final boolean bid) {
+        this.bid = bid;
+    }
+
+    boolean isEmpty() {
+        return levelCount == 0;
+    }
+
+    int getLevelCount() {
+        return levelCount;
+    }
+
+    /**
+     * @return The best level; the side must not be empty.
+     */
+    PriceLevel getBest() {
+        assert levelCount > 0 : "side: empty";
+        return levels[levelCount - 1];
+    }
+
+    /**
+     * @param depth Zero-based distance from the best level (must be less than {@link #getLevelCount()}).
+     * @return The level at the given depth.
+     */
+    PriceLevel getLevel(final int depth) {
+        return levels[levelCount - 1 - depth];
+    }
+
+    /**
+     * @return True if an incoming order at the given price on the opposite side crosses this side's best level.
+     */
+    boolean isCrossedBy(final long price) {
+        return levelCount > 0 && (bid ? price <= getBest().getPrice() : price >= getBest().getPrice());
+    }
+
+    /**
+     * Removes the best level, which must be empty.
+     */
+    void removeBest() {
+        assert getBest().isEmpty() : "level: not empty";
+        recycle(levels[--levelCount]);
+        levels[levelCount] = null;
+    }
+
+    /**
+     * Adds a resting order, creating its price level if necessary.
+     */
+    void add(final long price, final long quantity) {
+        final int index = search(price);
+        if (index >= 0) {
+            levels[index].add(quantity);
+            return;
+        }
+        final int insertion = -index - 1;
+        if (levelCount == levels.length) {
+            final PriceLevel[] grown = new PriceLevel[levels.length << 1];
+            System.arraycopy(levels, 0, grown, 0, levelCount);
+            levels = grown;
+        }
+        System.arraycopy(levels, insertion, levels, insertion + 1, levelCount - insertion);
+        final PriceLevel level = recycledCount > 0 ? recycledLevels[--recycledCount] : new PriceLevel();
+        level.reset(price);
+        level.add(quantity);
+        levels[insertion] = level;
+        levelCount++;
+    }
+
+    /**
+     * Binary search for a price, in the ordering of the levels array (ascending for bids, descending for asks).
+     *
+     * @return The index of the level if present, otherwise {@code -(insertion point) - 1}.
+     */
+    private int search(final long price) {
+        int low = 0;
+        int high = levelCount - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final long middlePrice = levels[middle].getPrice();
+            if (middlePrice == price) {
+                return middle;
+            }
+            if (bid ? middlePrice < price : middlePrice > price) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void recycle(final PriceLevel level) {
+        if (recycledCount == recycledLevels.length) {
+            final PriceLevel[] grown = new PriceLevel[recycledLevels.length << 1];
+            System.arraycopy(recycledLevels, 0, grown, 0, recycledCount);
+            recycledLevels = grown;
+        }
+        recycledLevels[recycledCount++] = level;
+    }
+}
@@ -0,0 +1,24 @@
+package simulator.reference;
+
+/**
+ * Listener receiving the output of the {@link ReferenceMatchingEngine} as orders are processed.
+ */
+public interface MatchListener {
+
+    /**
+     * Invoked for each fill, in the order the exchange-sim would output them.
+     *
+     * @param symbolId   The id of the symbol traded in the {@link simulator.SymbolDictionary#getDefault() default SymbolDictionary}.
+     * @param priceTicks The trade (resting order) price, in ticks of the engine's price scale.
+     * @param quantity   The quantity traded.
+     */
+    void onTrade(final int symbolId, final long priceTicks, final long quantity);
+
+    /**
+     * Invoked for each warning, e.g. for orders with an unrecognized action. By default, warnings are ignored.
+     *
+     * @param warning Non-null warning, formatted as the exchange-sim writes it to stderr.
+     */
+    default void onWarning(final String warning) {
+    }
+}
@@ -0,0 +1,53 @@
+package simulator.reference;
+
+/**
+ * Price-time priority limit order book for a single symbol. Incoming orders trade against the opposite side at the resting orders' prices, best price first and
+ * oldest order first within a price; any remainder rests on the book.
+ */
+final class OrderBook {
+
+    private final int symbolId;
+    private final BookSide bids = new BookSide(true);
+    private final BookSide asks = new BookSide(false);
+
+    OrderBook(final int symbolId) {
+        this.symbolId = symbolId;
+    }
+
+    int getSymbolId() {
+        return symbolId;
+    }
+
+    BookSide getBids() {
+        return bids;
+    }
+
+    BookSide getAsks() {
+        return asks;
+    }
+
+    /**
+     * Matches an incoming order against the book, resting any unfilled quantity.
+     *
+     * @param buy        True for a BUY order, false for a SELL order.
+     * @param priceTicks The limit price of the order, in ticks.
+     * @param quantity   The quantity of the order (must be positive).
+     * @param listener   Listener receiving the resulting trades (cannot be null).
+     */
+    void match(final boolean buy, final long priceTicks, final long quantity, final MatchListener listener) {
+        final BookSide opposite = buy ? asks : bids;
+        long remaining = quantity;
+        while (remaining > 0 && opposite.isCrossedBy(priceTicks)) {
+            final PriceLevel best = opposite.getBest();
+            final long filled = best.fillOldest(remaining);
+            remaining -= filled;
+            listener.onTrade(symbolId, best.getPrice(), filled);
+            if (best.isEmpty()) {
+                opposite.removeBest();
+            }
+        }
+        if (remaining > 0) {
+            (buy ? bids : asks).add(priceTicks, remaining);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package simulator.reference;
+
+/**
+ * FIFO queue of the resting quantities at a single price on one side of an {@link OrderBook}. Quantities are kept in a primitive ring buffer; instances are
+ * recycled by their {@link BookSide} once emptied.
+ */
+final class PriceLevel {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private long price;
+    private long totalQuantity;
+    private long[] quantities = new long[INITIAL_CAPACITY];
+    private int head = 0;
+    private int size = 0;
+
+    void reset(final long price) {
+        this.price = price;
+        this.totalQuantity = 0;
+        this.head = 0;
+        this.size = 0;
+    }
+
+    long getPrice() {
+        return price;
+    }
+
+    long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    int getOrderCount() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Appends a resting order's quantity to the back of the queue.
+     */
+    void add(final long quantity) {
+        if (size == quantities.length) {
+            final long[] grown = new long[quantities.length << 1];
+            for (int index = 0; index < size; index++) {
+                grown[index] = quantities[(head + index) & (quantities.length - 1)];
+            }
+            quantities = grown;
+            head = 0;
+        }
+        quantities[(head + size) & (quantities.length - 1)] = quantity;
+        size++;
+        totalQuantity += quantity;
+    }
+
+    /**
+     * Fills up to the given quantity against the oldest resting order, removing it once fully filled.
+     *
+     * @return The quantity filled.
+     */
+    long fillOldest(final long quantity) {
+        assert size > 0 : "level: empty";
+        final long resting = quantities[head];
+        final long filled = Math.min(resting, quantity);
+        if (filled == resting) {
+            head = (head + 1) & (quantities.length - 1);
+            size--;
+        } else {
+            quantities[head] = resting - filled;
+        }
+        totalQuantity -= filled;
+        return filled;
+    }
+}
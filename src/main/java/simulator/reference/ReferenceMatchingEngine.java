@@ -0,0 +1,252 @@
+package simulator.reference;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import simulator.Price;
+import simulator.SimulationResults;
+import simulator.SymbolDictionary;
+import simulator.input.Order;
+import simulator.output.TradeBatch;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * In-process reference implementation of the exchange-sim matching rules, serving as a correctness oracle and as a fast stand-in for the external program.
+ * <p/>
+ * Each symbol has its own price-time priority {@link OrderBook}. A BUY trades against resting SELLs priced at or below it (and vice versa), always at the resting
+ * order's price; unfilled quantity rests on the book. As with the exchange-sim, an order with a non-positive price or quantity, or with an empty symbol or one
+ * longer than {@value #MAX_SYMBOL_LENGTH} characters aborts the simulation, while an unrecognized action only produces an {@code "invalid side"} warning.
+ * <p/>
+ * The engine deliberately compares whole prices, and so deviates from the exchange-sim where its behaviour is a suspected flaw rather than a matching rule:
+ * {@code OrderTradeTest.wholeNumberPriceDifferenceIgnored} records that the exchange-sim does not trade a BUY at 9000.04 against a resting SELL at 2004.09,
+ * apparently weighing only the fractional part of the prices, whereas the engine trades them at 2004.09. That test fails against the engine, and a
+ * {@link simulator.DifferentialSimulation} reports such orders as a divergence.
+ * <p/>
+ * Prices are held as a whole number of ticks of {@code 10^-priceScale}; books index their levels by tick so no floating-point comparison is involved. Books are
+ * kept in an array indexed by the symbols' ids in the {@link SymbolDictionary}. Instances are not thread-safe.
+ */
+public final class ReferenceMatchingEngine {
+
+    public static final int DEFAULT_PRICE_SCALE = 8;
+    public static final int MAX_SYMBOL_LENGTH = 6;
+
+    private static final String BUY = "BUY";
+    private static final String SELL = "SELL";
+    private static final long MAX_TICKS = 1L << 62;
+
+    private final int priceScale;
+    private final SymbolDictionary symbols = SymbolDictionary.getDefault();
+    // Books indexed by symbol id, created on the first order for their symbol.
+    private OrderBook[] books = new OrderBook[64];
+    private boolean aborted = false;
+
+    /**
+     * Constructs a new {@link ReferenceMatchingEngine} with the {@link #DEFAULT_PRICE_SCALE}.
+     */
+    public ReferenceMatchingEngine() {
+        this(DEFAULT_PRICE_SCALE);
+    }
+
+    /**
+     * Constructs a new {@link ReferenceMatchingEngine}.
+     *
+     * @param priceScale Number of decimal places prices are kept to (between 0 and 15).
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public ReferenceMatchingEngine(final int priceScale) {
+        Preconditions.checkArgument(priceScale >= 0 && priceScale <= 15, "Price scale must be between 0 and 15.");
+        this.priceScale = priceScale;
+    }
+
+    /**
+     * Processes a single order, reporting the resulting trades and warnings to the listener. Once the simulation has aborted, further orders are ignored.
+     *
+     * @param order    The order to process (cannot be null).
+     * @param listener The listener receiving trades and warnings (cannot be null).
+     * @return False if the order aborted the simulation or the simulation had already aborted, true otherwise.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public boolean process(final Order order, final MatchListener listener) {
+        Preconditions.checkArgument(order != null, "Cannot process a null order.");
+        final int symbolLength = order.getSymbol() == null ? 0 : order.getSymbol().length();
+        return process(order.getSymbolId(), symbolLength, order.getAction(), order.getPrice(), order.getQuantity(), listener);
+    }
+
+    /**
+     * Processes a single order given by its fields, reporting the resulting trades and warnings to the listener.
+     *
+     * @see #process(Order, MatchListener)
+     */
+    public boolean process(final String symbol, final String action, final Price price, final long quantity, final MatchListener listener) {
+        final int symbolLength = symbol == null ? 0 : symbol.length();
+        // Symbols the exchange-sim rejects are not interned, so malformed input cannot grow the dictionary.
+        final int symbolId = symbolLength == 0 || symbolLength > MAX_SYMBOL_LENGTH ? SymbolDictionary.NO_SYMBOL : symbols.intern(symbol);
+        return process(symbolId, symbolLength, action, price, quantity, listener);
+    }
+
+    private boolean process(final int symbolId, final int symbolLength, final String action, final Price price, final long quantity,
+                            final MatchListener listener) {
+        Preconditions.checkArgument(listener != null, "Cannot process an order with a null listener.");
+        Preconditions.checkArgument(price != null, "Cannot process an order with a null price.");
+        if (aborted) {
+            return false;
+        }
+        final long priceTicks = toTicksOrMax(price);
+        if (symbolId == SymbolDictionary.NO_SYMBOL || symbolLength == 0 || symbolLength > MAX_SYMBOL_LENGTH || price.signum() <= 0 || priceTicks >= MAX_TICKS
+                || quantity <= 0) {
+            aborted = true;
+            return false;
+        }
+        final boolean buy = BUY.equals(action);
+        if (!buy && !SELL.equals(action)) {
+            listener.onWarning("invalid side: " + action);
+            return true;
+        }
+        if (symbolId >= books.length) {
+            books = Arrays.copyOf(books, Math.max(books.length * 2, symbolId + 1));
+        }
+        OrderBook book = books[symbolId];
+        if (book == null) {
+            book = new OrderBook(symbolId);
+            books[symbolId] = book;
+        }
+        book.match(buy, priceTicks, quantity, listener);
+        return true;
+    }
+
+    /**
+     * Processes a List of orders, returning the results in the same form as {@link simulator.ExchangeSimulator#processOrders(List)}.
+     *
+     * @param orders The orders to process (cannot be null).
+     * @return Non-null {@link SimulationResults} of the orders.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public SimulationResults processOrders(final List<Order> orders) {
+        Preconditions.checkArgument(orders != null, "Cannot pass a null List of Orders to processOrders");
+        final TradeBatch trades = new TradeBatch(priceScale);
+        final ImmutableList.Builder<String> warnings = ImmutableList.builder();
+        final MatchListener listener = new MatchListener() {
+            @Override
+            public void onTrade(final int symbolId, final long priceTicks, final long quantity) {
+                trades.add(symbolId, priceTicks, quantity);
+            }
+
+            @Override
+            public void onWarning(final String warning) {
+                warnings.add(warning);
+            }
+        };
+        for (final Order order : orders) {
+            if (!process(order, listener)) {
+                break;
+            }
+        }
+        return new SimulationResults(trades, warnings.build(), aborted);
+    }
+
+    /**
+     * Takes a snapshot of the top levels of a symbol's book, in time proportional to the number of levels taken.
+     *
+     * @param symbol The symbol (cannot be null).
+     * @param levels The maximum number of levels to take from each side (cannot be negative).
+     * @return Non-null {@link BookDepth} of the symbol, empty if no order for it has rested.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public BookDepth getDepth(final String symbol, final int levels) {
+        Preconditions.checkArgument(symbol != null, "Cannot take the depth of a null symbol.");
+        Preconditions.checkArgument(levels >= 0, "Level count cannot be negative.");
+        final int symbolId = symbols.getId(symbol);
+        final OrderBook book = symbolId >= 0 && symbolId < books.length ? books[symbolId] : null;
+        return book == null ? new BookDepth(symbol, ImmutableList.of(), ImmutableList.of()) : depthOf(book, levels);
+    }
+
+    /**
+     * Takes a snapshot of the top levels of the book of every symbol ordered so far.
+     *
+     * @param levels The maximum number of levels to take from each side (cannot be negative).
+     * @return Non-null, possibly empty ImmutableList of the {@link BookDepth} of each symbol, in the order the symbols were interned.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public ImmutableList<BookDepth> getDepths(final int levels) {
+        Preconditions.checkArgument(levels >= 0, "Level count cannot be negative.");
+        final ImmutableList.Builder<BookDepth> depths = ImmutableList.builder();
+        for (final OrderBook book : books) {
+            if (book != null) {
+                depths.add(depthOf(book, levels));
+            }
+        }
+        return depths.build();
+    }
+
+    private BookDepth depthOf(final OrderBook book, final int levels) {
+        return new BookDepth(symbols.getSymbol(book.getSymbolId()), levelsOf(book.getBids(), levels), levelsOf(book.getAsks(), levels));
+    }
+
+    private ImmutableList<BookDepth.Level> levelsOf(final BookSide side, final int levels) {
+        final ImmutableList.Builder<BookDepth.Level> depth = ImmutableList.builder();
+        for (int index = 0; index < Math.min(levels, side.getLevelCount()); index++) {
+            final PriceLevel level = side.getLevel(index);
+            depth.add(BookDepth.Level.of(toPrice(level.getPrice()), level.getTotalQuantity(), level.getOrderCount()));
+        }
+        return depth.build();
+    }
+
+    /**
+     * @return True if an invalid order aborted the simulation, false otherwise.
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * @return The number of decimal places prices are kept to.
+     */
+    public int getPriceScale() {
+        return priceScale;
+    }
+
+    /**
+     * Converts a price to ticks, rounding to the nearest tick.
+     *
+     * @param price The price (cannot be null).
+     * @return The price in ticks.
+     * @throws ArithmeticException if the price in ticks does not fit in a long.
+     * @throws IllegalArgumentException if the parameter conditions are not met.
+     */
+    public long toTicks(final Price price) {
+        Preconditions.checkArgument(price != null, "Cannot convert a null price.");
+        return price.toTicks(priceScale);
+    }
+
+    /**
+     * Converts a price to ticks, saturating at {@link #MAX_TICKS} (which aborts the simulation) rather than overflowing.
+     */
+    private long toTicksOrMax(final Price price) {
+        try {
+            return Math.min(toTicks(price), MAX_TICKS);
+        } catch (final ArithmeticException exception) {
+            return MAX_TICKS;
+        }
+    }
+
+    /**
+     * Converts a price in ticks to its exact value.
+     *
+     * @param priceTicks The price in ticks.
+     * @return Non-null {@link Price} of the ticks.
+     */
+    public Price toPrice(final long priceTicks) {
+        return Price.of(priceTicks, priceScale);
+    }
+
+    /**
+     * Formats a price in ticks as the exchange-sim protocol expects, without trailing zeros.
+     *
+     * @param priceTicks The price in ticks.
+     * @return Non-null decimal representation of the price.
+     */
+    public String formatPrice(final long priceTicks) {
+        return toPrice(priceTicks).toString();
+    }
+}
@@ -0,0 +1,237 @@
+package simulator.reference;
+
+import com.google.common.base.Splitter;
+import simulator.Price;
+import simulator.SymbolDictionary;
+import simulator.exception.SimulationInitializationError;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link Process} running a {@link ReferenceMatchingEngine} on a background thread of this JVM, speaking the exchange-sim protocol over in-memory pipes. It stands
+ * in for the external exchange-sim program when it is not installed, without any process spawn cost.
+ * <p/>
+ * Input lines of the form {@code symbol|action|price|quantity} are matched as they arrive; trades are written to stdout as {@code symbol|price|quantity} and
+ * warnings to stderr. Orders aborting the simulation (including malformed lines) end the process with a non-zero exit value.
+ * <p/>
+ * {@link #main(String[])} runs the same engine as a standalone program over the JVM's own stdin, stdout and stderr, for a stand-in that is a separate OS process
+ * like the exchange-sim itself (see {@link simulator.ExchangeSimulator#REFERENCE_PROCESS_ENGINE}).
+ */
+public final class ReferenceSimulatorProcess extends Process {
+
+    private static final AtomicInteger INSTANCE_COUNT = new AtomicInteger();
+    private static final Splitter FIELD_SPLITTER = Splitter.on('|');
+
+    private final ReferenceMatchingEngine engine = new ReferenceMatchingEngine();
+    private final Pipe standardIn;
+    private final Pipe standardOut;
+    private final Pipe standardErr;
+    private final OutputStream processInput;
+    private final InputStream processOutput;
+    private final InputStream processError;
+    private final Thread engineThread;
+    private volatile int exitValue = -1;
+
+    /**
+     * Starts a new {@link ReferenceSimulatorProcess}.
+     *
+     * @return Non-null, running {@link ReferenceSimulatorProcess}.
+     * @throws SimulationInitializationError if the pipes cannot be opened.
+     */
+    public static ReferenceSimulatorProcess start() {
+        try {
+            final ReferenceSimulatorProcess process = new ReferenceSimulatorProcess(Pipe.open(), Pipe.open(), Pipe.open());
+            process.engineThread.start();
+            return process;
+        } catch (final IOException exception) {
+            throw new SimulationInitializationError(exception);
+        }
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return processInput;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return processOutput;
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+        return processError;
+    }
+
+    @Override
+    public int waitFor() throws InterruptedException {
+        engineThread.join();
+        return exitValue;
+    }
+
+    @Override
+    public int exitValue() {
+        if (engineThread.isAlive()) {
+            throw new IllegalThreadStateException("Reference simulator has not exited.");
+        }
+        return exitValue;
+    }
+
+    @Override
+    public boolean isAlive() {
+        return engineThread.isAlive();
+    }
+
+    /**
+     * @inheritDoc <p />
+     * Closes stdin, which ends the engine thread once it has processed the input already written.
+     */
+    @Override
+    public void destroy() {
+        closeQuietly(standardIn.sink());
+        closeQuietly(standardIn.source());
+    }
+
+    /**
+     * Runs a {@link ReferenceMatchingEngine} as a standalone exchange-sim stand-in over stdin, stdout and stderr, exiting once stdin closes or an order aborts the
+     * simulation.
+     *
+     * @param args Ignored.
+     */
+    public static void main(final String[] args) {
+        int status;
+        try {
+            status = runEngine(new ReferenceMatchingEngine(), System.in, System.out, System.err);
+        } catch (final IOException | UncheckedIOException exception) {
+            status = 143;
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Reads and matches orders until stdin closes or an order aborts the simulation.
+     */
+    private void runEngine() {
+        int status;
+        try {
+            status = runEngine(engine, Channels.newInputStream(standardIn.source()), Channels.newOutputStream(standardOut.sink()),
+                    Channels.newOutputStream(standardErr.sink()));
+        } catch (final IOException | UncheckedIOException exception) {
+            // stdin was closed by destroy(); treat as a terminated process.
+            status = 143;
+        } finally {
+            closeQuietly(standardIn.source());
+        }
+        exitValue = status;
+    }
+
+    /**
+     * Runs the engine over the given streams, closing them once stdin closes or an order aborts the simulation.
+     *
+     * @return The exit status: zero once stdin closes, 1 if an order aborted the simulation.
+     */
+    private static int runEngine(final ReferenceMatchingEngine engine, final InputStream standardIn, final OutputStream standardOut,
+                                 final OutputStream standardErr) throws IOException {
+        try (final BufferedReader input = new BufferedReader(new InputStreamReader(standardIn, StandardCharsets.US_ASCII));
+             final Writer output = new BufferedWriter(new OutputStreamWriter(standardOut, StandardCharsets.US_ASCII));
+             final Writer error = new OutputStreamWriter(standardErr, StandardCharsets.US_ASCII)) {
+            final MatchListener listener = new WritingListener(engine, output, error);
+            String line;
+            while ((line = input.readLine()) != null) {
+                if (!processLine(engine, line, listener)) {
+                    return 1;
+                }
+                // Flush once the pending input is consumed, so output is timely without a write per trade under load.
+                if (!input.ready()) {
+                    output.flush();
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static boolean processLine(final ReferenceMatchingEngine engine, final String line, final MatchListener listener) {
+        final Iterator<String> fields = FIELD_SPLITTER.split(line).iterator();
+        try {
+            final String symbol = fields.next();
+            final String action = fields.next();
+            final Price price = Price.parse(fields.next());
+            final long quantity = Long.parseLong(fields.next());
+            return !fields.hasNext() && engine.process(symbol, action, price, quantity, listener);
+        } catch (final NoSuchElementException | NumberFormatException exception) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (final IOException exception) {
+            // Nothing further can be done; the channel is unusable either way.
+        }
+    }
+
+    /**
+     * {@link MatchListener} writing the engine's output in the exchange-sim format.
+     */
+    private static final class WritingListener implements MatchListener {
+
+        private final ReferenceMatchingEngine engine;
+        private final Writer output;
+        private final Writer error;
+
+        private WritingListener(final ReferenceMatchingEngine engine, final Writer output, final Writer error) {
+            this.engine = engine;
+            this.output = output;
+            this.error = error;
+        }
+
+        @Override
+        public void onTrade(final int symbolId, final long priceTicks, final long quantity) {
+            try {
+                output.write(SymbolDictionary.getDefault().getSymbol(symbolId) + '|' + engine.formatPrice(priceTicks) + '|' + quantity + '\n');
+            } catch (final IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        @Override
+        public void onWarning(final String warning) {
+            try {
+                error.write(warning + '\n');
+                error.flush();
+            } catch (final IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+
+    /**
+     * Private constructor to prevent direct instantiation (use {@link #start()}).
+     */
+    private ReferenceSimulatorProcess(final Pipe standardIn, final Pipe standardOut, final Pipe standardErr) {
+        this.standardIn = standardIn;
+        this.standardOut = standardOut;
+        this.standardErr = standardErr;
+        this.processInput = Channels.newOutputStream(standardIn.sink());
+        this.processOutput = Channels.newInputStream(standardOut.source());
+        this.processError = Channels.newInputStream(standardErr.source());
+        this.engineThread = new Thread(this::runEngine, "exchange-sim-reference-" + INSTANCE_COUNT.incrementAndGet());
+        this.engineThread.setDaemon(true);
+    }
+}
@@ -0,0 +1,200 @@
+package harness;
+
+import com.google.common.collect.ImmutableList;
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import simulator.ExchangeSimulator;
+import simulator.Price;
+import simulator.completion.SimulationProgress;
+import simulator.input.Order;
+import simulator.matcher.TradeMatcher;
+import simulator.output.Trade;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static simulator.TestFixtures.order;
+
+/**
+ * Contains tests for {@link ExchangeSimulatorTestStep#isIncremental() incremental} test steps, asserting the output with an {@link IncrementalAssertion}.
+ */
+public final class IncrementalAssertionTest extends ExchangeSimulatorTestHarness {
+
+    private static final long SETTLED_NANOS = TimeUnit.MILLISECONDS.toNanos(ExchangeSimulator.DEFAULT_SETTLE_PERIOD);
+
+    /**
+     * Verifies that a step fails on its first trade not matching, rather than after the output is complete.
+     */
+    @Test
+    public void failsOnFirstMismatch() {
+        registerTestStep(new IncrementalStep(new Matcher[]{new TradeMatcher("IBM", 145.1, 5), new TradeMatcher("IBM", 145.2, 10)}, new Matcher[]{}));
+
+        assertThat(performFailingSteps(), containsString("Trade 1 not as expected"));
+    }
+
+    /**
+     * Verifies that a step whose trades match up to the last one fails on that one.
+     */
+    @Test
+    public void failsOnLaterMismatch() {
+        registerTestStep(new IncrementalStep(new Matcher[]{new TradeMatcher("IBM", 145.1, 10), new TradeMatcher("IBM", 145.1, 10)}, new Matcher[]{}));
+
+        assertThat(performFailingSteps(), containsString("Trade 2 not as expected"));
+    }
+
+    /**
+     * Verifies that a step fails on a trade beyond those expected.
+     */
+    @Test
+    public void failsOnUnexpectedTrade() {
+        registerTestStep(new IncrementalStep(new Matcher[]{new TradeMatcher("IBM", 145.1, 10)}, new Matcher[]{}));
+
+        assertThat(performFailingSteps(), containsString("Unexpected trade IBM|145.2|10 after the 1 expected"));
+    }
+
+    /**
+     * Verifies that a step fails on a warning beyond those expected.
+     */
+    @Test
+    public void failsOnUnexpectedWarning() {
+        registerTestStep(new IncrementalStep(new Matcher[]{new TradeMatcher("IBM", 145.1, 10), new TradeMatcher("IBM", 145.2, 10)}, new Matcher[]{}) {
+            @Override
+            protected void populateOrders(final ImmutableList.Builder<Order> orderListBuilder) {
+                super.populateOrders(orderListBuilder);
+                orderListBuilder.add(order("IBM", "HOLD", 145.1, 1));
+            }
+        });
+
+        assertThat(performFailingSteps(), containsString("Unexpected warning \"invalid side: HOLD\" after the 0 expected"));
+    }
+
+    /**
+     * Verifies that a step whose output matches passes, with the sentinel acknowledgement excluded from the asserted warnings.
+     */
+    @Test
+    public void passesOnMatchingOutput() {
+        registerTestStep(new IncrementalStep(new Matcher[]{new TradeMatcher("IBM", 145.1, 10), new TradeMatcher("IBM", 145.2, 10)},
+                new Matcher[]{equalTo("invalid side: HOLD")}) {
+            @Override
+            protected void populateOrders(final ImmutableList.Builder<Order> orderListBuilder) {
+                orderListBuilder.add(order("IBM", "HOLD", 145.1, 1));
+                super.populateOrders(orderListBuilder);
+            }
+        });
+
+        performTestSteps();
+    }
+
+    /**
+     * Verifies that the output is complete once every expected line has been read, the sentinel acknowledged and the output settled, and not before any of them.
+     */
+    @Test
+    public void completesOnSettledSentinelAcknowledgement() {
+        final IncrementalAssertion assertion = new IncrementalAssertion(new Matcher[]{new TradeMatcher("IBM", 145.1, 10)}, new Matcher[]{});
+        final String acknowledgement = "invalid side: " + assertion.getSentinelInput().split("\\|")[1];
+
+        assertThat(assertion.isComplete(progress(null, SETTLED_NANOS)), is(false));
+        assertThat(assertion.isComplete(progress(acknowledgement, SETTLED_NANOS)), is(false));
+        assertion.onTrade(new Trade("IBM", Price.valueOf(145.1), 10L));
+        assertThat(assertion.isComplete(progress(null, SETTLED_NANOS)), is(false));
+        assertThat(assertion.isComplete(progress(acknowledgement, 0)), is(false));
+        assertThat(assertion.isComplete(progress(acknowledgement, SETTLED_NANOS)), is(true));
+        assertThat(assertion.isSentinelOutput(acknowledgement), is(true));
+        assertThat(assertion.isSentinelOutput("invalid side: HOLD"), is(false));
+    }
+
+    /**
+     * Verifies that a trade beyond those expected, read after the sentinel acknowledgement but before the output settled, still fails the step.
+     */
+    @Test
+    public void failsOnUnexpectedTradeAfterSentinel() {
+        final IncrementalAssertion assertion = new IncrementalAssertion(new Matcher[]{new TradeMatcher("IBM", 145.1, 10)}, new Matcher[]{});
+        final String acknowledgement = "invalid side: " + assertion.getSentinelInput().split("\\|")[1];
+        assertion.onTrade(new Trade("IBM", Price.valueOf(145.1), 10L));
+
+        assertThat(assertion.isComplete(progress(acknowledgement, 0)), is(false));
+        try {
+            assertion.onTrade(new Trade("IBM", Price.valueOf(145.2), 10L));
+        } catch (final AssertionError error) {
+            assertThat(error.getMessage(), containsString("Unexpected trade IBM|145.2|10 after the 1 expected"));
+            return;
+        }
+        throw new AssertionError("Unexpected trade accepted");
+    }
+
+    /**
+     * Performs the registered steps, expecting them to fail.
+     *
+     * @return The message of the failure.
+     */
+    private String performFailingSteps() {
+        try {
+            performTestSteps();
+        } catch (final AssertionError error) {
+            return error.getMessage();
+        }
+        throw new AssertionError("Step passed unexpectedly");
+    }
+
+    private static SimulationProgress progress(final String lastWarning, final long nanosSinceLastOutput) {
+        return new SimulationProgress() {
+            @Override
+            public int getTradeCount() {
+                return 0;
+            }
+
+            @Override
+            public int getWarningCount() {
+                return lastWarning == null ? 0 : 1;
+            }
+
+            @Override
+            public String getLastWarning() {
+                return lastWarning;
+            }
+
+            @Override
+            public long getNanosSinceLastOutput() {
+                return nanosSinceLastOutput;
+            }
+        };
+    }
+
+    /**
+     * Incremental step resting two SELLs and crossing both with a BUY, producing the trades IBM|145.1|10 and IBM|145.2|10.
+     */
+    private class IncrementalStep extends ExchangeSimulatorTestStep {
+
+        private final Matcher<Trade>[] tradeMatchers;
+        private final Matcher<String>[] warningMatchers;
+
+        private IncrementalStep(final Matcher<Trade>[] tradeMatchers, final Matcher<String>[] warningMatchers) {
+            super(IncrementalAssertionTest.this);
+            this.tradeMatchers = tradeMatchers;
+            this.warningMatchers = warningMatchers;
+        }
+
+        @Override
+        protected void populateOrders(final ImmutableList.Builder<Order> orderListBuilder) {
+            orderListBuilder.add(order("IBM", "SELL", 145.1, 10)).add(order("IBM", "SELL", 145.2, 10)).add(order("IBM", "BUY", 145.2, 20));
+        }
+
+        @Override
+        protected Matcher<Trade>[] getTradeMatchers() {
+            return tradeMatchers;
+        }
+
+        @Override
+        protected Matcher<String>[] getWarningMatchers() {
+            return warningMatchers;
+        }
+
+        @Override
+        protected boolean isIncremental() {
+            return true;
+        }
+    }
+}
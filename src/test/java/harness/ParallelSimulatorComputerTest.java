@@ -0,0 +1,117 @@
+package harness;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+/**
+ * Contains tests for running test classes through the {@link ParallelSimulatorComputer}.
+ */
+public final class ParallelSimulatorComputerTest {
+
+    private static final int CONCURRENT_METHODS = 4;
+    private static volatile CountDownLatch running;
+    private static volatile String suiteMemberThread;
+
+    /**
+     * Verifies that the methods of a class run concurrently: each waits for all of them to have started, which only succeeds if they run at the same time.
+     */
+    @Test(timeout = 30_000)
+    public void runsMethodsConcurrently() throws InterruptedException {
+        running = new CountDownLatch(CONCURRENT_METHODS);
+        final Result result = new JUnitCore().run(new ParallelSimulatorComputer(CONCURRENT_METHODS), ConcurrentMethods.class);
+
+        assertThat(result.getFailures().toString(), result.wasSuccessful(), is(true));
+        assertThat(result.getRunCount(), is(CONCURRENT_METHODS));
+        awaitPoolsShutDown();
+    }
+
+    /**
+     * Verifies that a nested suite runs its classes on its own thread of the class pool rather than taking threads of the method pool, which with a parallelism
+     * of one would leave its classes' methods no thread to run on.
+     */
+    @Test(timeout = 30_000)
+    public void runsNestedSuitesOffTheMethodPool() throws InterruptedException {
+        suiteMemberThread = null;
+        final Result result = new JUnitCore().run(new ParallelSimulatorComputer(1), NestedSuite.class);
+
+        assertThat(result.getFailures().toString(), result.wasSuccessful(), is(true));
+        assertThat(result.getRunCount(), is(2));
+        assertThat(suiteMemberThread, startsWith("exchange-sim-class-"));
+        awaitPoolsShutDown();
+    }
+
+    /**
+     * Waits for the threads of the computer's pools to end, as they do once the pools are shut down.
+     */
+    private static void awaitPoolsShutDown() throws InterruptedException {
+        while (Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> thread.getName().startsWith("exchange-sim-test-")
+                || thread.getName().startsWith("exchange-sim-class-"))) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Test class whose methods each wait for every method to have started.
+     */
+    public static final class ConcurrentMethods {
+
+        @Test
+        public void first() throws InterruptedException {
+            awaitAll();
+        }
+
+        @Test
+        public void second() throws InterruptedException {
+            awaitAll();
+        }
+
+        @Test
+        public void third() throws InterruptedException {
+            awaitAll();
+        }
+
+        @Test
+        public void fourth() throws InterruptedException {
+            awaitAll();
+        }
+
+        private static void awaitAll() throws InterruptedException {
+            running.countDown();
+            assertThat("Methods did not run concurrently", running.await(10, TimeUnit.SECONDS), is(true));
+        }
+    }
+
+    /**
+     * Test class run through {@link NestedSuite}.
+     */
+    public static final class SuiteMember {
+
+        @Test
+        public void first() {
+            suiteMemberThread = Thread.currentThread().getName();
+        }
+
+        @Test
+        public void second() {
+            suiteMemberThread = Thread.currentThread().getName();
+        }
+    }
+
+    /**
+     * Suite nesting a test class.
+     */
+    @RunWith(Suite.class)
+    @Suite.SuiteClasses(SuiteMember.class)
+    public static final class NestedSuite {
+    }
+}
@@ -0,0 +1,47 @@
+package simulator;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import simulator.reference.BookDepth;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static simulator.TestFixtures.order;
+
+/**
+ * Contains tests for modelling the books of a simulator with a {@link BookModel}.
+ */
+public final class BookModelTest {
+
+    @Rule
+    public final ExchangeSimulatorRuntime simulatorRuntime = new ExchangeSimulatorRuntime();
+
+    /**
+     * Verifies that the model follows orders written both as Orders and as raw input split mid-line, and diffs the books between batches.
+     */
+    @Test
+    public void tracksBookShape() {
+        final ExchangeSimulator simulator = simulatorRuntime.getSimulator();
+        final BookModel bookModel = simulatorRuntime.getBookModel();
+        final byte[] input = "IBM|SELL|145.2|30\nIBM|SELL|145.2|20\nIBM|BUY|145|15\n".getBytes(StandardCharsets.US_ASCII);
+        simulator.writeInput(input, 0, 25);
+        simulator.writeInput(input, 25, input.length - 25);
+        final BookDepth before = bookModel.getDepth("IBM", 5);
+        assertThat(before.getAsks(), contains(BookDepth.Level.of(Price.valueOf(145.2), 50, 2)));
+
+        final SimulationResults results = simulator.submitOrders(ImmutableList.of(order("IBM", "BUY", 145.2, 35), order("OMC", "SELL", 41.5, 5))).join();
+
+        assertThat(results.getTrades().size(), is(2));
+        final BookDepth after = bookModel.getDepth("IBM", 5);
+        assertThat(after.diff(before), contains("SELL 145.2: 50 (2) -> 15 (1)"));
+        assertThat(after.getBids(), contains(BookDepth.Level.of(Price.valueOf(145), 15, 1)));
+        assertThat(bookModel.getDepth("OMC", 1).getAsks().size(), is(1));
+        assertThat(bookModel.getDepth("MSFT", 1).getAsks(), empty());
+        assertThat(bookModel.isAborted(), is(false));
+    }
+}
@@ -0,0 +1,67 @@
+package simulator;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import simulator.input.Order;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Contains tests comparing the exchange simulator against the reference engine through a {@link DifferentialSimulation}.
+ */
+public final class DifferentialSimulationTest {
+
+    @Rule
+    public final ExchangeSimulatorRuntime simulatorRuntime = new ExchangeSimulatorRuntime();
+
+    /**
+     * Verifies that a stream of random crossing orders produces the same trades on the simulator as on the reference engine.
+     */
+    @Test
+    public void randomOrderStreamMatchesReference() {
+        final Random random = new Random(42);
+        final Iterator<Order> orders = new Iterator<Order>() {
+            private int remaining = 20_000;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Order next() {
+                remaining--;
+                return Order.Builder.create()
+                        .withSymbol(random.nextBoolean() ? "IBM" : "OMC")
+                        .withAction(random.nextBoolean() ? "BUY" : "SELL")
+                        .withPrice(145 + random.nextInt(20) / 100.0)
+                        .withQuantity(1 + random.nextInt(200))
+                        .build();
+            }
+        };
+
+        final DifferentialResult result = DifferentialSimulation.Builder.create().withMaxPendingOutput(1000).build().run(simulatorRuntime.getSimulator(), orders);
+
+        assertThat(result.toString(), result.isConsistent(), is(true));
+        assertThat(result.getTradeCount(), greaterThan(0L));
+    }
+
+    /**
+     * Verifies that an order aborting the simulation ends the comparison consistently when the simulator also aborts.
+     */
+    @Test
+    public void abortIsConsistent() {
+        final DifferentialResult result = DifferentialSimulation.Builder.create().build().run(simulatorRuntime.getSimulator(), ImmutableList.of(
+                Order.Builder.create().withSymbol("IBM").withAction("SELL").withPrice(145.09).withQuantity(100).build(),
+                Order.Builder.create().withSymbol("IBM").withAction("BUY").withPrice(0.0).withQuantity(100).build()).iterator());
+
+        assertThat(result.toString(), result.isConsistent(), is(true));
+        assertThat(result.getOrderCount(), is(2L));
+    }
+}
@@ -0,0 +1,65 @@
+package simulator;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static simulator.TestFixtures.order;
+
+/**
+ * Contains tests for the {@link FillLatencyTracker} correlating fills to the orders causing them.
+ */
+public final class FillLatencyTrackerTest {
+
+    @Rule
+    public final ExchangeSimulatorRuntime simulatorRuntime = new ExchangeSimulatorRuntime();
+
+    /**
+     * Verifies that each fill is measured from the write of the order the model expects it of, across write chunks ending part way through a line.
+     */
+    @Test
+    public void fillsMeasuredFromTheirOrders() {
+        final FillLatencyTracker tracker = new FillLatencyTracker();
+        final byte[] input = "LAT|SELL|10|100\nLAT|SELL|10.01|100\nLAT|BUY|9|50\nLAT|HOLD|1|1\nLAT|BUY|10.01|150\nLAT|BUY|10.01|50\n".getBytes(StandardCharsets.US_ASCII);
+        final int fourthLine = 58;
+        tracker.onInput(input, 0, fourthLine, 1_000);
+        tracker.onInput(input, fourthLine, 20, 2_000);
+        tracker.onInput(input, fourthLine + 20, input.length - fourthLine - 20, 3_000);
+
+        // The BUY of 150, completed by the third chunk, fills twice, the BUY of 50 once; a further fill is not expected by the model.
+        tracker.onFill(3_100);
+        tracker.onFill(3_200);
+        tracker.skipFill();
+        tracker.onFill(4_000);
+        final LatencyHistogram latencies = tracker.takeLatencies();
+
+        assertThat(latencies.getCount(), is(2L));
+        assertThat(latencies.getMinNanos(), is(100L));
+        assertThat(latencies.getMaxNanos(), is(200L));
+        assertThat(tracker.takeLatencies().getCount(), is(0L));
+    }
+
+    /**
+     * Verifies that fills stay attributed to their orders when pipelined batches, raw input and sentinels are written between the batches whose latencies are
+     * taken, so every fill of a later batch is recorded.
+     */
+    @Test
+    public void fillsStayAttributedAcrossAllInput() {
+        final ExchangeSimulator simulator = simulatorRuntime.getSimulator();
+        simulator.trackFillLatencies();
+        final SimulationResults pipelined = simulator.submitOrders(ImmutableList.of(order("LAT", "SELL", 10, 100), order("LAT", "BUY", 10, 40))).join();
+        simulator.writeInput("LAT|BUY|10|30\n".getBytes(StandardCharsets.US_ASCII), 0, 14);
+        final SimulationResults first = simulator.processOrders(ImmutableList.of(order("LAT", "BUY", 10, 20)));
+        final SimulationResults second = simulator.processOrders(ImmutableList.of(order("LAT", "BUY", 10, 15), order("LAT", "SELL", 9, 5)));
+
+        assertThat(pipelined.getFillLatencies().getCount(), is(1L));
+        assertThat(first.getTrades().size(), is(2));
+        assertThat(first.getFillLatencies().getCount(), is(2L));
+        assertThat(second.getTrades().size(), is(2));
+        assertThat(second.getFillLatencies().getCount(), is(2L));
+    }
+}
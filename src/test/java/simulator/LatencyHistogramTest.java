@@ -0,0 +1,64 @@
+package simulator;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Contains tests for the log-linear {@link LatencyHistogram}.
+ */
+public final class LatencyHistogramTest {
+
+    /**
+     * Verifies that percentiles up to p99.99 are within the histogram's resolution of the exact values.
+     */
+    @Test
+    public void percentilesWithinResolution() {
+        final SplittableRandom random = new SplittableRandom(5);
+        final long[] latencies = new long[100_000];
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int index = 0; index < latencies.length; index++) {
+            latencies[index] = (long) Math.exp(random.nextDouble(0, 25));
+            histogram.record(latencies[index]);
+        }
+        Arrays.sort(latencies);
+
+        assertThat(histogram.getCount(), is((long) latencies.length));
+        assertThat(histogram.getMinNanos(), is(latencies[0]));
+        assertThat(histogram.getMaxNanos(), is(latencies[latencies.length - 1]));
+        for (final double percentile : new double[]{50, 90, 99, 99.9, 99.99}) {
+            final long exact = latencies[(int) Math.ceil(percentile / 100 * latencies.length) - 1];
+            assertThat(percentile + "%", (double) histogram.getValueAtPercentile(percentile), closeTo(exact, exact / 64.0 + 1));
+        }
+        assertThat(histogram.getValueAtPercentile(100), is(histogram.getMaxNanos()));
+    }
+
+    /**
+     * Verifies that merging histograms gives the histogram of all their latencies.
+     */
+    @Test
+    public void mergesHistograms() {
+        final LatencyHistogram first = new LatencyHistogram();
+        final LatencyHistogram second = new LatencyHistogram();
+        final LatencyHistogram all = new LatencyHistogram();
+        for (long nanos = 1; nanos < 1_000_000_000L; nanos = nanos * 3 + 1) {
+            (nanos % 2 == 0 ? first : second).record(nanos);
+            all.record(nanos);
+        }
+        final LatencyHistogram merged = first.copy();
+        merged.add(second);
+
+        assertThat(merged.getCount(), is(all.getCount()));
+        assertThat(merged.getMinNanos(), is(all.getMinNanos()));
+        assertThat(merged.getMaxNanos(), is(all.getMaxNanos()));
+        assertThat(merged.getMeanNanos(), is(all.getMeanNanos()));
+        assertThat(merged.getValueAtPercentile(99.99), is(all.getValueAtPercentile(99.99)));
+        assertThat(merged.toString(), is(all.toString()));
+        assertThat(first.getCount() + second.getCount(), is(all.getCount()));
+    }
+}
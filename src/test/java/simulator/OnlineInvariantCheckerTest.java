@@ -0,0 +1,90 @@
+package simulator;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static simulator.TestFixtures.order;
+
+/**
+ * Contains tests for checking the simulator's trades online with an {@link OnlineInvariantChecker}.
+ */
+public final class OnlineInvariantCheckerTest {
+
+    @Rule
+    public final ExchangeSimulatorRuntime simulatorRuntime = new ExchangeSimulatorRuntime();
+
+    /**
+     * Verifies that trades of orders written both as Orders and as raw input split mid-line are checked without violations.
+     */
+    @Test
+    public void checksLiveTrades() {
+        final ExchangeSimulator simulator = simulatorRuntime.getSimulator();
+        final List<InvariantViolation> violations = new CopyOnWriteArrayList<>();
+        final OnlineInvariantChecker checker = new OnlineInvariantChecker(violations::add);
+        simulator.attachChecker(checker);
+
+        final byte[] input = "OMC|SELL|41.5|30\nOMC|BUY|41.6|10\n".getBytes(StandardCharsets.US_ASCII);
+        simulator.writeInput(input, 0, 20);
+        simulator.writeInput(input, 20, input.length - 20);
+        // Each batch submitted is followed by a pair of marker orders, trading with each other.
+        simulator.submitOrders(ImmutableList.of(order("IBM", "SELL", 145.1, 10), order("IBM", "BUY", 145.2, 4), order("IBM", "BUY", 145.1, 6),
+                order("OMC", "BUY", 41.5, 20))).join();
+
+        simulator.detachChecker();
+        assertThat(checker.getOrderCount(), is(8L));
+        assertThat(checker.getTradeCount(), is(5L));
+        assertThat(violations.toString(), violations.isEmpty(), is(true));
+    }
+
+    /**
+     * Verifies that trades exceeding the quantity outstanding, priced outside of the orders, of unknown symbols or out of sequence are reported with context.
+     */
+    @Test
+    public void reportsViolationsWithContext() {
+        final List<InvariantViolation> violations = new CopyOnWriteArrayList<>();
+        final OnlineInvariantChecker checker = new OnlineInvariantChecker(violations::add);
+        input(checker, "IBM|SELL|145.1|10\nIBM|BU");
+        input(checker, "Y|145.2|4\nIBM|HOLD|1|1\n");
+
+        output(checker, "IBM|145.1|4", 0);
+        assertThat(violations.isEmpty(), is(true));
+        output(checker, "IBM|145.1|1", 1);
+        output(checker, "IBM|146|0", 2);
+        output(checker, "MSFT|1|1", 4);
+
+        assertThat(checker.getTradeCount(), is(4L));
+        assertThat(checker.getViolationCount(), is(5L));
+        final InvariantViolation exceeded = violations.get(0);
+        assertThat(exceeded.getDescription(), is("Trade exceeds the quantity outstanding"));
+        assertThat(exceeded.getLineSequence(), is(1L));
+        assertThat(exceeded.getSymbol(), is("IBM"));
+        assertThat(exceeded.getOutstandingBuyQuantity(), is(0L));
+        assertThat(exceeded.getOutstandingSellQuantity(), is(6L));
+        assertThat(exceeded.getHighestBuyPrice(), is(Price.valueOf(145.2)));
+        assertThat(exceeded.getLowestSellPrice(), is(Price.valueOf(145.1)));
+        assertThat(exceeded.getRecentInput(), is(ImmutableList.of("IBM|SELL|145.1|10", "IBM|BUY|145.2|4", "IBM|HOLD|1|1")));
+        assertThat(violations.get(1).getDescription(), is("Trade of a non-positive quantity"));
+        assertThat(violations.get(2).getDescription(), is("Trade price outside of the prices ordered"));
+        assertThat(violations.get(3).getDescription(), is("Line read out of sequence after line #2"));
+        assertThat(violations.get(4).getDescription(), is("Trade of a symbol never ordered"));
+        assertThat(violations.get(4).getTradeLine(), is("MSFT|1|1"));
+        assertThat(checker.getFirstViolation(), is(exceeded));
+    }
+
+    private static void input(final OnlineInvariantChecker checker, final String input) {
+        final byte[] bytes = input.getBytes(StandardCharsets.US_ASCII);
+        checker.onInput(bytes, 0, bytes.length);
+    }
+
+    private static void output(final OnlineInvariantChecker checker, final String line, final long sequence) {
+        final byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+        checker.onOutputLine(bytes, 0, bytes.length, sequence, sequence);
+    }
+}
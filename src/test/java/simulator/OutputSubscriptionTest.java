@@ -0,0 +1,105 @@
+package simulator;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import simulator.input.Order;
+import simulator.output.OutputSubscriber;
+import simulator.output.OutputSubscription;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static simulator.TestFixtures.awaitCondition;
+import static simulator.TestFixtures.order;
+
+/**
+ * Contains tests for streaming the output of the simulator to an {@link OutputSubscriber}.
+ */
+public final class OutputSubscriptionTest {
+
+    @Rule
+    public final ExchangeSimulatorRuntime simulatorRuntime = new ExchangeSimulatorRuntime();
+
+    /**
+     * Verifies that trades and warnings are delivered as they are read, but never more lines than requested.
+     */
+    @Test
+    public void deliversOnlyRequestedLines() throws InterruptedException {
+        final ExchangeSimulator simulator = simulatorRuntime.getSimulator();
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        final OutputSubscription subscription = simulator.subscribe(subscriber);
+        subscription.request(1);
+
+        simulator.writeOrders(ImmutableList.of(order("IBM", "SELL", 145.1, 10), order("IBM", "BUY", 145.1, 4), order("IBM", "BUY", 145.1, 6)));
+
+        awaitCondition(() -> subscription.getPendingCount() == 1);
+        assertThat(subscriber.lines, is(ImmutableList.of("IBM|145.1|4")));
+        simulator.writeOrders(ImmutableList.of(order("IBM", "HOLD", 145.1, 1)));
+        awaitCondition(() -> subscription.getPendingCount() == 2);
+        subscription.request(2);
+        awaitCondition(() -> subscriber.lines.size() == 3);
+        assertThat(subscriber.lines.containsAll(ImmutableList.of("IBM|145.1|6", "! invalid side: HOLD")), is(true));
+        assertThat(subscription.getDeliveredCount(), is(3L));
+
+        subscription.cancel();
+        assertThat(subscription.isDone(), is(true));
+        assertThat(simulator.processOrders(ImmutableList.of(order("IBM", "SELL", 145.1, 5), order("IBM", "BUY", 145.1, 5))).getTrades().size(), is(1));
+    }
+
+    /**
+     * Verifies that output not yet requested is buffered no further than the subscription's bound, and that the held-back output follows once requested.
+     */
+    @Test
+    public void boundsBufferedOutput() throws InterruptedException {
+        final ExchangeSimulator simulator = simulatorRuntime.getSimulator();
+        final AtomicLong trades = new AtomicLong();
+        final OutputSubscription subscription = simulator.subscribe(new RecordingSubscriber() {
+            @Override
+            public void onTrade(final int symbolId, final long priceTicks, final int priceScale, final long quantity) {
+                trades.incrementAndGet();
+            }
+        }, 50);
+        final ImmutableList.Builder<Order> orders = ImmutableList.builder();
+        for (int count = 0; count < 500; count++) {
+            orders.add(order("IBM", "SELL", 145.1, 1)).add(order("IBM", "BUY", 145.1, 1));
+        }
+
+        simulator.writeOrders(orders.build());
+
+        awaitCondition(() -> subscription.getPendingCount() == 50);
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(subscription.getPendingCount(), is(50L));
+        assertThat(trades.get(), is(0L));
+        subscription.request(Long.MAX_VALUE);
+        awaitCondition(() -> trades.get() == 500);
+        subscription.cancel();
+    }
+
+    /**
+     * Subscriber recording the lines delivered, rendering warnings prefixed with {@code "! "}.
+     */
+    private static class RecordingSubscriber implements OutputSubscriber {
+
+        final List<String> lines = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onTrade(final int symbolId, final long priceTicks, final int priceScale, final long quantity) {
+            lines.add(SymbolDictionary.getDefault().getSymbol(symbolId) + '|' + Price.of(priceTicks, priceScale) + '|' + quantity);
+        }
+
+        @Override
+        public void onMalformedTrade(final String line) {
+            lines.add(line);
+        }
+
+        @Override
+        public void onWarning(final String warning) {
+            lines.add("! " + warning);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package simulator;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Contains tests for the fixed-point {@link Price}.
+ */
+public final class PriceTest {
+
+    /**
+     * Verifies that doubles convert to the decimal they are written as, and that prices are normalized so equal decimals are equal.
+     */
+    @Test
+    public void pricesAreExactAndNormalized() {
+        assertThat(Price.valueOf(145.09).getTicks(), is(14509L));
+        assertThat(Price.valueOf(145.09).getScale(), is(2));
+        assertThat(Price.valueOf(100.0), is(Price.of(1, -2)));
+        assertThat(Price.parse("145.10"), is(Price.valueOf(145.1)));
+        assertThat(Price.parse("1.451E2"), is(Price.valueOf(145.1)));
+        assertThat(Price.parse("-0.00"), is(Price.ZERO));
+        assertThat(Price.parse("10.0000000001").equals(Price.valueOf(10.0)), is(false));
+        assertThat(Price.parse("10.0000000001").compareTo(Price.valueOf(10.0)), is(1));
+    }
+
+    /**
+     * Verifies that prices are formatted in plain notation without trailing zeros.
+     */
+    @Test
+    public void formatsPlainDecimals() {
+        assertThat(Price.valueOf(145.09).toString(), is("145.09"));
+        assertThat(Price.valueOf(41.0).toString(), is("41"));
+        assertThat(Price.valueOf(-0.0001).toString(), is("-0.0001"));
+        assertThat(Price.valueOf(1e20).toString(), is("100000000000000000000"));
+        assertThat(Price.ZERO.toString(), is("0"));
+    }
+
+    /**
+     * Verifies that converting between scales rounds half away from zero and reports overflow.
+     */
+    @Test
+    public void rescalesTicks() {
+        assertThat(Price.rescale(14509, 2, 8), is(14_509_000_000L));
+        assertThat(Price.rescale(100_000_000_050L, 10, 8), is(1_000_000_001L));
+        assertThat(Price.rescale(-25, 1, 0), is(-3L));
+        assertThat(Price.isRepresentable(14510, 2, 1), is(true));
+        assertThat(Price.isRepresentable(14509, 2, 1), is(false));
+        assertThat(Price.isRepresentable(Long.MAX_VALUE / 10, 0, 2), is(false));
+        try {
+            Price.rescale(Long.MAX_VALUE / 10, 0, 2);
+            throw new AssertionError("Expected an ArithmeticException");
+        } catch (final ArithmeticException expected) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Verifies that random doubles survive the round trip through a price and its text.
+     */
+    @Test
+    public void doublesRoundTrip() {
+        final SplittableRandom random = new SplittableRandom(3);
+        for (int count = 0; count < 100_000; count++) {
+            final double value = random.nextInt(1, Integer.MAX_VALUE) / Math.pow(10, random.nextInt(-10, 30));
+            final Price price = Price.valueOf(value);
+            assertThat(price.toDouble(), is(value));
+            assertThat(Price.parse(price.toString()), is(price));
+            assertThat(price.toBigDecimal().compareTo(new BigDecimal(Double.toString(value))), is(0));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package simulator;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import org.junit.Rule;
+import org.junit.Test;
+import simulator.input.Order;
+import simulator.output.Trade;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static simulator.TestFixtures.order;
+
+/**
+ * Contains tests for spreading orders over several simulators with a {@link ShardedSimulator}.
+ */
+public final class ShardedSimulatorTest {
+
+    private static final ImmutableList<String> SYMBOLS = ImmutableList.of("IBM", "OMC", "MSFT", "AAPL", "GOOG", "ORCL");
+
+    @Rule
+    public final ExchangeSimulatorRuntime simulatorRuntime = new ExchangeSimulatorRuntime();
+
+    /**
+     * Verifies that the trades of each symbol across pipelined batches are those a single simulator outputs for the same orders, in the same order.
+     */
+    @Test
+    public void mergesTradesPerSymbolInOrder() {
+        final SplittableRandom random = new SplittableRandom(7);
+        final List<Order> firstBatch = randomOrders(random, 300);
+        final List<Order> secondBatch = randomOrders(random, 300);
+        final ExchangeSimulator simulator = simulatorRuntime.getSimulator();
+        final SimulationResults firstExpected = simulator.submitOrders(firstBatch).join();
+        final SimulationResults secondExpected = simulator.submitOrders(secondBatch).join();
+
+        try (final ShardedSimulator sharded = ShardedSimulator.Builder.create().withShardCount(3).build()) {
+            final CompletableFuture<SimulationResults> first = sharded.submitOrders(firstBatch);
+            final SimulationResults second = sharded.processOrders(secondBatch);
+
+            assertThat(sharded.getShardCount(), is(3));
+            assertThat(sharded.getShardIndex("IBM"), is(Math.floorMod("IBM".hashCode(), 3)));
+            assertThat(firstExpected.getTrades().isEmpty(), is(false));
+            assertThat(bySymbol(first.join().getTrades()), is(bySymbol(firstExpected.getTrades())));
+            assertThat(bySymbol(second.getTrades()), is(bySymbol(secondExpected.getTrades())));
+            assertThat(second.isProcessAborted(), is(false));
+        }
+    }
+
+    /**
+     * Verifies that an invalid order aborts the merged results, while the other shards still process the orders of their symbols following it.
+     */
+    @Test
+    public void abortingOrderStopsOnlyItsShard() {
+        try (final ShardedSimulator sharded = ShardedSimulator.Builder.create().withShardCount(2).build()) {
+            String otherSymbol = null;
+            for (final String symbol : SYMBOLS) {
+                if (sharded.getShardIndex(symbol) != sharded.getShardIndex("IBM")) {
+                    otherSymbol = symbol;
+                    break;
+                }
+            }
+            assertThat(otherSymbol, is(notNullValue()));
+
+            final SimulationResults results = sharded.processOrders(ImmutableList.of(order("IBM", "SELL", 0.0, 100), order("IBM", "SELL", 145.1, 10),
+                    order("IBM", "BUY", 145.1, 10), order(otherSymbol, "SELL", 145.1, 10), order(otherSymbol, "BUY", 145.1, 10)));
+
+            assertThat(results.isProcessAborted(), is(true));
+            assertThat(bySymbol(results.getTrades()).get("IBM"), is(empty()));
+            assertThat(bySymbol(results.getTrades()).get(otherSymbol), contains("145.1|10"));
+        }
+    }
+
+    private static List<Order> randomOrders(final SplittableRandom random, final int count) {
+        final ImmutableList.Builder<Order> orders = ImmutableList.builder();
+        for (int index = 0; index < count; index++) {
+            orders.add(Order.Builder.create()
+                    .withSymbol(SYMBOLS.get(random.nextInt(SYMBOLS.size())))
+                    .withAction(random.nextBoolean() ? "BUY" : "SELL")
+                    .withPrice(new BigDecimal("145.00").add(BigDecimal.valueOf(random.nextInt(10), 2)).doubleValue())
+                    .withQuantity(random.nextInt(1, 101))
+                    .build());
+        }
+        return orders.build();
+    }
+
+    private static ListMultimap<String, String> bySymbol(final List<Trade> trades) {
+        final ListMultimap<String, String> bySymbol = ArrayListMultimap.create();
+        for (final Trade trade : trades) {
+            bySymbol.put(trade.getSymbol(), trade.getPrice() + "|" + trade.getQuantity());
+        }
+        return bySymbol;
+    }
+}
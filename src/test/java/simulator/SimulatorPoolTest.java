@@ -0,0 +1,119 @@
+package simulator;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static simulator.TestFixtures.awaitCondition;
+
+/**
+ * Contains tests for acquiring simulators from a {@link SimulatorPool}.
+ */
+public final class SimulatorPoolTest {
+
+    /**
+     * Verifies that a simulator pre-spawned into the pool is handed out as a hit, without a cold spawn.
+     */
+    @Test
+    public void acquiresIdleSimulators() throws InterruptedException {
+        final SimulatorPool pool = SimulatorPool.Builder.create().withPoolSize(1).build();
+        try {
+            awaitCondition(() -> pool.getMetrics().getIdleCount() == 1);
+            final ExchangeSimulator simulator = pool.acquire();
+
+            assertThat(simulator.isAlive(), is(true));
+            assertThat(pool.getMetrics().getHits(), is(1L));
+            assertThat(pool.getMetrics().getColdSpawns(), is(0L));
+            pool.release(simulator);
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Verifies that an empty pool spawns a simulator on demand.
+     */
+    @Test
+    public void spawnsColdWhenEmpty() {
+        final SimulatorPool pool = SimulatorPool.Builder.create().withPoolSize(0).build();
+        try {
+            final ExchangeSimulator simulator = pool.acquire();
+
+            assertThat(simulator.isAlive(), is(true));
+            assertThat(pool.getMetrics().getHits(), is(0L));
+            assertThat(pool.getMetrics().getColdSpawns(), is(1L));
+            assertThat(pool.getMetrics().getSpawnCount(), is(1L));
+            pool.release(simulator);
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Verifies that each acquired simulator is replaced in the background, so the pool fills up again.
+     */
+    @Test
+    public void replenishesAfterAcquire() throws InterruptedException {
+        final SimulatorPool pool = SimulatorPool.Builder.create().withPoolSize(2).build();
+        try {
+            awaitCondition(() -> pool.getMetrics().getIdleCount() == 2);
+            final ExchangeSimulator simulator = pool.acquire();
+            awaitCondition(() -> pool.getMetrics().getIdleCount() == 2);
+
+            assertThat(pool.getMetrics().getHits(), is(1L));
+            assertThat(pool.getMetrics().getSpawnCount(), is(3L));
+            pool.release(simulator);
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Verifies that idle simulators exceeding the maximum idle time are evicted and replaced.
+     */
+    @Test
+    public void evictsExpiredSimulators() throws InterruptedException {
+        final SimulatorPool pool = SimulatorPool.Builder.create().withPoolSize(1).withMaxIdleTime(100).build();
+        try {
+            awaitCondition(() -> pool.getMetrics().getEvictions() >= 1 && pool.getMetrics().getIdleCount() == 1);
+
+            assertThat(pool.getMetrics().getSpawnCount(), is(greaterThanOrEqualTo(2L)));
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Verifies that closing the pool while a simulator is acquired neither leaks an exception from replenishing the pool nor leaves the acquired simulator
+     * unusable.
+     */
+    @Test
+    public void acquireRacesClose() throws InterruptedException {
+        for (int attempt = 0; attempt < 10; attempt++) {
+            final SimulatorPool pool = SimulatorPool.Builder.create().withPoolSize(2).build();
+            final CountDownLatch start = new CountDownLatch(1);
+            final AtomicReference<Throwable> failure = new AtomicReference<>();
+            final Thread acquirer = new Thread(() -> {
+                try {
+                    start.await();
+                    pool.release(pool.acquire());
+                } catch (final IllegalStateException exception) {
+                    // The pool was closed first.
+                } catch (final Throwable throwable) {
+                    failure.set(throwable);
+                }
+            });
+            acquirer.start();
+            start.countDown();
+            pool.close();
+            acquirer.join();
+
+            assertThat(failure.get(), is(nullValue()));
+        }
+    }
+}
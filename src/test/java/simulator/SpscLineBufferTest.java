@@ -0,0 +1,116 @@
+package simulator;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Contains tests for the {@link SpscLineBuffer} used to capture simulator output.
+ */
+public final class SpscLineBufferTest {
+
+    /**
+     * Verifies that each drain returns only the lines published since the previous drain.
+     */
+    @Test
+    public void drainReturnsOnlyNewLines() {
+        final SpscLineBuffer buffer = new SpscLineBuffer();
+        buffer.offer("first");
+        buffer.offer("second");
+
+        final List<String> drained = Lists.newArrayList();
+        assertThat(buffer.drain(Long.MAX_VALUE, drained::add), is(2));
+        assertThat(drained, contains("first", "second"));
+
+        drained.clear();
+        buffer.offer("third");
+        buffer.drain(Long.MAX_VALUE, drained::add);
+        assertThat(drained, contains("third"));
+
+        drained.clear();
+        buffer.drain(Long.MAX_VALUE, drained::add);
+        assertThat(drained, empty());
+    }
+
+    /**
+     * Verifies that draining up to a sequence number leaves later lines for the next drain.
+     */
+    @Test
+    public void drainStopsAtLimitSequence() {
+        final SpscLineBuffer buffer = new SpscLineBuffer();
+        buffer.offer("first");
+        buffer.offer("second");
+        buffer.offer("third");
+
+        final List<String> drained = Lists.newArrayList();
+        buffer.drain(2, drained::add);
+        assertThat(drained, contains("first", "second"));
+        assertThat(buffer.getConsumedSequence(), is(2L));
+
+        drained.clear();
+        buffer.drain(Long.MAX_VALUE, drained::add);
+        assertThat(drained, contains("third"));
+    }
+
+    /**
+     * Verifies that every line published by a concurrent producer across many segments is drained exactly once and in order.
+     */
+    @Test
+    public void concurrentProducerLinesDrainedInOrder() throws InterruptedException {
+        final int lineCount = 1_000_000;
+        final SpscLineBuffer buffer = new SpscLineBuffer();
+        final Thread producer = new Thread(() -> {
+            for (int line = 0; line < lineCount; line++) {
+                buffer.offer(Integer.toString(line));
+            }
+        });
+        producer.start();
+
+        final int[] expected = {0};
+        final boolean[] ordered = {true};
+        while (expected[0] < lineCount) {
+            buffer.drain(Long.MAX_VALUE, line -> ordered[0] &= Integer.parseInt(line) == expected[0]++);
+        }
+        producer.join();
+
+        assertThat(ordered[0], is(true));
+        assertThat(buffer.getPublishedSequence(), is((long) lineCount));
+    }
+
+    /**
+     * Verifies that lines appended in pieces, including lines larger than a segment, are drained whole and without a trailing carriage return.
+     */
+    @Test
+    public void appendedPiecesDrainedAsLines() {
+        final SpscLineBuffer buffer = new SpscLineBuffer();
+        final StringBuilder longLine = new StringBuilder();
+        for (int index = 0; index < 100_000; index++) {
+            longLine.append((char) ('a' + index % 26));
+        }
+        final byte[] longBytes = longLine.toString().getBytes(StandardCharsets.US_ASCII);
+        final byte[] shortBytes = "ABC|10|5\r".getBytes(StandardCharsets.US_ASCII);
+
+        for (int line = 0; line < 3000; line++) {
+            buffer.append(shortBytes, 0, 4);
+            buffer.append(shortBytes, 4, shortBytes.length - 4);
+            buffer.endLine();
+        }
+        for (int offset = 0; offset < longBytes.length; offset += 1000) {
+            buffer.append(longBytes, offset, 1000);
+        }
+        buffer.endLine();
+
+        final List<String> drained = Lists.newArrayList();
+        assertThat(buffer.drainBytes(Long.MAX_VALUE, (bytes, offset, length) -> drained.add(new String(bytes, offset, length, StandardCharsets.US_ASCII))), is(3001));
+        assertThat(drained.subList(0, 3000), everyItem(is("ABC|10|5")));
+        assertThat(drained.get(3000), is(longLine.toString()));
+    }
+}
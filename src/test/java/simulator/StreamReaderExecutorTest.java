@@ -0,0 +1,57 @@
+package simulator;
+
+import org.junit.Test;
+import simulator.exception.SimulationInitializationError;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static simulator.TestFixtures.awaitCondition;
+
+/**
+ * Contains tests for running stream readers on the shared {@link StreamReaderExecutor}.
+ */
+public final class StreamReaderExecutorTest {
+
+    /**
+     * Verifies that readers run on named threads, are counted while live, and that readers beyond the bound are rejected until a live reader ends.
+     */
+    @Test
+    public void boundsLiveReaders() throws InterruptedException {
+        final StreamReaderExecutor executor = new StreamReaderExecutor(2, false);
+        final CountDownLatch streamsEnded = new CountDownLatch(1);
+        final List<String> names = new CopyOnWriteArrayList<>();
+        final Runnable reader = () -> {
+            names.add(Thread.currentThread().getName());
+            try {
+                streamsEnded.await();
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        executor.execute(reader, "exchange-sim-1-stdout");
+        executor.execute(reader, "exchange-sim-1-stderr");
+        try {
+            executor.execute(reader, "exchange-sim-2-stdout");
+            throw new AssertionError("Expected a SimulationInitializationError");
+        } catch (final SimulationInitializationError expected) {
+            // Expected.
+        }
+        awaitCondition(() -> names.size() == 2);
+        assertThat(names, containsInAnyOrder("exchange-sim-1-stdout", "exchange-sim-1-stderr"));
+        assertThat(executor.getLiveReaderCount(), is(2));
+
+        streamsEnded.countDown();
+        awaitCondition(() -> executor.getLiveReaderCount() == 0);
+        executor.execute(() -> names.add(Thread.currentThread().getName()), "exchange-sim-2-stdout");
+        awaitCondition(() -> names.size() == 3);
+        assertThat(executor.getPeakReaderCount(), is(2));
+        assertThat(executor.getStartedReaderCount(), is(3L));
+        assertThat(executor.isVirtual(), is(false));
+    }
+}
@@ -0,0 +1,98 @@
+package simulator;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import simulator.input.Order;
+import simulator.output.Trade;
+import simulator.reference.ReferenceMatchingEngine;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static simulator.TestFixtures.order;
+
+/**
+ * Contains tests for pipelining batches through the simulator with {@link ExchangeSimulator#submitOrders(List)}.
+ */
+public final class SubmitOrdersTest {
+
+    @Rule
+    public final ExchangeSimulatorRuntime simulatorRuntime = new ExchangeSimulatorRuntime();
+
+    /**
+     * Verifies that batches submitted back-to-back each receive exactly the trades the reference engine expects of them.
+     */
+    @Test
+    public void pipelinedBatchesReceiveTheirOwnTrades() {
+        final Random random = new Random(11);
+        final ReferenceMatchingEngine model = new ReferenceMatchingEngine();
+        final ImmutableList.Builder<SimulationResults> expected = ImmutableList.builder();
+        final ImmutableList.Builder<CompletableFuture<SimulationResults>> futures = ImmutableList.builder();
+        for (int batch = 0; batch < 50; batch++) {
+            final ImmutableList.Builder<Order> orders = ImmutableList.builder();
+            for (int count = 0; count < 200; count++) {
+                orders.add(order(random.nextBoolean() ? "IBM" : "OMC", random.nextBoolean() ? "BUY" : "SELL", 145 + random.nextInt(20) / 100.0,
+                        1 + random.nextInt(200)));
+            }
+            expected.add(model.processOrders(orders.build()));
+            futures.add(simulatorRuntime.getSimulator().submitOrders(orders.build()));
+        }
+
+        final List<SimulationResults> expectedResults = expected.build();
+        final List<CompletableFuture<SimulationResults>> submitted = futures.build();
+        for (int batch = 0; batch < submitted.size(); batch++) {
+            final SimulationResults results = submitted.get(batch).join();
+            assertThat("batch " + batch, describe(results.getTrades()), is(describe(expectedResults.get(batch).getTrades())));
+            assertThat(results.isProcessAborted(), is(false));
+        }
+    }
+
+    /**
+     * Verifies that warnings are attributed to the batch which caused them, and that synchronous processing resumes once no batch is in flight.
+     */
+    @Test
+    public void warningsStayWithTheirBatch() {
+        final ExchangeSimulator simulator = simulatorRuntime.getSimulator();
+        final CompletableFuture<SimulationResults> first = simulator.submitOrders(ImmutableList.of(order("IBM", "BUY", 145.1, 10)));
+        final CompletableFuture<SimulationResults> second = simulator.submitOrders(ImmutableList.of(order("IBM", "HOLD", 145.1, 10),
+                order("IBM", "SELL", 145.1, 10)));
+
+        assertThat(first.join().getWarnings(), is(empty()));
+        assertThat(first.join().getTrades(), is(empty()));
+        assertThat(second.join().getWarnings(), is(ImmutableList.of("invalid side: HOLD")));
+        assertThat(second.join().getTrades().size(), is(1));
+
+        assertThat(simulator.processOrders(ImmutableList.of(order("IBM", "BUY", 145.1, 5), order("IBM", "SELL", 145.1, 5))).getTrades().size(), is(1));
+    }
+
+    /**
+     * Verifies that warnings merely resembling a batch's warning marker, such as those of orders with the actions BATCH, BATCHX or the sequence number of no batch
+     * in flight, stay ordinary warnings of their batch rather than ending it or stopping the collection of later batches.
+     */
+    @Test
+    public void markerLikeWarningsStayWithTheirBatch() {
+        final ExchangeSimulator simulator = simulatorRuntime.getSimulator();
+        final CompletableFuture<SimulationResults> first = simulator.submitOrders(ImmutableList.of(order("IBM", "BATCH", 1, 1),
+                order("IBM", "BATCHX", 1, 1), order("IBM", "BATCH99", 1, 1)));
+        final CompletableFuture<SimulationResults> second = simulator.submitOrders(ImmutableList.of(order("IBM", "BATCH0", 1, 1),
+                order("IBM", "BUY", 145.1, 10), order("IBM", "SELL", 145.1, 10)));
+
+        assertThat(first.join().getWarnings(), is(ImmutableList.of("invalid side: BATCH", "invalid side: BATCHX", "invalid side: BATCH99")));
+        assertThat(second.join().getWarnings(), is(ImmutableList.of("invalid side: BATCH0")));
+        assertThat(second.join().getTrades().size(), is(1));
+        assertThat(simulator.submitOrders(ImmutableList.of(order("IBM", "BUY", 145.1, 5))).join().getWarnings(), is(empty()));
+    }
+
+    private static List<String> describe(final List<Trade> trades) {
+        final ImmutableList.Builder<String> described = ImmutableList.builder();
+        for (final Trade trade : trades) {
+            described.add(trade.getSymbol() + '|' + trade.getPrice() + '|' + trade.getQuantity());
+        }
+        return described.build();
+    }
+}
@@ -0,0 +1,90 @@
+package simulator;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Contains tests for the {@link SymbolDictionary} interning symbols to ids.
+ */
+public final class SymbolDictionaryTest {
+
+    /**
+     * Verifies that symbols receive dense ids, and that Strings and bytes of the same symbol share an id, across table resizes.
+     */
+    @Test
+    public void internsStringsAndBytesToSameIds() {
+        final SymbolDictionary dictionary = new SymbolDictionary();
+        for (int symbol = 0; symbol < 5000; symbol++) {
+            assertThat(dictionary.intern("SYM" + symbol), is(symbol));
+        }
+        for (int symbol = 0; symbol < 5000; symbol++) {
+            final byte[] bytes = ("|SYM" + symbol + '|').getBytes(StandardCharsets.US_ASCII);
+            assertThat(dictionary.intern(bytes, 1, bytes.length - 2), is(symbol));
+            assertThat(dictionary.getSymbol(symbol), is("SYM" + symbol));
+            assertThat(new String(dictionary.getBytes(symbol), StandardCharsets.US_ASCII), is("SYM" + symbol));
+        }
+        assertThat(dictionary.getId("UNKNOWN"), is(SymbolDictionary.NO_SYMBOL));
+        assertThat(dictionary.size(), is(5000));
+    }
+
+    /**
+     * Verifies that a full dictionary still looks up its symbols, but refuses new ones.
+     */
+    @Test
+    public void fullDictionaryRefusesNewSymbols() {
+        final SymbolDictionary dictionary = new SymbolDictionary(2);
+        assertThat(dictionary.intern("IBM"), is(0));
+        assertThat(dictionary.intern("MSFT"), is(1));
+        final byte[] bytes = "AAPL".getBytes(StandardCharsets.US_ASCII);
+
+        assertThat(dictionary.tryIntern(bytes, 0, bytes.length), is(SymbolDictionary.NO_SYMBOL));
+        assertThat(dictionary.intern("IBM"), is(0));
+        assertThat(dictionary.size(), is(2));
+        try {
+            dictionary.intern("AAPL");
+        } catch (final IllegalStateException exception) {
+            return;
+        }
+        throw new AssertionError("Interned a symbol into a full dictionary");
+    }
+
+    /**
+     * Verifies that threads interning the same symbols concurrently all receive the same ids.
+     */
+    @Test
+    public void concurrentInternsAgree() throws Exception {
+        final SymbolDictionary dictionary = new SymbolDictionary();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final Future<int[]>[] results = new Future[4];
+            for (int thread = 0; thread < results.length; thread++) {
+                results[thread] = executor.submit(() -> {
+                    final int[] ids = new int[2000];
+                    for (int symbol = 0; symbol < ids.length; symbol++) {
+                        ids[symbol] = dictionary.intern("S" + symbol);
+                    }
+                    return ids;
+                });
+            }
+            final int[] expected = results[0].get(10, TimeUnit.SECONDS);
+            for (final Future<int[]> result : results) {
+                final int[] ids = result.get(10, TimeUnit.SECONDS);
+                for (int symbol = 0; symbol < ids.length; symbol++) {
+                    assertThat(ids[symbol], is(expected[symbol]));
+                    assertThat(dictionary.getSymbol(ids[symbol]), is("S" + symbol));
+                }
+            }
+            assertThat(dictionary.size(), is(2000));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
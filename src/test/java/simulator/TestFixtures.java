@@ -0,0 +1,40 @@
+package simulator;
+
+import simulator.input.Order;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Fixtures shared by the simulator's tests.
+ */
+public final class TestFixtures {
+
+    private static final long AWAIT_TIMEOUT_SECONDS = 10;
+
+    /**
+     * @return Non-null {@link Order} with the given fields.
+     */
+    public static Order order(final String symbol, final String action, final double price, final long quantity) {
+        return Order.Builder.create().withSymbol(symbol).withAction(action).withPrice(price).withQuantity(quantity).build();
+    }
+
+    /**
+     * Polls the condition until it holds.
+     *
+     * @param condition The condition to wait for (cannot be null).
+     * @throws AssertionError if the condition does not hold within ten seconds.
+     */
+    public static void awaitCondition(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(AWAIT_TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for the condition.");
+            }
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+    }
+
+    private TestFixtures() {
+    }
+}
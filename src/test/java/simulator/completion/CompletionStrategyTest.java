@@ -0,0 +1,160 @@
+package simulator.completion;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import simulator.ExchangeSimulator;
+import simulator.ExchangeSimulatorRuntime;
+import simulator.SimulationResults;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static simulator.TestFixtures.order;
+
+/**
+ * Contains tests for the {@link CompletionStrategy} implementations, polled with fixed {@link SimulationProgress} as well as through the simulator.
+ */
+public final class CompletionStrategyTest {
+
+    @Rule
+    public final ExchangeSimulatorRuntime simulatorRuntime = new ExchangeSimulatorRuntime();
+
+    /**
+     * Verifies that a quiet period is only satisfied once no output has been read for the whole period.
+     */
+    @Test
+    public void quietPeriodWaitsForSilence() {
+        final QuietPeriodCompletion completion = new QuietPeriodCompletion(100);
+
+        assertThat(completion.isComplete(progress(0, 0, null, TimeUnit.MILLISECONDS.toNanos(99))), is(false));
+        assertThat(completion.isComplete(progress(0, 0, null, TimeUnit.MILLISECONDS.toNanos(100))), is(true));
+        assertThat(completion.getSentinelInput(), nullValue());
+        assertThat(completion.isSentinelOutput("invalid side: X"), is(false));
+    }
+
+    /**
+     * Verifies that an expected trade count is satisfied by that many trades or more, whatever the warnings.
+     */
+    @Test
+    public void expectedTradeCountWaitsForTrades() {
+        final ExpectedTradeCountCompletion completion = new ExpectedTradeCountCompletion(2);
+
+        assertThat(completion.isComplete(progress(1, 3, "invalid side: X", Long.MAX_VALUE)), is(false));
+        assertThat(completion.isComplete(progress(2, 0, null, 0)), is(true));
+        assertThat(completion.isComplete(progress(3, 0, null, 0)), is(true));
+        assertThat(new ExpectedTradeCountCompletion(0).isComplete(progress(0, 0, null, 0)), is(true));
+    }
+
+    /**
+     * Verifies that a sentinel writes an order with an unrecognized action and is satisfied by, and only by, the warning acknowledging it.
+     */
+    @Test
+    public void sentinelWaitsForAcknowledgement() {
+        final SentinelCompletion completion = new SentinelCompletion("IBM");
+        final String action = completion.getSentinelInput().split("\\|")[1];
+        final String acknowledgement = "invalid side: " + action;
+
+        assertThat(completion.getSentinelInput(), is("IBM|" + action + "|1|1"));
+        assertThat(completion.getSentinelInput(), is(not(new SentinelCompletion("IBM").getSentinelInput())));
+        assertThat(completion.isComplete(progress(5, 0, null, Long.MAX_VALUE)), is(false));
+        assertThat(completion.isComplete(progress(0, 1, "invalid side: HOLD", 0)), is(false));
+        assertThat(completion.isComplete(progress(0, 1, acknowledgement, 0)), is(true));
+        assertThat(completion.isSentinelOutput(acknowledgement), is(true));
+        assertThat(completion.isSentinelOutput("invalid side: HOLD"), is(false));
+    }
+
+    /**
+     * Verifies that AllOf requires every component and AnyOf any component, and that both write and recognize the sentinel of their components.
+     */
+    @Test
+    public void compositesCombineComponents() {
+        final SentinelCompletion sentinel = new SentinelCompletion();
+        final ExpectedTradeCountCompletion trades = new ExpectedTradeCountCompletion(1);
+        final AllOfCompletion allOf = new AllOfCompletion(trades, sentinel);
+        final AnyOfCompletion anyOf = new AnyOfCompletion(trades, sentinel);
+        final String acknowledgement = "invalid side: " + sentinel.getSentinelInput().split("\\|")[1];
+
+        assertThat(allOf.isComplete(progress(1, 0, null, 0)), is(false));
+        assertThat(allOf.isComplete(progress(0, 1, acknowledgement, 0)), is(false));
+        assertThat(allOf.isComplete(progress(1, 1, acknowledgement, 0)), is(true));
+        assertThat(anyOf.isComplete(progress(0, 0, null, 0)), is(false));
+        assertThat(anyOf.isComplete(progress(1, 0, null, 0)), is(true));
+        assertThat(anyOf.isComplete(progress(0, 1, acknowledgement, 0)), is(true));
+        for (final CompletionStrategy composite : ImmutableList.<CompletionStrategy>of(allOf, anyOf)) {
+            assertThat(composite.getSentinelInput(), is(sentinel.getSentinelInput()));
+            assertThat(composite.isSentinelOutput(acknowledgement), is(true));
+            assertThat(composite.isSentinelOutput("invalid side: HOLD"), is(false));
+        }
+        assertThat(new AnyOfCompletion(trades).getSentinelInput(), nullValue());
+    }
+
+    /**
+     * Verifies that the default completion does not give up on a batch whose first line is slow to arrive, however long the silence, but completes once its
+     * sentinel is acknowledged and the output has settled.
+     */
+    @Test
+    public void defaultCompletionWaitsForSlowFirstLine() {
+        final CompletionStrategy completion = ExchangeSimulator.newDefaultCompletion();
+        final String acknowledgement = "invalid side: " + completion.getSentinelInput().split("\\|")[1];
+        final long settled = TimeUnit.MILLISECONDS.toNanos(ExchangeSimulator.DEFAULT_SETTLE_PERIOD);
+
+        assertThat(completion.isComplete(progress(0, 0, null, TimeUnit.SECONDS.toNanos(1))), is(false));
+        assertThat(completion.isComplete(progress(1, 1, acknowledgement, 0)), is(false));
+        assertThat(completion.isComplete(progress(1, 1, acknowledgement, settled)), is(true));
+    }
+
+    /**
+     * Verifies that the strategies waiting for a sentinel return the whole output of a batch through the simulator, with the acknowledgement excluded from the
+     * warnings, and that a quiet period returns once nothing is output. As the acknowledgement on stderr may be read before the trade on stdout, each sentinel is
+     * combined with the expected trades or a settle period.
+     */
+    @Test
+    public void strategiesCompleteBatches() {
+        final ExchangeSimulator simulator = simulatorRuntime.getSimulator();
+        final ImmutableList<CompletionStrategy> strategies = ImmutableList.of(ExchangeSimulator.newDefaultCompletion(),
+                new AllOfCompletion(new ExpectedTradeCountCompletion(1), new SentinelCompletion()),
+                new AnyOfCompletion(new AllOfCompletion(new SentinelCompletion(), new QuietPeriodCompletion(ExchangeSimulator.DEFAULT_SETTLE_PERIOD)),
+                        new QuietPeriodCompletion(10_000)));
+        for (final CompletionStrategy strategy : strategies) {
+            final SimulationResults results = simulator.processOrders(ImmutableList.of(order("IBM", "BUY", 145.1, 10), order("IBM", "HOLD", 145.1, 1),
+                    order("IBM", "SELL", 145.1, 10)), strategy);
+
+            assertThat(results.getTrades().size(), is(1));
+            assertThat(results.getWarnings(), is(ImmutableList.of("invalid side: HOLD")));
+            assertThat(results.isProcessAborted(), is(false));
+        }
+        final SimulationResults quiet = simulator.processOrders(ImmutableList.of(order("IBM", "BUY", 145.1, 10)),
+                new QuietPeriodCompletion(ExchangeSimulator.DEFAULT_QUIET_PERIOD));
+        assertThat(quiet.getTrades(), is(empty()));
+        assertThat(quiet.getWarnings(), is(empty()));
+    }
+
+    private static SimulationProgress progress(final int tradeCount, final int warningCount, final String lastWarning, final long nanosSinceLastOutput) {
+        return new SimulationProgress() {
+            @Override
+            public int getTradeCount() {
+                return tradeCount;
+            }
+
+            @Override
+            public int getWarningCount() {
+                return warningCount;
+            }
+
+            @Override
+            public String getLastWarning() {
+                return lastWarning;
+            }
+
+            @Override
+            public long getNanosSinceLastOutput() {
+                return nanosSinceLastOutput;
+            }
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package simulator.fuzz;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import simulator.Price;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Contains tests for the property-based {@link OrderFuzzer}.
+ */
+public final class OrderFuzzerTest {
+
+    /**
+     * Verifies that random valid order sequences satisfy the standard invariants across parallel simulators.
+     */
+    @Test
+    public void randomSequencesSatisfyInvariants() {
+        final FuzzReport report = OrderFuzzer.Builder.create().withTrials(200).withParallelism(4).withSeed(7).build().run();
+
+        assertThat(report.toString(), report.isPassed(), is(true));
+        assertThat(report.getTrialCount(), is(200));
+    }
+
+    /**
+     * Verifies that a failing sequence is shrunk to the two orders and the smallest quantity which reproduce the failure.
+     */
+    @Test
+    public void failuresAreShrunk() {
+        final FuzzInvariant noLargeTrades = (orders, results) -> results.getTrades().stream().anyMatch(trade -> trade.getQuantity() >= 10)
+                ? "Trade of 10 or more" : null;
+        final FuzzReport report = OrderFuzzer.Builder.create().withTrials(200).withParallelism(4).withSeed(7).withSymbols(ImmutableList.of("IBM"))
+                .withInvariants(ImmutableList.of(noLargeTrades)).build().run();
+
+        assertThat(report.isPassed(), is(false));
+        final FuzzFailure failure = report.getFailure();
+        assertThat(failure.toString(), failure.getShrunkOrders().size(), is(2));
+        assertThat(failure.toString(), Math.min(failure.getShrunkOrders().get(0).getQuantity(), failure.getShrunkOrders().get(1).getQuantity()), is(10L));
+        assertThat(failure.getViolation(), is("Trade of 10 or more"));
+    }
+
+    /**
+     * Verifies that a trial's sequence depends only on the seed and the trial index, and that prices are generated on the configured levels.
+     */
+    @Test
+    public void sequencesAreReproducible() {
+        final OrderFuzzer fuzzer = OrderFuzzer.Builder.create().withSeed(3).withPrices(Price.valueOf(10.5), Price.valueOf(0.25), 4).build();
+
+        assertThat(fuzzer.generate(5).toString(), fuzzer.generate(5).size(), is(fuzzer.generate(5).size()));
+        fuzzer.generate(5).forEach(order -> assertThat(order.getPrice().toString(),
+                ImmutableList.of("10.5", "10.75", "11", "11.25").contains(order.getPrice().toString()), is(true)));
+    }
+}
@@ -0,0 +1,79 @@
+package simulator.input;
+
+import org.junit.Test;
+import simulator.Price;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static simulator.TestFixtures.order;
+
+/**
+ * Contains tests for the {@link OrderEncoder} writing orders to the simulator's stdin.
+ */
+public final class OrderEncoderTest {
+
+    /**
+     * Verifies that orders are encoded one per line with prices in plain notation.
+     */
+    @Test
+    public void encodesOrdersInInputFormat() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final OrderEncoder encoder = new OrderEncoder(output);
+        encoder.encode(Arrays.asList(order("ABC", "BUY", 100.0, 10), order("XYZ", "SELL", 0.0001, 5), order("QQQ", "BUY", -1.25, -3)));
+        encoder.encodeLine("SNTNL|SENTINEL1|1|1");
+        encoder.flush();
+
+        assertThat(output.toString("US-ASCII"), is("ABC|BUY|100|10\nXYZ|SELL|0.0001|5\nQQQ|BUY|-1.25|-3\nSNTNL|SENTINEL1|1|1\n"));
+        assertThat(encoder.getEncodedBytes(), is((long) output.size()));
+    }
+
+    /**
+     * Verifies that encoded prices parse back to exactly the price given, across chunked buffer writes.
+     */
+    @Test
+    public void encodedPricesRoundTrip() throws IOException {
+        final SplittableRandom random = new SplittableRandom(7);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final OrderEncoder encoder = new OrderEncoder(output, 64);
+        final double[] prices = new double[10_000];
+        for (int index = 0; index < prices.length; index++) {
+            prices[index] = random.nextInt(1, 10_000_000) / Math.pow(10, random.nextInt(0, 9));
+            encoder.encode(order("A", "BUY", prices[index], 1));
+        }
+        encoder.flush();
+
+        final String[] lines = new String(output.toByteArray(), StandardCharsets.US_ASCII).split("\n");
+        assertThat(lines.length, is(prices.length));
+        for (int index = 0; index < prices.length; index++) {
+            final String price = lines[index].split("\\|")[2];
+            assertThat(price, Double.parseDouble(price), is(prices[index]));
+            assertThat(price, new BigDecimal(price).toPlainString(), is(price));
+        }
+    }
+
+    /**
+     * Verifies that prices of any scale are written exactly in plain notation, however small or large.
+     */
+    @Test
+    public void encodesPricesOfAnyScaleExactly() throws IOException {
+        final Price[] prices = {Price.of(1, 30), Price.of(-123, 5), Price.of(7, -25), Price.of(Long.MAX_VALUE, 3), Price.of(Long.MIN_VALUE, 0)};
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final OrderEncoder encoder = new OrderEncoder(output, 64);
+        for (final Price price : prices) {
+            encoder.encode(Order.Builder.create().withSymbol("A").withAction("BUY").withPrice(price).withQuantity(1).build());
+        }
+        encoder.flush();
+
+        final String[] lines = new String(output.toByteArray(), StandardCharsets.US_ASCII).split("\n");
+        for (int index = 0; index < prices.length; index++) {
+            assertThat(lines[index], is("A|BUY|" + prices[index].toBigDecimal().toPlainString() + "|1"));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package simulator.journal;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import simulator.ExchangeSimulatorRuntime;
+import simulator.SimulationResults;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static simulator.TestFixtures.order;
+
+/**
+ * Contains tests for recording simulator sessions to a journal and replaying them.
+ */
+public final class JournalTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public final ExchangeSimulatorRuntime recordedRuntime = new ExchangeSimulatorRuntime();
+
+    @Rule
+    public final ExchangeSimulatorRuntime replayedRuntime = new ExchangeSimulatorRuntime();
+
+    /**
+     * Verifies that lines split across chunks are recorded once complete, that partial lines are written on closing, and that a truncated journal reads up to its
+     * last complete line.
+     */
+    @Test
+    public void journalRoundTripsLines() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("session.journal");
+        try (final JournalWriter writer = JournalWriter.create(path)) {
+            record(writer, JournalEntry.Channel.INPUT, "IBM|BUY|145.1|10\nIBM|SE", 1_000);
+            record(writer, JournalEntry.Channel.STDERR, "invalid side\n", 3_000);
+            record(writer, JournalEntry.Channel.INPUT, "LL|145.1|5\n", 2_000);
+            record(writer, JournalEntry.Channel.STDOUT, "IBM|145.1|5", 4_000);
+        }
+
+        final List<JournalEntry> entries = readAll(path);
+        assertThat(entries.size(), is(4));
+        assertThat(entries.get(0).getChannel(), is(JournalEntry.Channel.INPUT));
+        assertThat(entries.get(0).getLine(), is("IBM|BUY|145.1|10"));
+        assertThat(entries.get(1).getChannel(), is(JournalEntry.Channel.STDERR));
+        assertThat(entries.get(2).getLine(), is("IBM|SELL|145.1|5"));
+        assertThat(entries.get(2).getNanos() - entries.get(0).getNanos(), is(1_000L));
+        assertThat(entries.get(1).getNanos() - entries.get(0).getNanos(), is(2_000L));
+        assertThat(entries.get(3).getChannel(), is(JournalEntry.Channel.STDOUT));
+        assertThat(entries.get(3).getLine(), is("IBM|145.1|5"));
+
+        final byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThat(readAll(path).size(), is(3));
+    }
+
+    /**
+     * Verifies that a recorded session replays into a fresh simulator with the same output.
+     */
+    @Test
+    public void replayReproducesRecordedSession() {
+        final Path path = folder.getRoot().toPath().resolve("replay.journal");
+        final JournalWriter writer = JournalWriter.create(path);
+        recordedRuntime.getSimulator().startRecording(writer);
+        final SimulationResults results = recordedRuntime.getSimulator().processOrders(ImmutableList.of(
+                order("IBM", "BUY", 145.1, 100), order("IBM", "SELL", 145.0, 40), order("OMC", "SELL", 41.5, 10), order("IBM", "SELL", 145.1, 70)));
+        recordedRuntime.getSimulator().stopRecording();
+        writer.close();
+
+        final ReplayReport report = JournalReplayer.Builder.create().withSpeed(0).build().replay(path, replayedRuntime.getSimulator());
+
+        assertThat(report.toString(), report.isConsistent(), is(true));
+        assertThat(report.getInputLineCount(), greaterThanOrEqualTo(4L));
+        assertThat(report.getReplayedTradeCount(), is((long) results.getTrades().size()));
+        assertThat(report.getRecordedTradeCount(), is((long) results.getTrades().size()));
+        assertThat(report.isInputAborted(), is(false));
+    }
+
+    /**
+     * Verifies that replayed output differing from the recorded output is reported at the first differing line.
+     */
+    @Test
+    public void replayReportsDivergence() {
+        final Path path = folder.getRoot().toPath().resolve("diverging.journal");
+        try (final JournalWriter writer = JournalWriter.create(path)) {
+            record(writer, JournalEntry.Channel.INPUT, "IBM|BUY|145.1|10\nIBM|SELL|145.1|10\n", 0);
+            record(writer, JournalEntry.Channel.STDOUT, "IBM|145.2|10\n", 1_000);
+        }
+
+        final ReplayReport report = JournalReplayer.Builder.create().withSpeed(0).build().replay(path, replayedRuntime.getSimulator());
+
+        assertThat(report.isConsistent(), is(false));
+        assertThat(report.getDivergence().startsWith("STDOUT line 1: expected 'IBM|145.2|10' but was 'IBM|145.1"), is(true));
+        assertThat(report.getReplayedTradeCount(), is(1L));
+    }
+
+    private static void record(final JournalWriter writer, final JournalEntry.Channel channel, final String text, final long nanos) {
+        final byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        writer.record(channel, bytes, 0, bytes.length, nanos);
+    }
+
+    private static List<JournalEntry> readAll(final Path path) {
+        final ImmutableList.Builder<JournalEntry> entries = ImmutableList.builder();
+        try (final JournalReader reader = JournalReader.open(path)) {
+            JournalEntry entry;
+            while ((entry = reader.next()) != null) {
+                entries.add(entry);
+            }
+        }
+        return entries.build();
+    }
+}
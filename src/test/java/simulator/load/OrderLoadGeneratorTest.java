@@ -0,0 +1,141 @@
+package simulator.load;
+
+import org.junit.Rule;
+import org.junit.Test;
+import simulator.ExchangeSimulatorRuntime;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Contains tests for the orders generated by the {@link OrderLoadGenerator} and the rate they are written at.
+ */
+public final class OrderLoadGeneratorTest {
+
+    @Rule
+    public final ExchangeSimulatorRuntime simulatorRuntime = new ExchangeSimulatorRuntime();
+
+    /**
+     * Verifies that fixed-point values are written with exactly the given number of decimal places, padded with leading zeros, at the given position.
+     */
+    @Test
+    public void decimalsWrittenAtScale() {
+        assertThat(decimal(12_345, 2), is("123.45"));
+        assertThat(decimal(100, 2), is("1.00"));
+        assertThat(decimal(5, 2), is("0.05"));
+        assertThat(decimal(7, 3), is("0.007"));
+        assertThat(decimal(0, 0), is("0"));
+        assertThat(decimal(1_000_000_007L, 0), is("1000000007"));
+
+        final byte[] prefix = "IBM|".getBytes(StandardCharsets.US_ASCII);
+        final byte[] line = new byte[16];
+        System.arraycopy(prefix, 0, line, 0, prefix.length);
+        final int end = OrderLoadGenerator.putDecimal(line, prefix.length, 14_510, 2);
+        assertThat(new String(line, 0, end, StandardCharsets.US_ASCII), is("IBM|145.10"));
+    }
+
+    /**
+     * Verifies that symbols are named in base 26, with A as the zero digit.
+     */
+    @Test
+    public void symbolsNamedInBase26() {
+        assertThat(symbol(0), is("A"));
+        assertThat(symbol(25), is("Z"));
+        assertThat(symbol(26), is("BA"));
+        assertThat(symbol(27), is("BB"));
+        assertThat(symbol(26 * 26 - 1), is("ZZ"));
+        assertThat(symbol(26 * 26), is("BAA"));
+    }
+
+    /**
+     * Verifies that every generated order is well formed, names one of the configured symbols, is priced within the spread of the mid price at the configured
+     * scale and has a quantity within the configured bounds.
+     */
+    @Test
+    public void ordersWithinConfiguredBounds() {
+        final OrderLoadGenerator load = OrderLoadGenerator.Builder.create().withSymbolCount(30).withMidPrice(100, 2).withPriceWalk(0, 10)
+                .withQuantities(5, 9, QuantityDistribution.UNIFORM).build();
+        final Set<String> expectedSymbols = new HashSet<>();
+        for (int index = 0; index < 30; index++) {
+            expectedSymbols.add(symbol(index));
+        }
+
+        final String[] orders = generate(load, 3000);
+
+        assertThat(orders.length, is(3000));
+        final Set<String> symbols = new HashSet<>();
+        final Set<Long> quantities = new HashSet<>();
+        for (final String order : orders) {
+            final String[] fields = order.split("\\|");
+            assertThat(order, fields.length, is(4));
+            symbols.add(fields[0]);
+            assertThat(order, fields[1].equals("BUY") || fields[1].equals("SELL"), is(true));
+            assertThat(order, fields[2].matches("\\d+\\.\\d{2}"), is(true));
+            final BigDecimal price = new BigDecimal(fields[2]);
+            assertThat(order, price, is(both(greaterThanOrEqualTo(new BigDecimal("99.90"))).and(lessThanOrEqualTo(new BigDecimal("100.10")))));
+            final long quantity = Long.parseLong(fields[3]);
+            assertThat(order, quantity, is(both(greaterThanOrEqualTo(5L)).and(lessThanOrEqualTo(9L))));
+            quantities.add(quantity);
+        }
+        assertThat(symbols, is(expectedSymbols));
+        assertThat(quantities.size(), is(5));
+    }
+
+    /**
+     * Verifies that the share of BUYs follows the buy ratio, including the all-BUY and all-SELL extremes.
+     */
+    @Test
+    public void sidesFollowBuyRatio() {
+        assertThat(buyShare(0.25), is(both(greaterThanOrEqualTo(0.2)).and(lessThanOrEqualTo(0.3))));
+        assertThat(buyShare(1), is(1.0));
+        assertThat(buyShare(0), is(0.0));
+    }
+
+    /**
+     * Verifies that a target rate paces the writes: the last of the orders is not written before it falls due.
+     */
+    @Test
+    public void writesPacedToTargetRate() {
+        final OrderLoadGenerator load = OrderLoadGenerator.Builder.create().withSymbolCount(10).withTargetRate(2000).withOrderCount(1000).withParallelism(2)
+                .build();
+
+        final LoadReport report = load.run(simulatorRuntime.getSimulator());
+
+        assertThat(report.getOrderCount(), is(1000L));
+        // The 1000th order falls due 999 / 2000 seconds after the first.
+        assertThat(report.getElapsedMillis(), is(both(greaterThanOrEqualTo(499L)).and(lessThan(5000L))));
+    }
+
+    private static double buyShare(final double buyRatio) {
+        final String[] orders = generate(OrderLoadGenerator.Builder.create().withSymbolCount(10).withBuyRatio(buyRatio).build(), 4000);
+        long buys = 0;
+        for (final String order : orders) {
+            if (order.split("\\|")[1].equals("BUY")) {
+                buys++;
+            }
+        }
+        return (double) buys / orders.length;
+    }
+
+    private static String[] generate(final OrderLoadGenerator load, final int orders) {
+        return new String(load.generate(orders), StandardCharsets.US_ASCII).split("\n");
+    }
+
+    private static String decimal(final long value, final int scale) {
+        final byte[] buffer = new byte[32];
+        return new String(buffer, 0, OrderLoadGenerator.putDecimal(buffer, 0, value, scale), StandardCharsets.US_ASCII);
+    }
+
+    private static String symbol(final int index) {
+        return new String(OrderLoadGenerator.symbolName(index), StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,107 @@
+package simulator.load;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import simulator.ExchangeSimulatorRuntime;
+import simulator.exception.ScenarioError;
+import simulator.input.Order;
+import simulator.output.TradeBatch;
+import simulator.reference.MatchListener;
+import simulator.reference.ReferenceMatchingEngine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Contains tests for writing {@link ScenarioFile}s and playing them into the simulator.
+ */
+public final class ScenarioFileTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public final ExchangeSimulatorRuntime simulatorRuntime = new ExchangeSimulatorRuntime();
+
+    /**
+     * Verifies that a scenario spanning many chunks plays every order, producing the trades the reference engine expects.
+     */
+    @Test
+    public void scenarioPlaysEveryOrder() {
+        final Path path = folder.getRoot().toPath().resolve("orders.scenario");
+        final ReferenceMatchingEngine model = new ReferenceMatchingEngine();
+        final TradeCounter expectedTrades = new TradeCounter();
+        final Random random = new Random(7);
+        try (final ScenarioWriter writer = ScenarioWriter.create(path)) {
+            for (int count = 0; count < 20_000; count++) {
+                final Order order = Order.Builder.create()
+                        .withSymbol(random.nextBoolean() ? "IBM" : "OMC")
+                        .withAction(random.nextBoolean() ? "BUY" : "SELL")
+                        .withPrice(145 + random.nextInt(20) / 100.0)
+                        .withQuantity(1 + random.nextInt(200))
+                        .build();
+                writer.write(order);
+                model.process(order, expectedTrades);
+            }
+            assertThat(writer.getOrderCount(), is(20_000L));
+        }
+
+        final TradeBatch trades = new TradeBatch();
+        final LoadReport report;
+        try (final ScenarioFile scenario = ScenarioFile.open(path)) {
+            assertThat(scenario.getByteCount(), greaterThan(64L * 1024));
+            report = scenario.play(simulatorRuntime.getSimulator(), trades);
+        }
+
+        assertThat(report.getOrderCount(), is(20_000L));
+        assertThat(report.getTradeCount(), is((long) expectedTrades.count));
+        assertThat(trades.size(), is(expectedTrades.count));
+    }
+
+    /**
+     * Verifies that a final order without a line feed is still played.
+     */
+    @Test
+    public void unterminatedLastOrderIsPlayed() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("unterminated.scenario");
+        Files.write(path, (ScenarioFile.HEADER_LINE + "\nIBM|BUY|145.1|10\nIBM|SELL|145.1|10").getBytes(StandardCharsets.US_ASCII));
+
+        try (final ScenarioFile scenario = ScenarioFile.open(path)) {
+            final LoadReport report = scenario.play(simulatorRuntime.getSimulator());
+            assertThat(report.getOrderCount(), is(2L));
+            assertThat(report.getTradeCount(), is(1L));
+        }
+    }
+
+    /**
+     * Verifies that files without the scenario header are rejected.
+     */
+    @Test(expected = ScenarioError.class)
+    public void rejectsFilesWithoutHeader() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("orders.txt");
+        Files.write(path, "IBM|BUY|145.1|10\n".getBytes(StandardCharsets.US_ASCII));
+        ScenarioFile.open(path);
+    }
+
+    private static final class TradeCounter implements MatchListener {
+
+        private int count = 0;
+
+        @Override
+        public void onTrade(final int symbolId, final long priceTicks, final long quantity) {
+            count++;
+        }
+
+        @Override
+        public void onWarning(final String warning) {
+        }
+    }
+}
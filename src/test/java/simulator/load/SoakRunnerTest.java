@@ -0,0 +1,76 @@
+package simulator.load;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import simulator.ExchangeSimulatorRuntime;
+import simulator.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Contains tests for the {@link SoakRunner} and the evaluation of its {@link SoakReport}.
+ */
+public final class SoakRunnerTest {
+
+    private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Rule
+    public final ExchangeSimulatorRuntime simulatorRuntime = new ExchangeSimulatorRuntime();
+
+    /**
+     * Verifies that a short soak at a modest rate reports every interval, probes the output lag and sustains its target rate.
+     */
+    @Test
+    public void soakReportsIntervalsAndOutputLag() {
+        final OrderLoadGenerator load = OrderLoadGenerator.Builder.create().withSymbolCount(10).withTargetRate(2000).withDuration(2500).withParallelism(2).build();
+        final SoakReport report = SoakRunner.Builder.create().withLoad(load).withInterval(500).withDegradationThreshold(1, 2, 0.9).build()
+                .run(simulatorRuntime.getSimulator());
+
+        assertThat(report.toString(), report.getIntervals().size(), greaterThanOrEqualTo(5));
+        assertThat(report.getLoadReport().getOrderCount(), greaterThan(0L));
+        assertThat(report.getOutputLags().getCount(), greaterThan(0L));
+        assertThat(report.isDegraded(), is(false));
+        long orders = 0;
+        for (final SoakInterval interval : report.getIntervals()) {
+            orders += interval.getOrderCount();
+        }
+        assertThat(orders, is(report.getLoadReport().getOrderCount()));
+    }
+
+    /**
+     * Verifies that the sustained throughput is the slowest window after the warm-up, measured against the target rate or else the first window.
+     */
+    @Test
+    public void sustainedThroughputIsSlowestWindow() {
+        final ImmutableList<SoakInterval> intervals = ImmutableList.of(interval(0, 100), interval(1, 1000), interval(2, 1000), interval(3, 900), interval(4, 600),
+                interval(5, 1000));
+
+        final SoakReport unpaced = report(intervals, 0, 0.2);
+        assertThat(unpaced.getBaselineOrdersPerSecond(), is(1000.0));
+        assertThat(unpaced.getSustainedOrdersPerSecond(), is(750.0));
+        assertThat(unpaced.isDegraded(), is(true));
+        assertThat(report(intervals, 0, 0.3).isDegraded(), is(false));
+
+        final SoakReport paced = report(intervals, 800, 0.2);
+        assertThat(paced.getBaselineOrdersPerSecond(), is(800.0));
+        assertThat(paced.isDegraded(), is(false));
+
+        final SoakReport warmupOnly = report(intervals.subList(0, 1), 800, 0.2);
+        assertThat(warmupOnly.isDegraded(), is(false));
+    }
+
+    private static SoakInterval interval(final int index, final long orders) {
+        return new SoakInterval(index * INTERVAL_NANOS, INTERVAL_NANOS, orders, 0, 0, 0);
+    }
+
+    private static SoakReport report(final ImmutableList<SoakInterval> intervals, final long targetRate, final double maximumDegradation) {
+        final LoadReport loadReport = new LoadReport(0, 0, 0, intervals.size() * INTERVAL_NANOS, 0);
+        return new SoakReport(loadReport, intervals, new LatencyHistogram(), ImmutableList.of(), INTERVAL_NANOS, targetRate, 1, 2, maximumDegradation);
+    }
+}
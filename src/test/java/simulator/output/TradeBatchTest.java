@@ -0,0 +1,97 @@
+package simulator.output;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+import simulator.Price;
+import simulator.SymbolDictionary;
+import simulator.matcher.TradeMatcher;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Contains tests for the columnar {@link TradeBatch}.
+ */
+public final class TradeBatchTest {
+
+    /**
+     * Verifies that trades spanning many chunks and symbols are held in columns and read back unchanged.
+     */
+    @Test
+    public void columnsHoldTradesAcrossChunks() {
+        final TradeBatch batch = new TradeBatch(2);
+        for (int trade = 0; trade < 10_000; trade++) {
+            batch.onTrade(SymbolDictionary.getDefault().intern("S" + trade % 500), trade, 2, trade);
+        }
+
+        assertThat(batch.size(), is(10_000));
+        for (int trade = 0; trade < 10_000; trade++) {
+            assertThat(batch.isExact(trade), is(true));
+            assertThat(batch.getSymbol(trade), is("S" + trade % 500));
+            assertThat(batch.getPriceTicks(trade), is((long) trade));
+            assertThat(batch.getQuantity(trade), is((long) trade));
+        }
+    }
+
+    /**
+     * Verifies that prices written with any number of trailing zeros land on the same tick.
+     */
+    @Test
+    public void trailingZerosLandOnSameTick() {
+        final TradeBatch batch = new TradeBatch(4);
+        final int symbolId = SymbolDictionary.getDefault().intern("IBM");
+        batch.onTrade(symbolId, 1451, 1, 1);
+        batch.onTrade(symbolId, 14510000, 5, 1);
+        batch.onTrade(symbolId, 145, -1, 1);
+
+        assertThat(batch.getPriceTicks(0), is(1_451_000L));
+        assertThat(batch.getPriceTicks(1), is(1_451_000L));
+        assertThat(batch.getPriceTicks(2), is(14_500_000L));
+        assertThat(batch.getTrade(1).getPrice(), is(Price.valueOf(145.1)));
+    }
+
+    /**
+     * Verifies that the List view reproduces trades exactly, including prices finer than a tick and trades with missing fields.
+     */
+    @Test
+    public void listViewReproducesTrades() {
+        SymbolDictionary.getDefault().intern("IBM");
+        final List<Trade> trades = Lists.newArrayList(new Trade("IBM", Price.valueOf(145.09), 50L), new Trade("IBM", Price.valueOf(10.0000000001), 25L),
+                new Trade("MSFT", null, null), new Trade("AAPL", Price.valueOf(1e30), 1L));
+        final TradeBatch batch = TradeBatch.copyOf(trades, 4);
+
+        assertThat(batch.isExact(0), is(true));
+        assertThat(batch.isExact(1), is(false));
+        assertThat(batch.isExact(2), is(false));
+        assertThat(batch.isExact(3), is(false));
+        assertThat(batch.getSymbolId(1), is(-1));
+        final List<Trade> view = batch.asList();
+        assertThat(view.size(), is(trades.size()));
+        for (int index = 0; index < trades.size(); index++) {
+            assertThat(view.get(index).getSymbol(), is(trades.get(index).getSymbol()));
+            assertThat(view.get(index).getPrice(), is(trades.get(index).getPrice()));
+            assertThat(view.get(index).getQuantity(), is(trades.get(index).getQuantity()));
+        }
+    }
+
+    /**
+     * Verifies that a trade of a symbol which has not been interned, e.g. of a malformed line of output, leaves the dictionary as it is and is kept as a
+     * {@link Trade}, which still matches its expectation.
+     */
+    @Test
+    public void uninternedSymbolsKeptAsTrades() {
+        final int dictionarySize = SymbolDictionary.getDefault().size();
+        final Trade trade = new Trade("UNINTERNED", Price.valueOf(145.1), 10L);
+
+        assertThat(trade.getSymbolId(), is(SymbolDictionary.NO_SYMBOL));
+        assertThat(SymbolDictionary.getDefault().size(), is(dictionarySize));
+        final TradeBatch batch = TradeBatch.copyOf(Lists.newArrayList(trade), 2);
+        assertThat(batch.isExact(0), is(false));
+        assertThat(batch.getSymbol(0), is("UNINTERNED"));
+        assertThat(trade, new TradeMatcher("UNINTERNED", 145.1, 10));
+        assertThat(trade, not(new TradeMatcher("IBM", 145.1, 10)));
+    }
+}
@@ -0,0 +1,73 @@
+package simulator.output;
+
+import org.junit.Test;
+import simulator.SymbolDictionary;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Contains tests for the {@link TradeParser} reading the simulator's stdout.
+ */
+public final class TradeParserTest {
+
+    private final TradeParser parser = new TradeParser();
+
+    /**
+     * Verifies that a trade within a larger buffer is handed to the sink as primitives, with the price as written.
+     */
+    @Test
+    public void parsesTradeIntoSink() {
+        final byte[] buffer = "xxIBM|10.0000000010|25\nyy".getBytes(StandardCharsets.US_ASCII);
+        final StringBuilder parsed = new StringBuilder();
+
+        assertThat(parser.parse(buffer, 2, 20, (symbolId, priceTicks, priceScale, quantity) -> parsed.append(SymbolDictionary.getDefault().getSymbol(symbolId))
+                .append(',').append(priceTicks).append(',').append(priceScale).append(',').append(quantity)), is(true));
+        assertThat(parsed.toString(), is("IBM,100000000010,10,25"));
+    }
+
+    /**
+     * Verifies that parsed prices are the exact decimals written (to 18 significant digits) and quantities equal those of Long parsing, including notations
+     * outside of the plain decimal fast path.
+     */
+    @Test
+    public void parsedValuesMatchStringParsing() {
+        final SplittableRandom random = new SplittableRandom(11);
+        for (int count = 0; count < 100_000; count++) {
+            final String price = random.nextInt(1, Integer.MAX_VALUE) / Math.pow(10, random.nextInt(0, 12)) + "";
+            assertParsesLike("ABC|" + price + '|' + random.nextLong(1, Long.MAX_VALUE));
+        }
+        assertParsesLike("ABC|100|1");
+        assertParsesLike("ABC|-2.5|-3");
+        assertParsesLike("ABC|.5|1");
+        assertParsesLike("ABC|1.5E-7|1");
+        assertParsesLike("ABC|123456789012345678901234567890.25|9223372036854775807");
+        assertParsesLike("ABC|0.1000000000000000000000001|+4");
+    }
+
+    /**
+     * Verifies that lines which are not exactly {@code symbol|price|quantity} with numeric fields are rejected.
+     */
+    @Test
+    public void rejectsMalformedLines() {
+        for (final String line : new String[]{"", "ABC", "ABC|10", "ABC|10|", "ABC||5", "ABC|10|5|extra", "ABC|ten|5", "ABC|10|5.5", "ABC|10|-"}) {
+            final byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+            assertThat(line, parser.toTrade(bytes, 0, bytes.length), is(nullValue()));
+        }
+    }
+
+    private void assertParsesLike(final String line) {
+        final String[] fields = line.split("\\|");
+        final byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+        final Trade trade = parser.toTrade(bytes, 0, bytes.length);
+        assertThat(line, trade.getSymbol(), is(fields[0]));
+        assertThat(line, trade.getPrice().toBigDecimal().compareTo(new BigDecimal(fields[1]).round(new MathContext(18))), is(0));
+        assertThat(line, trade.getQuantity(), is(Long.valueOf(fields[2])));
+    }
+}
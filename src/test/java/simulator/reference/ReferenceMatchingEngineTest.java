@@ -0,0 +1,86 @@
+package simulator.reference;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import simulator.Price;
+import simulator.SimulationResults;
+import simulator.matcher.TradeMatcher;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static simulator.TestFixtures.order;
+
+/**
+ * Contains tests for the matching rules of the {@link ReferenceMatchingEngine}.
+ */
+public final class ReferenceMatchingEngineTest {
+
+    private final ReferenceMatchingEngine engine = new ReferenceMatchingEngine();
+
+    /**
+     * Verifies that a BUY crossing a resting SELL trades at the resting price, and only for the resting quantity.
+     */
+    @Test
+    public void buyTradesAtRestingSellPrice() {
+        final SimulationResults results = engine.processOrders(ImmutableList.of(order("IBM", "SELL", 145.09, 50), order("IBM", "BUY", 145.1, 200)));
+        assertThat(results.getTrades(), contains(new TradeMatcher("IBM", 145.09, 50)));
+    }
+
+    /**
+     * Verifies that resting orders on different symbols never trade with each other.
+     */
+    @Test
+    public void symbolsDoNotCross() {
+        final SimulationResults results = engine.processOrders(ImmutableList.of(order("IBM", "SELL", 145.1, 25), order("OMC", "BUY", 145.1, 25)));
+        assertThat(results.getTrades(), empty());
+    }
+
+    /**
+     * Verifies that a SELL sweeping multiple resting BUYs trades the best price first and the oldest order first within a price.
+     */
+    @Test
+    public void priceTimePriority() {
+        engine.processOrders(ImmutableList.of(order("IBM", "BUY", 145.08, 200), order("IBM", "BUY", 145.1, 100), order("IBM", "BUY", 145.1, 200)));
+        final SimulationResults results = engine.processOrders(ImmutableList.of(order("IBM", "SELL", 145.05, 450)));
+        assertThat(results.getTrades(), contains(
+                new TradeMatcher("IBM", 145.1, 100),
+                new TradeMatcher("IBM", 145.1, 200),
+                new TradeMatcher("IBM", 145.08, 150)));
+    }
+
+    /**
+     * Verifies that an unrecognized action produces a warning without affecting the book, while an invalid price aborts the simulation.
+     */
+    @Test
+    public void invalidOrders() {
+        final SimulationResults warned = engine.processOrders(ImmutableList.of(order("IBM", "EAT", 145.09, 100)));
+        assertThat(warned.getWarnings(), contains("invalid side: EAT"));
+        assertThat(warned.isProcessAborted(), is(false));
+
+        final SimulationResults aborted = engine.processOrders(ImmutableList.of(order("IBM", "SELL", 0.0, 100), order("IBM", "BUY", 145.09, 100)));
+        assertThat(aborted.getTrades(), empty());
+        assertThat(aborted.isProcessAborted(), is(true));
+    }
+
+    /**
+     * Verifies that depth snapshots aggregate the resting orders per price, best first and up to the requested depth, and that diffs report the changed levels.
+     */
+    @Test
+    public void bookDepthAggregatesLevels() {
+        engine.processOrders(ImmutableList.of(order("IBM", "BUY", 145.08, 200), order("IBM", "BUY", 145.1, 100), order("IBM", "BUY", 145.1, 200),
+                order("IBM", "BUY", 145.05, 10), order("IBM", "SELL", 145.2, 30)));
+        final BookDepth before = engine.getDepth("IBM", 2);
+        assertThat(before.getBids(), contains(BookDepth.Level.of(Price.valueOf(145.1), 300, 2), BookDepth.Level.of(Price.valueOf(145.08), 200, 1)));
+        assertThat(before.getAsks(), contains(BookDepth.Level.of(Price.valueOf(145.2), 30, 1)));
+
+        engine.processOrders(ImmutableList.of(order("IBM", "SELL", 145.1, 150), order("IBM", "BUY", 145.3, 40)));
+        final BookDepth after = engine.getDepth("IBM", 2);
+        // The remaining BUY rests at the best bid, pushing 145.08 beyond the depth taken.
+        assertThat(after.diff(before), contains("BUY 145.3: 0 -> 10 (1)", "BUY 145.1: 300 (2) -> 150 (1)", "BUY 145.08: 200 (1) -> 0", "SELL 145.2: 30 (1) -> 0"));
+        assertThat(after.diff(after), empty());
+        assertThat(engine.getDepth("OMC", 5).getBids(), empty());
+        assertThat(engine.getDepths(1).size(), is(1));
+    }
+}